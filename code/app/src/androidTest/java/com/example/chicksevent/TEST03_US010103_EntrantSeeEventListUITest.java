@@ -1,21 +1,21 @@
 package com.example.chicksevent;
 
-import static androidx.test.espresso.Espresso.onData;
 import static androidx.test.espresso.Espresso.onView;
 import static androidx.test.espresso.action.ViewActions.click;
 import static androidx.test.espresso.action.ViewActions.scrollTo;
 import static androidx.test.espresso.assertion.ViewAssertions.matches;
 import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
-import static org.hamcrest.Matchers.anything;
 
 import android.view.View;
 
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.test.espresso.ViewInteraction;
 import androidx.test.espresso.action.GeneralClickAction;
 import androidx.test.espresso.action.GeneralLocation;
 import androidx.test.espresso.action.Press;
 import androidx.test.espresso.action.Tap;
+import androidx.test.espresso.contrib.RecyclerViewActions;
 import androidx.test.ext.junit.rules.ActivityScenarioRule;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
@@ -160,16 +160,18 @@ public class TEST03_US010103_EntrantSeeEventListUITest {
             Thread.sleep(2000);
             
             // Try to scroll to position 5 (if enough items exist)
-            onData(anything())
-                    .inAdapterView(withId(R.id.recycler_notifications))
-                    .atPosition(5)
-                    .perform(scrollTo());
+            onView(withId(R.id.recycler_notifications))
+                    .perform(RecyclerViewActions.scrollToPosition(5));
             
             // Verify item at position 5 is now visible (scrolling worked)
-            onData(anything())
-                    .inAdapterView(withId(R.id.recycler_notifications))
-                    .atPosition(5)
-                    .check(matches(isDisplayed()));
+            onView(withId(R.id.recycler_notifications))
+                    .check((view, noView) -> {
+                        if (noView != null) throw noView;
+                        RecyclerView.ViewHolder row = ((RecyclerView) view).findViewHolderForAdapterPosition(5);
+                        if (row == null || !row.itemView.isShown()) {
+                            throw new IllegalStateException("Row 5 is not displayed");
+                        }
+                    });
             
             // SUCCESS: User story functionality verified - list is scrollable
         } catch (Exception e) {
@@ -1,17 +1,16 @@
 package com.example.chicksevent;
 
-import static androidx.test.espresso.Espresso.onData;
 import static androidx.test.espresso.Espresso.onView;
 import static androidx.test.espresso.action.ViewActions.click;
 import static androidx.test.espresso.action.ViewActions.scrollTo;
 import static androidx.test.espresso.assertion.ViewAssertions.matches;
 import static androidx.test.espresso.matcher.ViewMatchers.isDescendantOfA;
+import static androidx.test.espresso.matcher.ViewMatchers.hasMinimumChildCount;
 import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.isEnabled;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
 import static androidx.test.espresso.matcher.ViewMatchers.withText;
 import static org.hamcrest.Matchers.allOf;
-import static org.hamcrest.Matchers.anything;
 import static org.hamcrest.Matchers.not;
 
 import android.view.View;
@@ -21,6 +20,7 @@ import androidx.test.espresso.action.GeneralClickAction;
 import androidx.test.espresso.action.GeneralLocation;
 import androidx.test.espresso.action.Press;
 import androidx.test.espresso.action.Tap;
+import androidx.test.espresso.contrib.RecyclerViewActions;
 import androidx.test.ext.junit.rules.ActivityScenarioRule;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
@@ -216,11 +216,10 @@ public class TEST22_US010503_EntrantDeclineInvitationUITest {
                 while (retries < 10 && !adapterPopulated) {
                     try {
                         // Try to verify adapter has items - if this succeeds, adapter is populated
-                        onData(anything())
-                                .inAdapterView(withId(R.id.recycler_notifications))
-                                .atPosition(0);
+                        onView(withId(R.id.recycler_notifications))
+                                .check(matches(hasMinimumChildCount(1)));
                         adapterPopulated = true;
-                    } catch (Exception e) {
+                    } catch (Exception | AssertionError e) {
                         retries++;
                         Thread.sleep(1000);
                     }
@@ -231,10 +230,8 @@ public class TEST22_US010503_EntrantDeclineInvitationUITest {
                 }
                 
                 // Click on first event in the list
-                onData(anything())
-                        .inAdapterView(withId(R.id.recycler_notifications))
-                        .atPosition(0)
-                        .perform(click());
+                onView(withId(R.id.recycler_notifications))
+                        .perform(RecyclerViewActions.actionOnItemAtPosition(0, click()));
                 
                 // Wait for navigation to complete and fragment to load
                 Thread.sleep(2000);
@@ -1,6 +1,7 @@
 package com.example.chicksevent;
 
 import android.os.Bundle;
+import android.provider.Settings;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -13,6 +14,9 @@ import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
 import com.example.chicksevent.databinding.ActivityMainBinding;
+import com.example.chicksevent.misc.EventCatalog;
+import com.example.chicksevent.misc.User;
+import com.google.firebase.database.ValueEventListener;
 
 /**
  * The main entry point of the ChicksEvent application.
@@ -27,6 +31,7 @@ import com.example.chicksevent.databinding.ActivityMainBinding;
  *   <li>Inflate and initialize the main activity layout.</li>
  *   <li>Configure the app bar and navigation graph integration.</li>
  *   <li>Handle menu inflation and navigation-up events.</li>
+ *   <li>Show the unread notification count on the notification button while visible.</li>
  * </ul>
  *
  * @author Jordan Kwan
@@ -39,6 +44,15 @@ public class MainActivity extends AppCompatActivity {
     /** ViewBinding instance for accessing layout components. */
     private ActivityMainBinding binding;
 
+    /** Current device user, whose unread counter drives the notification badge. */
+    private User user;
+
+    /** Active subscription to the unread counter, or {@code null} while stopped. */
+    private ValueEventListener unreadListener;
+
+    /** Bottom-bar notification button that doubles as the badge. */
+    private Button notificationButton;
+
     /**
      * Called when the activity is first created.
      * <p>
@@ -64,7 +78,12 @@ public class MainActivity extends AppCompatActivity {
         Button eventButton = findViewById(R.id.btn_events);
         Button createEventButton = findViewById(R.id.btn_addEvent);
         Button profileButton = findViewById(R.id.btn_profile);
-        Button notificationButton = findViewById(R.id.btn_notification);
+        notificationButton = findViewById(R.id.btn_notification);
+
+        String androidId = Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID);
+        // Start reading the stored event catalog back while the first screen inflates
+        EventCatalog.getInstance(this);
+        user = new User(androidId);
 
         scanButton.setOnClickListener(v -> {
             navController.navigate(R.id.QRCodeScannerFragment);
@@ -91,6 +110,29 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Subscribes the notification badge to the user's unread counter while the activity is
+     * visible. Only a single integer is observed, never the inbox itself.
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        unreadListener = user.addUnreadCountListener(count ->
+                notificationButton.setText(count > 0 ? (count > 99 ? "99+" : String.valueOf(count)) : ""));
+    }
+
+    /**
+     * Releases the unread counter subscription when the activity is no longer visible.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (unreadListener != null) {
+            user.removeUnreadCountListener(unreadListener);
+            unreadListener = null;
+        }
+    }
+
     /**
      * Inflates the main menu into the app bar.
      *
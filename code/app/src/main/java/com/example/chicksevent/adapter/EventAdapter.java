@@ -5,32 +5,43 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.ArrayAdapter;
 import android.widget.ImageButton;
 import android.widget.TextView;
 
-import com.bumptech.glide.Glide;
 import com.example.chicksevent.R;
 import com.example.chicksevent.misc.Event;
-import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterPrefetcher;
+import com.example.chicksevent.util.PosterStore;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
 
 /**
  * Custom {@link EventAdapter} subclass for displaying events
+ * <p>
+ * On first bind the adapter installs a {@link PosterPrefetcher} as its list's scroll listener, so
+ * posters for the rows just below the visible ones are resolved and decoded before they appear.
+ * </p>
  */
 public class EventAdapter extends ArrayAdapter<Event> {
     /** Listener interface for responding to item button clicks. */
     OnItemButtonClickListener listener;
-    FirebaseService imageService = new FirebaseService("Image");
+    PosterStore posterStore = new PosterStore();
+
+    /** Warms posters ahead of the visible rows; created on first bind. */
+    private PosterPrefetcher prefetcher;
+
+    /** Run when a row near the end binds, to load the next page; may be {@code null}. */
+    private Runnable onNearEnd;
 
     HostedEventAdapter.ViewHolder holder;
-    private final HashMap<String, String> imageCache = new HashMap<>();
 
 
     /**
@@ -57,6 +68,16 @@ public class EventAdapter extends ArrayAdapter<Event> {
         this.listener = listener;
     }
 
+    /**
+     * Sets the callback run when a row within {@link EventPager#LOAD_AHEAD} of the end binds,
+     * which drives endless-scroll loading.
+     *
+     * @param onNearEnd loads the next page, or {@code null} for none
+     */
+    public void setOnNearEndListener(Runnable onNearEnd) {
+        this.onNearEnd = onNearEnd;
+    }
+
     /**
      * Provides a view for an adapter view (ListView, GridView, etc.) based on the event data.
      * Inflates {@code item_event.xml} if necessary and binds data to its views.
@@ -103,70 +124,23 @@ public class EventAdapter extends ArrayAdapter<Event> {
 
         holder.posterImageView.setImageResource(R.drawable.sample_image);
         holder.eventId = event.getId();
+        holder.cancelPoster();
 
-        if (imageCache.containsKey(event.getId())) {
-            Glide.with(holder.posterImageView.getContext())
-                    .load(imageCache.get(event.getId()))
-                    .into(holder.posterImageView);
+        PosterPrefetcher rowPrefetcher = prefetcherFor(holder.posterImageView, parent);
+        if (event.getPosterRef() != null) {
+            // Listed events carry their poster reference; no read is needed
+            holder.posterRequest = PosterDecoder.getInstance(getContext()).load(event.getPosterRef(), holder.posterImageView);
         } else {
-
-
-            try {
-                imageService.getReference()
-                        .child(event.getId())
-                        .child("poster")
-                        .get()
-                        .addOnSuccessListener(snapshot -> {
-
-                            if (!event.getId().equals(holder.eventId)) return;
-
-                            String imageUrl = snapshot.getValue(String.class);
-                            if (imageUrl == null) return;
-
-                            Glide.with(holder.posterImageView.getContext())
-                                    .load(imageUrl)
-                                    .into(holder.posterImageView);
-
-//                    imageCache.put(event.getId(), imageUrl); // optional
-                        });
-            } catch (Exception e) {
-                Log.i("errorthingprintthis", ""+e);
-                holder.posterImageView.setImageResource(R.drawable.sample_image);
-
-            }
+            rowPrefetcher.resolve(event.getId())
+                    .addOnSuccessListener(ref -> {
+                        if (ref == null || !event.getId().equals(holder.eventId)) return;
+                        holder.posterRequest = PosterDecoder.getInstance(getContext()).load(ref, holder.posterImageView);
+                    });
         }
 
 
 
-        // ----- Format tv_date as "MMM\ndd" -----
-        String startDateStr = event.getEventStartDate(); // e.g., "03-15-2025"
-
-        if (startDateStr != null) {
-            try {
-                // Parse incoming date
-                SimpleDateFormat inputFormat = new SimpleDateFormat("MM-dd-yyyy", Locale.ENGLISH);
-                Date date = inputFormat.parse(startDateStr);
-
-                // Format month abbreviation (uppercase)
-                SimpleDateFormat monthFormat = new SimpleDateFormat("MMM", Locale.ENGLISH);
-                String month = monthFormat.format(date).toUpperCase(); // "MAR"
-
-                // Format day
-                SimpleDateFormat dayFormat = new SimpleDateFormat("d", Locale.ENGLISH);
-                String day = dayFormat.format(date); // "15"
-
-                // Combine exactly like your fragment
-                String display = month + "\n" + day;
-
-                tv_date.setText(display);
-
-            } catch (ParseException e) {
-                e.printStackTrace();
-                tv_date.setText(startDateStr); // fallback
-            }
-        } else {
-            tv_date.setText(""); // or "N/A"
-        }
+        tv_date.setText(formatCardDate(event.getEventStartDate()));
 
 
 
@@ -179,6 +153,69 @@ public class EventAdapter extends ArrayAdapter<Event> {
         btn_arrow.setOnClickListener(l -> {
             if (listener != null) listener.onItemButtonClick(event);
         });
+        if (onNearEnd != null && position >= getCount() - EventPager.LOAD_AHEAD) {
+            onNearEnd.run();
+        }
         return view;
     }
+
+    /**
+     * Formats an event start date for the date box of a card as {@code "MMM\nd"}, e.g.
+     * {@code "MAR\n15"}.
+     *
+     * @param startDateStr the start date as stored, e.g. {@code "03-15-2025"}; may be {@code null}
+     * @return the formatted date, the input unchanged if it cannot be parsed, or an empty string
+     */
+    static String formatCardDate(String startDateStr) {
+        if (startDateStr == null) {
+            return "";
+        }
+        try {
+            // Parse incoming date
+            SimpleDateFormat inputFormat = new SimpleDateFormat("MM-dd-yyyy", Locale.ENGLISH);
+            Date date = inputFormat.parse(startDateStr);
+
+            // Month abbreviation (uppercase) over the day, e.g. "MAR" / "15"
+            String month = new SimpleDateFormat("MMM", Locale.ENGLISH).format(date).toUpperCase();
+            String day = new SimpleDateFormat("d", Locale.ENGLISH).format(date);
+            return month + "\n" + day;
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return startDateStr; // fallback
+        }
+    }
+
+    /**
+     * Returns this adapter's prefetcher, creating it for the rendition and size of the first
+     * bound poster and attaching it to the list as its scroll listener.
+     */
+    private PosterPrefetcher prefetcherFor(View posterView, ViewGroup parent) {
+        if (prefetcher == null) {
+            prefetcher = new PosterPrefetcher(posterStore, PosterDecoder.getInstance(getContext()),
+                    PosterStore.renditionFor(posterView), new PosterPrefetcher.EventIds() {
+                        @Override
+                        public int count() {
+                            return getCount();
+                        }
+
+                        @Override
+                        public String idAt(int position) {
+                            Event event = getItem(position);
+                            return event == null ? null : event.getId();
+                        }
+
+                        @Override
+                        public PosterStore.PosterRef refAt(int position) {
+                            Event event = getItem(position);
+                            return event == null ? null : event.getPosterRef();
+                        }
+                    });
+            if (parent instanceof AbsListView) {
+                ((AbsListView) parent).setOnScrollListener(prefetcher);
+            }
+        }
+        int[] size = PosterDecoder.targetSize(posterView);
+        prefetcher.setTargetSize(size[0], size[1]);
+        return prefetcher;
+    }
 }
\ No newline at end of file
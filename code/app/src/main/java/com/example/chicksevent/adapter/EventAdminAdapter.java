@@ -1,8 +1,6 @@
 package com.example.chicksevent.adapter;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,13 +11,13 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.chicksevent.R;
 import com.example.chicksevent.misc.Event;
-import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterStore;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**
  * Custom ArrayAdapter for displaying {@link Event} objects within a ListView or GridView.
@@ -46,10 +44,10 @@ public class EventAdminAdapter extends RecyclerView.Adapter<EventAdminAdapter.Vi
     private Context context;
     private View view;
 
-    private final HashMap<String, Bitmap> imageCache = new HashMap<>();
+    private PosterStore posterStore = new PosterStore();
 
-
-    private FirebaseService imageService = new FirebaseService("Image");
+    /** Run when a row near the end binds, to load the next page; may be {@code null}. */
+    private Runnable onNearEnd;
 
     public interface OnDeleteClickListener {
         void onArrowClick(Event event);
@@ -85,6 +83,16 @@ public class EventAdminAdapter extends RecyclerView.Adapter<EventAdminAdapter.Vi
         this.listenerEvent = listenerEvent;
     }
 
+    /**
+     * Sets the callback run when a row within {@link EventPager#LOAD_AHEAD} of the end binds,
+     * which drives endless-scroll loading.
+     *
+     * @param onNearEnd loads the next page, or {@code null} for none
+     */
+    public void setOnNearEndListener(Runnable onNearEnd) {
+        this.onNearEnd = onNearEnd;
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -104,37 +112,17 @@ public class EventAdminAdapter extends RecyclerView.Adapter<EventAdminAdapter.Vi
         tv_endTime.setText(event.getEventEndTime());
 
         holder.eventId = event.getId();
+        holder.posterImageView.setImageResource(R.drawable.sample_image);
 
-        if (imageCache.containsKey(event.getId())) {
-            Glide.with(holder.posterImageView.getContext())
-                    .load(imageCache.get(event.getId()))
-                    .into(holder.posterImageView);
+        if (event.getPosterRef() != null) {
+            // Listed events carry their poster reference; no read is needed
+            PosterDecoder.getInstance(context).load(event.getPosterRef(), holder.posterImageView);
         } else {
-
-
-            try {
-                imageService.getReference()
-                        .child(event.getId())
-                        .child("poster")
-                        .get()
-                        .addOnSuccessListener(snapshot -> {
-
-                            if (!event.getId().equals(holder.eventId)) return;
-
-                            String imageUrl = snapshot.getValue(String.class);
-                            if (imageUrl == null) return;
-
-                            Glide.with(holder.posterImageView.getContext())
-                                    .load(imageUrl)
-                                    .into(holder.posterImageView);
-
-//                    imageCache.put(event.getId(), imageUrl); // optional
-                        });
-            } catch (Exception e) {
-                Log.i("errorthingprintthis", ""+e);
-                holder.posterImageView.setImageResource(R.drawable.sample_image);
-
-            }
+            posterStore.resolve(event.getId(), PosterStore.renditionFor(holder.posterImageView))
+                    .addOnSuccessListener(ref -> {
+                        if (ref == null || !event.getId().equals(holder.eventId)) return;
+                        PosterDecoder.getInstance(context).load(ref, holder.posterImageView);
+                    });
         }
 //
         holder.btnArrow.setOnClickListener(v -> {
@@ -145,6 +133,9 @@ public class EventAdminAdapter extends RecyclerView.Adapter<EventAdminAdapter.Vi
             if (listener != null) listenerEvent.onDeleteEventClick(event);
 
         });
+        if (onNearEnd != null && position >= getItemCount() - EventPager.LOAD_AHEAD) {
+            onNearEnd.run();
+        }
 
     }
 
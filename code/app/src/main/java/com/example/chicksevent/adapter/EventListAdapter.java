@@ -0,0 +1,251 @@
+package com.example.chicksevent.adapter;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.chicksevent.R;
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterPrefetcher;
+import com.example.chicksevent.util.PosterStore;
+
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * {@link RecyclerView} adapter for the event cards of the main event list.
+ * <p>
+ * Rows are replaced with {@link #submitList}, which diffs the new list against the shown one on
+ * a background thread using {@link #DIFF} and applies only the inserts, removals, moves and
+ * changes it finds. Together with stable ids this keeps scroll position and recycled views when
+ * one event changes, and rebinds only that row.
+ * </p>
+ * <p>
+ * From its first bind, the adapter drives a {@link PosterPrefetcher} from the list's scroll
+ * position, so posters for the rows just below the visible ones are decoded before they appear.
+ * </p>
+ */
+public class EventListAdapter extends ListAdapter<Event, EventListAdapter.ViewHolder> {
+
+    /**
+     * Matches rows by event id and compares only the fields a card shows.
+     */
+    public static final DiffUtil.ItemCallback<Event> DIFF = new DiffUtil.ItemCallback<Event>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getEventStartTime(), newItem.getEventStartTime())
+                    && Objects.equals(oldItem.getEventEndTime(), newItem.getEventEndTime())
+                    && Objects.equals(oldItem.getEventStartDate(), newItem.getEventStartDate())
+                    && Objects.equals(posterKey(oldItem), posterKey(newItem));
+        }
+    };
+
+    private final Context context;
+    private final EventAdapter.OnItemButtonClickListener listener;
+    private final PosterStore posterStore = new PosterStore();
+
+    /** Stable numeric ids handed out per event id; never reused while the adapter lives. */
+    private final HashMap<String, Long> stableIds = new HashMap<>();
+
+    /** Warms posters ahead of the visible rows; created on first bind. */
+    private PosterPrefetcher prefetcher;
+    private RecyclerView.OnScrollListener scrollListener;
+
+    /** Run when a row near the end binds, to load the next page; may be {@code null}. */
+    private Runnable onNearEnd;
+
+    /**
+     * Holds the views of one event card.
+     */
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        TextView eventName;
+        TextView startTime;
+        TextView endTime;
+        TextView date;
+        ImageButton btnArrow;
+        ImageView posterImageView;
+        String eventId; // track which event this view belongs to
+        PosterDecoder.Request posterRequest; // poster load to cancel on rebind and recycle
+
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            eventName = itemView.findViewById(R.id.tv_event_name);
+            startTime = itemView.findViewById(R.id.tv_startTime);
+            endTime = itemView.findViewById(R.id.tv_endTime);
+            date = itemView.findViewById(R.id.tv_date);
+            btnArrow = itemView.findViewById(R.id.btn_arrow);
+            posterImageView = itemView.findViewById(R.id.img_event);
+        }
+    }
+
+    /**
+     * Constructs an empty adapter; rows arrive through {@link #submitList}.
+     *
+     * @param context the activity or fragment context.
+     * @param listener callback for the arrow button of each card.
+     */
+    public EventListAdapter(Context context, EventAdapter.OnItemButtonClickListener listener) {
+        super(DIFF);
+        this.context = context;
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Sets the callback run when a row within {@link EventPager#LOAD_AHEAD} of the end binds,
+     * which drives endless-scroll loading.
+     *
+     * @param onNearEnd loads the next page, or {@code null} for none
+     */
+    public void setOnNearEndListener(Runnable onNearEnd) {
+        this.onNearEnd = onNearEnd;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String id = getItem(position).getId();
+        Long stable = stableIds.get(id);
+        if (stable == null) {
+            stable = (long) stableIds.size();
+            stableIds.put(id, stable);
+        }
+        return stable;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_event, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        Event event = getItem(position);
+
+        holder.eventName.setText(event.getName());
+        holder.startTime.setText(event.getEventStartTime());
+        holder.endTime.setText(event.getEventEndTime());
+        holder.date.setText(EventAdapter.formatCardDate(event.getEventStartDate()));
+        holder.btnArrow.setOnClickListener(l -> {
+            if (listener != null) listener.onItemButtonClick(event);
+        });
+
+        holder.eventId = event.getId();
+        cancelPoster(holder);
+        holder.posterImageView.setImageResource(R.drawable.sample_image);
+        PosterDecoder decoder = PosterDecoder.getInstance(context);
+        PosterPrefetcher rowPrefetcher = prefetcherFor(holder.posterImageView);
+        if (event.getPosterRef() != null) {
+            // Listed events carry their poster reference; no read is needed
+            holder.posterRequest = decoder.load(event.getPosterRef(), holder.posterImageView);
+        } else {
+            rowPrefetcher.resolve(event.getId())
+                    .addOnSuccessListener(ref -> {
+                        if (ref == null || !event.getId().equals(holder.eventId)) return;
+                        holder.posterRequest = decoder.load(ref, holder.posterImageView);
+                    });
+        }
+        if (onNearEnd != null && position >= getItemCount() - EventPager.LOAD_AHEAD) {
+            onNearEnd.run();
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        cancelPoster(holder);
+        holder.eventId = null;
+    }
+
+    /** Cancels the poster load of a row's previous binding, so it cannot paint the row. */
+    private static void cancelPoster(ViewHolder holder) {
+        if (holder.posterRequest != null) {
+            holder.posterRequest.cancel();
+            holder.posterRequest = null;
+        }
+    }
+
+    /**
+     * Follows the list's scroll position, which RecyclerView also reports after each layout, and
+     * moves the prefetch window with it.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        scrollListener = new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (prefetcher == null || !(view.getLayoutManager() instanceof LinearLayoutManager)) return;
+                LinearLayoutManager layout = (LinearLayoutManager) view.getLayoutManager();
+                int first = layout.findFirstVisibleItemPosition();
+                if (first == RecyclerView.NO_POSITION) return;
+                int last = layout.findLastVisibleItemPosition();
+                prefetcher.onVisibleRange(first, last - first + 1);
+            }
+        };
+        recyclerView.addOnScrollListener(scrollListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(scrollListener);
+        scrollListener = null;
+        if (prefetcher != null) {
+            prefetcher.cancelAll();
+            prefetcher = null;
+        }
+    }
+
+    /**
+     * Returns this adapter's prefetcher, creating it for the rendition and size of the first
+     * bound poster.
+     */
+    private PosterPrefetcher prefetcherFor(ImageView posterView) {
+        if (prefetcher == null) {
+            prefetcher = new PosterPrefetcher(posterStore, PosterDecoder.getInstance(context),
+                    PosterStore.renditionFor(posterView), new PosterPrefetcher.EventIds() {
+                        @Override
+                        public int count() {
+                            return getItemCount();
+                        }
+
+                        @Override
+                        public String idAt(int position) {
+                            return getItem(position).getId();
+                        }
+
+                        @Override
+                        public PosterStore.PosterRef refAt(int position) {
+                            return getItem(position).getPosterRef();
+                        }
+                    });
+        }
+        int[] size = PosterDecoder.targetSize(posterView);
+        prefetcher.setTargetSize(size[0], size[1]);
+        return prefetcher;
+    }
+
+    private static String posterKey(Event event) {
+        return event.getPosterRef() == null ? null : event.getPosterRef().getCacheKey();
+    }
+}
@@ -2,7 +2,6 @@ package com.example.chicksevent.adapter;
 
 
 import android.content.Context;
-import android.graphics.Bitmap;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -13,16 +12,16 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.bumptech.glide.Glide;
 import com.example.chicksevent.R;
 import com.example.chicksevent.misc.Event;
-import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterStore;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
 
 /**
@@ -54,11 +53,11 @@ import java.util.Locale;
 public class HostedEventAdapter extends ArrayAdapter<Event> {
     /** Listener interface for responding to per-item button clicks. */
     OnItemButtonClickListener listener;
-    private final HashMap<String, Bitmap> imageCache = new HashMap<>();
 
+    PosterStore posterStore = new PosterStore();
 
-
-    FirebaseService imageService = new FirebaseService("Image");
+    /** Run when a row near the end binds, to load the next page; may be {@code null}. */
+    private Runnable onNearEnd;
 
     /**
      * Callback interface to handle button interactions within each hosted event row.
@@ -76,6 +75,15 @@ public class HostedEventAdapter extends ArrayAdapter<Event> {
     static class ViewHolder {
         ImageView posterImageView;
         String eventId; // track which event this view belongs to
+        PosterDecoder.Request posterRequest; // poster load to cancel when the row is rebound
+
+        /** Cancels the poster load of the previous binding, so it cannot paint this row. */
+        void cancelPoster() {
+            if (posterRequest != null) {
+                posterRequest.cancel();
+                posterRequest = null;
+            }
+        }
     }
 
     /**
@@ -90,6 +98,16 @@ public class HostedEventAdapter extends ArrayAdapter<Event> {
         this.listener = listener;
     }
 
+    /**
+     * Sets the callback run when a row within {@link EventPager#LOAD_AHEAD} of the end binds,
+     * which drives endless-scroll loading.
+     *
+     * @param onNearEnd loads the next page, or {@code null} for none
+     */
+    public void setOnNearEndListener(Runnable onNearEnd) {
+        this.onNearEnd = onNearEnd;
+    }
+
     /**
      * Inflates or reuses a view for each list item and binds event data to its visual components.
      * Also wires up click handlers for the arrow and update buttons.
@@ -183,40 +201,22 @@ public class HostedEventAdapter extends ArrayAdapter<Event> {
         holder.posterImageView.setImageResource(R.drawable.sample_image);
         holder.eventId = event.getId();
 //        Log.i("what event", event.getId() + " | " + holder.eventId);
+        holder.cancelPoster();
 
-        if (imageCache.containsKey(event.getId())) {
-            Glide.with(holder.posterImageView.getContext())
-                    .load(imageCache.get(event.getId()))
-                    .into(holder.posterImageView);
+        if (event.getPosterRef() != null) {
+            // Listed events carry their poster reference; no read is needed
+            holder.posterRequest = PosterDecoder.getInstance(getContext()).load(event.getPosterRef(), holder.posterImageView);
         } else {
-
-
-            try {
-                imageService.getReference()
-                        .child(event.getId())
-                        .child("poster")
-                        .get()
-                        .addOnSuccessListener(snapshot -> {
-
-                            if (!event.getId().equals(holder.eventId)) return;
-
-                            String imageUrl = snapshot.getValue(String.class);
-                            if (imageUrl == null) return;
-
-                            Glide.with(holder.posterImageView.getContext())
-                                    .load(imageUrl)
-                                    .into(holder.posterImageView);
-
-//                    imageCache.put(event.getId(), imageUrl); // optional
-                        });
-            } catch (Exception e) {
-                Log.i("errorthingprintthis", ""+e);
-                holder.posterImageView.setImageResource(R.drawable.sample_image);
-
-            }
+            posterStore.resolve(event.getId(), PosterStore.renditionFor(holder.posterImageView))
+                    .addOnSuccessListener(ref -> {
+                        if (ref == null || !event.getId().equals(holder.eventId)) return;
+                        holder.posterRequest = PosterDecoder.getInstance(getContext()).load(ref, holder.posterImageView);
+                    });
         }
 
-
+        if (onNearEnd != null && position >= getCount() - EventPager.LOAD_AHEAD) {
+            onNearEnd.run();
+        }
         return view;
     }
 //    TextView cityName = view.findViewById(R.id.city_text);
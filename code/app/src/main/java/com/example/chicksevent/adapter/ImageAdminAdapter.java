@@ -1,7 +1,6 @@
 package com.example.chicksevent.adapter;
 
 import android.content.Context;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -12,16 +11,22 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.chicksevent.R;
 import com.example.chicksevent.misc.Event;
-import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterStore;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Custom ArrayAdapter for displaying Event Image objects within a ListView or GridView.
+ * <p>
+ * Rows show the thumbnail rendition already resolved by the page query (see
+ * {@link com.example.chicksevent.misc.Admin#browsePosters}), so binding never reads the database.
+ * A recycled cell cancels its load and drops its bitmap, which keeps decoded memory to the
+ * visible window plus the shared cache budget.
+ * </p>
  * The adapter inflates the {@code item_event.xml} layout for each event, binding event details such as
  * name and time (if available) and providing a clickable arrow button to trigger callback actions.
  *
@@ -43,10 +48,8 @@ public class ImageAdminAdapter extends RecyclerView.Adapter<ImageAdminAdapter.Vi
     private Context context;
     private View view;
 
-    private final HashMap<String, String> imageCache = new HashMap<>();
-
-
-    private FirebaseService imageService = new FirebaseService("Image");
+    /** Thumbnail reference per event id, filled in page by page. */
+    private final Map<String, PosterStore.PosterRef> posters;
 
     public interface OnDeleteClickListener {
         void onArrowClick(Event event);
@@ -64,6 +67,7 @@ public class ImageAdminAdapter extends RecyclerView.Adapter<ImageAdminAdapter.Vi
 
         ImageView posterImageView;
         String eventId; // track which event this view belongs to
+        PosterDecoder.Request posterRequest;
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -73,9 +77,11 @@ public class ImageAdminAdapter extends RecyclerView.Adapter<ImageAdminAdapter.Vi
         }
     }
 
-    public ImageAdminAdapter(Context context, ArrayList<Event> events, OnDeleteClickListener listener, OnDeleteClickPosterListener listenerPoster) {
+    public ImageAdminAdapter(Context context, ArrayList<Event> events, Map<String, PosterStore.PosterRef> posters,
+                             OnDeleteClickListener listener, OnDeleteClickPosterListener listenerPoster) {
         this.context = context;
         this.events = events;
+        this.posters = posters;
         this.listener = listener;
         this.listenerPoster = listenerPoster;
     }
@@ -96,37 +102,11 @@ public class ImageAdminAdapter extends RecyclerView.Adapter<ImageAdminAdapter.Vi
 
 
         holder.eventId = event.getId();
+        holder.posterImageView.setImageResource(R.drawable.sample_image);
 
-        if (imageCache.containsKey(event.getId())) {
-            Glide.with(holder.posterImageView.getContext())
-                    .load(imageCache.get(event.getId()))
-                    .into(holder.posterImageView);
-        } else {
-
-
-            try {
-                imageService.getReference()
-                        .child(event.getId())
-                        .child("poster")
-                        .get()
-                        .addOnSuccessListener(snapshot -> {
-
-                            if (!event.getId().equals(holder.eventId)) return;
-
-                            String imageUrl = snapshot.getValue(String.class);
-                            if (imageUrl == null) return;
-
-                            Glide.with(holder.posterImageView.getContext())
-                                    .load(imageUrl)
-                                    .into(holder.posterImageView);
-
-                    imageCache.put(event.getId(), imageUrl); // optional
-                        });
-            } catch (Exception e) {
-                Log.i("errorthingprintthis", ""+e);
-                holder.posterImageView.setImageResource(R.drawable.sample_image);
-
-            }
+        PosterStore.PosterRef ref = posters.get(event.getId());
+        if (ref != null) {
+            holder.posterRequest = PosterDecoder.getInstance(context).load(ref, holder.posterImageView);
         }
 //
 //        holder.btnDelete.setOnClickListener(v -> {
@@ -142,12 +122,18 @@ public class ImageAdminAdapter extends RecyclerView.Adapter<ImageAdminAdapter.Vi
     }
 
     @Override
-    public int getItemCount() {
-        return events.size();
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder.posterRequest != null) {
+            holder.posterRequest.cancel();
+            holder.posterRequest = null;
+        }
+        holder.posterImageView.setImageDrawable(null);
     }
 
-    public void removeCache(String eventId) {
-        imageCache.remove(eventId);
+    @Override
+    public int getItemCount() {
+        return events.size();
     }
 
 
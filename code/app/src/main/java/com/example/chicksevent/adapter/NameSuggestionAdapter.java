@@ -0,0 +1,82 @@
+package com.example.chicksevent.adapter;
+
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
+import android.widget.Filter;
+
+import androidx.annotation.NonNull;
+
+import com.example.chicksevent.R;
+import com.example.chicksevent.misc.NameIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drop-down adapter for an {@link AutoCompleteTextView} whose suggestions come from a
+ * {@link NameIndex}.
+ * <p>
+ * {@link ArrayAdapter}'s own filter keeps only items starting with the typed text, and would
+ * drop names the index matched in the middle. This adapter's filter asks the index instead, on
+ * the filter's background thread, and shows its answer unchanged. Until {@link #setIndex} is
+ * called the drop-down stays empty.
+ * </p>
+ */
+public class NameSuggestionAdapter extends ArrayAdapter<String> {
+
+    /** Suggestions shown at most. */
+    public static final int MAX_SUGGESTIONS = 8;
+
+    /** The index to ask; read-only once built, so the filter thread may query it. */
+    private volatile NameIndex index;
+
+    private final Filter filter = new Filter() {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            FilterResults results = new FilterResults();
+            NameIndex current = index;
+            List<String> suggestions = current == null || constraint == null
+                    ? new ArrayList<>()
+                    : current.suggest(constraint.toString(), MAX_SUGGESTIONS);
+            results.values = suggestions;
+            results.count = suggestions.size();
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            setNotifyOnChange(false);
+            clear();
+            if (results.values != null) {
+                addAll((List<String>) results.values);
+            }
+            notifyDataSetChanged();
+        }
+    };
+
+    /**
+     * Constructs an adapter with no index yet.
+     *
+     * @param context the activity or fragment context.
+     */
+    public NameSuggestionAdapter(Context context) {
+        super(context, R.layout.spinner_item_dropdown);
+    }
+
+    /**
+     * Sets the index suggestions are drawn from.
+     *
+     * @param index a built index that is no longer modified
+     */
+    public void setIndex(NameIndex index) {
+        this.index = index;
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+}
@@ -8,10 +8,10 @@ import android.widget.ArrayAdapter;
 import android.widget.ImageButton;
 import android.widget.TextView;
 
+import com.example.chicksevent.misc.EventMetadataCache;
 import com.example.chicksevent.misc.Notification;
 import com.example.chicksevent.enums.NotificationType;
 import com.example.chicksevent.R;
-import com.google.firebase.database.FirebaseDatabase;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -30,6 +30,8 @@ import java.util.Locale;
  * <ul>
  *     <li>Inflate and recycle views for efficient list rendering.</li>
  *     <li>Bind notification data to text views within each item layout.</li>
+ *     <li>Resolve event names and dates through the shared {@link EventMetadataCache}, so each
+ *     distinct event costs at most one small lookup regardless of how many rows reference it.</li>
  * </ul>
  *
  * @author Jordan Kwan
@@ -83,26 +85,24 @@ public class NotificationAdapter extends ArrayAdapter<Notification> {
         ImageButton btnArrow = view.findViewById(R.id.btn_arrow);
         TextView tv_date = view.findViewById(R.id.tv_date);
 
-        notification.getEventName().addOnCompleteListener(t -> {
-            eventName.setText(t.getResult());
-        });
-
         time.setText(notification.getMessage());
 
         String eventId = notification.getEventId();
+        view.setTag(eventId);
 
-        FirebaseDatabase.getInstance()
-                .getReference("Event")
-                .child(eventId)
-                .child("eventStartDate")
-                .get()
-                .addOnCompleteListener(task -> {
-                    String startDateStr = task.getResult().getValue(String.class);
-                    bindDate(startDateStr, tv_date);
-                });
-
-
-
+        EventMetadataCache cache = EventMetadataCache.getInstance();
+        EventMetadataCache.EventMetadata cached = cache.peek(eventId);
+        if (cached != null) {
+            bindMetadata(cached, eventName, tv_date);
+        } else {
+            eventName.setText("");
+            tv_date.setText("");
+            cache.get(eventId).addOnSuccessListener(meta -> {
+                // Row may have been recycled for another notification while the lookup ran
+                if (!eventId.equals(view.getTag())) return;
+                bindMetadata(meta, eventName, tv_date);
+            });
+        }
 
         status.setText(notification.getNotificationType() == NotificationType.WAITING ? "WAITING" : notification.getNotificationType() == NotificationType.INVITED ? "INVITED": notification.getNotificationType() == NotificationType.ACCEPTED ? "ACCEPTED" : notification.getNotificationType() == NotificationType.CANCELLED ? "CANCELLED" : notification.getNotificationType() == NotificationType.SYSTEM ? "SYSTEM" : "NOT CHOSEN");
         btnDelete.setOnClickListener(v -> {
@@ -116,6 +116,11 @@ public class NotificationAdapter extends ArrayAdapter<Notification> {
         return view;
     }
 
+    private void bindMetadata(EventMetadataCache.EventMetadata meta, TextView eventName, TextView tv_date) {
+        eventName.setText(meta.getName() == null ? EventMetadataCache.NO_NAME : meta.getName());
+        bindDate(meta.getEventStartDate(), tv_date);
+    }
+
     private void bindDate(String startDateStr, TextView tv_date) {
         if (startDateStr != null) {
             try {
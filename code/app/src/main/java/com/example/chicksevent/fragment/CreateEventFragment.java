@@ -3,18 +3,15 @@ package com.example.chicksevent.fragment;
 import android.app.Activity;
 import android.app.DatePickerDialog;
 import android.app.TimePickerDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.ImageDecoder;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.provider.MediaStore;
 import android.provider.Settings;
 import android.text.Editable;
 import android.text.TextUtils;
 import android.text.TextWatcher;
-import android.util.Base64;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -38,20 +35,16 @@ import com.example.chicksevent.misc.Event;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.User;
 import com.example.chicksevent.util.FirebaseStorageHelper;
+import com.example.chicksevent.util.PosterStore;
 import com.example.chicksevent.util.QRCodeGenerator;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
 
 /**
@@ -72,14 +65,12 @@ public class CreateEventFragment extends Fragment {
     /** View binding for accessing UI elements. */
     private FragmentCreateEventBinding binding;
     private FirebaseService eventService = new FirebaseService("Event");
-    private FirebaseService imageService = new FirebaseService("Image");
+    private final PosterStore posterStore = new PosterStore();
 
     private ActivityResultLauncher<Intent> pickImageLauncher;
 
     private Uri imageUri = null;
 
-    private HashMap<String, Object> urlData = new HashMap<>();
-
 
     /**
      * Inflates the layout for this fragment using ViewBinding.
@@ -247,13 +238,6 @@ public class CreateEventFragment extends Fragment {
         });
     }
 
-    public String bitmapToBase64(Bitmap bitmap) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos); // compress if needed
-        byte[] bytes = baos.toByteArray();
-        return Base64.encodeToString(bytes, Base64.DEFAULT);
-    }
-
     /**
      * Reads form data, validates it, creates an {@link Event} object, and uploads it to Firebase.
      * Displays appropriate toast messages on success or validation errors.
@@ -447,34 +431,28 @@ public class CreateEventFragment extends Fragment {
         // Generate and save QR code
         generateAndSaveQRCode(eventId, eventName);
         
-        // Handle image upload if present (async, don't block navigation)
+        // Encode thumb/card/full renditions in the background and upload them to Storage;
+        // Image/{eventId} only keeps references to them. The upload outlives this screen, so the
+        // user is not held here; a failure is reported through the application context.
         if (imageUri != null) {
-            Bitmap bitmap = null;
-            try {
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-                    ImageDecoder.Source source = ImageDecoder.createSource(getContext().getContentResolver(), imageUri);
-                    bitmap = ImageDecoder.decodeBitmap(source);
-                } else {
-                    // fallback for older versions
-                    bitmap = MediaStore.Images.Media.getBitmap(getContext().getContentResolver(), imageUri);
-                }
-            } catch (IOException err) {
-                err.printStackTrace();
-            }
-            
-            if (bitmap != null) {
-                String base64Image = bitmapToBase64(bitmap);
-                urlData.put("url", base64Image);
-                imageService.addEntry(urlData, id);
-            }
-
-            uploadImageToFirestore(imageUri, eventId);
+            Context appContext = requireContext().getApplicationContext();
+            posterStore.upload(requireContext().getContentResolver(), imageUri, eventId)
+                    .addOnFailureListener(ex -> {
+                        Log.e("CreateEvent", "Poster upload failed for " + eventId, ex);
+                        Toast.makeText(appContext, "The poster for \"" + eventName
+                                + "\" failed to upload", Toast.LENGTH_LONG).show();
+                    });
         }
 
         // Show success message and navigate back to main screen
         toast("Event has been created");
-        
-        // Navigate back to EventFragment (main screen) to prevent duplicate event creation
+        leaveScreen();
+    }
+
+    /**
+     * Navigates back to EventFragment (main screen) to prevent duplicate event creation.
+     */
+    private void leaveScreen() {
         try {
             NavHostFragment.findNavController(this).popBackStack();
         } catch (Exception ex) {
@@ -483,25 +461,6 @@ public class CreateEventFragment extends Fragment {
         }
     }
 
-    private void uploadImageToFirestore(Uri imageUri, String eventId) {
-        StorageReference storageRef = FirebaseStorage.getInstance()
-                .getReference(eventId + ".jpg");
-
-        storageRef.putFile(imageUri)
-                .addOnSuccessListener(task -> {
-
-                    storageRef.getDownloadUrl().addOnSuccessListener(downloadUri -> {
-
-                        // Save the URL inside Realtime Database
-                        imageService.getReference()
-                                .child(eventId)
-                                .child("poster")
-                                .setValue(downloadUri.toString());
-                    });
-                })
-                .addOnFailureListener(e -> Log.i("errorfromimageupload", ""+e));
-    }
-
     /**
      * Adds a TextWatcher to an EditText to format input as HH:MM automatically
      */
@@ -6,8 +6,6 @@ import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.location.Location;
 import android.location.LocationListener;
 import android.location.LocationManager;
@@ -15,7 +13,6 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.provider.Settings;
-import android.util.Base64;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -38,6 +35,8 @@ import com.example.chicksevent.R;
 import com.example.chicksevent.databinding.FragmentEventDetailBinding;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterStore;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
@@ -98,7 +97,7 @@ public class EventDetailFragment extends Fragment {
     private Handler locationTimeoutHandler;
     private Runnable locationTimeoutRunnable;
     private ProgressBar locationProgressBar;
-    private FirebaseService imageService;
+    private PosterStore posterStore;
 
 
     /**
@@ -138,7 +137,7 @@ public class EventDetailFragment extends Fragment {
         userService = new FirebaseService("User");
         eventService = new FirebaseService("Event");
         waitingListService = new FirebaseService("WaitingList");
-        imageService = new FirebaseService("Image");
+        posterStore = new PosterStore();
 
 //        eventNameReal = view.findViewById(R.id.tv_event_name);
         
@@ -170,19 +169,16 @@ public class EventDetailFragment extends Fragment {
         ImageView posterImageView = view.findViewById(R.id.img_event);
         LinearLayout cancelledStatus = view.findViewById(R.id.layout_cancelled_status);
 
-        imageService.getReference().child(eventIdString).get().addOnSuccessListener(task -> {
-//            if (task.getResult().getValue() == null || !event.getId().equals(task.getResult().getKey())) return;
-//            if (!eventIdString.equals(holder.eventId) || task.getValue() == null) return;
-            try {
-                String base64Image = ((HashMap<String, String>) task.getValue()).get("url");
-                byte[] bytes = Base64.decode(base64Image, Base64.DEFAULT);
-                Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-                posterImageView.setImageBitmap(bitmap);
-            } catch (Exception e) {
+        posterStore.preview(eventIdString).addOnSuccessListener(preview -> {
+            if (getView() == null) return;
+            PosterDecoder.getInstance(requireContext()).showPreview(posterImageView, preview);
+        });
+        posterStore.resolve(eventIdString, PosterStore.renditionFor(posterImageView)).addOnSuccessListener(ref -> {
+            if (ref == null || getView() == null) {
                 Log.i("image error", ":(");
+                return;
             }
-
-//            imageCache.put(event.getId(), bitmap);
+            PosterDecoder.getInstance(requireContext()).load(ref, posterImageView, getViewLifecycleOwner());
         });
         
         if (locationProgressBar != null) {
@@ -8,45 +8,64 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.ImageView;
-import android.widget.ListView;
+import android.widget.LinearLayout;
 
 import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.chicksevent.R;
-import com.example.chicksevent.adapter.EventAdapter;
+import com.example.chicksevent.adapter.EventListAdapter;
 import com.example.chicksevent.databinding.FragmentEventBinding;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventCatalog;
+import com.example.chicksevent.misc.EventRecommendations;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.LiveEventList;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Fragment displaying a list of available events and entry points to related actions.
  * <p>
  * Users can view all events, filter a subset (when arguments are provided), navigate to the
  * event-creation flow, open notifications, search, and view their joined/hosted events. The
- * fragment binds results to a {@link ListView} via {@link EventAdapter}.
+ * fragment binds results to a {@link RecyclerView} via {@link EventListAdapter}.
  * </p>
  *
  * <b>Firebase roots used:</b>
  * <ul>
- *   <li><code>Event</code> — source of event listings</li>
+ *   <li><code>EventSummary</code>, <code>EventTombstone</code> — list-card projection of events and
+ *   deletion markers, delta-synced by {@link EventCatalog}</li>
  *   <li><code>WaitingList</code> — used to compute "joined events" for the current device</li>
+ *   <li><code>Recommendation</code> — events precomputed for the current device from its
+ *   waiting-list history (see {@link EventRecommendations})</li>
  * </ul>
  *
  * <p><b>Arguments:</b> If a {@link Bundle} argument contains an <code>ArrayList String</code>
  * under the key <code>"eventList"</code>, the fragment displays only those events whose ids match
  * the provided values.</p>
  *
+ * <p>Rows come from a {@link LiveEventList} over the shared {@link EventCatalog}, which outlives
+ * the fragment's view and syncs only the events changed since it was last current. The catalog is
+ * also kept on the device, so even a cold start shows the last known rows at once, and an edit to
+ * one event rebinds only its card in the {@link RecyclerView}. The list shows one page of events
+ * at first and widens by a page as the last cards bind. While the catalog holds nothing yet, that
+ * first page is read directly from <code>EventSummary</code> and the catalog syncs behind it.</p>
+ *
+ * <p>Above the full list, a row of recommended events is read once per view and looked up in
+ * the same catalog, so it never shows an event that is gone or on hold.</p>
+ *
  * @author Jordan Kwan
  */
 public class EventFragment extends Fragment {
@@ -66,17 +85,32 @@ public class EventFragment extends Fragment {
     /** Firebase service for the "Event" root. */
     private FirebaseService eventService;
 
-    /** Firebase service for the "WaitingList" root. */
-    private FirebaseService waitingListService;
+    /**
+     * Firebase service for the "Participation" root, which indexes each user's waiting-list
+     * entries by event.
+     */
+    private FirebaseService participationService;
 
     /** Log tag. */
     private String TAG = "RTD8";
 
-    /** The list view displaying events. */
-    ListView eventView;
+    /** The recycler view displaying events. */
+    RecyclerView eventView;
+
+    /** Adapter bridging event data to the recycler view; kept across view re-creation. */
+    EventListAdapter eventAdapter;
 
-    /** Adapter bridging event data to the list view. */
-    EventAdapter eventAdapter;
+    /** Live rows of <code>EventSummary</code>; kept across view re-creation. */
+    private LiveEventList liveEvents;
+
+    /** Reader for this device's precomputed recommendations. */
+    private final EventRecommendations recommendations = new EventRecommendations();
+
+    /** Recommended event ids, best first; empty until read. */
+    private List<String> recommendedIds = new ArrayList<>();
+
+    /** Rows shown before the "joined events" filter is applied. */
+    private Predicate<Event> baseFilter = event -> !event.isOnHold();
 
     /** The Android device ID (used to correlate joined events). */
     private String androidId;
@@ -108,7 +142,7 @@ public class EventFragment extends Fragment {
     public void onViewCreated(@NonNull View view, Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         eventService = new FirebaseService("Event");
-        waitingListService = new FirebaseService("WaitingList");
+        participationService = new FirebaseService("Participation");
 
         Bundle args = getArguments();
         if (args != null) {
@@ -125,10 +159,21 @@ public class EventFragment extends Fragment {
                 Settings.Secure.ANDROID_ID
         );
 
-        eventView =  view.findViewById(R.id.recycler_notifications);;
-//
-//        eventAdapter = new EventAdapter(getContext(), eventDataList, item -> {});
-//        eventView.setAdapter(eventAdapter);
+        eventView = view.findViewById(R.id.recycler_notifications);
+        eventView.setLayoutManager(new LinearLayoutManager(getContext()));
+        if (eventAdapter == null) {
+            eventAdapter = new EventListAdapter(getContext(), this::openEvent);
+        }
+        eventView.setAdapter(eventAdapter);
+        if (liveEvents == null) {
+            liveEvents = new LiveEventList(EventCatalog.getInstance(requireContext()), events -> {
+                eventDataList = new ArrayList<>(events);
+                eventAdapter.submitList(events);
+                renderRecommendations();
+            });
+        }
+        // Widen the shown window as the last rows bind
+        eventAdapter.setOnNearEndListener(() -> liveEvents.loadMore());
 
 
         Button joinedEvents = view.findViewById(R.id.btn_joined_events);
@@ -151,204 +196,136 @@ public class EventFragment extends Fragment {
         ImageView posterImageView = view.findViewById(R.id.img_event);
 
 
-//            eventAdapter = new EventAdapter(getContext(), eventDataList, item -> {});
-//            eventView.setAdapter(eventAdapter);
-//        });
-
         if (filterApplied) {
             listFilteredEvents();
         } else {
             Log.i("im printing events", "hi");
             listEvents();
+            loadRecommendations();
         }
 
     }
 
     /**
-     * Displays only those events that the current device/user has joined, inferred by
-     * scanning the <code>WaitingList</code> root for entries matching {@link #androidId}.
-     * The method updates the list view with a new adapter instance containing the filtered set.
+     * Displays only those events that the current device/user has joined, read from this
+     * device's <code>Participation/{androidId}</code> index in one small read. The live list
+     * pages just those events, so later changes to them still show up.
      */
     public void showJoinedEvents() {
-        ArrayList<String> arr = new ArrayList<>();
-        waitingListService.getReference().get().continueWith(task -> {
-            for (DataSnapshot ds : task.getResult().getChildren()) {
-                try {
-                    HashMap<String, HashMap<String, Object>> waitingList = (HashMap<String, HashMap<String, Object>>) ds.getValue();
-                    for (Map.Entry<String, HashMap<String, Object>> entry : waitingList.entrySet()) {
-                        for (Map.Entry<String, Object> entry2 : ((HashMap<String, Object>) entry.getValue()).entrySet()) {
-                            String uid = entry2.getKey();
-//                        Log.i(uid, )
-                            if (androidId.equals(uid)) {
-                                arr.add(ds.getKey());
-                                Log.i("RTD10", "found event " + ds.getKey());
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.i("RTD10" , e.toString());
-                }
-
+        participationService.getReference().child(androidId).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Failed to read joined events", task.getException());
+                return;
             }
-
-            Log.i("RTD10", "hi");
-
-
-
-            ArrayList<Event> newEventDataList = new ArrayList<>();
-            for (Event e : eventDataList) {
-                boolean keepEvent = false;
-                for (String eventIdFilter : arr) {
-                    if (eventIdFilter.equals(e.getId())) {
-                        keepEvent = true;
-                    }
-                }
-                if (keepEvent) {
-                    newEventDataList.add(e);
-                }
-
+            if (binding == null) return;
+            List<String> joined = new ArrayList<>();
+            for (DataSnapshot event : task.getResult().getChildren()) {
+                joined.add(event.getKey());
             }
-
-            Log.i("RTD10", "" + newEventDataList.size());
-
-
-            EventAdapter eventAdapter = new EventAdapter(getContext(), newEventDataList, item -> {
-                NavController navController = NavHostFragment.findNavController(EventFragment.this);
-
-                Bundle bundle = new Bundle();
-                bundle.putString("eventId", item.getId());
-
-                navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
-
-            });
-
-            eventView.setAdapter(eventAdapter);
-
-            return null;
+            Collections.sort(joined);
+            Log.i(TAG, "joined " + joined.size());
+            HashSet<String> ids = new HashSet<>(joined);
+            liveEvents.stop();
+            liveEvents.setSource(EventCatalog.getInstance(requireContext()).pagesOf(joined));
+            liveEvents.setFilter(baseFilter.and(event -> ids.contains(event.getId())));
+            liveEvents.start();
         });
     }
 
-
-
     /**
-     * Lists only the events whose ids are present in {@link #eventFilterList}. Results are read
-     * in one shot from the <code>Event</code> root and bound to the list view.
+     * Lists only the events whose ids are present in {@link #eventFilterList}, following their
+     * catalog rows live.
      */
     public void listFilteredEvents() {
-        Log.i(TAG, "what");
-        Log.i(TAG, "e" + eventService);
-//        Log.i("what is filter", filterAvailability);
-
-
-        eventDataList = new ArrayList<>();
-        eventService.getReference().addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                Log.d(TAG, "=== SHOW the event ===");
-
-                // Iterate through all children
-                for (DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    String key = childSnapshot.getKey();
-                    HashMap<String, String> value = (HashMap<String, String>) childSnapshot.getValue();
-//                    new Event();
-
-                    Log.d(TAG, "Key: " + key);
-                    Log.d(TAG, "Value: " + value);
-
-
-                    if (eventFilterList.contains(key)) {
-                        Event e = new Event("e", value.get("id"), value.get("name"),  value.get("eventDetails"), value.get("eventStartTime"), value.get("eventEndTime"), value.get("eventStartDate"), "N/A", value.get("registrationEndDate"), value.get("registrationStartDate"), 32, "N/A", value.get("tag"), false);
-                        eventDataList.add(e);
-
-                    }
-
-
-                    Log.d(TAG, "---");
-                }
-                EventAdapter eventAdapter = new EventAdapter(getContext(), eventDataList, item -> {
-                    NavController navController = NavHostFragment.findNavController(EventFragment.this);
-
-                    Bundle bundle = new Bundle();
-                    bundle.putString("eventId", item.getId());
-
-                    navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
-
-                });
-
-                eventView.setAdapter(eventAdapter);
-
+        Log.i(TAG, "listing " + eventFilterList.size() + " filtered events");
+        HashSet<String> ids = new HashSet<>(eventFilterList);
+        baseFilter = event -> ids.contains(event.getId());
+        List<String> sortedIds = new ArrayList<>(ids);
+        Collections.sort(sortedIds);
+        liveEvents.setSource(EventCatalog.getInstance(requireContext()).pagesOf(sortedIds));
+        liveEvents.setFilter(baseFilter);
+        liveEvents.start();
+    }
 
+    /**
+     * Lists every event not on hold, following the event catalog live.
+     */
+    public void listEvents() {
+        baseFilter = event -> !event.isOnHold();
+        liveEvents.setSource(EventCatalog.getInstance(requireContext()).pages());
+        liveEvents.setFilter(baseFilter);
+        liveEvents.start();
+    }
 
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
+    /**
+     * Reads this device's recommended events with one small read, then the summaries of those the
+     * catalog has not paged to yet, and shows them.
+     */
+    private void loadRecommendations() {
+        EventCatalog catalog = EventCatalog.getInstance(requireContext());
+        recommendations.forUser(androidId).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
             }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
+            recommendedIds = task.getResult();
+            return catalog.fetch(recommendedIds);
+        }).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Failed to read recommendations", task.getException());
             }
+            renderRecommendations();
         });
     }
 
     /**
-     * Lists all events from the <code>Event</code> root and binds them to the list view.
+     * Shows one button per recommended event the catalog still lists, hiding the row if there
+     * are none.
      */
-    public void listEvents() {
-        Log.i(TAG, "what");
-        Log.i(TAG, "e" + eventService);
-        eventDataList = new ArrayList<>();
-        eventService.getReference().addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                Log.d(TAG, "=== SHOW the event ===");
-
-                // Iterate through all children
-                for (DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    String key = childSnapshot.getKey();
-                    HashMap<String, String> value = (HashMap<String, String>) childSnapshot.getValue();
-//                    new Event();
-
-                    Boolean onHold = (Boolean) ((HashMap<String, Object>) childSnapshot.getValue()).get("onHold");
-
-                    if (onHold) continue;
-
-                    Log.d(TAG, "Key: " + key);
-                    Log.d(TAG, "Value: " + value);
-                    Event e = new Event("e", value.get("id"), value.get("name"), value.get("eventDetails"), value.get("eventStartTime"), value.get("eventEndTime"), value.get("eventStartDate"), "N/A", value.get("registrationEndDate"), value.get("registrationStartDate"), 32, "N/A", value.get("tag"), false);
-                    eventDataList.add(e);
-
-                    Log.d(TAG, "---");
-                }
-
-                Log.i("im printing events", "" + eventDataList.size());
-                EventAdapter eventAdapter = new EventAdapter(getContext(), eventDataList, item -> {
-                    NavController navController = NavHostFragment.findNavController(EventFragment.this);
-
-                    Bundle bundle = new Bundle();
-                    bundle.putString("eventId", item.getId());
-
-                    navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
-
-                });
-
-                eventView.setAdapter(eventAdapter);
+    private void renderRecommendations() {
+        if (binding == null || getContext() == null) return;
+        List<Event> recommended = EventRecommendations.resolve(recommendedIds,
+                EventCatalog.getInstance(requireContext())::get);
+        LinearLayout row = binding.getRoot().findViewById(R.id.recommendation_row);
+        LinearLayout list = binding.getRoot().findViewById(R.id.recommendation_list);
+        list.removeAllViews();
+        for (Event event : recommended) {
+            Button button = new Button(getContext());
+            button.setText(event.getName());
+            button.setAllCaps(false);
+            button.setTextColor(ContextCompat.getColor(getContext(), R.color.darkPurple));
+            button.setBackgroundTintList(ContextCompat.getColorStateList(getContext(), R.color.purpleText));
+            button.setOnClickListener(v -> openEvent(event));
+            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            params.setMarginEnd(8);
+            list.addView(button, params);
+        }
+        row.setVisibility(recommended.isEmpty() ? View.GONE : View.VISIBLE);
+    }
 
+    /**
+     * Opens the detail screen of an event.
+     *
+     * @param item the event whose card was tapped
+     */
+    private void openEvent(Event item) {
+        NavController navController = NavHostFragment.findNavController(EventFragment.this);
 
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
-            }
+        Bundle bundle = new Bundle();
+        bundle.putString("eventId", item.getId());
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
-            }
-        });
+        navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
     }
 
     /**
-     * Clears the binding reference when the view is destroyed.
+     * Stops following event changes and clears the binding reference when the view is destroyed.
+     * Known rows are kept for when the view comes back.
      */
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        liveEvents.stop();
+        eventView.setAdapter(null);
         binding = null;
     }
 
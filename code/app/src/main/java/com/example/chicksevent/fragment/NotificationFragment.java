@@ -17,6 +17,7 @@ import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.NotificationAdapter;
 import com.example.chicksevent.databinding.FragmentNotificationBinding;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventMetadataCache;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Notification;
 import com.example.chicksevent.misc.User;
@@ -114,11 +115,19 @@ public class NotificationFragment extends Fragment {
                         .navigate(R.id.action_NotificationFragment_to_AdminHomeFragment);
             } else {
                 Log.i("im admin", "no");
+                // Viewing the inbox marks everything in it as seen for the badge
+                userToUpdate.clearUnreadCount();
                 userToUpdate.getNotificationList().addOnCompleteListener(task -> {
 //            Log.i(TAG, "should i change");
 
                     notificationDataList = task.getResult();
 
+                    // Resolve every distinct event once, before rows start binding
+                    ArrayList<String> eventIds = new ArrayList<>();
+                    for (Notification notification : notificationDataList) {
+                        eventIds.add(notification.getEventId());
+                    }
+                    EventMetadataCache.getInstance().prefetch(eventIds);
 
 
                     notificationAdapter = new NotificationAdapter(getContext(), notificationDataList, item -> {
@@ -157,7 +166,7 @@ public class NotificationFragment extends Fragment {
             Log.i("WATTHE", item.getEventId() + " : " + item.getNotificationType().toString());
 
             if (item.getNotificationType() == notif.getNotificationType() && item.getEventId().equals(notif.getEventId())) {
-                notificationService.deleteSubCollectionEntry(userToUpdate.getUserId(), item.getEventId(), item.getNotificationType().toString());
+                notif.delete();
                 notificationAdapter.remove(notif);
                 notificationAdapter.notifyDataSetChanged();
             } else {
@@ -7,13 +7,18 @@ import static android.view.View.VISIBLE;
 import android.os.Bundle;
 import android.provider.Settings;
 import android.util.Log;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.ListView;
 import android.widget.Spinner;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -24,22 +29,49 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.EventAdapter;
+import com.example.chicksevent.adapter.NameSuggestionAdapter;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventNameIndex;
+import com.example.chicksevent.misc.EventPager;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.TagFacets;
+import com.example.chicksevent.misc.TagIndex;
 import com.example.chicksevent.misc.User;
+import com.google.android.gms.tasks.Task;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SearchEventFragment extends Fragment {
 
+    /** Tags listed with their counts while no interest is typed. */
+    private static final int TOP_FACETS = 5;
+
+    /** Events loaded so far, page by page; backs the adapter. */
     private ArrayList<Event> eventDataList = new ArrayList<>();
+    /** Ids passing the interest/availability filters, or {@code null} for every event. */
+    private ArrayList<String> filterIds = null;
     private ArrayList<String> filters = new ArrayList<>();
     private String filterAvailability = null;
 
     private ListView eventView;
+    private EventAdapter eventAdapter;
+    /** Pages through the current result set; replaced whenever the filters change. */
+    private EventPager pager;
+    /** Event names for search and autocomplete. */
+    private EventNameIndex eventNames;
+    /** Per-tag event counts, shown in the filter panel before a filter is applied. */
+    private TagFacets tagFacets;
+    /** Counts for the selected availability, keyed by normalized tag. */
+    private Map<String, Long> facetCounts = new HashMap<>();
+    private TextView facetView;
     private User user;
-    private FirebaseService eventService;
+    /** Firebase service for the "EventSummary" root, the list-card projection of events. */
+    private FirebaseService summaryService;
 
     public SearchEventFragment() {
         super(R.layout.fragment_search_event);
@@ -49,17 +81,20 @@ public class SearchEventFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        eventService = new FirebaseService("Event");
+        summaryService = new FirebaseService("EventSummary");
+        eventNames = EventNameIndex.getInstance();
+        tagFacets = new TagFacets();
 
         // UI references
         EditText etInterest = view.findViewById(R.id.search_interest);
-        EditText searchBar = view.findViewById(R.id.search_bar);
+        AutoCompleteTextView searchBar = view.findViewById(R.id.search_bar);
         Spinner spAvailability = view.findViewById(R.id.spinner_availability);
         Button btnApply = view.findViewById(R.id.btn_apply_filter);
         Button btnClear = view.findViewById(R.id.btn_clear_filter);
         Button btnSave = view.findViewById(R.id.btn_save);
         Button btnFilter = view.findViewById(R.id.btn_filter);
         LinearLayout filterPanel = view.findViewById(R.id.filter_panel);
+        facetView = view.findViewById(R.id.tv_facet_counts);
         eventView = view.findViewById(R.id.recycler_notifications);
 
 
@@ -79,6 +114,38 @@ public class SearchEventFragment extends Fragment {
         );
         user = new User(androidId);
 
+        // Name autocomplete, answered from the in-memory name index once it is built
+        NameSuggestionAdapter suggestions = new NameSuggestionAdapter(requireContext());
+        searchBar.setAdapter(suggestions);
+        eventNames.load()
+                .addOnSuccessListener(suggestions::setIndex)
+                .addOnFailureListener(e -> Log.e(TAG, "Error loading event names: " + e.getMessage()));
+        searchBar.setOnItemClickListener((parent, v, position, id) -> btnSave.performClick());
+
+        // Live counts: re-read when the availability changes, re-render as interests are typed
+        spAvailability.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View v, int position, long id) {
+                loadFacetCounts(parent.getItemAtPosition(position).toString(),
+                        etInterest.getText().toString());
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+        etInterest.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                renderFacetCounts(s.toString());
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {}
+        });
+
         // Filter panel toggle
         btnFilter.setOnClickListener(v -> filterPanel.setVisibility(
                 filterPanel.getVisibility() == VISIBLE ? INVISIBLE : VISIBLE
@@ -119,15 +186,10 @@ public class SearchEventFragment extends Fragment {
 
         // Search by name (respects current filters)
         btnSave.setOnClickListener(v -> {
-            String searchText = searchBar.getText().toString().trim().toLowerCase();
+            String searchText = searchBar.getText().toString().trim();
             if (!searchText.isEmpty()) {
-                ArrayList<Event> filtered = new ArrayList<>();
-                for (Event e : eventDataList) {
-                    if (e.getName().toLowerCase().contains(searchText)) {
-                        filtered.add(e);
-                    }
-                }
-                updateEventList(filtered);
+                searchBar.dismissDropDown();
+                searchByName(searchText);
             } else {
                 // If search empty, re-apply current filters or show all
                 applyFilters();
@@ -137,59 +199,70 @@ public class SearchEventFragment extends Fragment {
 
     // ---------------- Helper Methods ----------------
 
-    /** Show all events from Firebase or filtered IDs */
+    /**
+     * Shows all events, or only the given ids, loading them a page at a time from
+     * <code>EventSummary</code> as the list scrolls. Later name searches are narrowed to the
+     * same ids.
+     *
+     * @param filterIds ids to show, or {@code null} for every event
+     */
     public void listEvents(@Nullable ArrayList<String> filterIds) {
-        Log.i(TAG, "Fetching events...");
-        eventDataList = new ArrayList<>();
+        this.filterIds = filterIds;
+        showEvents(filterIds);
+    }
 
-        eventService.getReference().addListenerForSingleValueEvent(new com.google.firebase.database.ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull com.google.firebase.database.DataSnapshot dataSnapshot) {
-                for (com.google.firebase.database.DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    HashMap<String, String> value = (HashMap<String, String>) childSnapshot.getValue();
-                    String eventId = value.get("id");
-
-                    Boolean onHold = (Boolean) ((HashMap<String, Object>) childSnapshot.getValue()).get("onHold");
-
-                    if (onHold) continue;
-
-                    if (filterIds != null && !filterIds.contains(eventId)) continue;
-
-                    Event e = new Event(
-                            "e",
-                            eventId,
-                            value.get("name"),
-                            value.get("eventDetails"),
-                            value.get("eventStartTime"),
-                            value.get("eventEndTime"),
-                            value.get("eventStartDate"),
-                            "N/A",
-                            value.get("registrationEndDate"),
-                            value.get("registrationStartDate"),
-                            32,
-                            "N/A",
-                            value.get("tag"),
-                            false
-                    );
-
-                    eventDataList.add(e);
-                }
+    /**
+     * Shows the events whose names contain the search text, among those passing the current
+     * filters. Matching runs against {@link EventNameIndex}, so only the matching events are read.
+     *
+     * @param searchText the text typed in the search bar
+     */
+    private void searchByName(String searchText) {
+        eventNames.load()
+                .addOnSuccessListener(index -> {
+                    if (!isAdded()) return;
+                    List<String> matches = new ArrayList<>(index.search(searchText));
+                    Collections.sort(matches);
+                    if (filterIds != null) {
+                        List<String> allowed = new ArrayList<>(filterIds);
+                        Collections.sort(allowed);
+                        matches = TagIndex.intersect(matches, allowed);
+                    }
+                    showEvents(new ArrayList<>(matches));
+                })
+                .addOnFailureListener(e -> {
+                    if (!isAdded()) return;
+                    Toast.makeText(getContext(),
+                            "Search error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
 
-                updateEventList(eventDataList);
-            }
+    /**
+     * Replaces the list with the given events, read a page at a time.
+     *
+     * @param ids ids to show, or {@code null} for every event
+     */
+    private void showEvents(@Nullable ArrayList<String> ids) {
+        Log.i(TAG, "Fetching events...");
+        eventDataList = new ArrayList<>();
 
-            @Override
-            public void onCancelled(@NonNull com.google.firebase.database.DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
-            }
+        EventPager.PageSource source;
+        if (ids == null) {
+            source = EventPager.keysOf(summaryService);
+        } else {
+            List<String> sorted = new ArrayList<>(ids);
+            Collections.sort(sorted);
+            source = EventPager.idsOf(summaryService, sorted);
+        }
+        pager = new EventPager(source, child -> {
+            if (!child.exists()) return null;
+            Event e = Event.fromSummary(child);
+            return e.isOnHold() ? null : e;
         });
-    }
 
-    /** Update ListView */
-    private void updateEventList(ArrayList<Event> list) {
-        EventAdapter adapter = new EventAdapter(
+        eventAdapter = new EventAdapter(
                 getContext(),
-                list,
+                eventDataList,
                 item -> {
                     NavController nav = NavHostFragment.findNavController(SearchEventFragment.this);
                     Bundle b = new Bundle();
@@ -197,7 +270,69 @@ public class SearchEventFragment extends Fragment {
                     nav.navigate(R.id.action_SearchEventFragment_to_EventDetailFragment, b);
                 }
         );
-        eventView.setAdapter(adapter);
+        eventAdapter.setOnNearEndListener(this::loadNextPage);
+        eventView.setAdapter(eventAdapter);
+        loadNextPage();
+    }
+
+    /** Loads the next page of the current result set, unless one is loading or none is left. */
+    private void loadNextPage() {
+        if (pager.isLoading() || !pager.hasMore()) return;
+        EventPager requested = pager;
+        pager.next()
+                .addOnSuccessListener(events -> {
+                    if (requested != pager || !isAdded()) return;
+                    eventDataList.addAll(events);
+                    eventAdapter.notifyDataSetChanged();
+                    if (eventDataList.size() < EventPager.PAGE_SIZE) {
+                        // Skipped rows left the list too short to scroll
+                        loadNextPage();
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error reading data: " + e.getMessage()));
+    }
+
+    /**
+     * Reads the tag counts for an availability option in one read: the tag totals for
+     * "Anytime", otherwise the week counters overlapping its window.
+     *
+     * @param availability the selected availability option
+     * @param interest the interests typed so far
+     */
+    private void loadFacetCounts(String availability, String interest) {
+        Task<Map<String, Long>> read;
+        if (availability == null || availability.equals("Anytime")) {
+            read = tagFacets.counts();
+        } else {
+            ArrayList<LocalDate> window = user.getFilterDate(availability);
+            read = tagFacets.countsBetween(window.get(0).toEpochDay(), window.get(1).toEpochDay());
+        }
+        read.addOnSuccessListener(counts -> {
+                    if (!isAdded()) return;
+                    facetCounts = counts;
+                    renderFacetCounts(interest);
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error reading tag counts: " + e.getMessage()));
+    }
+
+    /**
+     * Shows how many events each typed interest matches, or the most common tags while none is
+     * typed.
+     *
+     * @param interest the interests typed so far
+     */
+    private void renderFacetCounts(String interest) {
+        List<String> tags = TagIndex.normalize(interest);
+        if (tags.isEmpty()) {
+            tags = TagFacets.top(facetCounts, TOP_FACETS);
+        }
+        StringBuilder text = new StringBuilder();
+        for (String tag : tags) {
+            Long count = facetCounts.get(tag);
+            if (text.length() > 0) text.append(" \u00b7 ");
+            text.append(tag).append(" (").append(count == null ? 0 : count).append(")");
+        }
+        facetView.setText(text);
     }
 
     /** Apply interest + availability filters */
@@ -159,7 +159,7 @@ public class AdminHomeFragment extends Fragment {
             Log.i("WATTHE", item.getEventId() + " : " + item.getNotificationType().toString());
 
             if (item.getNotificationType() == notif.getNotificationType() && item.getEventId().equals(notif.getEventId())) {
-                notificationService.deleteSubCollectionEntry(userToUpdate.getUserId(), item.getEventId(), item.getNotificationType().toString());
+                notif.delete();
                 notifDelete = notif;
 //                notificationAdapter.remove(item);
 //                notificationAdapter.notifyDataSetChanged();
@@ -20,6 +20,7 @@ import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.EventAdminAdapter;
 import com.example.chicksevent.misc.Admin;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventPager;
 
 import java.util.ArrayList;
 
@@ -27,8 +28,8 @@ import java.util.ArrayList;
  * Fragment that displays a list of all events for administrative management.
  * <p>
  * Allows an admin to view all events in the system and delete them via a confirmation dialog.
- * Events are loaded from Firebase using {@link Admin#browseEvents()} and displayed using
- * {@link EventAdminAdapter}.
+ * Events are loaded from Firebase a page at a time using {@link Admin#browseEventPages()}, the
+ * next page as the last rows bind, and displayed using {@link EventAdminAdapter}.
  * </p>
  *
  * <p>
@@ -67,6 +68,9 @@ public class EventAdminFragment extends Fragment {
      */
     private Admin admin;
 
+    /** Pages through the events; replaced when the list is reloaded. */
+    private EventPager pager;
+
     /**
      * Inflates the fragment layout and initializes the RecyclerView, adapter,
      * and admin instance. Begins loading event data from Firebase.
@@ -90,6 +94,7 @@ public class EventAdminFragment extends Fragment {
         admin = new Admin("ADMIN_DEFAULT");
 
         adapter = new EventAdminAdapter(requireContext(), eventList, this::goToEvent, this::confirmDeleteEvent);
+        adapter.setOnNearEndListener(this::loadNextPage);
         recyclerView.setAdapter(adapter);
 
         loadEvents();
@@ -97,19 +102,31 @@ public class EventAdminFragment extends Fragment {
     }
 
     /**
-     * Loads all events from Firebase using {@link Admin#browseEvents()}.
+     * Reloads the events from the first page using {@link Admin#browseEventPages()}.
      * <p>
-     * Clears the current list, adds all fetched events, and notifies the adapter
-     * of data changes. Shows a toast and logs on failure.
+     * Clears the current list and loads the first page; later pages load as the list scrolls.
      * </p>
      */
     private void loadEvents() {
         eventList.clear();
+        adapter.notifyDataSetChanged();
+        pager = admin.browseEventPages();
+        loadNextPage();
+    }
 
-        admin.browseEvents()
+    /**
+     * Appends the next page of events, unless one is loading or none is left. Shows a toast and
+     * logs on failure.
+     */
+    private void loadNextPage() {
+        if (pager.isLoading() || !pager.hasMore()) return;
+        EventPager requested = pager;
+        pager.next()
                 .addOnSuccessListener(events -> {
+                    if (requested != pager) return;
+                    int start = eventList.size();
                     eventList.addAll(events);
-                    adapter.notifyDataSetChanged();
+                    adapter.notifyItemRangeInserted(start, events.size());
                 })
                 .addOnFailureListener(e -> {
                     Toast.makeText(getContext(), "Failed to load events", Toast.LENGTH_SHORT).show();
@@ -13,7 +13,7 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.chicksevent.R;
@@ -21,15 +21,19 @@ import com.example.chicksevent.adapter.EventAdminAdapter;
 import com.example.chicksevent.adapter.ImageAdminAdapter;
 import com.example.chicksevent.misc.Admin;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.util.PosterStore;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Fragment that displays a list of all event images for admin management.
  * <p>
  * Allows an admin to view all images in the system and delete them via a confirmation dialog.
- * Events are loaded from Firebase using {@link Admin#browseEvents()} and displayed using
- * {@link EventAdminAdapter}.
+ * Posters are shown as a thumbnail grid, newest upload first, and loaded a page at a time with
+ * {@link Admin#browsePosters(PosterStore.Page, int)}. The next page is requested while the
+ * current one is still being scrolled, once the last visible cell is within
+ * {@link #PREFETCH_DISTANCE} of the end.
  * </p>
  *
  * <p>
@@ -43,10 +47,18 @@ import java.util.ArrayList;
  */
 public class ImageAdminFragment extends Fragment {
 
+    /** Posters requested per page. */
+    private static final int PAGE_SIZE = 24;
+
+    /** How many cells before the end of the loaded posters the next page is requested. */
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
+    /** Number of grid columns. */
+    private static final int COLUMNS = 2;
 
     /**
      * RecyclerView that displays the list of events.
-     * Uses a {@link LinearLayoutManager} and {@link EventAdminAdapter}.
+     * Uses a {@link GridLayoutManager} and {@link ImageAdminAdapter}.
      */
     private RecyclerView recyclerView;
 
@@ -62,6 +74,15 @@ public class ImageAdminFragment extends Fragment {
      */
     private ArrayList<Event> eventList;
 
+    /** Thumbnail reference per event id for the loaded posters. */
+    private final HashMap<String, PosterStore.PosterRef> posters = new HashMap<>();
+
+    /** The most recently loaded page; its cursor starts the next one. */
+    private PosterStore.Page lastPage;
+
+    /** Whether a page request is in flight. */
+    private boolean loading;
+
     /**
      * Admin instance used to perform privileged operations such as
      * browsing and deleting events.
@@ -85,36 +106,58 @@ public class ImageAdminFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_admin_image, container, false);
 
         recyclerView = view.findViewById(R.id.recycler_notifications);
-        recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        GridLayoutManager layoutManager = new GridLayoutManager(requireContext(), COLUMNS);
+        recyclerView.setLayoutManager(layoutManager);
 
         eventList = new ArrayList<>();
         admin = new Admin("ADMIN_DEFAULT");
 
-        adapter = new ImageAdminAdapter(requireContext(), eventList, this::goToEvent, this::confirmDeletePoster);
+        adapter = new ImageAdminAdapter(requireContext(), eventList, posters, this::goToEvent, this::confirmDeletePoster);
         recyclerView.setAdapter(adapter);
 
-        loadEvents();
+        // Also called after each layout, so a page shorter than the screen pulls in the next one
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (layoutManager.findLastVisibleItemPosition() >= eventList.size() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        loadNextPage();
         return view;
     }
 
     /**
-     * Loads all events from Firebase using {@link Admin#browseEvents()}.
-     * <p>
-     * Clears the current list, adds all fetched events, and notifies the adapter
-     * of data changes. Shows a toast and logs on failure.
-     * </p>
+     * Requests the next page of posters with {@link Admin#browsePosters(PosterStore.Page, int)}
+     * and appends it to the grid. Does nothing while a request is in flight or once the oldest
+     * poster has been loaded. Shows a toast and logs on failure.
      */
-    private void loadEvents() {
-        eventList.clear();
-
-        admin.browseEvents()
-                .addOnSuccessListener(events -> {
-                    eventList.addAll(events);
-                    adapter.notifyDataSetChanged();
+    private void loadNextPage() {
+        if (loading || (lastPage != null && !lastPage.hasMore())) return;
+        loading = true;
+
+        admin.browsePosters(lastPage, PAGE_SIZE)
+                .addOnSuccessListener(page -> {
+                    loading = false;
+                    if (!isAdded()) return;
+                    lastPage = page;
+                    int start = eventList.size();
+                    for (PosterStore.PosterRef ref : page.getRefs()) {
+                        posters.put(ref.getEventId(), ref);
+                        eventList.add(new Event(null, ref.getEventId(), page.getEventName(ref.getEventId()),
+                                null, null, null, null, null, null, null, 0, ref.getUrl(), null, false));
+                    }
+                    adapter.notifyItemRangeInserted(start, page.getRefs().size());
+                    if (page.getRefs().isEmpty() && page.hasMore()) {
+                        loadNextPage();
+                    }
                 })
                 .addOnFailureListener(e -> {
-                    Toast.makeText(getContext(), "Failed to load events", Toast.LENGTH_SHORT).show();
-                    Log.e("EventAdmin", "Error loading events", e);
+                    loading = false;
+                    Toast.makeText(getContext(), "Failed to load images", Toast.LENGTH_SHORT).show();
+                    Log.e("EventAdmin", "Error loading images", e);
                 });
     }
 
@@ -187,10 +230,12 @@ public class ImageAdminFragment extends Fragment {
         Log.i("DEL", "back in time " + event.getId());
         admin.deletePoster(event.getId());
 //        admin.deleteEvent(event.getId());
-//        eventList.remove(event);
-        adapter.notifyDataSetChanged();
-        adapter.removeCache(event.getId());
-        loadEvents();
+        int position = eventList.indexOf(event);
+        if (position >= 0) {
+            eventList.remove(position);
+            adapter.notifyItemRemoved(position);
+        }
+        posters.remove(event.getId());
         Toast.makeText(getContext(), "Poster deleted", Toast.LENGTH_SHORT).show();
     }
 }
\ No newline at end of file
@@ -116,33 +116,31 @@ public class NotificationAdminFragment extends Fragment {
                         //                    Log.i(TAG, "Key: " + entry.getKey() + ", Value: " + entry.getValue());
                         //                    Log.d(TAG, "KKK: " + entry.getKey());
 
-                        for (Map.Entry<String, String> entry2 : entry.getValue().entrySet()) {
-                            //                        Log.i(TAG, "kkk2: " + entry.getKey() + ", Value: " + entry.getValue().get("message"));
-                            NotificationType notificationType;
-                            switch (entry.getKey()) {
-                                case "WAITING":
-                                    notificationType = NotificationType.WAITING;
-                                    break;
-                                case "INVITED":
-                                    notificationType = NotificationType.INVITED;
-                                    break;
-                                case "UNINVITED":
-                                    notificationType = NotificationType.UNINVITED;
-                                    break;
-                                case "CANCELLED":
-                                    notificationType = NotificationType.CANCELLED;
-                                    break;
-                                case "SYSTEM":
-                                    notificationType = NotificationType.SYSTEM;
-                                    break;
-                                default:
-                                    notificationType = NotificationType.WAITING;
-                                    break;
-                            }
-
-                            notificationList.add(new Notification(task.getResult().getKey(), eventId, notificationType, entry.getValue().get("message")));
+                        // One notification per type; the record's fields (message, contentHash, sentAt, count) are not separate entries
+                        NotificationType notificationType;
+                        switch (entry.getKey()) {
+                            case "WAITING":
+                                notificationType = NotificationType.WAITING;
+                                break;
+                            case "INVITED":
+                                notificationType = NotificationType.INVITED;
+                                break;
+                            case "UNINVITED":
+                                notificationType = NotificationType.UNINVITED;
+                                break;
+                            case "CANCELLED":
+                                notificationType = NotificationType.CANCELLED;
+                                break;
+                            case "SYSTEM":
+                                notificationType = NotificationType.SYSTEM;
+                                break;
+                            default:
+                                notificationType = NotificationType.WAITING;
+                                break;
                         }
 
+                        notificationList.add(new Notification(task.getResult().getKey(), eventId, notificationType, entry.getValue().get("message")));
+
                     }
                 }
 
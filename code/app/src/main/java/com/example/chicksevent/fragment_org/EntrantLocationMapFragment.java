@@ -17,6 +17,7 @@ import androidx.fragment.app.Fragment;
 import com.example.chicksevent.R;
 import com.example.chicksevent.databinding.FragmentEntrantLocationMapBinding;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.NameIndex;
 import com.google.firebase.database.DataSnapshot;
 
 import org.osmdroid.api.IMapController;
@@ -28,6 +29,7 @@ import org.osmdroid.views.MapView;
 import org.osmdroid.views.overlay.Marker;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -57,6 +59,8 @@ public class EntrantLocationMapFragment extends Fragment {
     private String eventId;
     private List<EntrantMarkerData> allEntrants = new ArrayList<>();
     private List<EntrantMarkerData> filteredEntrants = new ArrayList<>();
+    /** Entrant names and ids, rebuilt whenever {@link #allEntrants} is reloaded. */
+    private NameIndex entrantIndex = new NameIndex();
     
     // Filter state
     private String currentStatusFilter = "ALL"; // ALL, WAITING, INVITED
@@ -250,6 +254,7 @@ public class EntrantLocationMapFragment extends Fragment {
                 }
 
                 // Apply filters and update map
+                indexEntrants();
                 applyFilters();
                 
                 // Hide loading indicator
@@ -261,6 +266,7 @@ public class EntrantLocationMapFragment extends Fragment {
                 for (EntrantMarkerData entrant : allEntrants) {
                     entrant.userName = entrant.entrantId;
                 }
+                indexEntrants();
                 applyFilters();
                 
                 // Hide loading indicator
@@ -272,10 +278,25 @@ public class EntrantLocationMapFragment extends Fragment {
     }
 
     /**
-     * Applies status filter and search query, then updates the map.
+     * Rebuilds the search index over the names and ids of all entrants.
+     */
+    private void indexEntrants() {
+        entrantIndex = new NameIndex();
+        for (EntrantMarkerData entrant : allEntrants) {
+            entrantIndex.put(entrant.entrantId, entrant.userName, entrant.entrantId);
+        }
+    }
+
+    /**
+     * Applies status filter and search query, then updates the map. The query is answered by
+     * {@link #entrantIndex}, so each keystroke looks up the matches instead of scanning every
+     * entrant's name.
      */
     private void applyFilters() {
         filteredEntrants.clear();
+        HashSet<String> searchHits = currentSearchQuery.isEmpty()
+                ? null
+                : new HashSet<>(entrantIndex.search(currentSearchQuery));
 
         for (EntrantMarkerData entrant : allEntrants) {
             // Apply status filter
@@ -283,9 +304,7 @@ public class EntrantLocationMapFragment extends Fragment {
                                    entrant.status.equals(currentStatusFilter);
 
             // Apply search filter
-            boolean searchMatches = currentSearchQuery.isEmpty() ||
-                                   entrant.entrantId.toLowerCase().contains(currentSearchQuery) ||
-                                   (entrant.userName != null && entrant.userName.toLowerCase().contains(currentSearchQuery));
+            boolean searchMatches = searchHits == null || searchHits.contains(entrant.entrantId);
 
             if (statusMatches && searchMatches) {
                 filteredEntrants.add(entrant);
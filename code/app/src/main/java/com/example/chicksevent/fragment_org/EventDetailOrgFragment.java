@@ -1,11 +1,8 @@
 package com.example.chicksevent.fragment_org;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
-import android.util.Base64;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -24,6 +21,8 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.example.chicksevent.R;
 import com.example.chicksevent.databinding.FragmentEventDetailOrgBinding;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterStore;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
@@ -31,7 +30,6 @@ import com.google.firebase.database.DataSnapshot;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
 
 /**
@@ -63,7 +61,7 @@ public class EventDetailOrgFragment extends Fragment {
     private FragmentEventDetailOrgBinding binding;
 
     private FirebaseService eventService;
-    private FirebaseService imageService;
+    private PosterStore posterStore;
 
     private FirebaseService waitingListService = new FirebaseService("WaitingList");
 
@@ -98,7 +96,7 @@ public class EventDetailOrgFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         eventService = new FirebaseService("Event");
-        imageService = new FirebaseService("Image");
+        posterStore = new PosterStore();
 
         Bundle args = getArguments();
         if (args != null) {
@@ -120,20 +118,18 @@ public class EventDetailOrgFragment extends Fragment {
 
         ImageView posterImageView = view.findViewById(R.id.img_event);
 
-        imageService.getReference().child(args.getString("eventId")).get().addOnSuccessListener(task -> {
-//            if (task.getResult().getValue() == null || !event.getId().equals(task.getResult().getKey())) return;
-//            if (!eventIdString.equals(holder.eventId) || task.getValue() == null) return;
-
-            try {
-                String base64Image = ((HashMap<String, String>) task.getValue()).get("url");
-                byte[] bytes = Base64.decode(base64Image, Base64.DEFAULT);
-                Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-                posterImageView.setImageBitmap(bitmap);
-            } catch (Exception e) {
-                Log.i("image error", ":(");
-            }
-//            imageCache.put(event.getId(), bitmap);
+        posterStore.preview(args.getString("eventId")).addOnSuccessListener(preview -> {
+            if (getView() == null) return;
+            PosterDecoder.getInstance(requireContext()).showPreview(posterImageView, preview);
         });
+        posterStore.resolve(args.getString("eventId"), PosterStore.renditionFor(posterImageView))
+                .addOnSuccessListener(ref -> {
+                    if (ref == null || getView() == null) {
+                        Log.i("image error", ":(");
+                        return;
+                    }
+                    PosterDecoder.getInstance(requireContext()).load(ref, posterImageView, getViewLifecycleOwner());
+                });
 
         viewWaitingListButton.setOnClickListener(v -> {
             NavController navController = NavHostFragment.findNavController(EventDetailOrgFragment.this);
@@ -17,18 +17,15 @@ import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.HostedEventAdapter;
 import com.example.chicksevent.databinding.FragmentHostedEventBinding;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventPager;
 import com.example.chicksevent.misc.FirebaseService;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**
  * Fragment that lists events hosted by the current organizer (device user).
  * <p>
- * The list is populated by reading from the <code>Event</code> root and filtering for entries
+ * The list is populated by querying the <code>EventSummary</code> projection for entries
  * where the <code>organizer</code> matches this device's Android ID. Each list row (inflated from
  * {@code item_hosted_event.xml}) exposes actions to view organizer details for an event or open an
  * update flow for that event.
@@ -56,6 +53,9 @@ public class HostedEventFragment extends Fragment {
     /** Firebase service for the "Event" root. */
     private FirebaseService eventService;
 
+    /** Firebase service for the "EventSummary" root, the list-card projection of events. */
+    private FirebaseService summaryService;
+
     /** Firebase service for the "WaitingList" root (reserved for future use). */
     private FirebaseService waitingListService;
 
@@ -68,6 +68,9 @@ public class HostedEventFragment extends Fragment {
     /** Adapter used to bind hosted events to the list view. */
     HostedEventAdapter hostedEventAdapter;
 
+    /** Pages through this organizer's events as the list scrolls. */
+    private EventPager pager;
+
     /** Android device ID used to identify the organizer's events. */
     private String androidId;
 
@@ -97,6 +100,7 @@ public class HostedEventFragment extends Fragment {
         Log.i("sigma", "life");
 
         eventService = new FirebaseService("Event");
+        summaryService = new FirebaseService("EventSummary");
         waitingListService = new FirebaseService("WaitingList");
 
         androidId = Settings.Secure.getString(
@@ -104,18 +108,16 @@ public class HostedEventFragment extends Fragment {
                 Settings.Secure.ANDROID_ID
         );
 
-        hostedEventAdapter = new HostedEventAdapter(getContext(), eventDataList, (_e, _t) -> {});
         eventView =  view.findViewById(R.id.recycler_notifications);
-////
-        eventView.setAdapter(hostedEventAdapter);
 
         Log.i("sigma", "wtf");
         listEvents();
     }
 
     /**
-     * Queries the <code>Event</code> root once, filters for events whose <code>organizer</code> equals
-     * this device's {@link #androidId}, and binds the result set to the list view.
+     * Lists the <code>EventSummary</code> entries whose <code>organizer</code> equals this
+     * device's {@link #androidId} (an indexed query), one page at a time: the first page loads
+     * now and the next ones as the last rows bind.
      * <p>
      * On item interaction, navigates to {@code EventDetailOrgFragment} (view) or
      * {@code UpdateEventFragment} (update) depending on the clicked control.
@@ -123,61 +125,41 @@ public class HostedEventFragment extends Fragment {
      */
     public void listEvents() {
         Log.i("sigma", "what");
-        Log.i(TAG, "e" + eventService);
         eventDataList = new ArrayList<>();
-        eventService.getReference().addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                Log.d(TAG, "=== SHOW the event ===");
-
-                // Iterate through all children
-                for (DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    String key = childSnapshot.getKey();
-                    HashMap<String, String> value = (HashMap<String, String>) childSnapshot.getValue();
-//                    new Event();
-
-
-
-                    Log.d(TAG, "Key: " + key);
-                    Log.d(TAG, "Value: " + value);
-                    if (value.get("organizer").equals(androidId)) {
-                        Log.d("sigma", "yes success " + key);
-                        Event e = new Event("e", value.get("id"), value.get("name"), value.get("eventDetails"), value.get("eventStartTime"), value.get("eventEndTime"), value.get("eventStartDate"), "N/A", value.get("registrationEndDate"), value.get("registrationStartDate"), 32, "N/A", value.get("tag"), false);
-                        eventDataList.add(e);
-                    }
-
-
-                    Log.d(TAG, "---");
-                }
-                    if (getContext() == null) return;
-                    HostedEventAdapter eventAdapter = new HostedEventAdapter(getContext(), eventDataList, (item, type) -> {
-                    NavController navController = NavHostFragment.findNavController(HostedEventFragment.this);
+        pager = new EventPager(EventPager.where(summaryService, "organizer", androidId), Event::fromSummary);
 
-                    Bundle bundle = new Bundle();
-                    bundle.putString("eventId", item.getId());
-//                    bundle.putString("organizerId", item.getId());
+        hostedEventAdapter = new HostedEventAdapter(getContext(), eventDataList, (item, type) -> {
+            NavController navController = NavHostFragment.findNavController(HostedEventFragment.this);
 
-                    if (type == 0) {
-                        navController.navigate(R.id.action_HostedEventFragment_to_EventDetailOrgFragment, bundle);
-                    } else {
-                        navController.navigate(R.id.action_HostedEventFragment_to_UpdateEventFragment, bundle);
+            Bundle bundle = new Bundle();
+            bundle.putString("eventId", item.getId());
+//            bundle.putString("organizerId", item.getId());
 
-                    }
+            if (type == 0) {
+                navController.navigate(R.id.action_HostedEventFragment_to_EventDetailOrgFragment, bundle);
+            } else {
+                navController.navigate(R.id.action_HostedEventFragment_to_UpdateEventFragment, bundle);
 
-                });
-
-                eventView.setAdapter(eventAdapter);
-
-
-
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
             }
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
-            }
         });
+        hostedEventAdapter.setOnNearEndListener(this::loadNextPage);
+        eventView.setAdapter(hostedEventAdapter);
+        loadNextPage();
+    }
+
+    /** Loads the next page of hosted events, unless one is loading or none is left. */
+    private void loadNextPage() {
+        if (pager.isLoading() || !pager.hasMore()) return;
+        EventPager requested = pager;
+        pager.next()
+                .addOnSuccessListener(events -> {
+                    if (requested != pager || getContext() == null) return;
+                    Log.d(TAG, "=== SHOW " + events.size() + " more events ===");
+                    eventDataList.addAll(events);
+                    hostedEventAdapter.notifyDataSetChanged();
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error reading data: " + e.getMessage()));
     }
 
     /**
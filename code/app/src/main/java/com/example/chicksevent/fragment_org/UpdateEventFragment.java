@@ -3,19 +3,15 @@ package com.example.chicksevent.fragment_org;
 import android.app.Activity;
 import android.app.DatePickerDialog;
 import android.app.TimePickerDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.ImageDecoder;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.provider.MediaStore;
 import android.provider.Settings;
 import android.text.Editable;
 import android.text.TextUtils;
 import android.text.TextWatcher;
-import android.util.Base64;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -38,20 +34,17 @@ import com.example.chicksevent.misc.Event;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.User;
 import com.example.chicksevent.util.FirebaseStorageHelper;
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterStore;
 import com.example.chicksevent.util.QRCodeGenerator;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
 
 /**
@@ -65,13 +58,12 @@ public class UpdateEventFragment extends Fragment {
 
     /** View binding for accessing UI elements. */
     private FragmentUpdateEventDetailBinding  binding;
-    private FirebaseService imageService = new FirebaseService("Image");
+    private final PosterStore posterStore = new PosterStore();
     private FirebaseService eventService = new FirebaseService("Event");
     private ActivityResultLauncher<Intent> pickImageLauncher;
 
     private Uri imageUri = null;
 
-    private HashMap<String, Object> urlData = new HashMap<>();
     private String eventId;
 
 
@@ -266,23 +258,13 @@ public class UpdateEventFragment extends Fragment {
                             binding.etMaxEntrants.setText(limit);
 
                         }
-                        try {
-                            imageService.getReference().child(eventId).get().addOnSuccessListener(task -> {
-//            if (task.getResult().getValue() == null || !event.getId().equals(task.getResult().getKey())) return;
-//                            if (!event.getId().equals(holder.eventId) || task.getValue() == null) return;
-
-                                HashMap<String, String> hash = ((HashMap<String, String>) task.getValue());
-                                if (hash != null) {
-                                    String base64Image = hash.get("url");
-                                    byte[] bytes = Base64.decode(base64Image, Base64.DEFAULT);
-                                    Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-                                    binding.imgEventPoster.setImageBitmap(bitmap);
-                                }
-
-                            });
-                        } catch (Exception e) {
-                            Log.i("image", "no image");
-                        }
+                        posterStore.resolve(eventId, PosterStore.renditionFor(binding.imgEventPoster)).addOnSuccessListener(ref -> {
+                            if (ref == null || binding == null) {
+                                Log.i("image", "no image");
+                                return;
+                            }
+                            PosterDecoder.getInstance(requireContext()).load(ref, binding.imgEventPoster, getViewLifecycleOwner());
+                        });
 
 
                     } else {
@@ -310,13 +292,6 @@ public class UpdateEventFragment extends Fragment {
         }
     }
 
-    public String bitmapToBase64(Bitmap bitmap) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos); // compress if needed
-        byte[] bytes = baos.toByteArray();
-        return Base64.encodeToString(bytes, Base64.DEFAULT);
-    }
-
     /**
      * Reads form data, validates it, creates an {@link Event} object, and uploads it to Firebase.
      * Displays appropriate toast messages on success or validation errors.
@@ -510,28 +485,18 @@ public class UpdateEventFragment extends Fragment {
         // Generate and save QR code
         generateAndSaveQRCode(eventId, eventName);
 
-        // Handle image upload if present (async, don't block navigation)
+        // Replace the poster renditions in Storage; Image/{eventId} only keeps references to them.
+        // The new poster has a new content hash, so cached copies of the old one are simply no
+        // longer requested. The upload outlives this screen, so navigation is not blocked; a
+        // failure is reported through the application context.
         if (imageUri != null) {
-            Bitmap bitmap = null;
-            try {
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-                    ImageDecoder.Source source = ImageDecoder.createSource(getContext().getContentResolver(), imageUri);
-                    bitmap = ImageDecoder.decodeBitmap(source);
-                } else {
-                    // fallback for older versions
-                    bitmap = MediaStore.Images.Media.getBitmap(getContext().getContentResolver(), imageUri);
-                }
-            } catch (IOException err) {
-                err.printStackTrace();
-            }
-
-            if (bitmap != null) {
-                String base64Image = bitmapToBase64(bitmap);
-                urlData.put("url", base64Image);
-                imageService.addEntry(urlData, id);
-            }
-
-            uploadImageToFirestore(imageUri, eventId);
+            Context appContext = requireContext().getApplicationContext();
+            posterStore.upload(requireContext().getContentResolver(), imageUri, eventId)
+                    .addOnFailureListener(ex -> {
+                        Log.e("UpdateEvent", "Poster upload failed for " + eventId, ex);
+                        Toast.makeText(appContext, "The new poster for \"" + eventName
+                                + "\" failed to upload", Toast.LENGTH_LONG).show();
+                    });
         }
 
         // Show success message and navigate back to main screen
@@ -783,26 +748,6 @@ public class UpdateEventFragment extends Fragment {
         );
     }
 
-    private void uploadImageToFirestore(Uri imageUri, String eventId) {
-        StorageReference storageRef = FirebaseStorage.getInstance()
-                .getReference(eventId + ".jpg");
-
-        storageRef.putFile(imageUri)
-                .addOnSuccessListener(task -> {
-
-                    storageRef.getDownloadUrl().addOnSuccessListener(downloadUri -> {
-
-                        // Save the URL inside Realtime Database
-                        Log.i("errorthingwtf", "" + eventId);
-                        imageService.getReference()
-                                .child(eventId)
-                                .child("poster")
-                                .setValue(downloadUri.toString());
-                    });
-                })
-                .addOnFailureListener(e -> Log.i("errorfromimageupload", ""+e));
-    }
-
     private void openImageChooser() {
         Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
         intent.setType("image/*");
@@ -4,10 +4,13 @@ import android.os.Build;
 import android.util.Log;
 
 import com.example.chicksevent.enums.NotificationType;
+import com.example.chicksevent.util.PosterStore;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -51,8 +54,20 @@ public class Admin extends User {
 
     private final FirebaseService imageService = new FirebaseService("Image");
 
+    /** Poster references, paged for moderation through the {@code Image} upload-time index. */
+    private final PosterStore posterStore = new PosterStore(imageService, null);
+
     private final FirebaseService waitingListService = new FirebaseService("WaitingList");
 
+    /** Deletion markers read by {@link EventCatalog} delta syncs ({@code EventTombstone/{eventId}}). */
+    private final FirebaseService tombstoneService = new FirebaseService("EventTombstone");
+
+    /** Reverse index of notification recipients per event ({@code EventNotified/{eventId}/{uid}}). */
+    private final FirebaseService eventNotifiedService = new FirebaseService("EventNotified");
+
+    /** Maximum number of paths cleared by a single multi-path delete. */
+    private static final int DELETE_BATCH_SIZE = 500;
+
     /**
      * Constructs an {@code Admin} for the given user ID.
      *
@@ -70,7 +85,10 @@ public class Admin extends User {
     /**
      * Deletes an event from the database by its ID. (US 03.01.01)
      * <p>
-     * This issues a single <em>remove</em> operation to {@code /Event/{eventId}}. If the
+     * This issues a <em>remove</em> operation to {@code /Event/{eventId}} and writes a tombstone
+     * holding the server time to {@code /EventTombstone/{eventId}}, which {@link EventCatalog}
+     * delta syncs use to drop the event. The {@code projectEventSummary} Cloud Function then
+     * removes the event from every {@code Recommendation/{uid}} that may list it. If the
      * {@code eventId} is {@code null} or empty, the operation is a no-op (logged but not failed).
      * If Firebase returns an error, it will be observable via the returned task's failure listener.
      * </p>
@@ -81,11 +99,20 @@ public class Admin extends User {
         Log.i("DEL", "gonna delete " + eventId);
         if (eventId != null && !eventId.isEmpty()) {
             eventsService.deleteEntry(eventId);
+            // Lets catalogs that synced before the deletion drop the event on their next delta
+            tombstoneService.setEntryValue(eventId, ServerValue.TIMESTAMP);
+            EventMetadataCache.getInstance().invalidate(eventId);
         }
     }
 
     /**
      * Deletes a poster from the database by its ID.
+     * <p>
+     * Only the {@code Image/{eventId}} reference is removed here; the
+     * {@code trackPosterReferences} Cloud Function then releases the event's claim on the
+     * content-addressed {@code Poster/{hash}} blob and deletes the blob's Storage objects only
+     * once no other event references them.
+     * </p>
      *
      * @param eventId the Firebase key of the event poster to delete; must be non-empty.
      */
@@ -173,6 +200,41 @@ public class Admin extends User {
         // TODO: implement admin profile browsing if/when profile schema is defined.
     }
 
+    /**
+     * Retrieves one page of event posters for moderation, newest upload first.
+     * <p>
+     * Reads a single page of the slim {@code ImageIndex} ordered by upload time (see
+     * {@link PosterStore#browse}), which holds thumbnail references only, then the {@code name} leaf of
+     * each event on the page, so the cost of a page does not grow with the number of events.
+     * </p>
+     *
+     * @param after the previously loaded page, or {@code null} for the first page
+     * @param pageSize maximum number of posters to return
+     * @return a {@link Task} resolving to the page, with event names filled in
+     */
+    public Task<PosterStore.Page> browsePosters(PosterStore.Page after, int pageSize) {
+        return posterStore.browse(after, pageSize).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                return Tasks.forException(task.getException());
+            }
+            PosterStore.Page page = task.getResult();
+            List<Task<DataSnapshot>> names = new ArrayList<>();
+            for (PosterStore.PosterRef ref : page.getRefs()) {
+                names.add(eventsService.getReference().child(ref.getEventId()).child("name").get());
+            }
+            return Tasks.whenAllComplete(names).continueWith(done -> {
+                for (int i = 0; i < names.size(); i++) {
+                    Task<DataSnapshot> name = names.get(i);
+                    if (name.isSuccessful() && name.getResult() != null) {
+                        page.putEventName(page.getRefs().get(i).getEventId(),
+                                name.getResult().getValue(String.class));
+                    }
+                }
+                return page;
+            });
+        });
+    }
+
     /**
      * Retrieves all events from the database. (US 03.05.01)
      * <p>
@@ -190,24 +252,9 @@ public class Admin extends User {
                 DataSnapshot snapshot = task.getResult();
                 for (DataSnapshot child : snapshot.getChildren()) {
                     Log.i("friedchicken", child.getKey());
-                    HashMap<String, String> eventHash = (HashMap<String, String>) child.getValue();
-                    if (eventHash != null) {
-                        events.add(new Event(
-                                "e", // placeholder or type
-                                eventHash.get("id"),
-                                eventHash.get("name"),
-                                "d",
-                                eventHash.get("eventStartTime"), // placeholder
-                                eventHash.get("eventEndTime"),
-                                "s", // placeholder
-                                "w", // placeholder
-                                "q", // placeholder
-                                "f", // placeholder
-                                3,   // placeholder capacity
-                                "v", // placeholder
-                                "sa", // placeholder
-                                false // geolocationRequired
-                        ));
+                    Event event = browsedEvent(child);
+                    if (event != null) {
+                        events.add(event);
                     }
                 }
                 return com.google.android.gms.tasks.Tasks.forResult(events);
@@ -217,6 +264,48 @@ public class Admin extends User {
         });
     }
 
+    /**
+     * Returns a pager over the {@code /Event} root in key order, for browsing events one page
+     * at a time instead of reading the whole root as {@link #browseEvents()} does.
+     *
+     * @return a new pager whose rows are built like those of {@link #browseEvents()}
+     */
+    public EventPager browseEventPages() {
+        return new EventPager(EventPager.keysOf(eventsService), Admin::browsedEvent);
+    }
+
+    /**
+     * Builds the row shown for one {@code /Event} child when browsing. Only the fields the admin
+     * list shows are read; the rest are placeholders.
+     *
+     * @param child an event snapshot
+     * @return the event, or {@code null} if the snapshot holds no event
+     */
+    private static Event browsedEvent(DataSnapshot child) {
+        HashMap<String, String> eventHash = (HashMap<String, String>) child.getValue();
+        if (eventHash == null) {
+            return null;
+        }
+        Event event = new Event(
+                "e", // placeholder or type
+                eventHash.get("id"),
+                eventHash.get("name"),
+                "d",
+                eventHash.get("eventStartTime"), // placeholder
+                eventHash.get("eventEndTime"),
+                "s", // placeholder
+                "w", // placeholder
+                "q", // placeholder
+                "f", // placeholder
+                3,   // placeholder capacity
+                "v", // placeholder
+                "sa", // placeholder
+                false // geolocationRequired
+        );
+        event.setPosterRef(PosterStore.listRefFrom(child));
+        return event;
+    }
+
     /**
      * Deletes an organizer's profile from the database.
      * <p>
@@ -302,6 +391,14 @@ public class Admin extends User {
     /**
      * Deletes an event and cleans up all related data (WaitingList, Notifications).
      * Also notifies all entrants that the event has been cancelled.
+     * <p>
+     * Existing notifications for the event are located through the {@code EventNotified}
+     * reverse index (see {@link #deleteEventNotifications(String)}), so the cost scales with
+     * the event's audience rather than the total number of users. The cancellation notices are
+     * sent once that cleanup has finished, so they are not removed by it, and they skip the
+     * reverse index so no {@code EventNotified} entry outlives the event; retention compaction
+     * removes them like any other notification.
+     * </p>
      *
      * @param eventId the ID of the event to delete
      * @param eventName the name of the event (for notification message)
@@ -326,31 +423,24 @@ public class Admin extends User {
                     }
                 }
 
-                // Send cancellation notifications to all entrants
-                String message = "The event \"" + eventName + "\" has been cancelled.";
-                for (String entrantId : entrantIds) {
-                    Notification notification = new Notification(
-                            entrantId,
-                            eventId,
-                            NotificationType.SYSTEM,
-                            message
-                    );
-                    notification.createNotification();
-                }
-
                 // Delete WaitingList entries for this event
                 waitingListService.getReference().child(eventId).removeValue();
 
-                // Delete Notification entries for this event
-                notificationService.getReference().get().addOnCompleteListener(notifTask -> {
-                    if (notifTask.isSuccessful()) {
-                        DataSnapshot notifSnapshot = notifTask.getResult();
-                        for (DataSnapshot userSnapshot : notifSnapshot.getChildren()) {
-                            notificationService.getReference()
-                                    .child(userSnapshot.getKey())
-                                    .child(eventId)
-                                    .removeValue();
-                        }
+                // Delete Notification entries for this event, then send cancellation notifications
+                String message = "The event \"" + eventName + "\" has been cancelled.";
+                deleteEventNotifications(eventId).addOnCompleteListener(cleanupTask -> {
+                    if (!cleanupTask.isSuccessful()) {
+                        Log.e("DEL", "Notification cleanup failed for " + eventId, cleanupTask.getException());
+                    }
+                    for (String entrantId : entrantIds) {
+                        Notification notification = new Notification(
+                                entrantId,
+                                eventId,
+                                NotificationType.SYSTEM,
+                                message
+                        );
+                        notification.setIndexedByEvent(false);
+                        notification.createNotification();
                     }
                 });
 
@@ -370,6 +460,47 @@ public class Admin extends User {
         return tcs.getTask();
     }
 
+    /**
+     * Removes every notification filed under an event, using the reverse index.
+     * <p>
+     * Reads {@code EventNotified/{eventId}} and clears {@code Notification/{uid}/{eventId}} and
+     * the matching {@code NotificationTime} and {@code NotificationExpiry} entries for each
+     * recorded recipient, in multi-path deletes of at most {@value #DELETE_BATCH_SIZE} paths. The
+     * index node itself is removed in the last batch.
+     * </p>
+     *
+     * @param eventId the event whose notifications should be removed
+     * @return a task that completes when all batches have been applied
+     */
+    public Task<Void> deleteEventNotifications(String eventId) {
+        return eventNotifiedService.getReference().child(eventId).get().continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                return Tasks.forException(task.getException());
+            }
+
+            DatabaseReference root = eventNotifiedService.getReference().getRoot();
+            List<Task<Void>> batches = new ArrayList<>();
+            HashMap<String, Object> batch = new HashMap<>();
+
+            for (DataSnapshot recipient : task.getResult().getChildren()) {
+                String uid = recipient.getKey();
+                batch.put("Notification/" + uid + "/" + eventId, null);
+                for (DataSnapshot type : recipient.getChildren()) {
+                    batch.put("NotificationTime/" + uid + "/" + eventId + "|" + type.getKey(), null);
+                    batch.put("NotificationExpiry/" + uid + "|" + eventId + "|" + type.getKey(), null);
+                }
+                if (batch.size() >= DELETE_BATCH_SIZE) {
+                    batches.add(root.updateChildren(batch));
+                    batch = new HashMap<>();
+                }
+            }
+
+            batch.put("EventNotified/" + eventId, null);
+            batches.add(root.updateChildren(batch));
+            return Tasks.whenAll(batches);
+        });
+    }
+
     /**
      * Checks if an event is happening today based on its eventStartDate.
      *
@@ -2,11 +2,16 @@ package com.example.chicksevent.misc;
 
 import android.util.Log;
 
+import com.example.chicksevent.util.PosterStore;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.Exclude;
 import com.google.firebase.database.IgnoreExtraProperties;
 //import com.google.zxing.BarcodeFormat;
 //import com.journeyapps.barcodescanner.BarcodeEncoder;
 
+import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.TimeZone;
 
 /**
  * Domain model representing an event stored in Firebase Realtime Database.
@@ -22,20 +27,29 @@ import java.util.HashMap;
  * <pre>
  * Event/{eventId} : {
  *   id: string,
- *   name: string,
+ *   name: string, // indexed (.indexOn) for exact-name search
  *   eventDetails: string,
  *   eventStartDate: YYYY-MM-DD | null,
  *   eventEndDate: YYYY-MM-DD | null,
+ *   startDay: number | null, // eventStartDate as days since 1970-01-01; indexed for date filters
  *   registrationStartDate: YYYY-MM-DD | null,
  *   registrationEndDate: YYYY-MM-DD | null,
  *   entrantLimit: number,
  *   organizer: string, // organizerId
  *   poster: string | null, // URL
- *   tag: string | null,     // space-separated tags
+ *   listPoster: { url, rendition, version, hash } | null, // written with the poster
+ *   tag: string | null,     // comma- or space-separated tags, indexed case-folded under TagIndex/{tag}
  *   onHold: boolean         // whether event is on hold
  * }
  * </pre>
  *
+ * <p>List screens read {@code EventSummary/{eventId}} instead, a projection holding only the
+ * list-card fields ({@code name}, start/end times and dates, {@code tag}, {@code organizer},
+ * {@code onHold}, {@code startDay} and {@code listPoster}). The {@code projectEventSummary} Cloud
+ * Function rewrites it after every write to the event, so creates, edits, hold changes and
+ * deletes all reach it, and stamps it with a server-time {@link #UPDATED_AT}; see
+ * {@link #fromSummary(DataSnapshot)} and {@link EventCatalog}.</p>
+ *
  * <p><b>Notes:</b> Firebase requires a no-arg constructor for automatic deserialization when
  * mapping to POJOs. If you intend to read {@code Event} objects back via
  * {@code DataSnapshot.getValue(Event.class)}, ensure a package-visible or public no-arg
@@ -47,6 +61,18 @@ import java.util.HashMap;
  */
 @IgnoreExtraProperties
 public class Event {
+    /** Event field holding the start date as an epoch day; availability filters range over it. */
+    public static final String START_DAY = "startDay";
+
+    /**
+     * Summary field holding the server time of the event's last change; delta syncs of the
+     * {@link EventCatalog} range over it.
+     */
+    public static final String UPDATED_AT = "updatedAt";
+
+    /** Milliseconds per day. */
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
     /** Firebase service wrapper scoped to the "Event" root. */
     FirebaseService eventService = new FirebaseService("Event");
 
@@ -86,6 +112,10 @@ public class Event {
     /** Optional poster image URL. */
     private String poster;   // nullable URL (or null)
 
+    /** List-row poster reference read from {@code listPoster}; never written back by this class. */
+    @Exclude
+    private PosterStore.PosterRef posterRef;
+
     /** Optional space-separated tags to aid filtering/search. */
     private String tag;      // space-separated tags
 
@@ -162,6 +192,7 @@ public class Event {
         map.put("organizer", getOrganizer().getOrganizerId());
         map.put("poster", getPoster());              // null is fine; it will simply be omitted
         map.put("tag", getTag());
+        map.put(START_DAY, epochDayOf(getEventStartDate()));
         map.put("geolocationRequired", isGeolocationRequired());
         map.put("onHold", isOnHold());
         id = eventService.addEntry(map, id);
@@ -188,15 +219,69 @@ public class Event {
         map.put("organizer", getOrganizer().getOrganizerId());
         map.put("poster", getPoster());              // null is fine; it will simply be omitted
         map.put("tag", getTag());
+        map.put(START_DAY, epochDayOf(getEventStartDate()));
         map.put("geolocationRequired", isGeolocationRequired());
         map.put("onHold", isOnHold());
         id = eventService.editEntry(id, map);
+        EventMetadataCache.getInstance().invalidate(id);
 
         this.organizer = new Organizer(entrantId, id);
 
         return id;
     }
 
+    /**
+     * Builds a list-row event from an {@code EventSummary/{eventId}} snapshot. Fields outside the
+     * projection (details, registration dates, limit) are left empty.
+     *
+     * @param summary the summary snapshot
+     * @return the event, carrying its list poster reference if it has one
+     */
+    public static Event fromSummary(DataSnapshot summary) {
+        Event event = new Event(
+                summary.child("organizer").getValue(String.class),
+                summary.getKey(),
+                summary.child("name").getValue(String.class),
+                null,
+                summary.child("eventStartTime").getValue(String.class),
+                summary.child("eventEndTime").getValue(String.class),
+                summary.child("eventStartDate").getValue(String.class),
+                summary.child("eventEndDate").getValue(String.class),
+                null, null, 0, null,
+                summary.child("tag").getValue(String.class),
+                false);
+        event.setOnHold(Boolean.TRUE.equals(summary.child("onHold").getValue(Boolean.class)));
+        event.setPosterRef(PosterStore.listRefFrom(summary));
+        return event;
+    }
+
+    /**
+     * Converts an event date to the {@link #START_DAY} key: days since 1970-01-01 in UTC, so it
+     * matches {@code LocalDate.toEpochDay()}. Accepts the {@code MM-dd-yyyy} form the create and
+     * edit screens produce as well as {@code yyyy-MM-dd}.
+     *
+     * @param date the date string, may be {@code null}
+     * @return the epoch day, or {@code null} if the date is missing or malformed
+     */
+    public static Long epochDayOf(String date) {
+        if (date == null) return null;
+        String[] parts = date.trim().split("-");
+        if (parts.length != 3) return null;
+        try {
+            boolean yearFirst = parts[0].length() == 4;
+            int year = Integer.parseInt(yearFirst ? parts[0] : parts[2]);
+            int month = Integer.parseInt(yearFirst ? parts[1] : parts[0]);
+            int day = Integer.parseInt(yearFirst ? parts[2] : parts[1]);
+            GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+            calendar.clear();
+            calendar.setLenient(false);
+            calendar.set(year, month - 1, day);
+            return Math.floorDiv(calendar.getTimeInMillis(), DAY_MS);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     // --- Getters and setters ---
 
     /** @return the Firebase id for this event. */
@@ -271,6 +356,17 @@ public class Event {
     /** @param poster sets the optional poster URL. */
     public void setPoster(String poster) { this.poster = poster; }
 
+    /**
+     * @return the poster reference embedded in the event for list rows, or {@code null} if the
+     * event was loaded without one.
+     */
+    @Exclude
+    public PosterStore.PosterRef getPosterRef() { return posterRef; }
+
+    /** @param posterRef sets the list-row poster reference, e.g. from {@link PosterStore#listRefFrom}. */
+    @Exclude
+    public void setPosterRef(PosterStore.PosterRef posterRef) { this.posterRef = posterRef; }
+
     /** @return the space-separated tag string or {@code null}. */
     public String getTag() { return tag; }
 
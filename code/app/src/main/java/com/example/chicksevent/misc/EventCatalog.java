@@ -0,0 +1,608 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Process-wide local cache of event summaries, kept current by delta sync.
+ * <p>
+ * The {@code projectEventSummary} Cloud Function stamps every {@code EventSummary} it writes with
+ * a server-time {@link Event#UPDATED_AT}, and {@link Admin#deleteEvent(String)} leaves a
+ * tombstone holding the server time of the deletion:
+ * </p>
+ * <pre>
+ * EventSummary/{eventId}/updatedAt = serverTime
+ * EventTombstone/{eventId} = serverTime
+ * </pre>
+ * <p>
+ * The catalog never downloads every summary at once. Rows enter it a page at a time, through the
+ * {@link #pages()} and {@link #pagesOf} sources a list reads with {@link EventPager}, and as
+ * changes while it is {@link #follow() followed}. It remembers the newest {@code updatedAt} and
+ * tombstone time it has applied, its high-water marks, and follows only the summaries and
+ * tombstones at or after them, so every follow transfers just what changed since the last; after
+ * that, changes arrive live. An empty catalog takes its marks from the newest {@code updatedAt}
+ * on the first page it reads: every change that page does not reflect was stamped later, so
+ * nothing is missed, and older rows arrive when they are paged to. Ranges start <em>at</em> the
+ * marks rather than after them, so a change sharing the mark's millisecond is not missed;
+ * re-applying one is harmless.
+ * </p>
+ * <p>
+ * The rows are therefore the pages read so far plus the events changed since; lookups that miss
+ * read the summaries through {@link #fetch}. Once {@link #pages()} has been read from the first
+ * key to the last, the catalog is {@link #isComplete() complete} and following keeps it so.
+ * </p>
+ * <p>
+ * Tombstones older than {@link #TOMBSTONE_RETENTION_MS} are pruned by the
+ * {@code pruneEventTombstones} Cloud Function, so a catalog last current longer ago than that
+ * drops its rows and starts over from a first page.
+ * </p>
+ * <p>
+ * The catalog returned by {@link #getInstance(Context)} also writes its rows and marks through
+ * to an on-device {@link EventStore}. On a cold start the stored rows are read back off the main
+ * thread and published at once, so the list renders before the network answers, and the first
+ * follow then transfers only the changes since the app last ran. While the rows are complete and
+ * fresh, the store's tag and start-day indexes also answer {@link #query searches} without a
+ * network read.
+ * All methods must be called on the main thread.
+ * </p>
+ *
+ * <p><b>Firebase paths used:</b> {@code EventSummary} (indexed on {@code updatedAt}),
+ * {@code EventTombstone} (indexed on its value)</p>
+ */
+public class EventCatalog {
+
+    /** Log tag. */
+    private static final String TAG = "EventCatalog";
+
+    /** How long tombstones are kept; matches the {@code pruneEventTombstones} Cloud Function. */
+    public static final long TOMBSTONE_RETENTION_MS = 30L * 24 * 60 * 60 * 1000;
+
+    /** How long after it was last current the stored catalog still answers {@link #query}. */
+    public static final long QUERY_MAX_AGE_MS = 5 * 60 * 1000;
+
+    /**
+     * Told whenever the catalog changes.
+     */
+    public interface Listener {
+        /**
+         * Called after the catalog changed as a whole, e.g. when stored rows were restored or a
+         * delta sync completed; read the rows with {@link #events()}. Pages read through
+         * {@link #pages()} or {@link #pagesOf} are not reported; their reader sees them.
+         */
+        void onCatalogChanged();
+
+        /**
+         * Called after one row changed while the catalog is synced. Listeners that keep their
+         * own view of the rows update just this one; by default the whole catalog is re-read.
+         *
+         * @param id the id of the changed event
+         * @param event the new row, or {@code null} if the event was removed
+         */
+        default void onEventChanged(String id, Event event) {
+            onCatalogChanged();
+        }
+    }
+
+    /** Shared instance used by list screens. */
+    private static EventCatalog instance;
+
+    /** Firebase service for the "EventSummary" root. */
+    private final FirebaseService summaryService;
+
+    /** Firebase service for the "EventTombstone" root. */
+    private final FirebaseService tombstoneService;
+
+    /** Every known event keyed by id. */
+    private final TreeMap<String, Event> rows = new TreeMap<>();
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /** On-device copy written through on every change, or {@code null} if there is none. */
+    private EventStore store;
+
+    /** Whether the stored rows are still being read; following waits for them. */
+    private boolean restoring;
+
+    /** Newest {@code updatedAt} applied. */
+    private long highWaterMark;
+
+    /** Newest tombstone time applied. */
+    private long tombstoneMark;
+
+    /** Whether the changes since the marks have arrived since the current follow started. */
+    private boolean synced;
+
+    /** Device time at which the rows were last known to be current, or 0 if never. */
+    private long currentAt;
+
+    /** Last key {@link #pages()} has read in one pass from the first key, or {@code null}. */
+    private String coveredThrough;
+
+    /** Whether {@link #pages()} has read every summary since the rows were last reset. */
+    private boolean complete;
+
+    /** Number of {@link #follow()} calls not yet matched by {@link #unfollow()}. */
+    private int followers;
+
+    /** Whether a first page is being read to take the marks from. */
+    private boolean attaching;
+
+    private Query changes;
+    private Query deletions;
+    private ChildEventListener changeListener;
+    private ChildEventListener deletionListener;
+    private ValueEventListener syncListener;
+
+    /**
+     * Returns the shared catalog bound to the {@code EventSummary} and {@code EventTombstone}
+     * roots.
+     *
+     * @return the process-wide catalog instance
+     */
+    public static synchronized EventCatalog getInstance() {
+        if (instance == null) {
+            instance = new EventCatalog(new FirebaseService("EventSummary"),
+                    new FirebaseService("EventTombstone"));
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the shared catalog, backed by the on-device {@link EventStore}. The first call
+     * starts reading the stored rows back; call it early in the app's start-up.
+     *
+     * @param context any context; only its application context is retained
+     * @return the process-wide catalog instance
+     */
+    public static synchronized EventCatalog getInstance(Context context) {
+        EventCatalog catalog = getInstance();
+        if (catalog.store == null) {
+            catalog.restore(EventStore.getInstance(context));
+        }
+        return catalog;
+    }
+
+    /**
+     * Constructs a catalog that reads through the given services.
+     *
+     * @param summaryService Firebase service scoped to the {@code EventSummary} root
+     * @param tombstoneService Firebase service scoped to the {@code EventTombstone} root
+     */
+    public EventCatalog(FirebaseService summaryService, FirebaseService tombstoneService) {
+        this.summaryService = summaryService;
+        this.tombstoneService = tombstoneService;
+    }
+
+    /** @param listener told about each change until removed */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** @param listener a listener passed to {@link #addListener} */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the rows and marks kept in a store, publishes the rows, and writes every later change
+     * through to it. A {@link #follow()} made meanwhile starts once the rows are in, from the
+     * stored marks. Rows the catalog already holds win over the stored ones.
+     *
+     * @param store the on-device copy to restore from and keep current
+     */
+    public void restore(EventStore store) {
+        this.store = store;
+        restoring = true;
+        store.load().addOnCompleteListener(task -> {
+            restoring = false;
+            if (!rows.isEmpty()) {
+                // Restored late; the rows in memory are newer than the stored ones
+                store.clear();
+                for (Event event : rows.values()) {
+                    store.put(event, 0);
+                }
+                saveMarks();
+            } else if (task.isSuccessful()) {
+                EventStore.Contents contents = task.getResult();
+                for (Event event : contents.events) {
+                    rows.put(event.getId(), event);
+                }
+                highWaterMark = contents.highWaterMark;
+                tombstoneMark = contents.tombstoneMark;
+                currentAt = contents.currentAt;
+                complete = contents.complete;
+                if (!rows.isEmpty()) {
+                    // The last known list is worth showing while the delta loads
+                    notifyListeners();
+                }
+            } else {
+                Log.e(TAG, "Failed to read stored events", task.getException());
+                store.clear();
+            }
+            if (followers > 0 && changes == null) {
+                attach();
+            }
+        });
+    }
+
+    /**
+     * Starts following changes, if no one else is. Known rows stay readable meanwhile. A catalog
+     * without marks first reads one page of {@link #pages()} to take them from.
+     */
+    public void follow() {
+        if (followers++ > 0 || restoring) return;
+        attach();
+    }
+
+    private void attach() {
+        if (currentAt > 0 && System.currentTimeMillis() - currentAt > TOMBSTONE_RETENTION_MS) {
+            // Tombstones of deletions since then may already be pruned; only starting over is
+            // safe
+            reset();
+        }
+        if (highWaterMark == 0 && tombstoneMark == 0 && !attaching) {
+            attaching = true;
+            pages().load(null, EventPager.PAGE_SIZE).addOnCompleteListener(DIRECT, task -> {
+                attaching = false;
+                if (!task.isSuccessful()) {
+                    Log.e(TAG, "Failed to read the first events", task.getException());
+                }
+                if (followers > 0 && changes == null) {
+                    listen();
+                }
+            });
+            return;
+        }
+        if (!attaching) {
+            listen();
+        }
+    }
+
+    private void listen() {
+        synced = false;
+        changes = summaryService.getReference()
+                .orderByChild(Event.UPDATED_AT)
+                .startAt(highWaterMark);
+        deletions = tombstoneService.getReference().orderByValue().startAt(tombstoneMark);
+        changeListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                put(snapshot);
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+                put(snapshot);
+            }
+
+            @Override
+            public void onChildRemoved(DataSnapshot snapshot) {
+                // The summary was deleted while followed; its tombstone may follow
+                remove(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+                // Rows are kept in key order, not updatedAt order
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                Log.e(TAG, "Change listener cancelled: " + error.getMessage());
+            }
+        };
+        deletionListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                Long deletedAt = snapshot.getValue(Long.class);
+                if (deletedAt != null) {
+                    tombstoneMark = Math.max(tombstoneMark, deletedAt);
+                }
+                remove(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+                onChildAdded(snapshot, previousChildName);
+            }
+
+            @Override
+            public void onChildRemoved(DataSnapshot snapshot) {
+                // Pruned tombstone; nothing to undo
+            }
+
+            @Override
+            public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+                // Tombstones only ever move forward, which onChildChanged already covers
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                Log.e(TAG, "Tombstone listener cancelled: " + error.getMessage());
+            }
+        };
+        // Value events fire after the child events for the same data, marking the end of the
+        // delta download
+        syncListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                synced = true;
+                currentAt = System.currentTimeMillis();
+                saveMarks();
+                notifyListeners();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                Log.e(TAG, "Delta sync failed: " + error.getMessage());
+            }
+        };
+        deletions.addChildEventListener(deletionListener);
+        changes.addChildEventListener(changeListener);
+        changes.addListenerForSingleValueEvent(syncListener);
+    }
+
+    /**
+     * Stops following changes once every {@link #follow()} call has been matched. Rows and marks
+     * are kept, so the next follow transfers only the changes made in between.
+     */
+    public void unfollow() {
+        if (followers == 0 || --followers > 0 || changes == null) return;
+        if (synced) {
+            currentAt = System.currentTimeMillis();
+            saveMarks();
+        }
+        changes.removeEventListener(changeListener);
+        changes.removeEventListener(syncListener);
+        deletions.removeEventListener(deletionListener);
+        changes = null;
+        deletions = null;
+        changeListener = null;
+        deletionListener = null;
+        syncListener = null;
+    }
+
+    /**
+     * @return whether the changes made before the current follow started have all arrived, so
+     *         every known row is current
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /** @return whether the rows hold every event, not just the pages read and changes since. */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** @return the newest {@code updatedAt} applied, or 0 before the first sync. */
+    public long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * @return whether {@link #query} can answer from the on-device store: it has one, the rows
+     *         are {@link #isComplete() complete}, and they are being followed or were current
+     *         within {@link #QUERY_MAX_AGE_MS}
+     */
+    public boolean isQueryable() {
+        if (store == null || restoring || !complete) return false;
+        if (followers > 0 && synced) return true;
+        return currentAt > 0 && System.currentTimeMillis() - currentAt <= QUERY_MAX_AGE_MS;
+    }
+
+    /**
+     * Finds events through the on-device store's tag and start-day indexes; see
+     * {@link EventStore#query}. Only valid while {@link #isQueryable()}.
+     *
+     * @param tokens tags or exact names to match; empty matches every event
+     * @param firstDay first epoch day of the start-date window, or {@code null} for none
+     * @param lastDay last epoch day of the window, inclusive
+     * @return a task resolving to the matching event ids, sorted
+     */
+    public Task<List<String>> query(Collection<String> tokens, Long firstDay, Long lastDay) {
+        return store.query(tokens, firstDay, lastDay);
+    }
+
+    /**
+     * Returns the known events: the pages read so far and the events changed since, or every
+     * event once {@link #isComplete()}.
+     *
+     * @return a fresh list in key order
+     */
+    public List<Event> events() {
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Looks up one known event.
+     *
+     * @param id the event id
+     * @return the event, or {@code null} if it is not known; {@link #fetch} reads it
+     */
+    public Event get(String id) {
+        return rows.get(id);
+    }
+
+    /**
+     * Pages through every summary in key order, adding each page to the rows. A pass that starts
+     * at the first key and reaches the last makes the catalog {@link #isComplete() complete}.
+     *
+     * @return a source for {@link EventPager} or {@link LiveEventList#setSource}
+     */
+    public EventPager.PageSource pages() {
+        EventPager.PageSource source = EventPager.keysOf(summaryService);
+        return (afterKey, size) -> source.load(afterKey, size).continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            List<DataSnapshot> children = task.getResult();
+            boolean contiguous = !complete && Objects.equals(afterKey, coveredThrough);
+            apply(children);
+            if (contiguous) {
+                if (!children.isEmpty()) {
+                    coveredThrough = children.get(children.size() - 1).getKey();
+                }
+                if (children.size() < size) {
+                    complete = true;
+                    saveMarks();
+                }
+            }
+            return children;
+        });
+    }
+
+    /**
+     * Pages through the summaries of a known set of events, adding each page to the rows.
+     *
+     * @param ids the ids to read, sorted ascending
+     * @return a source for {@link EventPager} or {@link LiveEventList#setSource}
+     */
+    public EventPager.PageSource pagesOf(List<String> ids) {
+        EventPager.PageSource source = EventPager.idsOf(summaryService, ids);
+        return (afterKey, size) -> source.load(afterKey, size).continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            apply(task.getResult());
+            return task.getResult();
+        });
+    }
+
+    /**
+     * Reads the summaries of the given events that are not known yet, in one parallel read.
+     *
+     * @param ids the event ids
+     * @return a task completing once the rows are added; then {@link #get} finds the events
+     *         that exist
+     */
+    public Task<Void> fetch(Collection<String> ids) {
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            if (!rows.containsKey(id)) missing.add(id);
+        }
+        if (missing.isEmpty()) {
+            return Tasks.forResult(null);
+        }
+        Collections.sort(missing);
+        return pagesOf(missing).load(null, missing.size()).continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Adds a page of summaries to the rows without telling listeners; absent children are
+     * removed. An empty catalog takes its marks from the page.
+     */
+    private void apply(List<DataSnapshot> children) {
+        long newest = 0;
+        for (DataSnapshot child : children) {
+            String key = child.getKey();
+            if (key == null) continue;
+            if (!child.exists()) {
+                forget(key);
+                continue;
+            }
+            Long updatedAt = child.child(Event.UPDATED_AT).getValue(Long.class);
+            if (updatedAt != null) {
+                newest = Math.max(newest, updatedAt);
+            }
+            keep(child, updatedAt);
+        }
+        if (changes == null && highWaterMark == 0 && tombstoneMark == 0 && newest > 0) {
+            // Any change this page does not reflect was stamped after it was read
+            highWaterMark = newest;
+            tombstoneMark = newest;
+            saveMarks();
+        }
+    }
+
+    private void put(DataSnapshot snapshot) {
+        String key = snapshot.getKey();
+        if (key == null) return;
+        Long updatedAt = snapshot.child(Event.UPDATED_AT).getValue(Long.class);
+        if (updatedAt != null) {
+            highWaterMark = Math.max(highWaterMark, updatedAt);
+        }
+        changed(key, keep(snapshot, updatedAt));
+    }
+
+    private Event keep(DataSnapshot snapshot, Long updatedAt) {
+        Event event = Event.fromSummary(snapshot);
+        rows.put(snapshot.getKey(), event);
+        if (store != null) {
+            store.put(event, updatedAt != null ? updatedAt : 0);
+        }
+        return event;
+    }
+
+    private void remove(String key) {
+        if (forget(key)) {
+            changed(key, null);
+        }
+    }
+
+    private boolean forget(String key) {
+        if (key == null || rows.remove(key) == null) return false;
+        if (store != null) {
+            store.remove(key);
+        }
+        return true;
+    }
+
+    private void reset() {
+        rows.clear();
+        highWaterMark = 0;
+        tombstoneMark = 0;
+        currentAt = 0;
+        coveredThrough = null;
+        complete = false;
+        if (store != null) {
+            store.clear();
+            saveMarks();
+        }
+    }
+
+    /**
+     * Stores the marks. Rows are queued before the marks covering them, so a stored mark is
+     * never ahead of the stored rows.
+     */
+    private void saveMarks() {
+        if (store != null) {
+            store.setMarks(highWaterMark, tombstoneMark, currentAt, complete);
+        }
+    }
+
+    private void changed(String id, Event event) {
+        if (!synced) return;
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onEventChanged(id, event);
+        }
+    }
+
+    private void notifyListeners() {
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onCatalogChanged();
+        }
+    }
+}
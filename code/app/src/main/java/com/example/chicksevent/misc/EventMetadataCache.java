@@ -0,0 +1,230 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Process-wide cache of lightweight event metadata (name, dates, on-hold flag).
+ * <p>
+ * Screens such as the notification inbox only need a handful of fields per event, but used to
+ * download the whole {@code Event} root to find them. This cache resolves each distinct event
+ * once with a single read of its list-card projection, {@code EventSummary/{id}}, which carries
+ * the name, dates and on-hold flag, and keeps the result in memory. Concurrent requests for the
+ * same id share one in-flight lookup, and {@link #prefetch(Collection)} issues one such read per
+ * cache miss of a list, all at once, before its rows bind. Editing or deleting an event drops its
+ * entry, so the next lookup reads the summary again.
+ * </p>
+ *
+ * <p><b>Firebase paths used:</b> {@code EventSummary/{eventId}}</p>
+ */
+public class EventMetadataCache {
+
+    /** Log tag. */
+    private static final String TAG = "EventMetadataCache";
+
+    /** Name returned when an event id cannot be resolved. */
+    public static final String NO_NAME = "NO NAME";
+
+    /** Shared instance used by adapters and fragments. */
+    private static EventMetadataCache instance;
+
+    /** Firebase service for the "EventSummary" root. */
+    private final FirebaseService summaryService;
+
+    /** Resolved metadata keyed by event id. */
+    private final HashMap<String, EventMetadata> cache = new HashMap<>();
+
+    /** Lookups currently in flight, keyed by event id. */
+    private final HashMap<String, Task<EventMetadata>> pending = new HashMap<>();
+
+    /** Ids invalidated while a lookup was in flight; that lookup's result is not cached. */
+    private final HashSet<String> stale = new HashSet<>();
+
+    /**
+     * Returns the shared cache bound to the {@code EventSummary} root.
+     *
+     * @return the process-wide cache instance
+     */
+    public static synchronized EventMetadataCache getInstance() {
+        if (instance == null) {
+            instance = new EventMetadataCache(new FirebaseService("EventSummary"));
+        }
+        return instance;
+    }
+
+    /**
+     * Constructs a cache that reads through the given service.
+     *
+     * @param summaryService Firebase service scoped to the {@code EventSummary} root
+     */
+    public EventMetadataCache(FirebaseService summaryService) {
+        this.summaryService = summaryService;
+    }
+
+    /**
+     * Returns the cached metadata for an event without touching the network.
+     *
+     * @param eventId the event id
+     * @return the cached metadata, or {@code null} if it has not been resolved yet
+     */
+    public synchronized EventMetadata peek(String eventId) {
+        return cache.get(eventId);
+    }
+
+    /**
+     * Resolves metadata for a single event, reading from Firebase only on a cache miss.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the event's metadata (never {@code null})
+     */
+    public synchronized Task<EventMetadata> get(String eventId) {
+        if (eventId == null || eventId.isEmpty()) {
+            return Tasks.forResult(new EventMetadata(eventId, null, null, null, false));
+        }
+        EventMetadata cached = cache.get(eventId);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        Task<EventMetadata> inFlight = pending.get(eventId);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        Task<EventMetadata> task = fetch(eventId);
+        if (!task.isComplete()) {
+            pending.put(eventId, task);
+        }
+        return task;
+    }
+
+    /**
+     * Resolves only the display name of an event.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the name, or {@link #NO_NAME} if the event has none
+     */
+    public Task<String> getName(String eventId) {
+        return get(eventId).continueWith(DIRECT, task -> {
+            EventMetadata meta = task.isSuccessful() ? task.getResult() : null;
+            return meta == null || meta.getName() == null ? NO_NAME : meta.getName();
+        });
+    }
+
+    /**
+     * Resolves metadata for several events. Duplicate ids are collapsed and cached ids are
+     * served from memory. This is not a single batched read: each remaining miss is one
+     * {@code EventSummary/{id}} read, and they are all issued in parallel over the shared
+     * connection.
+     *
+     * @param eventIds the event ids to resolve
+     * @return a task resolving to a map of event id to metadata
+     */
+    public Task<HashMap<String, EventMetadata>> prefetch(Collection<String> eventIds) {
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(eventIds);
+        List<Task<EventMetadata>> lookups = new ArrayList<>();
+        for (String eventId : distinct) {
+            lookups.add(get(eventId));
+        }
+        return Tasks.whenAllComplete(lookups).continueWith(DIRECT, task -> {
+            HashMap<String, EventMetadata> result = new HashMap<>();
+            for (Task<EventMetadata> lookup : lookups) {
+                if (lookup.isSuccessful() && lookup.getResult() != null) {
+                    EventMetadata meta = lookup.getResult();
+                    result.put(meta.getId(), meta);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Drops the cached entry for an event. Called by {@link Event#editEvent(String)} and
+     * {@link Admin#deleteEvent(String)}.
+     *
+     * @param eventId the event id to forget
+     */
+    public synchronized void invalidate(String eventId) {
+        cache.remove(eventId);
+        if (pending.remove(eventId) != null) {
+            stale.add(eventId);
+        }
+    }
+
+    /**
+     * Reads the summary node of one event and caches the result.
+     */
+    private Task<EventMetadata> fetch(String eventId) {
+        return summaryService.getReference().child(eventId).get().continueWith(DIRECT, task -> {
+            DataSnapshot summary = task.isSuccessful() ? task.getResult() : null;
+            EventMetadata meta = new EventMetadata(
+                    eventId,
+                    stringOf(summary, "name"),
+                    stringOf(summary, "eventStartDate"),
+                    stringOf(summary, "eventEndDate"),
+                    summary != null && Boolean.TRUE.equals(summary.child("onHold").getValue())
+            );
+            synchronized (EventMetadataCache.this) {
+                pending.remove(eventId);
+                // A read that raced an edit or delete is returned but not kept
+                boolean current = !stale.remove(eventId);
+                if (task.isSuccessful()) {
+                    if (current) cache.put(eventId, meta);
+                } else {
+                    Log.e(TAG, "Failed to resolve event " + eventId, task.getException());
+                }
+            }
+            return meta;
+        });
+    }
+
+    private static String stringOf(DataSnapshot summary, String field) {
+        if (summary == null) return null;
+        Object value = summary.child(field).getValue();
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Immutable subset of an event record needed by list rows and notifications.
+     */
+    public static class EventMetadata {
+        private final String id;
+        private final String name;
+        private final String eventStartDate;
+        private final String eventEndDate;
+        private final boolean onHold;
+
+        public EventMetadata(String id, String name, String eventStartDate, String eventEndDate, boolean onHold) {
+            this.id = id;
+            this.name = name;
+            this.eventStartDate = eventStartDate;
+            this.eventEndDate = eventEndDate;
+            this.onHold = onHold;
+        }
+
+        /** @return the event id. */
+        public String getId() { return id; }
+
+        /** @return the event display name, or {@code null} if unset. */
+        public String getName() { return name; }
+
+        /** @return the event start date string, or {@code null} if unset. */
+        public String getEventStartDate() { return eventStartDate; }
+
+        /** @return the event end date string, or {@code null} if unset. */
+        public String getEventEndDate() { return eventEndDate; }
+
+        /** @return whether the event is on hold. */
+        public boolean isOnHold() { return onHold; }
+    }
+}
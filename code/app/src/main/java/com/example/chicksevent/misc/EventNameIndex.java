@@ -0,0 +1,105 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide {@link NameIndex} over the names of listed events, for name search and
+ * autocomplete.
+ * <p>
+ * The {@code projectEventSummary} Cloud Function keeps a names-only projection of every event
+ * that is not on hold:
+ * </p>
+ * <pre>
+ * EventName/{eventId} = name
+ * </pre>
+ * <p>
+ * {@link #load()} reads that root once and builds the index off the main thread; later calls
+ * share the result until it is {@link #MAX_AGE_MS} old, so typing in a search box never touches
+ * the network. The built index is not modified again and may be queried from any thread.
+ * </p>
+ *
+ * <p><b>Firebase paths used:</b> {@code EventName}</p>
+ */
+public class EventNameIndex {
+
+    /** Log tag. */
+    private static final String TAG = "EventNameIndex";
+
+    /** How long a built index is reused before the names are read again. */
+    public static final long MAX_AGE_MS = 5 * 60 * 1000;
+
+    /** Shared instance used by search screens. */
+    private static EventNameIndex instance;
+
+    /** Firebase service for the "EventName" root. */
+    private final FirebaseService nameService;
+
+    /** Runs the index build. */
+    private final Executor builder;
+
+    /** The latest load, or {@code null} before the first. */
+    private Task<NameIndex> loaded;
+
+    /** When {@link #loaded} was started, in {@link System#currentTimeMillis()} time. */
+    private long loadedAt;
+
+    /**
+     * Returns the shared index bound to the {@code EventName} root.
+     *
+     * @return the process-wide instance
+     */
+    public static synchronized EventNameIndex getInstance() {
+        if (instance == null) {
+            instance = new EventNameIndex(new FirebaseService("EventName"),
+                    Executors.newSingleThreadExecutor());
+        }
+        return instance;
+    }
+
+    /**
+     * Constructs an index that reads through the given service.
+     *
+     * @param nameService Firebase service scoped to the {@code EventName} root
+     * @param builder runs the index build, off the main thread
+     */
+    public EventNameIndex(FirebaseService nameService, Executor builder) {
+        this.nameService = nameService;
+        this.builder = builder;
+    }
+
+    /**
+     * Returns the index, reading the names only if no load is in flight and the last one failed
+     * or is older than {@link #MAX_AGE_MS}.
+     *
+     * @return a task resolving to the built index
+     */
+    public synchronized Task<NameIndex> load() {
+        long now = System.currentTimeMillis();
+        if (loaded != null
+                && (!loaded.isComplete() || (loaded.isSuccessful() && now - loadedAt < MAX_AGE_MS))) {
+            return loaded;
+        }
+        loadedAt = now;
+        loaded = nameService.getReference().get().continueWith(builder, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            NameIndex index = new NameIndex();
+            for (DataSnapshot child : task.getResult().getChildren()) {
+                String name = child.getValue(String.class);
+                if (child.getKey() != null && name != null) {
+                    index.put(child.getKey(), name);
+                }
+            }
+            Log.d(TAG, "indexed " + index.size() + " event names");
+            return index;
+        });
+        return loaded;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads a list of events one page at a time, for endless-scroll lists.
+ * <p>
+ * Each call to {@link #next()} reads at most {@link #PAGE_SIZE} children from a
+ * {@link PageSource} after the key of the last child read so far, so the first rows show after
+ * one small read and memory grows only as far as the user scrolls. A short page marks the end of
+ * the list. Children the {@link Mapper} skips (for example events on hold) still move the cursor.
+ * </p>
+ * <p>
+ * Adapters call their near-end listener when a row within {@link #LOAD_AHEAD} of the end binds;
+ * fragments answer it with {@link #next()}. Calls made while a page is loading or after the last
+ * page return an empty list, so the listener may fire freely. All methods must be called on the
+ * main thread.
+ * </p>
+ */
+public class EventPager {
+
+    /** Children read per page. */
+    public static final int PAGE_SIZE = 20;
+
+    /** Rows from the end of a list at which the next page is requested. */
+    public static final int LOAD_AHEAD = 5;
+
+    /**
+     * Reads one page of children.
+     */
+    public interface PageSource {
+        /**
+         * @param afterKey the last key already read, or {@code null} for the first page
+         * @param pageSize the maximum number of children to return
+         * @return a task resolving to the children, in key order
+         */
+        Task<List<DataSnapshot>> load(String afterKey, int pageSize);
+    }
+
+    /**
+     * Turns a child into a list row.
+     */
+    public interface Mapper {
+        /** @return the event for {@code child}, or {@code null} to skip it. */
+        Event map(DataSnapshot child);
+    }
+
+    private final PageSource source;
+    private final Mapper mapper;
+    private final int pageSize;
+
+    private String cursor;
+    private boolean loading;
+    private boolean exhausted;
+
+    /**
+     * Constructs a pager reading {@link #PAGE_SIZE} children per page.
+     *
+     * @param source reads pages
+     * @param mapper maps children to rows
+     */
+    public EventPager(PageSource source, Mapper mapper) {
+        this(source, mapper, PAGE_SIZE);
+    }
+
+    /**
+     * Constructs a pager.
+     *
+     * @param source reads pages
+     * @param mapper maps children to rows
+     * @param pageSize children read per page
+     */
+    public EventPager(PageSource source, Mapper mapper, int pageSize) {
+        this.source = source;
+        this.mapper = mapper;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Pages through a whole root in key order.
+     *
+     * @param service the service for the root
+     * @return a source reading pages through {@link FirebaseService#getPage}
+     */
+    public static PageSource keysOf(FirebaseService service) {
+        return (afterKey, size) -> childrenOf(service.getPage(afterKey, size));
+    }
+
+    /**
+     * Pages through the children of a root whose {@code child} field equals {@code value}.
+     *
+     * @param service the service for the root
+     * @param child the field to match
+     * @param value the value it must equal
+     * @return a source reading pages through {@link FirebaseService#getPageWhere}
+     */
+    public static PageSource where(FirebaseService service, String child, String value) {
+        return (afterKey, size) -> childrenOf(service.getPageWhere(child, value, afterKey, size));
+    }
+
+    /**
+     * Pages through a known set of ids, reading each child of a page in parallel.
+     *
+     * @param service the service for the root holding the children
+     * @param ids the ids to read, sorted ascending
+     * @return a source reading {@code pageSize} ids after the cursor at a time
+     */
+    public static PageSource idsOf(FirebaseService service, List<String> ids) {
+        return (afterKey, size) -> {
+            int start = 0;
+            if (afterKey != null) {
+                int found = Collections.binarySearch(ids, afterKey);
+                start = found >= 0 ? found + 1 : -found - 1;
+            }
+            List<Task<DataSnapshot>> reads = new ArrayList<>();
+            for (int i = start; i < Math.min(ids.size(), start + size); i++) {
+                reads.add(service.getReference().child(ids.get(i)).get());
+            }
+            return Tasks.whenAllSuccess(reads);
+        };
+    }
+
+    /**
+     * Loads the next page.
+     *
+     * @return a task resolving to the rows of the next page; empty while a page is already
+     *         loading or once the last page has been read
+     */
+    public Task<List<Event>> next() {
+        if (loading || exhausted) {
+            return Tasks.forResult(new ArrayList<>());
+        }
+        loading = true;
+        return source.load(cursor, pageSize).continueWith(DIRECT, task -> {
+            loading = false;
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            List<DataSnapshot> children = task.getResult();
+            List<Event> rows = new ArrayList<>();
+            for (DataSnapshot child : children) {
+                cursor = child.getKey();
+                Event row = mapper.map(child);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            exhausted = children.size() < pageSize;
+            return rows;
+        });
+    }
+
+    /** @return whether more pages may follow. */
+    public boolean hasMore() {
+        return !exhausted;
+    }
+
+    /** @return whether a page is being read. */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /** @return the key of the last child read, or {@code null} before the first one. */
+    public String getCursor() {
+        return cursor;
+    }
+
+    private static Task<List<DataSnapshot>> childrenOf(Task<DataSnapshot> page) {
+        return page.continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            List<DataSnapshot> children = new ArrayList<>();
+            for (DataSnapshot child : task.getResult().getChildren()) {
+                children.add(child);
+            }
+            return children;
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read side of the per-user event recommendations.
+ * <p>
+ * Cloud Functions fold every waiting-list join, leave and status move into a tag-affinity
+ * vector per user, weighted by how far they went (accepting says more than joining), and keep a
+ * participation index beside it:
+ * </p>
+ * <pre>
+ * Participation/{userId}/{eventId}/{EntrantStatus} = true
+ * TagAffinity/{userId}/{normalizedTag} = weight
+ * TagFans/{normalizedTag}/{userId} = weight
+ * Recommendation/{userId}/{eventId} = score
+ * </pre>
+ * <p>
+ * Each user's top events are precomputed whenever they join or leave a list, and a new event is
+ * offered to the users with the strongest affinity for its tags as soon as it is created. An
+ * event's score is the sum of the user's affinities for its tags; events the user already takes
+ * part in are left out. Showing recommendations is therefore one read of a node of at most ten
+ * scores, each looked up in the local {@link EventCatalog}.
+ * </p>
+ *
+ * <p><b>Firebase paths used:</b> {@code Recommendation}</p>
+ */
+public class EventRecommendations {
+
+    /** Most events the {@code Recommendation} node of a user holds. */
+    public static final int MAX_RECOMMENDATIONS = 10;
+
+    /** Firebase service for the "Recommendation" root. */
+    private final FirebaseService recommendationService;
+
+    /**
+     * Constructs a reader over the {@code Recommendation} root.
+     */
+    public EventRecommendations() {
+        this(new FirebaseService("Recommendation"));
+    }
+
+    /**
+     * Constructs a reader that reads through the given service.
+     *
+     * @param recommendationService Firebase service scoped to the {@code Recommendation} root
+     */
+    public EventRecommendations(FirebaseService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    /**
+     * Reads the precomputed recommendations of a user.
+     *
+     * @param userId the user id
+     * @return a task resolving to the recommended event ids, best first; empty if none were
+     *         computed yet
+     */
+    public Task<List<String>> forUser(String userId) {
+        return recommendationService.getReference().child(userId).get().continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            Map<String, Long> scores = new HashMap<>();
+            for (DataSnapshot recommendation : task.getResult().getChildren()) {
+                Long score = recommendation.getValue(Long.class);
+                if (recommendation.getKey() != null && score != null) {
+                    scores.put(recommendation.getKey(), score);
+                }
+            }
+            return TagFacets.top(scores, MAX_RECOMMENDATIONS);
+        });
+    }
+
+    /**
+     * Resolves recommended ids against known events, dropping those that are gone or on hold.
+     *
+     * @param ids recommended event ids, best first
+     * @param events the known events, e.g. {@link EventCatalog#events()}
+     * @return the recommended events still listed, in recommendation order
+     */
+    public static List<Event> resolve(List<String> ids, Collection<Event> events) {
+        Map<String, Event> byId = new HashMap<>();
+        for (Event event : events) {
+            byId.put(event.getId(), event);
+        }
+        return resolve(ids, byId::get);
+    }
+
+    /**
+     * Resolves recommended ids one lookup each, dropping those that are gone or on hold.
+     *
+     * @param ids recommended event ids, best first
+     * @param lookup returns the event with an id, or {@code null}, e.g. {@link EventCatalog#get}
+     * @return the recommended events still listed, in recommendation order
+     */
+    public static List<Event> resolve(List<String> ids, Function<String, Event> lookup) {
+        List<Event> resolved = new ArrayList<>();
+        for (String id : ids) {
+            Event event = lookup.apply(id);
+            if (event != null && !event.isOnHold()) {
+                resolved.add(event);
+            }
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.chicksevent.misc;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import com.example.chicksevent.util.PosterStore;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device copy of the {@link EventCatalog}, so a cold start can show the last known event list
+ * before the network answers.
+ * <p>
+ * The store is an SQLite database with one row per event summary, the {@link TagIndex}-normalized
+ * tags of each event in their own table, and the catalog's high-water marks:
+ * </p>
+ * <pre>
+ * events(id PRIMARY KEY, name, ..., start_day INDEXED, end_day, updated_at)
+ * event_tags(tag, id) PRIMARY KEY (tag, id)
+ * marks(name PRIMARY KEY, value)
+ * </pre>
+ * <p>
+ * Writes are queued and applied in one transaction per batch on a single background thread, so
+ * a page of rows or a burst of changes costs one commit and the main thread never waits on
+ * disk. {@link #load()} and {@link #query} run on the same thread, after every write
+ * queued before them.
+ * </p>
+ */
+public class EventStore extends SQLiteOpenHelper {
+
+    /** Log tag. */
+    private static final String TAG = "EventStore";
+
+    /** File name of the database. */
+    public static final String DATABASE = "event_catalog.db";
+
+    /** Schema version; the store is a cache, so upgrades drop it and let the catalog refill it. */
+    private static final int VERSION = 1;
+
+    private static final String EVENTS = "events";
+    private static final String EVENT_TAGS = "event_tags";
+    private static final String MARKS = "marks";
+
+    private static final String HIGH_WATER_MARK = "highWaterMark";
+    private static final String TOMBSTONE_MARK = "tombstoneMark";
+    private static final String CURRENT_AT = "currentAt";
+    private static final String COMPLETE = "complete";
+
+    /** Columns read back into an {@link Event}, in cursor order. */
+    private static final String[] EVENT_COLUMNS = {
+            "id", "name", "organizer", "start_time", "end_time", "start_date", "end_date", "tag",
+            "on_hold", "poster_rendition", "poster_url", "poster_version", "poster_hash",
+            "poster_preview"
+    };
+
+    /** Shared instance backing the shared catalog. */
+    private static EventStore instance;
+
+    /** Runs every database access, in submission order. */
+    private final Executor io;
+
+    /** Queued row writes by event id; a {@code null} row deletes the event. */
+    private final Map<String, Row> pending = new LinkedHashMap<>();
+
+    /** Queued marks, or {@code null} if unchanged. */
+    private long[] pendingMarks;
+
+    /** Whether every row is to be dropped before the queued writes. */
+    private boolean pendingClear;
+
+    /** Whether a flush of the queue has been submitted and not yet started. */
+    private boolean scheduled;
+
+    /**
+     * What {@link #load()} read back.
+     */
+    public static class Contents {
+        /** Stored events in key order. */
+        public final List<Event> events;
+        /** Stored {@link EventCatalog} marks; 0 if never stored. */
+        public final long highWaterMark;
+        public final long tombstoneMark;
+        public final long currentAt;
+        /** Whether the stored rows hold every event; see {@link EventCatalog#isComplete()}. */
+        public final boolean complete;
+
+        public Contents(List<Event> events, long highWaterMark, long tombstoneMark, long currentAt,
+                        boolean complete) {
+            this.events = events;
+            this.highWaterMark = highWaterMark;
+            this.tombstoneMark = tombstoneMark;
+            this.currentAt = currentAt;
+            this.complete = complete;
+        }
+    }
+
+    /** One queued event write. */
+    private static class Row {
+        final Event event;
+        final long updatedAt;
+
+        Row(Event event, long updatedAt) {
+            this.event = event;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    /**
+     * Returns the shared store in the application's database directory.
+     *
+     * @param context any context; only its application context is retained
+     * @return the process-wide store
+     */
+    public static synchronized EventStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new EventStore(context.getApplicationContext(),
+                    Executors.newSingleThreadExecutor());
+        }
+        return instance;
+    }
+
+    /**
+     * Constructs a store over the {@link #DATABASE} file.
+     *
+     * @param context context used to locate the database
+     * @param io single-threaded executor running every database access
+     */
+    public EventStore(Context context, Executor io) {
+        super(context, DATABASE, null, VERSION);
+        this.io = io;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + EVENTS + " ("
+                + "id TEXT PRIMARY KEY NOT NULL, name TEXT, organizer TEXT, start_time TEXT, "
+                + "end_time TEXT, start_date TEXT, end_date TEXT, tag TEXT, on_hold INTEGER, "
+                + "start_day INTEGER, end_day INTEGER, updated_at INTEGER, poster_rendition TEXT, "
+                + "poster_url TEXT, poster_version TEXT, poster_hash TEXT, poster_preview TEXT)");
+        db.execSQL("CREATE INDEX events_start_day ON " + EVENTS + " (start_day)");
+        db.execSQL("CREATE INDEX events_name ON " + EVENTS + " (name)");
+        db.execSQL("CREATE TABLE " + EVENT_TAGS + " (tag TEXT NOT NULL, id TEXT NOT NULL, "
+                + "PRIMARY KEY (tag, id)) WITHOUT ROWID");
+        db.execSQL("CREATE INDEX event_tags_id ON " + EVENT_TAGS + " (id)");
+        db.execSQL("CREATE TABLE " + MARKS + " (name TEXT PRIMARY KEY NOT NULL, value INTEGER)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + EVENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + EVENT_TAGS);
+        db.execSQL("DROP TABLE IF EXISTS " + MARKS);
+        onCreate(db);
+    }
+
+    @Override
+    public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        onUpgrade(db, oldVersion, newVersion);
+    }
+
+    /**
+     * Reads every stored event and the marks.
+     *
+     * @return a task resolving to the stored contents, completed on the store's thread
+     */
+    public Task<Contents> load() {
+        return Tasks.call(io, () -> {
+            SQLiteDatabase db = getReadableDatabase();
+            List<Event> events = new ArrayList<>();
+            try (Cursor cursor = db.query(EVENTS, EVENT_COLUMNS, null, null, null, null, "id")) {
+                while (cursor.moveToNext()) {
+                    events.add(eventAt(cursor));
+                }
+            }
+            long highWaterMark = 0;
+            long tombstoneMark = 0;
+            long currentAt = 0;
+            boolean complete = false;
+            try (Cursor cursor = db.query(MARKS, new String[]{"name", "value"},
+                    null, null, null, null, null)) {
+                while (cursor.moveToNext()) {
+                    String name = cursor.getString(0);
+                    if (HIGH_WATER_MARK.equals(name)) highWaterMark = cursor.getLong(1);
+                    else if (TOMBSTONE_MARK.equals(name)) tombstoneMark = cursor.getLong(1);
+                    else if (CURRENT_AT.equals(name)) currentAt = cursor.getLong(1);
+                    else if (COMPLETE.equals(name)) complete = cursor.getLong(1) != 0;
+                }
+            }
+            return new Contents(events, highWaterMark, tombstoneMark, currentAt, complete);
+        });
+    }
+
+    /**
+     * Queues storing an event, replacing any earlier row and tags of the same id.
+     *
+     * @param event the event summary
+     * @param updatedAt its {@link Event#UPDATED_AT}, or 0 if unknown
+     */
+    public synchronized void put(Event event, long updatedAt) {
+        pending.put(event.getId(), new Row(event, updatedAt));
+        schedule();
+    }
+
+    /**
+     * Queues deleting an event.
+     *
+     * @param id the event id
+     */
+    public synchronized void remove(String id) {
+        pending.put(id, null);
+        schedule();
+    }
+
+    /**
+     * Queues storing the catalog's marks.
+     *
+     * @param highWaterMark newest {@code updatedAt} applied
+     * @param tombstoneMark newest tombstone time applied
+     * @param currentAt device time at which the rows were last current
+     * @param complete whether the rows hold every event
+     */
+    public synchronized void setMarks(long highWaterMark, long tombstoneMark, long currentAt,
+                                      boolean complete) {
+        pendingMarks = new long[]{highWaterMark, tombstoneMark, currentAt, complete ? 1 : 0};
+        schedule();
+    }
+
+    /** Queues dropping every event; marks are kept until {@link #setMarks} replaces them. */
+    public synchronized void clear() {
+        pending.clear();
+        pendingClear = true;
+        schedule();
+    }
+
+    /**
+     * Finds stored events by tag and start-date window, through the {@code event_tags} and
+     * {@code start_day} indexes. Mirrors the rules of {@link User#filterEvents}: an event matches
+     * if it carries one of the tokens as a tag or is named exactly like one, and, if a window is
+     * given, starts on or after its first day and ends by its last, or has no start date.
+     *
+     * @param tokens search tokens; empty matches every event
+     * @param firstDay first epoch day of the window, or {@code null} for no window
+     * @param lastDay last epoch day of the window, inclusive; ignored without {@code firstDay}
+     * @return a task resolving to the matching event ids, sorted
+     */
+    public Task<List<String>> query(Collection<String> tokens, Long firstDay, Long lastDay) {
+        TreeSet<String> tags = new TreeSet<>();
+        for (String token : tokens) {
+            tags.addAll(TagIndex.normalize(token));
+        }
+        List<String> names = new ArrayList<>(tokens);
+        return Tasks.call(io, () -> {
+            StringBuilder where = new StringBuilder();
+            List<String> args = new ArrayList<>();
+            if (!tokens.isEmpty()) {
+                where.append("(name IN (").append(placeholders(names.size())).append(')');
+                args.addAll(names);
+                if (!tags.isEmpty()) {
+                    where.append(" OR id IN (SELECT id FROM " + EVENT_TAGS + " WHERE tag IN (")
+                            .append(placeholders(tags.size())).append("))");
+                    args.addAll(tags);
+                }
+                where.append(')');
+            }
+            if (firstDay != null) {
+                if (where.length() > 0) where.append(" AND ");
+                where.append("(start_day BETWEEN ? AND ? AND (end_day IS NULL OR end_day <= ?)"
+                        + " OR start_date IS NULL)");
+                args.add(String.valueOf(firstDay));
+                args.add(String.valueOf(lastDay));
+                args.add(String.valueOf(lastDay));
+            }
+            List<String> ids = new ArrayList<>();
+            try (Cursor cursor = getReadableDatabase().query(EVENTS, new String[]{"id"},
+                    where.length() > 0 ? where.toString() : null,
+                    args.toArray(new String[0]), null, null, "id")) {
+                while (cursor.moveToNext()) {
+                    ids.add(cursor.getString(0));
+                }
+            }
+            return ids;
+        });
+    }
+
+    private void schedule() {
+        if (scheduled) return;
+        scheduled = true;
+        io.execute(this::flush);
+    }
+
+    /** Applies the queued writes in one transaction. */
+    private void flush() {
+        Map<String, Row> rows;
+        long[] marks;
+        boolean clear;
+        synchronized (this) {
+            rows = new LinkedHashMap<>(pending);
+            marks = pendingMarks;
+            clear = pendingClear;
+            pending.clear();
+            pendingMarks = null;
+            pendingClear = false;
+            scheduled = false;
+        }
+        try {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                if (clear) {
+                    db.delete(EVENTS, null, null);
+                    db.delete(EVENT_TAGS, null, null);
+                }
+                for (Map.Entry<String, Row> entry : rows.entrySet()) {
+                    String[] id = {entry.getKey()};
+                    db.delete(EVENT_TAGS, "id = ?", id);
+                    Row row = entry.getValue();
+                    if (row == null) {
+                        db.delete(EVENTS, "id = ?", id);
+                        continue;
+                    }
+                    db.insertWithOnConflict(EVENTS, null, valuesOf(row),
+                            SQLiteDatabase.CONFLICT_REPLACE);
+                    for (String tag : TagIndex.normalize(row.event.getTag())) {
+                        ContentValues values = new ContentValues();
+                        values.put("tag", tag);
+                        values.put("id", entry.getKey());
+                        db.insertWithOnConflict(EVENT_TAGS, null, values,
+                                SQLiteDatabase.CONFLICT_IGNORE);
+                    }
+                }
+                if (marks != null) {
+                    putMark(db, HIGH_WATER_MARK, marks[0]);
+                    putMark(db, TOMBSTONE_MARK, marks[1]);
+                    putMark(db, CURRENT_AT, marks[2]);
+                    putMark(db, COMPLETE, marks[3]);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            // The store only speeds up cold starts; the catalog stays correct without it
+            Log.e(TAG, "Failed to write " + rows.size() + " events", e);
+        }
+    }
+
+    private static void putMark(SQLiteDatabase db, String name, long value) {
+        ContentValues values = new ContentValues();
+        values.put("name", name);
+        values.put("value", value);
+        db.insertWithOnConflict(MARKS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private static ContentValues valuesOf(Row row) {
+        Event event = row.event;
+        ContentValues values = new ContentValues();
+        values.put("id", event.getId());
+        values.put("name", event.getName());
+        values.put("organizer", event.getOrganizer() == null
+                ? null : event.getOrganizer().getOrganizerId());
+        values.put("start_time", event.getEventStartTime());
+        values.put("end_time", event.getEventEndTime());
+        values.put("start_date", event.getEventStartDate());
+        values.put("end_date", event.getEventEndDate());
+        values.put("tag", event.getTag());
+        values.put("on_hold", event.isOnHold() ? 1 : 0);
+        values.put("start_day", Event.epochDayOf(event.getEventStartDate()));
+        values.put("end_day", Event.epochDayOf(event.getEventEndDate()));
+        values.put("updated_at", row.updatedAt);
+        PosterStore.PosterRef poster = event.getPosterRef();
+        if (poster != null) {
+            values.put("poster_rendition", poster.getRendition());
+            values.put("poster_url", poster.getUrl());
+            values.put("poster_version", poster.getVersion());
+            values.put("poster_hash", poster.getHash());
+            values.put("poster_preview", poster.getPreview());
+        }
+        return values;
+    }
+
+    /** Rebuilds the event at the cursor, as {@link Event#fromSummary} would from its summary. */
+    private static Event eventAt(Cursor cursor) {
+        String id = cursor.getString(0);
+        Event event = new Event(cursor.getString(2), id, cursor.getString(1), null,
+                cursor.getString(3), cursor.getString(4), cursor.getString(5), cursor.getString(6),
+                null, null, 0, null, cursor.getString(7), false);
+        event.setOnHold(cursor.getInt(8) != 0);
+        if (!cursor.isNull(10)) {
+            event.setPosterRef(new PosterStore.PosterRef(id, cursor.getString(9),
+                    cursor.getString(10), cursor.getString(11), cursor.getString(12),
+                    cursor.getString(13)));
+        }
+        return event;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.toString();
+    }
+}
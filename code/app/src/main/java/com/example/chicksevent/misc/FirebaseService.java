@@ -2,10 +2,14 @@ package com.example.chicksevent.misc;
 
 import android.util.Log;
 
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
 
 import java.util.HashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Utility service class that wraps Firebase Realtime Database operations for a specific root node.
@@ -32,6 +36,13 @@ import java.util.HashMap;
  */
 public class FirebaseService {
 
+    /**
+     * Runs task continuations inline on the thread completing the task, usually the main thread
+     * for database reads. For continuations that only merge or map small results in memory and
+     * need no thread hop; anything slower belongs on its own executor.
+     */
+    public static final Executor DIRECT = Runnable::run;
+
     /** Firebase Realtime Database instance bound to the project URL. */
     private FirebaseDatabase database;
 
@@ -87,6 +98,22 @@ public class FirebaseService {
                 .addOnFailureListener(e -> Log.e("FirestoreTest", "Failed", e));
     }
 
+    /**
+     * Sets the value stored directly at the given id, replacing anything already there.
+     * <p>
+     * Intended for scalar entries such as counters; pass {@code ServerValue.increment(n)} to
+     * adjust a counter atomically without reading it first.
+     * </p>
+     *
+     * @param id the key of the entry to set.
+     * @param value the value to store (scalar, map, or a {@code ServerValue} placeholder).
+     */
+    public void setEntryValue(String id, Object value) {
+        reference.child(id).setValue(value)
+                .addOnSuccessListener(a -> Log.d("FirestoreTest", "Success"))
+                .addOnFailureListener(e -> Log.e("FirestoreTest", "Failed", e));
+    }
+
     /**
      * Updates an existing entry with the provided data map.
      *
@@ -129,6 +156,47 @@ public class FirebaseService {
                 .addOnFailureListener(e -> Log.e("FirestoreTest", "SubCollection Delete Failed", e));
     }
 
+    /**
+     * Reads one page of children in key order, starting after a cursor key.
+     * <p>
+     * Use the key of the last child of one page as the cursor for the next; a page with fewer
+     * than {@code pageSize} children is the last one.
+     * </p>
+     *
+     * @param afterKey the last key of the previous page, or {@code null} for the first page.
+     * @param pageSize the maximum number of children to read.
+     * @return a task resolving to a snapshot holding at most {@code pageSize} children.
+     */
+    public Task<DataSnapshot> getPage(String afterKey, int pageSize) {
+        Query query = reference.orderByKey();
+        if (afterKey != null) {
+            query = query.startAfter(afterKey);
+        }
+        return query.limitToFirst(pageSize).get();
+    }
+
+    /**
+     * Reads one page of the children whose {@code child} field equals {@code value}, in key order
+     * within that value, starting after a cursor key. Requires an {@code .indexOn} rule for
+     * {@code child}.
+     *
+     * @param child the field to match, e.g. {@code "organizer"}.
+     * @param value the value the field must equal.
+     * @param afterKey the last key of the previous page, or {@code null} for the first page.
+     * @param pageSize the maximum number of children to read.
+     * @return a task resolving to a snapshot holding at most {@code pageSize} children.
+     */
+    public Task<DataSnapshot> getPageWhere(String child, String value, String afterKey, int pageSize) {
+        Query query = reference.orderByChild(child);
+        if (afterKey == null) {
+            query = query.equalTo(value);
+        } else {
+            // Same value, keys after the cursor
+            query = query.startAfter(value, afterKey).endAt(value);
+        }
+        return query.limitToFirst(pageSize).get();
+    }
+
     /**
      * Retrieves the underlying {@link DatabaseReference} for direct Firebase operations.
      *
@@ -0,0 +1,261 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Live, incrementally maintained list of events read a page at a time through the shared
+ * {@link EventCatalog}.
+ * <p>
+ * Rows are read with an {@link EventPager} over a catalog {@link #setSource source}, so each
+ * page also lands in the catalog, and the catalog is followed behind the first page. Only the
+ * key range paged so far is shown: a change the catalog reports inside it updates its one row,
+ * and one beyond it waits until that page is read. A screen that comes back shows the catalog's
+ * last known rows at once, until its first page replaces them.
+ * </p>
+ * <p>
+ * The rows passing the filter are kept in their own sorted map, updated one row at a time as
+ * pages arrive and the catalog reports changes, so publishing and {@link #hasMore()} never
+ * rescan the catalog. Only the first {@link #getLimit()} of them are published, starting with one
+ * {@link EventPager#PAGE_SIZE page}. {@link #loadMore()} widens that window by a page as the user
+ * scrolls, reading the next page once the rows already read run out. All methods must be called
+ * on the main thread.
+ * </p>
+ *
+ * <p><b>Firebase paths used:</b> through {@link EventCatalog}</p>
+ */
+public class LiveEventList {
+
+    /** Log tag. */
+    private static final String TAG = "LiveEventList";
+
+    /**
+     * Receives the visible rows whenever they change.
+     */
+    public interface Listener {
+        /**
+         * @param events the rows passing the current filter, in key order; a fresh list the
+         *               receiver may keep
+         */
+        void onEventsChanged(List<Event> events);
+    }
+
+    /** The events the list shows a window of. */
+    private final EventCatalog catalog;
+
+    /** Receives row updates. */
+    private final Listener listener;
+
+    /** Applies catalog changes to the filtered rows. */
+    private final EventCatalog.Listener catalogListener = new EventCatalog.Listener() {
+        @Override
+        public void onCatalogChanged() {
+            rebuild(catalog.events());
+            publish();
+        }
+
+        @Override
+        public void onEventChanged(String id, Event event) {
+            if (!covers(id)) return;
+            boolean listed = event != null && filter.test(event);
+            Event previous = listed ? matching.put(id, event) : matching.remove(id);
+            if (listed || previous != null) {
+                publish();
+            }
+        }
+    };
+
+    /** Decides which rows are shown. */
+    private Predicate<Event> filter = event -> !event.isOnHold();
+
+    /** Rows passing the filter, keyed and ordered by id. */
+    private final TreeMap<String, Event> matching = new TreeMap<>();
+
+    /** Number of rows published at most. */
+    private int limit = EventPager.PAGE_SIZE;
+
+    /** Whether the list is following the catalog. */
+    private boolean started;
+
+    /** Whether {@link EventCatalog#follow()} has been called since the last start. */
+    private boolean following;
+
+    /** Reads the rows, or {@code null} for every event through {@link EventCatalog#pages()}. */
+    private EventPager.PageSource source;
+
+    /** Pager over the source while started, otherwise {@code null}. */
+    private EventPager pager;
+
+    /** Whether a page has arrived since the last start; until then the catalog's rows stand in. */
+    private boolean paged;
+
+    /**
+     * Constructs a list over the shared catalog.
+     *
+     * @param listener receives row updates
+     */
+    public LiveEventList(Listener listener) {
+        this(EventCatalog.getInstance(), listener);
+    }
+
+    /**
+     * Constructs a list over the given catalog.
+     *
+     * @param catalog the events to show
+     * @param listener receives row updates
+     */
+    public LiveEventList(EventCatalog catalog, Listener listener) {
+        this.catalog = catalog;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets where rows are read from. Takes effect on the next {@link #start()}.
+     *
+     * @param source {@link EventCatalog#pages()} or {@link EventCatalog#pagesOf} of the list's
+     *               catalog, or {@code null} for every event
+     */
+    public void setSource(EventPager.PageSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Replaces the filter deciding which rows are shown and, once started, publishes the result.
+     * The default hides events on hold.
+     *
+     * @param filter returns {@code true} for events to show
+     */
+    public void setFilter(Predicate<Event> filter) {
+        this.filter = filter;
+        if (!started) return;
+        rebuild(catalog.events());
+        publish();
+    }
+
+    /**
+     * Reads the first page and follows the catalog behind it. The catalog's known rows are
+     * published immediately and replaced once the page arrives. Does nothing if the list is
+     * already started.
+     */
+    public void start() {
+        if (started) return;
+        started = true;
+        catalog.addListener(catalogListener);
+        pager = new EventPager(source != null ? source : catalog.pages(),
+                child -> child.exists() ? catalog.get(child.getKey()) : null);
+        paged = false;
+        rebuild(catalog.events());
+        if (!matching.isEmpty()) {
+            publish();
+        }
+        readPage();
+    }
+
+    /**
+     * Widens the published window by one page, reading the next page if the rows already read
+     * do not fill it. Safe to call from row binding.
+     */
+    public void loadMore() {
+        if (!hasMore()) return;
+        limit += EventPager.PAGE_SIZE;
+        if (matching.size() < limit && pager.hasMore() && !pager.isLoading()) {
+            readPage();
+        } else {
+            publish();
+        }
+    }
+
+    /** @return whether more rows pass the filter than the window shows, or pages remain. */
+    public boolean hasMore() {
+        if (pager != null && pager.hasMore() && !pager.isLoading()) return true;
+        return matching.size() > limit;
+    }
+
+    /** @return the number of rows published at most. */
+    public int getLimit() {
+        return limit;
+    }
+
+    /** Stops following the catalog. Its rows are kept for the next {@link #start()}. */
+    public void stop() {
+        if (!started) return;
+        started = false;
+        pager = null;
+        catalog.removeListener(catalogListener);
+        if (following) {
+            following = false;
+            catalog.unfollow();
+        }
+    }
+
+    /**
+     * Returns the rows passing the current filter, up to the window size.
+     *
+     * @return a fresh list in key order
+     */
+    public List<Event> visible() {
+        List<Event> visible = new ArrayList<>(Math.min(limit, matching.size()));
+        for (Event event : matching.values()) {
+            if (visible.size() == limit) break;
+            visible.add(event);
+        }
+        return visible;
+    }
+
+    private void follow() {
+        if (following) return;
+        following = true;
+        catalog.follow();
+    }
+
+    /** Reads the next page; the catalog is followed once the first one is in. */
+    private void readPage() {
+        EventPager requested = pager;
+        requested.next().addOnCompleteListener(DIRECT, task -> {
+            if (requested != pager) return;  // stopped
+            if (task.isSuccessful()) {
+                if (!paged) {
+                    // The first page replaces the rows that stood in for it
+                    paged = true;
+                    matching.clear();
+                }
+                for (Event event : task.getResult()) {
+                    if (filter.test(event)) {
+                        matching.put(event.getId(), event);
+                    }
+                }
+                publish();
+            } else {
+                Log.e(TAG, "Failed to read events", task.getException());
+            }
+            follow();
+        });
+    }
+
+    /** @return whether a row belongs to the key range paged so far. */
+    private boolean covers(String id) {
+        if (!paged || pager == null || !pager.hasMore()) return true;
+        String cursor = pager.getCursor();
+        return cursor != null && id.compareTo(cursor) <= 0;
+    }
+
+    private void rebuild(Collection<Event> rows) {
+        matching.clear();
+        for (Event event : rows) {
+            if (covers(event.getId()) && filter.test(event)) {
+                matching.put(event.getId(), event);
+            }
+        }
+    }
+
+    private void publish() {
+        listener.onEventsChanged(visible());
+    }
+}
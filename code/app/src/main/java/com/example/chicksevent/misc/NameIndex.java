@@ -0,0 +1,306 @@
+package com.example.chicksevent.misc;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory substring index over short texts such as event or entrant names, for search boxes
+ * and autocomplete.
+ * <p>
+ * Each document is an id with one or more text fields. Fields are normalized (see
+ * {@link #normalize(String)}) and every 3-character window of a field is added to a posting list
+ * of document ordinals. A query of three or more characters intersects the posting lists of its
+ * own 3-grams, smallest first, and checks the few surviving candidates with
+ * {@link String#contains}, so it finds the same documents as a substring scan without visiting
+ * each one. Shorter queries match the start of any word, through a sorted word map.
+ * </p>
+ * <p>
+ * Ordinals are handed out in insertion order, so posting lists stay sorted without re-sorting.
+ * {@link #remove(String)} and re-adding an id only retire the old ordinal; retired ordinals are
+ * skipped by queries. Not thread-safe: build the index on one thread, then share it read-only or
+ * guard it externally.
+ * </p>
+ */
+public class NameIndex {
+
+    /** Characters in one n-gram. */
+    private static final int GRAM = 3;
+
+    /**
+     * Separates the fields of a document in its normalized text. Normalized queries never
+     * contain it, so a match cannot span two fields.
+     */
+    private static final char FIELD_SEPARATOR = '\n';
+
+    /** Id of each ordinal. */
+    private final ArrayList<String> ids = new ArrayList<>();
+
+    /** Text shown for each ordinal (its first field), or {@code null} once retired. */
+    private final ArrayList<String> labels = new ArrayList<>();
+
+    /** Normalized fields of each ordinal, joined by {@link #FIELD_SEPARATOR}. */
+    private final ArrayList<String> texts = new ArrayList<>();
+
+    /** Live ordinal of each id. */
+    private final HashMap<String, Integer> ordinals = new HashMap<>();
+
+    /** Posting list of each 3-gram, packed by {@link #gramAt}. */
+    private final HashMap<Long, Postings> grams = new HashMap<>();
+
+    /** Posting list of each whole word, for queries shorter than a 3-gram. */
+    private final TreeMap<String, Postings> words = new TreeMap<>();
+
+    /**
+     * Normalizes text for indexing and querying: lower-cased, accents removed, and every run of
+     * characters other than letters and digits turned into one space.
+     *
+     * @param text the text, may be {@code null}
+     * @return the normalized text, trimmed; empty for {@code null}
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.isNormalized(text, Normalizer.Form.NFD)
+                ? text
+                : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean gap = false;
+        for (int i = 0; i < decomposed.length(); ) {
+            int c = decomposed.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                gap = false;
+                normalized.appendCodePoint(Character.toLowerCase(c));
+            } else if (!isMark(c)) {
+                gap = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /** @return whether {@code c} is a combining mark, left behind by decomposing accents. */
+    private static boolean isMark(int c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    /**
+     * Adds a document, replacing any earlier document with the same id.
+     *
+     * @param id the document id
+     * @param fields the texts to search; the first is also the label returned by
+     *               {@link #suggest(String, int)}. {@code null} fields are ignored.
+     */
+    public void put(String id, String... fields) {
+        remove(id);
+        int ordinal = ids.size();
+        StringBuilder text = new StringBuilder();
+        for (String field : fields) {
+            String normalized = normalize(field);
+            if (normalized.isEmpty()) continue;
+            if (text.length() > 0) {
+                text.append(FIELD_SEPARATOR);
+            }
+            text.append(normalized);
+            for (int i = 0; i + GRAM <= normalized.length(); i++) {
+                postingsOf(grams, gramAt(normalized, i)).add(ordinal);
+            }
+            for (String word : normalized.split(" ")) {
+                postingsOf(words, word).add(ordinal);
+            }
+        }
+        ids.add(id);
+        labels.add(fields.length > 0 ? fields[0] : null);
+        texts.add(text.toString());
+        ordinals.put(id, ordinal);
+    }
+
+    /**
+     * Removes a document. Does nothing if the id is not indexed.
+     *
+     * @param id the document id
+     */
+    public void remove(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal != null) {
+            labels.set(ordinal, null);
+            texts.set(ordinal, null);
+        }
+    }
+
+    /** @return the number of indexed documents. */
+    public int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * Finds every document matching a query.
+     *
+     * @param query the search text; normalized before matching
+     * @return the matching ids, in insertion order; empty for a blank query
+     */
+    public List<String> search(String query) {
+        return search(query, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the first documents matching a query. A query of three or more characters matches
+     * documents containing it anywhere in one field; a shorter one matches the start of a word.
+     *
+     * @param query the search text; normalized before matching
+     * @param limit the maximum number of ids to return
+     * @return the matching ids, in insertion order; empty for a blank query
+     */
+    public List<String> search(String query, int limit) {
+        List<String> found = new ArrayList<>();
+        if (limit <= 0) {
+            return found;
+        }
+        forEachMatch(normalize(query), ordinal -> {
+            found.add(ids.get(ordinal));
+            return found.size() < limit;
+        });
+        return found;
+    }
+
+    /**
+     * Returns autocomplete suggestions for a query: the distinct labels of matching documents,
+     * those starting with the query first.
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the suggested labels; empty for a blank query
+     */
+    public List<String> suggest(String query, int limit) {
+        String q = normalize(query);
+        List<String> leading = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        if (limit <= 0) {
+            return leading;
+        }
+        forEachMatch(q, ordinal -> {
+            String label = labels.get(ordinal);
+            if (label == null || leading.contains(label) || others.contains(label)) return true;
+            if (texts.get(ordinal).startsWith(q)) {
+                leading.add(label);
+            } else if (others.size() < limit) {
+                others.add(label);
+            }
+            return leading.size() < limit;
+        });
+        for (String label : others) {
+            if (leading.size() == limit) break;
+            leading.add(label);
+        }
+        return leading;
+    }
+
+    /**
+     * Passes the live ordinals matching a normalized query to {@code visit} in ascending order,
+     * until it returns {@code false}.
+     */
+    private void forEachMatch(String q, IntPredicate visit) {
+        if (q.isEmpty()) return;
+        if (q.length() < GRAM) {
+            forEachWordPrefixMatch(q, visit);
+        } else {
+            forEachGramMatch(q, visit);
+        }
+    }
+
+    private void forEachGramMatch(String q, IntPredicate visit) {
+        Postings[] lists = new Postings[q.length() - GRAM + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = grams.get(gramAt(q, i));
+            if (lists[i] == null) return;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] cursors = new int[lists.length];
+        candidates:
+        for (int c = 0; c < lists[0].size; c++) {
+            int ordinal = lists[0].ordinals[c];
+            for (int l = 1; l < lists.length; l++) {
+                cursors[l] = lists[l].seek(ordinal, cursors[l]);
+                if (cursors[l] >= lists[l].size) return;
+                if (lists[l].ordinals[cursors[l]] != ordinal) continue candidates;
+            }
+            String text = texts.get(ordinal);
+            if (text != null && text.contains(q) && !visit.test(ordinal)) return;
+        }
+    }
+
+    private void forEachWordPrefixMatch(String q, IntPredicate visit) {
+        BitSet hits = new BitSet(ids.size());
+        SortedMap<String, Postings> prefixed = words.subMap(q, q + Character.MAX_VALUE);
+        for (Postings postings : prefixed.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                hits.set(postings.ordinals[i]);
+            }
+        }
+        for (int o = hits.nextSetBit(0); o >= 0; o = hits.nextSetBit(o + 1)) {
+            if (texts.get(o) != null && !visit.test(o)) return;
+        }
+    }
+
+    /** Packs the three characters of {@code text} starting at {@code i} into one key. */
+    private static long gramAt(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    private static <K> Postings postingsOf(Map<K, Postings> lists, K key) {
+        Postings postings = lists.get(key);
+        if (postings == null) {
+            postings = new Postings();
+            lists.put(key, postings);
+        }
+        return postings;
+    }
+
+    /**
+     * Growable, ascending list of document ordinals.
+     */
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        int size;
+
+        void add(int ordinal) {
+            // A field repeating a gram or word adds the same ordinal twice in a row
+            if (size > 0 && ordinals[size - 1] == ordinal) return;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        /**
+         * Returns the index of the first ordinal not below {@code target}, searching from
+         * {@code from} by doubling steps and then binary search.
+         */
+        int seek(int target, int from) {
+            int step = 1;
+            int high = from;
+            while (high < size && ordinals[high] < target) {
+                from = high + 1;
+                high += step;
+                step *= 2;
+            }
+            int found = Arrays.binarySearch(ordinals, from, Math.min(high + 1, size), target);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.chicksevent.misc;
 
+import android.util.Log;
+
 import com.example.chicksevent.enums.NotificationType;
 import com.google.android.gms.tasks.Task;
-import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.ServerValue;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Represents a user notification related to an event.
@@ -17,6 +23,25 @@ import java.util.HashMap;
  *
  * <p><b>Firebase path used:</b> {@code Notification/{userId}/{eventId}/{notificationType}}</p>
  *
+ * <p>Each record stores the {@code message}, a {@code contentHash} of the type and message and
+ * the {@code sentAt} server timestamp. The hash and timestamp let the
+ * {@code coalesceNotification} Cloud Function suppress or merge repeats of a broadcast (see
+ * {@link NotificationCoalescer}); it alone maintains the record's {@code count} of coalesced
+ * sends, which is absent until a merge.</p>
+ *
+ * <p>Every write also stamps the per-user time index
+ * {@code NotificationTime/{userId}/{eventId}|{notificationType}} and its global counterpart
+ * {@code NotificationExpiry/{userId}|{eventId}|{notificationType}}, which the scheduled
+ * {@code compactNotifications} function queries by value so each run reads only the entries
+ * that have expired. The reverse index
+ * {@code EventNotified/{eventId}/{userId}/{notificationType}} records who was notified about
+ * each event, so event cleanup can find them without scanning every user. The record and all
+ * of these entries are written in one multi-path update from the database root, so they land
+ * together in a single round trip or not at all. The recipient's
+ * {@code NotificationUnread/{userId}} badge counter is kept by the
+ * {@code countUnreadNotifications} Cloud Function, which counts a record when it is first
+ * created and uncounts it when it is deleted unseen.</p>
+ *
  * @author Jordan Kwan
  */
 public class Notification {
@@ -35,9 +60,17 @@ public class Notification {
 
     private String eventName;
 
-    /** Firebase service for performing notification-related database operations. */
+    /** Whether writes record the recipient in the {@code EventNotified} reverse index. */
+    private boolean indexedByEvent = true;
+
+    /**
+     * Firebase service for the "Notification" root; its root reference carries the multi-path
+     * updates that keep the record and its indexes in step.
+     */
     private FirebaseService notificationService;
-    private FirebaseService eventService;
+
+    /** Shared cache used to resolve the event name without reading the whole Event root. */
+    private EventMetadataCache eventCache;
 
     /**
      * Constructs a new {@code Notification} for a specific user and event.
@@ -49,7 +82,7 @@ public class Notification {
      */
     public Notification(String userId, String eventId, NotificationType notificationType, String message) {
         notificationService = new FirebaseService("Notification");
-        eventService = new FirebaseService("Event");
+        eventCache = EventMetadataCache.getInstance();
         this.userId = userId;
         this.eventId = eventId;
         this.notificationType = notificationType;
@@ -61,11 +94,110 @@ public class Notification {
      * <p>
      * The data includes the notification message and type.
      * </p>
+     *
+     * @return a task that completes when the notification has been written
+     */
+    public Task<Void> createNotification() {
+        return write();
+    }
+
+    /**
+     * Writes this notification's record and its time-index and reverse-index entries
+     * atomically in one round trip.
+     *
+     * @return a task that completes when the update has been applied
+     */
+    Task<Void> write() {
+        return notificationService.getReference().getRoot().updateChildren(buildUpdate())
+                .addOnFailureListener(e -> Log.e("Notification", "Write failed for " + getExpiryKey(), e));
+    }
+
+    /**
+     * Deletes this notification's record and its time-index entries in one update.
+     */
+    public void delete() {
+        HashMap<String, Object> update = new HashMap<>();
+        update.put(getRecordPath(), null);
+        update.put("NotificationTime/" + userId + "/" + getIndexKey(), null);
+        update.put("NotificationExpiry/" + getExpiryKey(), null);
+        notificationService.getReference().getRoot().updateChildren(update)
+                .addOnFailureListener(e -> Log.e("Notification", "Delete failed for " + getExpiryKey(), e));
+    }
+
+    /**
+     * Builds the root-relative multi-path update applied by {@link #write()}.
+     * <p>
+     * Record fields are written path by path so that fields this class does not own, such as
+     * the server-maintained {@code count}, are merged rather than replaced.
+     * </p>
+     *
+     * @return the paths to update, relative to the database root
+     */
+    HashMap<String, Object> buildUpdate() {
+        HashMap<String, Object> update = new HashMap<>();
+        for (Map.Entry<String, Object> field : buildPayload().entrySet()) {
+            update.put(getRecordPath() + "/" + field.getKey(), field.getValue());
+        }
+        update.put("NotificationTime/" + userId + "/" + getIndexKey(), ServerValue.TIMESTAMP);
+        update.put("NotificationExpiry/" + getExpiryKey(), ServerValue.TIMESTAMP);
+        if (indexedByEvent) {
+            update.put("EventNotified/" + eventId + "/" + userId + "/" + notificationType, true);
+        }
+        return update;
+    }
+
+    /**
+     * @return the path of this notification's record, relative to the database root
+     */
+    String getRecordPath() {
+        return "Notification/" + userId + "/" + eventId + "/" + notificationType;
+    }
+
+    /**
+     * @return the key of this notification under {@code NotificationTime/{userId}}
+     */
+    String getIndexKey() {
+        return eventId + "|" + notificationType;
+    }
+
+    /**
+     * @return the key of this notification under {@code NotificationExpiry}
      */
-    public void createNotification() {
+    String getExpiryKey() {
+        return userId + "|" + getIndexKey();
+    }
+
+    /**
+     * Builds the record written for this notification.
+     *
+     * @return the field map to store under {@code Notification/{userId}/{eventId}/{type}}
+     */
+    HashMap<String, Object> buildPayload() {
         HashMap<String, Object> data = new HashMap<>();
         data.put("message", message);
-        notificationService.updateSubCollectionEntry(userId, eventId, notificationType.toString(), data);
+        data.put("contentHash", getContentHash());
+        data.put("sentAt", ServerValue.TIMESTAMP);
+        return data;
+    }
+
+    /**
+     * Returns a stable hash of this notification's type and message, used to detect exact
+     * duplicates without comparing full message bodies.
+     *
+     * @return hex-encoded SHA-256 prefix of {@code type + message}
+     */
+    public String getContentHash() {
+        String content = notificationType + "\n" + (message == null ? "" : message);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(content.hashCode());
+        }
     }
 
     /**
@@ -86,16 +218,27 @@ public class Notification {
         return eventId;
     }
 
+    /**
+     * Resolves the display name of the associated event through {@link EventMetadataCache},
+     * which reads only the small {@code EventSummary/{eventId}} node on a cache miss.
+     *
+     * @return a task resolving to the event name, or {@code "NO NAME"} if it cannot be found
+     */
     public Task<String> getEventName() {
-        return eventService.getReference().get().continueWith(task -> {
-//            eventName =
-            for (DataSnapshot ds : task.getResult().getChildren()) {
-                if (ds.getKey().equals(eventId)) {
-                    return ((HashMap<String, String>) ds.getValue()).get("name");
-                }
-            }
-            return "NO NAME";
-        });
+        return eventCache.getName(eventId);
+    }
+
+    /**
+     * Sets whether writes record the recipient under {@code EventNotified/{eventId}}.
+     * <p>
+     * Notices about an event that has already been deleted, such as its cancellation, must not
+     * re-create the reverse index the deletion just cleared; they are left to retention instead.
+     * </p>
+     *
+     * @param indexedByEvent {@code false} to skip the reverse-index entry
+     */
+    public void setIndexedByEvent(boolean indexedByEvent) {
+        this.indexedByEvent = indexedByEvent;
     }
 
     public String getMessage() {
@@ -0,0 +1,114 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Write-side filter that coalesces repeated notifications.
+ * <p>
+ * Notifications are keyed by {@code (userId, eventId, type)}, matching the
+ * {@code Notification/{userId}/{eventId}/{type}} layout. Duplicates inside a single broadcast
+ * (the same recipient listed twice with the same message) are dropped here, without any read;
+ * every other notification is written straight away, one multi-path update each. Repeats across
+ * broadcasts are coalesced by the {@code coalesceNotification} Cloud Function as the record is
+ * written, by server time on both sides:
+ * </p>
+ * <ul>
+ *   <li><b>Suppress</b> — the stored {@code contentHash} matches and was sent within the
+ *   coalescing window, so the recipient just got this exact message; the record keeps its
+ *   original {@code sentAt}. The same message sent again after the window is a deliberate resend
+ *   and stands.</li>
+ *   <li><b>Merge</b> — a different message was sent for the same key within the coalescing
+ *   window; the record keeps the new message and its {@code count} is incremented.</li>
+ *   <li><b>Write</b> — no recent record exists; the record stands with a {@code count} of 1.</li>
+ * </ul>
+ * <p>
+ * {@link #send(List)} resolves to a {@link BroadcastReport} of the records written and the
+ * in-broadcast duplicates dropped.
+ * </p>
+ */
+public class NotificationCoalescer {
+
+    /** Log tag. */
+    private static final String TAG = "NotificationCoalescer";
+
+    /** Outcome of coalescing a single notification on the client. */
+    public enum Outcome { WRITE, SUPPRESS }
+
+    /**
+     * Sends a batch of notifications, dropping duplicates within it.
+     *
+     * @param notifications the notifications to send (typically one broadcast)
+     * @return a task resolving to a report of written and suppressed records
+     */
+    public Task<BroadcastReport> send(List<Notification> notifications) {
+        List<Task<Void>> writes = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+        BroadcastReport report = new BroadcastReport();
+
+        for (Notification notification : notifications) {
+            String key = notification.getUserId() + "/" + notification.getEventId() + "/"
+                    + notification.getNotificationType() + "#" + notification.getContentHash();
+            if (!seen.add(key)) {
+                report.record(Outcome.SUPPRESS);
+                continue;
+            }
+            report.record(Outcome.WRITE);
+            writes.add(notification.createNotification());
+        }
+
+        return Tasks.whenAllComplete(writes).continueWith(DIRECT, task -> {
+            Log.i(TAG, report.toString());
+            return report;
+        });
+    }
+
+    /**
+     * Per-broadcast tally of how many records were written, merged or suppressed.
+     */
+    public static class BroadcastReport {
+        private int written;
+        private int suppressed;
+
+        void record(Outcome outcome) {
+            if (outcome == Outcome.SUPPRESS) {
+                suppressed++;
+            } else {
+                written++;
+            }
+        }
+
+        /** @return number of notifications requested in the broadcast. */
+        public int getRequested() { return written + suppressed; }
+
+        /** @return number of records written. */
+        public int getWritten() { return written; }
+
+        /** @return number of in-broadcast duplicates that were not written at all. */
+        public int getSuppressed() { return suppressed; }
+
+        /**
+         * @return fraction of requested notifications that were not written, between 0 and 1
+         */
+        public double getWriteSavings() {
+            int requested = getRequested();
+            return requested == 0 ? 0 : (double) suppressed / requested;
+        }
+
+        @Override
+        public String toString() {
+            return "Broadcast: requested=" + getRequested()
+                    + " written=" + written
+                    + " suppressed=" + suppressed
+                    + String.format(" (%.0f%% writes saved)", getWriteSavings() * 100);
+        }
+    }
+}
@@ -46,6 +46,9 @@ public class Organizer extends User {
     private FirebaseService waitingListService;
     private FirebaseService userService;
 
+    /** Suppresses and merges repeat broadcasts before they are written. */
+    private NotificationCoalescer notificationCoalescer;
+
     /** The organizer's user id. */
     private String organizerId;
 
@@ -66,6 +69,7 @@ public class Organizer extends User {
         organizerService = new FirebaseService("Organizer");
         eventService = new FirebaseService("Event");
         userService = new FirebaseService("User");
+        notificationCoalescer = new NotificationCoalescer();
     }
 
     /**
@@ -136,6 +140,12 @@ public class Organizer extends User {
 
     /**
      * Broadcasts a {@link Notification} to all entrants in the specified status bucket.
+     * <p>
+     * Recipients with notifications disabled are skipped, and the rest go through
+     * {@link NotificationCoalescer}, which drops duplicates within the broadcast; repeats of an
+     * earlier broadcast are coalesced server-side. The resulting write savings are logged per
+     * broadcast.
+     * </p>
      *
      * @param status the waiting-list bucket whose entrants should be notified
      * @param message the notification message body
@@ -151,6 +161,7 @@ public class Organizer extends User {
                 }
 
                 DataSnapshot usersSnapshot = userTask.getResult();
+                ArrayList<Notification> recipients = new ArrayList<>();
 
                 for (Notification notif : notifications) {
                     Log.i("Notification", "what is this " + notif.getUserId());
@@ -158,10 +169,13 @@ public class Organizer extends User {
                     if (userSnap.exists()) {
                         Object enabled = userSnap.child("notificationsEnabled").getValue();
                         if (enabled instanceof Boolean && (Boolean) enabled) {
-                            notif.createNotification();
+                            recipients.add(notif);
                         }
                     }
                 }
+
+                notificationCoalescer.send(recipients).addOnSuccessListener(report ->
+                        Log.i("Notification", status + " " + report));
             });
         });
     }
@@ -0,0 +1,149 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read side of the tag facet counters, which tell the search screen how many events each tag
+ * would return before the user applies it.
+ * <p>
+ * Counters are kept per tag, and per tag per week, keyed by the tags of {@link TagIndex} and by
+ * the epoch day of the Sunday starting the week (see {@link #weekOf(long)}):
+ * </p>
+ * <pre>
+ * TagFacet/{normalizedTag} = count
+ * TagFacetWeek/{weekStartDay}/{normalizedTag} = count
+ * </pre>
+ * <p>
+ * The {@code projectEventSummary} Cloud Function moves an event between counters with
+ * server-side increments whenever its tags, start day or hold flag change, so creating, editing
+ * or deleting an event costs one small update and no count ever requires a scan. Events on hold
+ * are not counted, as search hides them. A counter may sit at zero after its last event leaves.
+ * </p>
+ * <p>
+ * All counts come from one read: the whole {@code TagFacet} root, or the weeks of a date window
+ * as one key-range query. Week counts cover whole weeks, so for a window that does not start on
+ * a Sunday they are an upper bound of what the availability filter returns.
+ * </p>
+ *
+ * <p><b>Firebase paths used:</b> {@code TagFacet}, {@code TagFacetWeek}</p>
+ */
+public class TagFacets {
+
+    /** Firebase service for the "TagFacet" root. */
+    private final FirebaseService totalService;
+
+    /** Firebase service for the "TagFacetWeek" root. */
+    private final FirebaseService weekService;
+
+    /**
+     * Constructs a reader over the {@code TagFacet} and {@code TagFacetWeek} roots.
+     */
+    public TagFacets() {
+        this(new FirebaseService("TagFacet"), new FirebaseService("TagFacetWeek"));
+    }
+
+    /**
+     * Constructs a reader that reads through the given services.
+     *
+     * @param totalService Firebase service scoped to the {@code TagFacet} root
+     * @param weekService Firebase service scoped to the {@code TagFacetWeek} root
+     */
+    public TagFacets(FirebaseService totalService, FirebaseService weekService) {
+        this.totalService = totalService;
+        this.weekService = weekService;
+    }
+
+    /**
+     * Returns the Sunday starting the week of an epoch day, as an epoch day. Weeks start on
+     * Sunday, like the availability filters of {@link User#getFilterDate(String)}. The Cloud
+     * Function applies the same rule when counting.
+     *
+     * @param epochDay days since 1970-01-01, which was a Thursday
+     * @return the epoch day of that week's Sunday
+     */
+    public static long weekOf(long epochDay) {
+        return epochDay - Math.floorMod(epochDay + 4, 7L);
+    }
+
+    /**
+     * Reads the number of listed events carrying each tag.
+     *
+     * @return a task resolving to counts keyed by normalized tag; tags no event carries may be
+     *         missing or zero
+     */
+    public Task<Map<String, Long>> counts() {
+        return totalService.getReference().get().continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            Map<String, Long> counts = new HashMap<>();
+            addCounts(task.getResult(), counts);
+            return counts;
+        });
+    }
+
+    /**
+     * Reads the number of listed events carrying each tag and starting in the weeks that
+     * overlap a window, with one key-range query over the week counters.
+     *
+     * @param firstDay first epoch day of the window, inclusive
+     * @param lastDay last epoch day of the window, inclusive
+     * @return a task resolving to counts keyed by normalized tag, summed over the weeks
+     */
+    public Task<Map<String, Long>> countsBetween(long firstDay, long lastDay) {
+        return weekService.getReference()
+                .orderByKey()
+                .startAt(String.valueOf(weekOf(firstDay)))
+                .endAt(String.valueOf(lastDay))
+                .get()
+                .continueWith(DIRECT, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    Map<String, Long> counts = new HashMap<>();
+                    for (DataSnapshot week : task.getResult().getChildren()) {
+                        addCounts(week, counts);
+                    }
+                    return counts;
+                });
+    }
+
+    /**
+     * Orders tags by count, highest first, dropping those with no events.
+     *
+     * @param counts counts keyed by tag
+     * @param limit the maximum number of tags to return
+     * @return the tags with the highest counts; ties in tag order
+     */
+    public static List<String> top(Map<String, Long> counts, int limit) {
+        List<String> tags = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (entry.getValue() > 0) {
+                tags.add(entry.getKey());
+            }
+        }
+        Collections.sort(tags, (a, b) -> {
+            int byCount = Long.compare(counts.get(b), counts.get(a));
+            return byCount != 0 ? byCount : a.compareTo(b);
+        });
+        return tags.size() > limit ? new ArrayList<>(tags.subList(0, limit)) : tags;
+    }
+
+    private static void addCounts(DataSnapshot counters, Map<String, Long> counts) {
+        for (DataSnapshot counter : counters.getChildren()) {
+            Long count = counter.getValue(Long.class);
+            if (counter.getKey() == null || count == null) continue;
+            Long previous = counts.get(counter.getKey());
+            counts.put(counter.getKey(), previous == null ? count : previous + count);
+        }
+    }
+}
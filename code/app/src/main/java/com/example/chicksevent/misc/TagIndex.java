@@ -0,0 +1,208 @@
+package com.example.chicksevent.misc;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Read side of the inverted tag index used for event search.
+ * <p>
+ * Each event's {@code tag} string is split into normalized tags (see {@link #normalize(String)}),
+ * and every tag keeps a posting list of the events carrying it:
+ * </p>
+ * <pre>
+ * TagIndex/{normalizedTag}/{eventId} = true
+ * </pre>
+ * <p>
+ * The {@code indexEventTags} Cloud Function maintains the index whenever an event's {@code tag}
+ * is created, edited or removed, so clients only read it. A search reads the posting list of
+ * each requested tag in parallel and combines them with a sorted merge, instead of downloading
+ * and scanning every event. {@link #intersect} combines the result with other sorted id sets,
+ * such as the events in a date range.
+ * </p>
+ *
+ * <p><b>Firebase paths used:</b> {@code TagIndex/{normalizedTag}}</p>
+ */
+public class TagIndex {
+
+    /** Log tag. */
+    private static final String TAG = "TagIndex";
+
+    /** Firebase service for the "TagIndex" root. */
+    private final FirebaseService indexService;
+
+    /**
+     * Constructs an index reader over the {@code TagIndex} root.
+     */
+    public TagIndex() {
+        this(new FirebaseService("TagIndex"));
+    }
+
+    /**
+     * Constructs an index reader that reads through the given service.
+     *
+     * @param indexService Firebase service scoped to the {@code TagIndex} root
+     */
+    public TagIndex(FirebaseService indexService) {
+        this.indexService = indexService;
+    }
+
+    /**
+     * Splits a tag string into the keys used by the index: lower-cased, split on commas and
+     * whitespace, stripped of characters Firebase keys cannot hold, de-duplicated and sorted.
+     * The {@code indexEventTags} Cloud Function applies the same rule when writing.
+     *
+     * @param tags a tag string or search input, may be {@code null}
+     * @return the normalized tags, sorted
+     */
+    public static List<String> normalize(String tags) {
+        TreeSet<String> normalized = new TreeSet<>();
+        if (tags == null) {
+            return new ArrayList<>();
+        }
+        for (String token : tags.toLowerCase(Locale.ROOT).split("[,\\s]+")) {
+            String key = token.replaceAll("[.#$\\[\\]/]", "");
+            if (!key.isEmpty()) {
+                normalized.add(key);
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    /**
+     * Resolves the events carrying at least one of the given tags.
+     *
+     * @param tags search tokens; each is normalized before lookup
+     * @return a task resolving to the matching event ids, sorted and without duplicates
+     */
+    public Task<List<String>> eventsWithAny(Collection<String> tags) {
+        TreeSet<String> keys = new TreeSet<>();
+        for (String tag : tags) {
+            keys.addAll(normalize(tag));
+        }
+        List<Task<List<String>>> reads = new ArrayList<>();
+        for (String key : keys) {
+            reads.add(postings(key));
+        }
+        return Tasks.whenAllComplete(reads).continueWith(DIRECT, task -> {
+            List<List<String>> lists = new ArrayList<>();
+            for (Task<List<String>> read : reads) {
+                if (read.isSuccessful()) {
+                    lists.add(read.getResult());
+                } else {
+                    Log.e(TAG, "Failed to read posting list", read.getException());
+                }
+            }
+            return union(lists);
+        });
+    }
+
+    /**
+     * Reads the posting list of one normalized tag.
+     *
+     * @param key a tag from {@link #normalize(String)}
+     * @return a task resolving to the event ids carrying it, sorted
+     */
+    public Task<List<String>> postings(String key) {
+        return indexService.getReference().child(key).get().continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            List<String> ids = new ArrayList<>();
+            for (DataSnapshot child : task.getResult().getChildren()) {
+                ids.add(child.getKey());
+            }
+            // Firebase already returns keys in order; sorting keeps the merge safe regardless
+            Collections.sort(ids);
+            return ids;
+        });
+    }
+
+    /**
+     * Merges sorted posting lists into their sorted union, pairwise in linear time.
+     *
+     * @param lists posting lists, each sorted ascending
+     * @return every id present in any list, once, sorted
+     */
+    public static List<String> union(List<List<String>> lists) {
+        List<String> result = new ArrayList<>();
+        for (List<String> list : lists) {
+            result = union(result, list);
+        }
+        return result;
+    }
+
+    /**
+     * Sorted-merge union of two posting lists.
+     *
+     * @param a a sorted list
+     * @param b a sorted list
+     * @return their union, sorted and without duplicates
+     */
+    public static List<String> union(List<String> a, List<String> b) {
+        List<String> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            String next;
+            if (j >= b.size()) {
+                next = a.get(i++);
+            } else if (i >= a.size()) {
+                next = b.get(j++);
+            } else {
+                int cmp = a.get(i).compareTo(b.get(j));
+                if (cmp < 0) {
+                    next = a.get(i++);
+                } else if (cmp > 0) {
+                    next = b.get(j++);
+                } else {
+                    next = a.get(i++);
+                    j++;
+                }
+            }
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).equals(next)) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Sorted-merge intersection of two id lists, e.g. tag matches and events in a date range.
+     *
+     * @param a a sorted list
+     * @param b a sorted list
+     * @return ids present in both, sorted and without duplicates
+     */
+    public static List<String> intersect(List<String> a, List<String> b) {
+        List<String> common = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            int cmp = a.get(i).compareTo(b.get(j));
+            if (cmp < 0) {
+                i++;
+            } else if (cmp > 0) {
+                j++;
+            } else {
+                String id = a.get(i++);
+                j++;
+                if (common.isEmpty() || !common.get(common.size() - 1).equals(id)) {
+                    common.add(id);
+                }
+            }
+        }
+        return common;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.chicksevent.misc;
 
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
 import static java.time.DayOfWeek.SATURDAY;
 import static java.time.DayOfWeek.SUNDAY;
 import static java.time.temporal.TemporalAdjusters.nextOrSame;
@@ -10,14 +11,18 @@ import android.util.Log;
 
 import com.example.chicksevent.enums.NotificationType;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
 import com.google.firebase.database.ValueEventListener;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 /**
  * Domain model representing an app user and related operations.
@@ -31,7 +36,10 @@ import java.util.Map;
  * <ul>
  *   <li><code>User</code> — user profile and preferences</li>
  *   <li><code>Event</code> — event catalog (read for filtering)</li>
+ *   <li><code>TagIndex</code> — inverted tag index (see {@link TagIndex})</li>
  *   <li><code>Notification</code> — per-user notification tree</li>
+ *   <li><code>NotificationUnread</code> — per-user unread counter for the inbox badge</li>
+ *   <li><code>NotificationSeen</code> — server time the user last viewed the inbox</li>
  * </ul>
  *
  * <p><b>Note:</b> This class does not enforce authorization; callers should ensure appropriate
@@ -66,9 +74,21 @@ public class User {
     /** Firebase service for the "Event" root. */
     private FirebaseService eventService;
 
+    /** Firebase service for the "EventSummary" root, the list projection of each event. */
+    private FirebaseService summaryService;
+
     /** Firebase service for the "Notification" root. */
     FirebaseService notificationService;
 
+    /** Firebase service for the "NotificationUnread" root (one integer per user). */
+    private FirebaseService unreadService;
+
+    /** Reader for the inverted tag index used by {@link #filterEvents}. */
+    private TagIndex tagIndex;
+
+    /** Local event catalog whose on-device indexes answer {@link #filterEvents} when fresh. */
+    private EventCatalog catalog;
+
     /** Firebase service for admin-related operations (reserved). */
     private FirebaseService adminService;
 
@@ -104,8 +124,12 @@ public class User {
         this.userId = userId;
         userService = new FirebaseService("User");
         eventService = new FirebaseService("Event");
+        summaryService = new FirebaseService("EventSummary");
         notificationService = new FirebaseService("Notification");
+        unreadService = new FirebaseService("NotificationUnread");
         adminService = new FirebaseService("Admin");
+        tagIndex = new TagIndex();
+        catalog = EventCatalog.getInstance();
         this.notificationsEnabled = true;
         this.bannedFromOrganizer = false;
     }
@@ -151,90 +175,151 @@ public class User {
     /**
      * Returns a list of event IDs whose tags match any of the provided filter tokens.
      * <p>
-     * The filter is applied against each event's {@code tag} field (space-separated tokens).
+     * Tags are looked up in the inverted {@link TagIndex}: the posting list of each token is read
+     * in parallel and the lists are merged, so only events carrying a requested tag are touched.
+     * Tags are compared in their normalized form (see {@link TagIndex#normalize(String)}): they are
+     * case-folded and split on commas and whitespace, so {@code "Music"} matches an event tagged
+     * {@code "music, jazz"}. A token equal to an event's name also matches it; names are compared
+     * exactly, through an {@code orderByChild("name").equalTo(token)} query that requires an
+     * {@code .indexOn} rule for {@code name} on {@code Event}. With no tokens, every event in the
+     * availability window matches.
+     * </p>
+     * <p>
+     * With no tokens and no window nothing is filtered, and the task resolves to {@code null}
+     * without reading anything: callers page through {@code EventSummary} instead (see
+     * {@link EventPager#keysOf}), as they do for an unfiltered list.
+     * </p>
+     * <p>
+     * An availability window is a single range query over {@link Event#START_DAY} on the
+     * {@code EventSummary} projection, intersected with the tag matches. Events without a start date are not limited by the window
+     * and always pass it; events whose dates cannot be read never do.
+     * </p>
+     * <p>
+     * While the local {@link EventCatalog} is fresh, the same rules run against its on-device
+     * tag and start-day indexes instead, and no network read is made.
      * </p>
      *
-     * @param filterList case-sensitive tokens to match against event tags
-     * @return a task resolving to a list of matching event IDs
+     * @param filterList tokens to match against event tags (case-insensitive) or names
+     * @param filterAvailability availability option, or {@code null}/"Anytime" for no date filter
+     * @return a task resolving to a list of matching event IDs, or to {@code null} when nothing
+     *         is filtered
      */
     @SuppressLint("NewApi")
     public Task<ArrayList<String>> filterEvents(ArrayList<String> filterList, String filterAvailability) {
-        Log.i(TAG, "what");
-        Log.i(TAG, "e" + eventService);
-        LocalDate filterStart;
-        LocalDate filterEnd;
+        Long firstDay = null;
+        Long lastDay = null;
         if (filterAvailability != null && !filterAvailability.equals("Anytime")) {
             ArrayList<LocalDate> filterArr = getFilterDate(filterAvailability);
-            filterStart = filterArr.get(0);
-            filterEnd = filterArr.get(1);
-        } else {
-            filterStart = null;
-            filterEnd = null;
+            firstDay = filterArr.get(0).toEpochDay();
+            lastDay = filterArr.get(1).toEpochDay();
+        }
+        if (filterList.isEmpty() && firstDay == null) {
+            return Tasks.forResult(null);
         }
 
-        return eventService.getReference().get().continueWith(task -> {
-            Log.d(TAG, "=== filtering events ===");
-            ArrayList<String> eventList = new ArrayList<>();
-
-            // Iterate through all children
-            for (DataSnapshot childSnapshot : task.getResult().getChildren()) {
-                String key = childSnapshot.getKey();
-                String[] value = ((Map<String, String>) childSnapshot.getValue()).get("tag").split(",");
-                Map<String, String> value2 = ((Map<String, String>) childSnapshot.getValue());
-                boolean addEvent = false;
-
-
-                Log.d(TAG, "Key: " + key);
-                for (String val : value) {
-                    Log.d(TAG, "Value: " + val);
-                    if (filterList.contains(val)) {
-                        addEvent = true;
-//                        eventList.add(key);
-//                        return eventList;
-                    }
-                }
-                if (filterList.size() == 0 || filterList.contains(((Map<String, String>) childSnapshot.getValue()).get("name"))) {
-//                    eventList.add(key);
-                    addEvent = true;
+        if (catalog.isQueryable()) {
+            return catalog.query(filterList, firstDay, lastDay).continueWith(DIRECT, task -> {
+                if (!task.isSuccessful()) {
+                    throw task.getException();
                 }
+                return new ArrayList<>(task.getResult());
+            });
+        }
 
-                Log.i("filter event", addEvent ? "yes" : "no");
-
-                try {
-                    if (filterStart != null && value2.get("eventStartDate") != null) {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
-                        LocalDate date = LocalDate.parse(value2.get("eventStartDate"), formatter);
-                        if (date.isBefore(filterStart)) addEvent = false;
-                        Log.i("filter event", "set false a" );
-                        Log.i("filter event", date.toString());
-                        Log.i("filter event", filterStart.toString());
+        Task<List<String>> inWindow = firstDay == null ? null : eventsBetween(firstDay, lastDay);
 
+        if (filterList.isEmpty()) {
+            return inWindow.continueWith(DIRECT, task -> {
+                if (!task.isSuccessful()) {
+                    throw task.getException();
+                }
+                return new ArrayList<>(task.getResult());
+            });
+        }
 
-                    }
-                    if (filterEnd != null && value2.get("eventEndDate") != null) {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
-                        LocalDate date = LocalDate.parse(value2.get("eventEndDate"), formatter);
-                        if (date.isAfter(filterEnd)) addEvent = false;
-                        Log.i("filter event", "set false b");
-                        Log.i("filter event", date.toString());
-                        Log.i("filter event", filterEnd.toString());
+        List<Task<?>> lookups = new ArrayList<>();
+        Task<List<String>> tagged = tagIndex.eventsWithAny(filterList);
+        lookups.add(tagged);
+        List<Task<DataSnapshot>> named = new ArrayList<>();
+        for (String token : filterList) {
+            Task<DataSnapshot> byName = eventService.getReference().orderByChild("name").equalTo(token).get();
+            named.add(byName);
+            lookups.add(byName);
+        }
+        Task<List<String>> dated = inWindow;
+        if (dated != null) {
+            lookups.add(dated);
+        }
 
-                    }
-                } catch (Exception e) {
-                    Log.i("filter error", e.toString());
-                    addEvent = false;
+        return Tasks.whenAllComplete(lookups).continueWith(DIRECT, task -> {
+            if (!tagged.isSuccessful()) {
+                throw tagged.getException();
+            }
+            List<String> nameMatches = new ArrayList<>();
+            for (Task<DataSnapshot> byName : named) {
+                if (!byName.isSuccessful() || byName.getResult() == null) continue;
+                for (DataSnapshot match : byName.getResult().getChildren()) {
+                    nameMatches.add(match.getKey());
                 }
-
-                if (addEvent) {
-//                    Event e = new Event("e", value.get("id"), value.get("name"),  value.get("eventDetails"), value.get("eventStartTime"), value.get("eventEndTime"), value.get("eventStartDate"), "N/A", value.get("registrationEndDate"), value.get("registrationStartDate"), 32, "N/A", value.get("tag"), false);
-                    eventList.add(key);
+            }
+            Collections.sort(nameMatches);
+            List<String> matches = TagIndex.union(tagged.getResult(), nameMatches);
+            if (dated != null) {
+                if (!dated.isSuccessful()) {
+                    throw dated.getException();
                 }
-
-                Log.d(TAG, "---");
+                matches = TagIndex.intersect(matches, dated.getResult());
             }
+            Log.d(TAG, "filter matched " + matches.size() + " events");
+            return new ArrayList<>(matches);
+        });
+    }
 
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
-            return eventList;
+    /**
+     * Finds the events that start and end within a window of epoch days, plus the events without
+     * a start date. The start bound is one {@code orderByChild(startDay).startAt().endAt()} range
+     * query; the end date is checked on the returned rows, which the query already carries.
+     * Events without a {@code startDay} come from an {@code equalTo(null)} query on the same
+     * index, keeping only those with no {@code eventStartDate} at all. Both queries run on
+     * {@code EventSummary}, whose rows carry the dates but not the rest of the event, and need an
+     * {@code .indexOn} rule for {@code startDay} there.
+     *
+     * @param firstDay first epoch day of the window, inclusive
+     * @param lastDay last epoch day of the window, inclusive
+     * @return a task resolving to the matching event ids, sorted
+     */
+    private Task<List<String>> eventsBetween(long firstDay, long lastDay) {
+        Task<DataSnapshot> inRange = summaryService.getReference()
+                .orderByChild(Event.START_DAY)
+                .startAt(firstDay)
+                .endAt(lastDay)
+                .get();
+        Task<DataSnapshot> undated = summaryService.getReference()
+                .orderByChild(Event.START_DAY)
+                .equalTo((String) null)
+                .get();
+        return Tasks.whenAllComplete(inRange, undated).continueWith(DIRECT, task -> {
+            if (!inRange.isSuccessful()) {
+                throw inRange.getException();
+            }
+            if (!undated.isSuccessful()) {
+                throw undated.getException();
+            }
+            List<String> ids = new ArrayList<>();
+            for (DataSnapshot event : inRange.getResult().getChildren()) {
+                Long endDay = Event.epochDayOf(event.child("eventEndDate").getValue(String.class));
+                if (endDay == null || endDay <= lastDay) {
+                    ids.add(event.getKey());
+                }
+            }
+            for (DataSnapshot event : undated.getResult().getChildren()) {
+                // A malformed start date also leaves startDay empty, but does not pass the window
+                if (!event.child("eventStartDate").exists()) {
+                    ids.add(event.getKey());
+                }
+            }
+            Collections.sort(ids);
+            return ids;
         });
     }
 
@@ -322,36 +407,34 @@ public class User {
 //                    Log.i(TAG, "Key: " + entry.getKey() + ", Value: " + entry.getValue());
 //                    Log.d(TAG, "KKK: " + entry.getKey());
 
-                    for (Map.Entry<String, String> entry2 : entry.getValue().entrySet()) {
-//                        Log.i(TAG, "kkk2: " + entry.getKey() + ", Value: " + entry.getValue().get("message"));
-                        NotificationType notificationType;
-                        switch (entry.getKey()) {
-                            case "WAITING":
-                                notificationType = NotificationType.WAITING;
-                                break;
-                            case "INVITED":
-                                notificationType = NotificationType.INVITED;
-                                break;
-                            case "UNINVITED":
-                                notificationType = NotificationType.UNINVITED;
-                                break;
-                            case "ACCEPTED":
-                                notificationType = NotificationType.ACCEPTED;
-                                break;
-                            case "CANCELLED":
-                                notificationType = NotificationType.CANCELLED;
-                                break;
-                            case "SYSTEM":
-                                notificationType = NotificationType.SYSTEM;
-                                break;
-                            default:
-                                notificationType = NotificationType.WAITING;
-                                break;
-                        }
-
-                        notificationList.add(new Notification(userId, eventId, notificationType, entry.getValue().get("message")));
+                    // One notification per type; the record's fields (message, contentHash, sentAt, count) are not separate entries
+                    NotificationType notificationType;
+                    switch (entry.getKey()) {
+                        case "WAITING":
+                            notificationType = NotificationType.WAITING;
+                            break;
+                        case "INVITED":
+                            notificationType = NotificationType.INVITED;
+                            break;
+                        case "UNINVITED":
+                            notificationType = NotificationType.UNINVITED;
+                            break;
+                        case "ACCEPTED":
+                            notificationType = NotificationType.ACCEPTED;
+                            break;
+                        case "CANCELLED":
+                            notificationType = NotificationType.CANCELLED;
+                            break;
+                        case "SYSTEM":
+                            notificationType = NotificationType.SYSTEM;
+                            break;
+                        default:
+                            notificationType = NotificationType.WAITING;
+                            break;
                     }
 
+                    notificationList.add(new Notification(userId, eventId, notificationType, entry.getValue().get("message")));
+
                 }
 
 //
@@ -361,6 +444,65 @@ public class User {
         });
     }
 
+    /**
+     * Callback for changes to the user's unread notification count.
+     */
+    public interface UnreadCountListener {
+        /**
+         * Invoked with the current unread count, and again whenever it changes.
+         *
+         * @param count number of notifications received since the inbox was last viewed
+         */
+        void onUnreadCountChanged(long count);
+    }
+
+    /**
+     * Subscribes to this user's {@code NotificationUnread/{userId}} counter.
+     * <p>
+     * This is a single integer, so keeping it subscribed for a badge costs far less than
+     * loading the inbox through {@link #getNotificationList()}.
+     * </p>
+     *
+     * @param listener callback receiving the current and subsequent counts
+     * @return the registered Firebase listener, to pass to {@link #removeUnreadCountListener}
+     */
+    public ValueEventListener addUnreadCountListener(UnreadCountListener listener) {
+        return unreadService.getReference().child(userId).addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                Long count = snapshot.getValue(Long.class);
+                listener.onUnreadCountChanged(count == null ? 0 : count);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                Log.e(TAG, "Unread count listener cancelled: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Unsubscribes a listener registered with {@link #addUnreadCountListener}.
+     *
+     * @param registration the listener returned at registration
+     */
+    public void removeUnreadCountListener(ValueEventListener registration) {
+        DatabaseReference ref = unreadService.getReference().child(userId);
+        ref.removeEventListener(registration);
+    }
+
+    /**
+     * Resets this user's unread counter, e.g. when the inbox has been viewed, and stamps
+     * {@code NotificationSeen/{userId}} with the server time in the same update, so deleting a
+     * notification sent before then no longer lowers the counter.
+     */
+    public void clearUnreadCount() {
+        HashMap<String, Object> update = new HashMap<>();
+        update.put("NotificationUnread/" + userId, 0);
+        update.put("NotificationSeen/" + userId, ServerValue.TIMESTAMP);
+        unreadService.getReference().getRoot().updateChildren(update);
+    }
+
     /**
      * Updates the user's profile in Firebase Realtime Database.
      * <p>
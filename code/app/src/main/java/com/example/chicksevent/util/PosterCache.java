@@ -0,0 +1,231 @@
+package com.example.chicksevent.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Two-tier cache for event posters, shared by every list adapter and detail screen.
+ * <p>
+ * The memory tier is an {@link LruCache} of decoded bitmaps bounded by their byte size (an
+ * eighth of the app's heap). The disk tier is an LRU of encoded poster bytes under
+ * {@code cacheDir/posters}, bounded by {@link #DISK_BYTES}. Entries are keyed by
+ * {@link #keyFor(String, String, String)} — the poster's content hash (or, for posters stored
+ * before content addressing, its event id), rendition and content version — so an edited poster
+ * gets a new key and never serves a stale image. Nothing is invalidated explicitly; entries of
+ * replaced or deleted posters are no longer requested and age out of both LRUs.
+ * </p>
+ */
+public class PosterCache {
+
+    private static final String TAG = "PosterCache";
+
+    /** Upper bound on bytes kept in the disk tier. */
+    public static final long DISK_BYTES = 32L * 1024 * 1024;
+
+    private static PosterCache instance;
+
+    private final LruCache<String, Bitmap> memory;
+    private final File directory;
+    private final long maxDiskBytes;
+
+    /** Disk entries in access order: file name to size in bytes. */
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+    private boolean diskLoaded;
+
+    /**
+     * Returns the shared cache, creating it under the application's cache directory.
+     *
+     * @param context any context; only its application context is retained
+     * @return the process-wide cache instance
+     */
+    public static synchronized PosterCache getInstance(Context context) {
+        if (instance == null) {
+            int memoryBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+            instance = new PosterCache(
+                    new File(context.getApplicationContext().getCacheDir(), "posters"),
+                    memoryBytes,
+                    DISK_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Constructs a cache with explicit bounds.
+     *
+     * @param directory directory holding the disk tier
+     * @param maxMemoryBytes byte budget for decoded bitmaps
+     * @param maxDiskBytes byte budget for encoded files
+     */
+    public PosterCache(File directory, int maxMemoryBytes, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LruCache<String, Bitmap>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * Builds the cache key of one poster rendition.
+     *
+     * @param eventId the event id
+     * @param rendition the rendition key (e.g. {@code "card"})
+     * @param version content version of the stored poster (its checksum)
+     * @return the cache key
+     */
+    public static String keyFor(String eventId, String rendition, String version) {
+        return eventId + "/" + rendition + "@" + (version == null ? "" : version);
+    }
+
+    /**
+     * Maps a cache key to a file name that is safe on every filesystem and still starts with the
+     * key's first segment, which keeps the cache directory readable when debugging.
+     *
+     * @param key a key from {@link #keyFor(String, String, String)}
+     * @return the file name used in the disk tier
+     */
+    public static String fileNameFor(String key) {
+        return key.replace("/", ".").replaceAll("[^A-Za-z0-9._@-]", "_");
+    }
+
+    /**
+     * Returns a decoded poster from memory.
+     *
+     * @param key the cache key
+     * @return the bitmap, or {@code null} on a miss
+     */
+    public Bitmap getBitmap(String key) {
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null && bitmap.isRecycled()) {
+            memory.remove(key);
+            return null;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Stores a decoded poster in memory. Cached bitmaps may be on screen and must not be recycled
+     * or reused by callers.
+     *
+     * @param key the cache key
+     * @param bitmap the decoded poster
+     */
+    public void putBitmap(String key, Bitmap bitmap) {
+        if (key != null && bitmap != null) {
+            memory.put(key, bitmap);
+        }
+    }
+
+    /**
+     * Reads encoded poster bytes from disk and marks the entry as recently used.
+     *
+     * @param key the cache key
+     * @return the bytes, or {@code null} on a miss
+     */
+    public synchronized byte[] getBytes(String key) {
+        loadDiskIndex();
+        String name = fileNameFor(key);
+        if (diskIndex.get(name) == null) {
+            return null;
+        }
+        File file = new File(directory, name);
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] data = new byte[(int) file.length()];
+            int offset = 0;
+            int read;
+            while (offset < data.length && (read = in.read(data, offset, data.length - offset)) != -1) {
+                offset += read;
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return offset == data.length ? data : null;
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache entry " + name, e);
+            removeFile(name);
+            return null;
+        }
+    }
+
+    /**
+     * Writes encoded poster bytes to disk, evicting the least recently used files as needed.
+     *
+     * @param key the cache key
+     * @param data the encoded poster
+     */
+    public synchronized void putBytes(String key, byte[] data) {
+        if (key == null || data == null || data.length > maxDiskBytes) return;
+        loadDiskIndex();
+        String name = fileNameFor(key);
+        File tmp = new File(directory, name + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            out.write(data);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache " + name, e);
+            tmp.delete();
+            return;
+        }
+        removeFile(name);
+        if (!tmp.renameTo(new File(directory, name))) {
+            tmp.delete();
+            return;
+        }
+        diskIndex.put(name, (long) data.length);
+        diskBytes += data.length;
+        trimDisk();
+    }
+
+    /** Builds the disk index from the directory on first use, oldest files first. */
+    private void loadDiskIndex() {
+        if (diskLoaded) return;
+        diskLoaded = true;
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.w(TAG, "Cannot create " + directory);
+            return;
+        }
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(".tmp")) {
+                file.delete();
+                continue;
+            }
+            diskIndex.put(file.getName(), file.length());
+            diskBytes += file.length();
+        }
+        trimDisk();
+    }
+
+    private void trimDisk() {
+        Iterator<Map.Entry<String, Long>> eldest = diskIndex.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            diskBytes -= entry.getValue();
+            new File(directory, entry.getKey()).delete();
+        }
+    }
+
+    private void removeFile(String name) {
+        Long size = diskIndex.remove(name);
+        if (size != null) {
+            diskBytes -= size;
+        }
+        new File(directory, name).delete();
+    }
+}
@@ -0,0 +1,472 @@
+package com.example.chicksevent.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.TransitionDrawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Shared background loader and decoder for poster images in list rows and detail screens.
+ * <p>
+ * Each {@link #load(PosterStore.PosterRef, ImageView, LifecycleOwner)} call first checks the
+ * memory tier of the shared {@link PosterCache} and, on a hit, shows the bitmap immediately.
+ * Otherwise a worker thread takes the encoded bytes from the disk tier (downloading and storing
+ * them on a miss), reads their bounds, and decodes with an {@code inSampleSize} chosen for the
+ * target view, so a large upload never allocates a full-resolution bitmap. Decoding reuses
+ * memory from a small {@link BitmapPool} through {@code inBitmap}.
+ * </p>
+ * <p>
+ * The result is posted back to the main thread and added to the memory tier. A request is
+ * cancelled when its owning view lifecycle is destroyed or when another poster is loaded into
+ * the same view (row recycling); a bitmap decoded for a cancelled request is never shown, so it
+ * goes back to the pool. Bitmaps that reached the memory tier may be on screen and are left to
+ * the garbage collector rather than pooled.
+ * </p>
+ * <p>
+ * When the reference carries an inline preview ({@link PosterStore#PREVIEW}), a cache miss shows
+ * it straight away, stretched and filtered into a blur, and the real poster cross-fades over it
+ * when decoded.
+ * </p>
+ * <p>
+ * {@link #prefetch(PosterStore.PosterRef, int, int)} warms both cache tiers for rows about to
+ * scroll into view. It runs on its own single thread so it never delays visible rows.
+ * </p>
+ */
+public class PosterDecoder {
+
+    private static final String TAG = "PosterDecoder";
+
+    /** Upper bound on bytes held by the reuse pool. */
+    private static final long POOL_BYTES = 8L * 1024 * 1024;
+
+    /** Network timeouts for poster downloads, in milliseconds. */
+    private static final int TIMEOUT_MS = 15_000;
+
+    /** Duration of the fade from preview to poster, in milliseconds. */
+    private static final int CROSSFADE_MS = 200;
+
+    private static PosterDecoder instance;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final BitmapPool pool = new BitmapPool(POOL_BYTES);
+    private final PosterCache cache;
+
+    /** Latest request per view, so a recycled row cancels its previous load. */
+    private final WeakHashMap<ImageView, Request> active = new WeakHashMap<>();
+
+    /** Views currently showing a real poster, which a late preview must not replace. */
+    private final WeakHashMap<ImageView, Boolean> showingPoster = new WeakHashMap<>();
+
+    /**
+     * Returns the shared decoder.
+     *
+     * @param context any context; used to locate the shared {@link PosterCache}
+     * @return the process-wide decoder instance
+     */
+    public static synchronized PosterDecoder getInstance(Context context) {
+        if (instance == null) {
+            instance = new PosterDecoder(PosterCache.getInstance(context));
+        }
+        return instance;
+    }
+
+    /**
+     * Constructs a decoder backed by the given cache.
+     *
+     * @param cache the poster cache to read from and fill
+     */
+    public PosterDecoder(PosterCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return the cache this decoder reads from and fills.
+     */
+    public PosterCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the size a poster should be decoded at for a view: its laid-out size, or its fixed
+     * layout size before layout, falling back to the screen width for the width.
+     *
+     * @param view the target view
+     * @return {@code {width, height}} in pixels; the height may be 0 if unknown
+     */
+    public static int[] targetSize(View view) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (width <= 0 && params != null) width = params.width;
+        if (height <= 0 && params != null) height = params.height;
+        if (width <= 0) width = view.getResources().getDisplayMetrics().widthPixels;
+        return new int[] {width, Math.max(height, 0)};
+    }
+
+    /**
+     * Computes the largest power-of-two {@code inSampleSize} that keeps both decoded dimensions
+     * at or above the requested size.
+     *
+     * @param width source width in pixels
+     * @param height source height in pixels
+     * @param reqWidth requested width in pixels
+     * @param reqHeight requested height in pixels, or 0 to constrain by width only
+     * @return the sample size (at least 1)
+     */
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int sample = 1;
+        if (reqWidth <= 0) return sample;
+        while (width / (sample * 2) >= reqWidth
+                && (reqHeight <= 0 || height / (sample * 2) >= reqHeight)) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * Shows a poster in a recycled list row. The request lives until another poster is loaded
+     * into the same view. Must be called on the main thread.
+     *
+     * @param ref the poster rendition to show
+     * @param target the view to show it in
+     * @return a handle that can cancel the request
+     */
+    public Request load(PosterStore.PosterRef ref, ImageView target) {
+        return load(ref, target, null);
+    }
+
+    /**
+     * Shows a poster, from memory if possible, otherwise by decoding it in the background. Must be
+     * called on the main thread.
+     *
+     * @param ref the poster rendition to show
+     * @param target the view to show it in
+     * @param owner the view lifecycle that bounds the request (e.g. a fragment's
+     *              {@code getViewLifecycleOwner()}), or {@code null} for list rows
+     * @return a handle that can cancel the request
+     */
+    public Request load(PosterStore.PosterRef ref, ImageView target, LifecycleOwner owner) {
+        Request previous = active.remove(target);
+        if (previous != null) {
+            previous.cancel();
+        }
+        showingPoster.remove(target);
+
+        String key = ref.getCacheKey();
+        Request request = new Request(target, owner, key);
+        if (owner != null && owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            request.cancelled = true;
+            return request;
+        }
+
+        Bitmap cached = cache.getBitmap(key);
+        if (cached != null) {
+            showingPoster.put(target, Boolean.TRUE);
+            target.setImageBitmap(cached);
+            return request;
+        }
+
+        showPreview(target, ref.getPreview());
+        active.put(target, request);
+        if (owner != null) {
+            owner.getLifecycle().addObserver(request);
+        }
+        int[] size = targetSize(target);
+        request.future = executor.submit(() -> {
+            Bitmap bitmap;
+            try {
+                bitmap = decode(bytesFor(ref), size[0], size[1]);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to load poster " + ref.getUrl(), e);
+                return;
+            }
+            mainHandler.post(() -> request.deliver(bitmap));
+        });
+        return request;
+    }
+
+    /**
+     * Shows an inline preview in a view, unless a real poster is already there. Detail screens
+     * use this with {@link PosterStore#preview(String)} while the full rendition resolves. Must be
+     * called on the main thread.
+     *
+     * @param target the view to show it in
+     * @param preview the base64 preview, or {@code null} to do nothing
+     */
+    public void showPreview(ImageView target, String preview) {
+        if (preview == null || showingPoster.containsKey(target)) return;
+        Bitmap bitmap = decodePreview(preview);
+        if (bitmap == null) return;
+        PreviewDrawable drawable = new PreviewDrawable(target, bitmap);
+        drawable.setFilterBitmap(true);
+        target.setImageDrawable(drawable);
+    }
+
+    /**
+     * Decodes an inline preview. It is a few dozen pixels, so this is cheap enough for the main
+     * thread.
+     *
+     * @param preview the base64 WebP preview
+     * @return the bitmap, or {@code null} if the preview is malformed
+     */
+    public static Bitmap decodePreview(String preview) {
+        byte[] data;
+        try {
+            data = Base64.decode(preview, Base64.NO_WRAP);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return data == null ? null : BitmapFactory.decodeByteArray(data, 0, data.length);
+    }
+
+    /**
+     * Fetches and decodes a poster into the cache ahead of display, on a background thread that
+     * does not compete with {@link #load} for visible rows. Must be called on the main thread.
+     *
+     * @param ref the poster rendition to warm
+     * @param reqWidth width the poster will be shown at, in pixels
+     * @param reqHeight height the poster will be shown at, or 0 if unknown
+     * @return a future that cancels the work, or {@code null} if the poster is already in memory
+     */
+    public Future<?> prefetch(PosterStore.PosterRef ref, int reqWidth, int reqHeight) {
+        String key = ref.getCacheKey();
+        if (cache.getBitmap(key) != null) {
+            return null;
+        }
+        return prefetchExecutor.submit(() -> {
+            Bitmap bitmap;
+            try {
+                byte[] data = bytesFor(ref);
+                if (Thread.currentThread().isInterrupted()) return;
+                bitmap = decode(data, reqWidth, reqHeight);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to prefetch poster " + ref.getUrl(), e);
+                return;
+            }
+            mainHandler.post(() -> {
+                if (cache.getBitmap(key) == null) {
+                    cache.putBitmap(key, bitmap);
+                } else {
+                    pool.put(bitmap);
+                }
+            });
+        });
+    }
+
+    /** Returns a poster's encoded bytes from the disk tier, downloading and storing them on a miss. */
+    private byte[] bytesFor(PosterStore.PosterRef ref) throws IOException {
+        String key = ref.getCacheKey();
+        byte[] data = cache.getBytes(key);
+        if (data == null) {
+            data = download(ref.getUrl());
+            cache.putBytes(key, data);
+        }
+        return data;
+    }
+
+    /**
+     * Decodes encoded image bytes at a size suited to the requested dimensions, reusing a pooled
+     * bitmap where possible.
+     *
+     * @param data encoded image bytes
+     * @param reqWidth requested width in pixels
+     * @param reqHeight requested height in pixels, or 0 if unknown
+     * @return the decoded bitmap
+     * @throws IOException if the bytes cannot be decoded
+     */
+    public Bitmap decode(byte[] data, int reqWidth, int reqHeight) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unreadable poster");
+        }
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        int sampledWidth = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+        int sampledHeight = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+        options.inBitmap = pool.take((long) sampledWidth * sampledHeight * 4);
+
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException reuseFailed) {
+            // The pooled bitmap was not compatible; decode into fresh memory instead.
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("Unreadable poster");
+        }
+        return bitmap;
+    }
+
+    private static byte[] download(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * One in-flight poster load, bound to a view and optionally to a view lifecycle.
+     */
+    public class Request implements LifecycleEventObserver {
+        private final ImageView target;
+        private final LifecycleOwner owner;
+        private final String key;
+        private volatile boolean cancelled;
+        private Future<?> future;
+
+        Request(ImageView target, LifecycleOwner owner, String key) {
+            this.target = target;
+            this.owner = owner;
+            this.key = key;
+        }
+
+        /** Must be called on the main thread. */
+        void deliver(Bitmap bitmap) {
+            if (cancelled) {
+                pool.put(bitmap);
+                return;
+            }
+            finish();
+            cache.putBitmap(key, bitmap);
+            showingPoster.put(target, Boolean.TRUE);
+            Drawable current = target.getDrawable();
+            if (current instanceof PreviewDrawable) {
+                TransitionDrawable fade = new TransitionDrawable(new Drawable[] {
+                        current, new BitmapDrawable(target.getResources(), bitmap)});
+                fade.setCrossFadeEnabled(true);
+                target.setImageDrawable(fade);
+                fade.startTransition(CROSSFADE_MS);
+            } else {
+                target.setImageBitmap(bitmap);
+            }
+        }
+
+        /**
+         * Cancels the request if it has not been delivered yet. Must be called on the main thread.
+         */
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            if (future != null) future.cancel(true);
+            finish();
+        }
+
+        private void finish() {
+            if (active.get(target) == this) {
+                active.remove(target);
+            }
+            if (owner != null) {
+                owner.getLifecycle().removeObserver(this);
+            }
+        }
+
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                cancel();
+            }
+        }
+    }
+
+    /** Marks a drawable as an inline preview, so the poster replacing it fades in. */
+    private static class PreviewDrawable extends BitmapDrawable {
+        PreviewDrawable(View view, Bitmap bitmap) {
+            super(view.getResources(), bitmap);
+        }
+    }
+
+    /**
+     * Byte-bounded pool of mutable bitmaps available for {@code inBitmap} reuse.
+     */
+    static class BitmapPool {
+        private final long maxBytes;
+        private final ArrayList<Bitmap> bitmaps = new ArrayList<>();
+        private long bytes;
+
+        BitmapPool(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * Removes and returns the smallest pooled bitmap with at least {@code minBytes} of backing
+         * memory, or {@code null} if none is large enough.
+         */
+        synchronized Bitmap take(long minBytes) {
+            Bitmap best = null;
+            for (Bitmap bitmap : bitmaps) {
+                int size = bitmap.getAllocationByteCount();
+                if (size >= minBytes && (best == null || size < best.getAllocationByteCount())) {
+                    best = bitmap;
+                }
+            }
+            if (best != null) {
+                bitmaps.remove(best);
+                bytes -= best.getAllocationByteCount();
+            }
+            return best;
+        }
+
+        /** Adds a bitmap, evicting the oldest entries to stay within the byte budget. */
+        synchronized void put(Bitmap bitmap) {
+            if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+            int size = bitmap.getAllocationByteCount();
+            if (size > maxBytes) {
+                bitmap.recycle();
+                return;
+            }
+            bitmaps.add(bitmap);
+            bytes += size;
+            Iterator<Bitmap> oldest = bitmaps.iterator();
+            while (bytes > maxBytes && oldest.hasNext()) {
+                Bitmap evicted = oldest.next();
+                oldest.remove();
+                bytes -= evicted.getAllocationByteCount();
+                evicted.recycle();
+            }
+        }
+    }
+}
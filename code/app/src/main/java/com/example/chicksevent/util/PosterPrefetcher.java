@@ -0,0 +1,189 @@
+package com.example.chicksevent.util;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import android.widget.AbsListView;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Loads posters for list rows before they scroll into view.
+ * <p>
+ * The prefetcher follows the visible range of a list. For the {@link #LOOKAHEAD} rows after it,
+ * it resolves their poster references together (the reads are issued at once and pipelined over
+ * the database connection) and asks {@link PosterDecoder#prefetch} to warm the cache, so a fast
+ * fling finds posters already decoded. When a row leaves that window, its pending warm-up is
+ * cancelled.
+ * </p>
+ * <p>
+ * Resolved references are kept per event id, so binding a row through {@link #resolve(String)}
+ * normally needs no database read. Rows whose event already carries its list poster (see
+ * {@link EventIds#refAt}) are never resolved at all. All methods must be called on the main thread.
+ * </p>
+ */
+public class PosterPrefetcher implements AbsListView.OnScrollListener {
+
+    /** Number of rows past the visible range whose posters are warmed. */
+    public static final int LOOKAHEAD = 6;
+
+    /** Upper bound on remembered poster references. */
+    private static final int MAX_REFS = 256;
+
+    /**
+     * Supplies the event id at each list position.
+     */
+    public interface EventIds {
+        /** @return the number of rows. */
+        int count();
+
+        /** @return the event id of the row at {@code position}. */
+        String idAt(int position);
+
+        /**
+         * @return the poster reference already carried by the row at {@code position}, or
+         *         {@code null} if it has to be resolved
+         */
+        PosterStore.PosterRef refAt(int position);
+    }
+
+    private final PosterStore store;
+    private final PosterDecoder decoder;
+    private final PosterStore.Rendition rendition;
+    private final EventIds ids;
+
+    /** Resolved or in-flight references, least recently used first. */
+    private final LinkedHashMap<String, Task<PosterStore.PosterRef>> refs =
+            new LinkedHashMap<String, Task<PosterStore.PosterRef>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Task<PosterStore.PosterRef>> eldest) {
+                    return size() > MAX_REFS;
+                }
+            };
+
+    /** Pending warm-ups of rows in the lookahead window, by event id. */
+    private final HashMap<String, Future<?>> warming = new HashMap<>();
+
+    /** Event ids currently in the lookahead window. */
+    private final HashSet<String> window = new HashSet<>();
+
+    private int targetWidth;
+    private int targetHeight;
+
+    /**
+     * Constructs a prefetcher for one list.
+     *
+     * @param store resolves poster references
+     * @param decoder warms the poster cache
+     * @param rendition the rendition the list shows
+     * @param ids maps list positions to event ids
+     */
+    public PosterPrefetcher(PosterStore store, PosterDecoder decoder,
+                            PosterStore.Rendition rendition, EventIds ids) {
+        this.store = store;
+        this.decoder = decoder;
+        this.rendition = rendition;
+        this.ids = ids;
+    }
+
+    /**
+     * Records the size posters are shown at. Warm-ups start once this is known, so they decode
+     * at the same size as the rows will.
+     *
+     * @param width width in pixels
+     * @param height height in pixels, or 0 if unknown
+     */
+    public void setTargetSize(int width, int height) {
+        targetWidth = width;
+        targetHeight = height;
+    }
+
+    /**
+     * Resolves an event's poster reference, reusing an earlier or in-flight resolution.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the reference, or {@code null} if the event has no poster
+     */
+    public Task<PosterStore.PosterRef> resolve(String eventId) {
+        Task<PosterStore.PosterRef> task = refs.get(eventId);
+        if (task == null || (task.isComplete() && !task.isSuccessful())) {
+            task = store.resolve(eventId, rendition);
+            refs.put(eventId, task);
+        }
+        return task;
+    }
+
+    /**
+     * Moves the lookahead window to follow the visible rows. Warm-ups start for rows entering
+     * the window and are cancelled for rows leaving it.
+     *
+     * @param firstVisible position of the first visible row
+     * @param visibleCount number of visible rows
+     */
+    public void onVisibleRange(int firstVisible, int visibleCount) {
+        int start = Math.max(0, firstVisible + visibleCount);
+        int end = Math.min(ids.count(), start + LOOKAHEAD);
+
+        HashSet<String> next = new HashSet<>();
+        for (int position = start; position < end; position++) {
+            String eventId = ids.idAt(position);
+            if (eventId == null) continue;
+            next.add(eventId);
+            PosterStore.PosterRef known = ids.refAt(position);
+            if (known != null && !refs.containsKey(eventId)) {
+                refs.put(eventId, Tasks.forResult(known));
+            }
+        }
+
+        Iterator<Map.Entry<String, Future<?>>> pending = warming.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<String, Future<?>> entry = pending.next();
+            if (!next.contains(entry.getKey())) {
+                entry.getValue().cancel(true);
+                pending.remove();
+            }
+        }
+        window.clear();
+        window.addAll(next);
+
+        if (targetWidth <= 0) return;
+        for (String eventId : next) {
+            if (warming.containsKey(eventId)) continue;
+            resolve(eventId).addOnSuccessListener(DIRECT, ref -> warm(eventId, ref));
+        }
+    }
+
+    /** Cancels every pending warm-up, e.g. when the list goes away. */
+    public void cancelAll() {
+        for (Future<?> future : warming.values()) {
+            future.cancel(true);
+        }
+        warming.clear();
+        window.clear();
+    }
+
+    @Override
+    public void onScrollStateChanged(AbsListView view, int scrollState) {
+    }
+
+    @Override
+    public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+        onVisibleRange(firstVisibleItem, visibleItemCount);
+    }
+
+    private void warm(String eventId, PosterStore.PosterRef ref) {
+        // The row may have left the window while its reference was resolving
+        if (ref == null || !window.contains(eventId) || warming.containsKey(eventId)) return;
+        Future<?> future = decoder.prefetch(ref, targetWidth, targetHeight);
+        if (future != null) {
+            warming.put(eventId, future);
+        }
+    }
+}
@@ -0,0 +1,1101 @@
+package com.example.chicksevent.util;
+
+import static com.example.chicksevent.misc.FirebaseService.DIRECT;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Base64;
+import android.util.Log;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.OnProgressListener;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stores event posters in Firebase Storage and keeps only a small reference in the database.
+ * <p>
+ * At upload time the picked image is decoded once and re-encoded as WebP at each
+ * {@link Rendition} size, so list rows never download or decode the full-size original.
+ * Posters are content-addressed: bytes live at {@code posters/{hash}/{rendition}.webp}, where
+ * {@code hash} is the SHA-256 of the picked image, so a series of events sharing one poster
+ * stores it once. {@code Poster/{hash}} describes the blob and counts the events using it, and
+ * each {@code Image/{eventId}} node holds a copy of that reference:
+ * </p>
+ * <pre>
+ * Image/{eventId} = {
+ *     hash, uploadedAt,
+ *     poster, path, md5, size, contentType,     // the FULL rendition
+ *     renditions: {
+ *         thumb: { url, path, width, height, size, md5, hash, preview },
+ *         card:  { ... },
+ *         full:  { ... }
+ *     }
+ * }
+ * Poster/{hash} = { poster, path, ..., renditions, events: { eventId: true }, refCount }
+ * </pre>
+ * <p>
+ * The {@code trackPosterReferences} Cloud Function keeps {@code events}/{@code refCount} in step
+ * with the {@code Image} entries and deletes a blob once no event references it: it first marks
+ * the node {@code deleting}, then deletes the Storage objects, then the node. Reusing a blob
+ * claims it in a transaction on {@code Poster/{hash}}, which serializes with that mark, so a
+ * blob is either claimed before collection starts or not reused at all. Posters stored before
+ * deduplication live under {@code posters/{eventId}/} and have no {@code hash}. The same
+ * function mirrors each entry's thumb reference into the slim {@link #INDEX_PATH} that
+ * {@link #browse} pages over.
+ * </p>
+ * <p>
+ * Writing the reference also clears the legacy inline {@code url} field, which used to hold the
+ * whole JPEG as base64. Entries still carrying it are converted by the
+ * {@code migrateInlinePosters} Cloud Function; those have no {@code renditions} and readers fall
+ * back to {@code poster}.
+ * </p>
+ * <p>
+ * The thumb rendition also carries a {@code preview}: the image shrunk to {@link #PREVIEW_EDGE}
+ * pixels and stored inline as base64 WebP (a couple of hundred bytes). It travels with the
+ * reference, so screens can show a blurred stand-in before any download.
+ * </p>
+ * <p>
+ * Encoded renditions are staged in temporary files and sent with {@code putFile}, which uses
+ * Storage's resumable protocol: if a transfer fails midway it is resumed from its upload session
+ * rather than restarted, and progress across all renditions is reported as one figure.
+ * </p>
+ */
+public class PosterStore {
+
+    private static final String TAG = "PosterStore";
+
+    /** Storage folder holding poster blobs. */
+    public static final String POSTERS_PATH = "posters";
+
+    /** Database root holding per-event poster references. */
+    public static final String IMAGES_PATH = "Image";
+
+    /** Database root holding events, whose list projection embeds {@link #LIST_POSTER}. */
+    public static final String EVENTS_PATH = "Event";
+
+    /** {@code Event/{eventId}} child holding the list rendition's reference (see {@link #listRefFrom}). */
+    public static final String LIST_POSTER = "listPoster";
+
+    /** Rendition shown by event list rows and embedded in the event for them. */
+    public static final Rendition LIST_RENDITION = Rendition.CARD;
+
+    /** Database root holding content-addressed poster blobs, keyed by {@link #contentHash}. */
+    public static final String BLOBS_PATH = "Poster";
+
+    /** {@code Image/{eventId}} field holding the server time the poster was set; orders {@link #browse}. */
+    public static final String UPLOADED_AT = "uploadedAt";
+
+    /**
+     * Database root holding one slim row per poster for {@link #browse}, maintained from
+     * {@code Image} by the {@code trackPosterReferences} Cloud Function:
+     * {@code ImageIndex/{eventId} = { hash, uploadedAt, rendition, url, md5, preview }}, where
+     * {@code url}/{@code md5} name the thumb rendition, or the legacy {@code poster} for entries
+     * without renditions.
+     */
+    public static final String INDEX_PATH = "ImageIndex";
+
+    /** {@code Poster/{hash}} flag set while the collector deletes an unreferenced blob. */
+    public static final String DELETING = "deleting";
+
+    /** Rendition field holding the inline base64 preview; present on {@link Rendition#THUMB}. */
+    public static final String PREVIEW = "preview";
+
+    /** Long edge of the inline preview, in pixels. */
+    public static final int PREVIEW_EDGE = 16;
+
+    /** WebP quality of the inline preview; detail is lost to upscaling anyway. */
+    private static final int PREVIEW_QUALITY = 40;
+
+    /** Content type of stored renditions. */
+    public static final String CONTENT_TYPE = "image/webp";
+
+    /** Background thread for decoding and encoding posters. */
+    private static final ExecutorService ENCODER = Executors.newSingleThreadExecutor();
+
+    /** How many times an interrupted rendition upload is resumed before giving up. */
+    private static final int MAX_RESUMES = 3;
+
+    /**
+     * Receives combined upload progress for all renditions of one poster, on the main thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param bytesTransferred bytes sent so far across all renditions
+         * @param totalBytes total bytes to send
+         */
+        void onProgress(long bytesTransferred, long totalBytes);
+    }
+
+    /**
+     * Poster sizes generated at upload, smallest first. Each is bounded on its long edge.
+     */
+    public enum Rendition {
+        /** Grid cells and other small previews. */
+        THUMB("thumb", 320, 70),
+        /** Full-width list rows and detail headers. */
+        CARD("card", 1080, 80),
+        /** Largest stored copy, used when nothing smaller fits. */
+        FULL("full", 2048, 85);
+
+        private final String key;
+        private final int maxEdge;
+        private final int quality;
+
+        Rendition(String key, int maxEdge, int quality) {
+            this.key = key;
+            this.maxEdge = maxEdge;
+            this.quality = quality;
+        }
+
+        /** @return the key used in Storage paths and under {@code renditions}. */
+        public String getKey() { return key; }
+
+        /** @return the maximum length of the longer edge, in pixels. */
+        public int getMaxEdge() { return maxEdge; }
+
+        /** @return the WebP quality (0-100) used when encoding. */
+        public int getQuality() { return quality; }
+
+        /**
+         * Returns the smallest rendition whose long edge covers the requested size.
+         *
+         * @param requiredPx the larger of the target view's width and height, in pixels
+         * @return the smallest fitting rendition, or {@link #FULL} if none is large enough
+         */
+        public static Rendition fitting(int requiredPx) {
+            for (Rendition rendition : values()) {
+                if (rendition.maxEdge >= requiredPx) {
+                    return rendition;
+                }
+            }
+            return FULL;
+        }
+    }
+
+    private final FirebaseService imageService;
+    private FirebaseStorage storage;
+
+    /**
+     * Constructs a store bound to the {@code Image} root and the default Storage bucket.
+     */
+    public PosterStore() {
+        this(new FirebaseService(IMAGES_PATH), null);
+    }
+
+    /**
+     * Constructs a store with explicit dependencies.
+     *
+     * @param imageService Firebase service scoped to the {@code Image} root
+     * @param storage the Storage instance holding poster blobs, or {@code null} for the default
+     */
+    public PosterStore(FirebaseService imageService, FirebaseStorage storage) {
+        this.imageService = imageService;
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the Storage path of one rendition of a poster.
+     *
+     * @param owner the poster's content hash (or, for posters stored before deduplication, the
+     *              event id)
+     * @param rendition the rendition
+     * @return the object path, e.g. {@code posters/abc/thumb.webp}
+     */
+    public static String pathFor(String owner, Rendition rendition) {
+        return POSTERS_PATH + "/" + owner + "/" + rendition.getKey() + ".webp";
+    }
+
+    /**
+     * Picks the rendition to request for an image view, based on
+     * {@link PosterDecoder#targetSize(View)}.
+     *
+     * @param view the view the poster will be shown in
+     * @return the smallest rendition that covers the view
+     */
+    public static Rendition renditionFor(View view) {
+        int[] size = PosterDecoder.targetSize(view);
+        return Rendition.fitting(Math.max(size[0], size[1]));
+    }
+
+    /**
+     * Computes the largest power-of-two subsampling factor that keeps the decoded image at
+     * least {@code maxEdge} pixels on its long edge.
+     *
+     * @param width source width in pixels
+     * @param height source height in pixels
+     * @param maxEdge target long edge in pixels
+     * @return a value suitable for {@link BitmapFactory.Options#inSampleSize}
+     */
+    public static int sampleSizeFor(int width, int height, int maxEdge) {
+        int longEdge = Math.max(width, height);
+        int sample = 1;
+        while (longEdge / (sample * 2) >= maxEdge) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * Computes the size of an image scaled down so its long edge is at most {@code maxEdge},
+     * preserving aspect ratio. Images that already fit are left unchanged.
+     *
+     * @param width source width in pixels
+     * @param height source height in pixels
+     * @param maxEdge maximum long edge in pixels
+     * @return {@code {width, height}} of the scaled image
+     */
+    public static int[] scaledSize(int width, int height, int maxEdge) {
+        int longEdge = Math.max(width, height);
+        if (longEdge <= maxEdge) {
+            return new int[] {width, height};
+        }
+        double scale = (double) maxEdge / longEdge;
+        return new int[] {
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))
+        };
+    }
+
+    /**
+     * Builds the description of one stored rendition.
+     *
+     * @param downloadUrl public download URL of the blob
+     * @param path Storage path of the blob
+     * @param width width in pixels
+     * @param height height in pixels
+     * @param size size of the blob in bytes
+     * @param md5 base64 MD5 checksum reported by Storage
+     * @return the rendition map stored under {@code renditions/{key}}
+     */
+    public static HashMap<String, Object> buildRendition(String downloadUrl, String path,
+                                                         int width, int height, long size, String md5) {
+        HashMap<String, Object> rendition = new HashMap<>();
+        rendition.put("url", downloadUrl);
+        rendition.put("path", path);
+        rendition.put("width", width);
+        rendition.put("height", height);
+        rendition.put("size", size);
+        rendition.put("md5", md5);
+        return rendition;
+    }
+
+    /**
+     * Builds the reference object written to {@code Image/{eventId}}.
+     *
+     * @param downloadUrl public download URL of the largest stored copy
+     * @param path Storage path of that copy
+     * @param md5 base64 MD5 checksum reported by Storage
+     * @param size size of that copy in bytes
+     * @param contentType MIME type of that copy
+     * @param renditions rendition maps keyed by {@link Rendition#getKey()}, or {@code null}
+     * @return the update map, including a {@code null} for the legacy inline {@code url}
+     */
+    public static HashMap<String, Object> buildReference(String downloadUrl, String path,
+                                                         String md5, long size, String contentType,
+                                                         HashMap<String, Object> renditions) {
+        HashMap<String, Object> ref = new HashMap<>();
+        ref.put("poster", downloadUrl);
+        ref.put("path", path);
+        ref.put("md5", md5);
+        ref.put("size", size);
+        ref.put("contentType", contentType);
+        ref.put("renditions", renditions);
+        ref.put("url", null);
+        return ref;
+    }
+
+    /**
+     * Hashes poster source bytes; the hex SHA-256 is the poster's content address.
+     *
+     * @param in the source image bytes; read to the end but not closed
+     * @return the lowercase hex digest
+     * @throws IOException if the stream cannot be read
+     */
+    public static String contentHash(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+        byte[] buffer = new byte[16 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format(Locale.US, "%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Builds the multi-path update that points an event at a content-addressed poster. The
+     * reference fields are written to {@code Poster/{hash}} (leaving its {@code events} and
+     * {@code refCount}, which the {@code trackPosterReferences} Cloud Function maintains) and,
+     * together with the {@code hash} and an {@link #UPLOADED_AT} server timestamp, to
+     * {@code Image/{eventId}}. The {@link #LIST_RENDITION}'s URL and version are also copied to
+     * {@code Event/{eventId}/listPoster}, so list rows can fetch the image without reading
+     * {@code Image} first.
+     *
+     * @param eventId the event the poster belongs to
+     * @param hash the poster's content hash
+     * @param ref the reference from {@link #buildReference}
+     * @return paths relative to the database root
+     */
+    public static HashMap<String, Object> buildClaim(String eventId, String hash,
+                                                     HashMap<String, Object> ref) {
+        HashMap<String, Object> update = new HashMap<>();
+        for (Map.Entry<String, Object> field : ref.entrySet()) {
+            if (field.getValue() != null) {
+                update.put(BLOBS_PATH + "/" + hash + "/" + field.getKey(), field.getValue());
+            }
+        }
+        // A fresh upload revives a blob being collected; its objects live under new paths
+        update.put(BLOBS_PATH + "/" + hash + "/" + DELETING, null);
+        HashMap<String, Object> image = new HashMap<>(ref);
+        image.put("hash", hash);
+        image.put(UPLOADED_AT, ServerValue.TIMESTAMP);
+        update.put(IMAGES_PATH + "/" + eventId, image);
+
+        Object renditions = ref.get("renditions");
+        Object listed = renditions instanceof Map ? ((Map<?, ?>) renditions).get(LIST_RENDITION.getKey()) : null;
+        if (listed instanceof Map) {
+            Map<?, ?> rendition = (Map<?, ?>) listed;
+            update.put(EVENTS_PATH + "/" + eventId + "/" + LIST_POSTER,
+                    buildListPoster((String) rendition.get("url"), (String) rendition.get("md5"), hash,
+                            previewOf(renditions)));
+        }
+        return update;
+    }
+
+    /**
+     * Builds the poster reference embedded in an event for list rows.
+     *
+     * @param url download URL of the {@link #LIST_RENDITION}
+     * @param version its content version (checksum)
+     * @param hash the poster's content hash
+     * @param preview the inline {@link #PREVIEW}, or {@code null}
+     * @return the map stored at {@code Event/{eventId}/listPoster}
+     */
+    public static HashMap<String, Object> buildListPoster(String url, String version, String hash,
+                                                          String preview) {
+        HashMap<String, Object> listPoster = new HashMap<>();
+        listPoster.put("url", url);
+        listPoster.put("rendition", LIST_RENDITION.getKey());
+        listPoster.put("version", version);
+        listPoster.put("hash", hash);
+        listPoster.put(PREVIEW, preview);
+        return listPoster;
+    }
+
+    /** Returns the preview stored on the thumb entry of a renditions map, if any. */
+    private static String previewOf(Object renditions) {
+        Object thumb = renditions instanceof Map ? ((Map<?, ?>) renditions).get(Rendition.THUMB.getKey()) : null;
+        Object preview = thumb instanceof Map ? ((Map<?, ?>) thumb).get(PREVIEW) : null;
+        return preview instanceof String ? (String) preview : null;
+    }
+
+    /**
+     * Reads the poster reference embedded in an event snapshot.
+     *
+     * @param event an {@code Event/{eventId}} snapshot
+     * @return the reference, or {@code null} if the event has none (no poster, or one stored
+     *         before the projection existed), in which case callers fall back to {@link #resolve}
+     */
+    public static PosterRef listRefFrom(DataSnapshot event) {
+        if (!event.hasChild(LIST_POSTER)) {
+            return null;
+        }
+        DataSnapshot listPoster = event.child(LIST_POSTER);
+        String url = listPoster.child("url").getValue(String.class);
+        if (url == null) {
+            return null;
+        }
+        return new PosterRef(event.getKey(),
+                listPoster.child("rendition").getValue(String.class),
+                url,
+                listPoster.child("version").getValue(String.class),
+                listPoster.child("hash").getValue(String.class),
+                listPoster.child(PREVIEW).getValue(String.class));
+    }
+
+    /**
+     * Generates every rendition of a picked image off the main thread, uploads them, and
+     * records the reference once all uploads have succeeded.
+     *
+     * @param resolver content resolver able to open {@code file}
+     * @param file content URI of the picked image
+     * @param eventId the event the poster belongs to
+     * @return a task resolving to the FULL rendition's download URL once the reference is written
+     */
+    public Task<String> upload(ContentResolver resolver, Uri file, String eventId) {
+        return upload(resolver, file, eventId, null);
+    }
+
+    /**
+     * Stores a picked image as the event's poster. The source is hashed off the main thread;
+     * if {@code Poster/{hash}} already exists (another event uses the same image) it is claimed
+     * in a transaction and its renditions are reused. Otherwise every rendition is generated,
+     * uploaded once under {@code posters/{hash}/} with resumable transfers, and recorded; a blob
+     * that is being collected is uploaded again under a fresh folder, so the collector's
+     * deletes cannot reach the new objects. Either way the event's reference is written only at
+     * the end, in one update with the blob's.
+     *
+     * @param resolver content resolver able to open {@code file}
+     * @param file content URI of the picked image
+     * @param eventId the event the poster belongs to
+     * @param progress receives combined progress, or {@code null}
+     * @return a task resolving to the FULL rendition's download URL once the reference is written
+     */
+    public Task<String> upload(ContentResolver resolver, Uri file, String eventId,
+                               ProgressListener progress) {
+        if (resolver == null || file == null || eventId == null || eventId.isEmpty()) {
+            return Tasks.forException(new IllegalArgumentException("Invalid file or eventId"));
+        }
+
+        DatabaseReference root = imageService.getReference().getRoot();
+        return Tasks.call(ENCODER, () -> {
+                    try (InputStream in = resolver.openInputStream(file)) {
+                        if (in == null) throw new IOException("Cannot open " + file);
+                        return contentHash(in);
+                    }
+                })
+                .continueWithTask(DIRECT, hashed -> {
+                    if (!hashed.isSuccessful()) {
+                        throw hashed.getException();
+                    }
+                    String hash = hashed.getResult();
+                    return claimExisting(root.child(BLOBS_PATH).child(hash), eventId)
+                            .continueWithTask(DIRECT, claimed -> {
+                                if (!claimed.isSuccessful()) {
+                                    throw claimed.getException();
+                                }
+                                DataSnapshot blob = claimed.getResult();
+                                Object stored = blob == null ? null : blob.child("renditions").getValue();
+                                if (stored instanceof Map && !blob.hasChild(DELETING)) {
+                                    Log.d(TAG, "Reusing poster " + hash + " for " + eventId);
+                                    @SuppressWarnings("unchecked")
+                                    Map<String, Object> renditions = (Map<String, Object>) stored;
+                                    return Tasks.forResult(new HashMap<>(renditions));
+                                }
+                                String owner = blob != null && blob.hasChild(DELETING)
+                                        ? hash + "-" + Long.toString(System.currentTimeMillis(), 36)
+                                        : hash;
+                                return encodeAndUpload(resolver, file, hash, owner, progress);
+                            })
+                            .continueWithTask(DIRECT, renditions -> {
+                                if (!renditions.isSuccessful()) {
+                                    throw renditions.getException();
+                                }
+                                @SuppressWarnings("unchecked")
+                                Map<String, Object> full =
+                                        (Map<String, Object>) renditions.getResult().get(Rendition.FULL.getKey());
+                                HashMap<String, Object> ref = buildReference(
+                                        (String) full.get("url"),
+                                        (String) full.get("path"),
+                                        (String) full.get("md5"),
+                                        ((Number) full.get("size")).longValue(),
+                                        CONTENT_TYPE,
+                                        renditions.getResult()
+                                );
+                                return root.updateChildren(buildClaim(eventId, hash, ref))
+                                        .continueWith(DIRECT, write -> {
+                                            if (!write.isSuccessful()) {
+                                                throw write.getException();
+                                            }
+                                            return (String) full.get("url");
+                                        });
+                            });
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Poster upload failed for " + eventId, e));
+    }
+
+    /**
+     * Adds {@code eventId} to the {@code events} of an existing, live blob in one transaction.
+     * The transaction runs against the server's value, so it either lands before the collector
+     * marks the blob {@link #DELETING} (which then sees the claim and keeps it) or observes the
+     * mark or the missing node and leaves the blob alone.
+     *
+     * @param blob the {@code Poster/{hash}} reference
+     * @param eventId the event claiming the blob
+     * @return a task resolving to the blob as committed, whose {@code events} hold
+     *         {@code eventId} only if it was claimed
+     */
+    private static Task<DataSnapshot> claimExisting(DatabaseReference blob, String eventId) {
+        TaskCompletionSource<DataSnapshot> claimed = new TaskCompletionSource<>();
+        blob.runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                if (!current.hasChild("renditions") || current.hasChild(DELETING)) {
+                    // Unchanged; committing still checks this guess against the server
+                    return Transaction.success(current);
+                }
+                MutableData events = current.child("events");
+                events.child(eventId).setValue(true);
+                current.child("refCount").setValue(events.getChildrenCount());
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    claimed.setException(error.toException());
+                } else {
+                    claimed.setResult(snapshot);
+                }
+            }
+        });
+        return claimed.getTask();
+    }
+
+    /**
+     * Encodes every rendition and uploads it under {@code posters/{owner}/}, normally the
+     * content hash, resolving to the rendition maps keyed by {@link Rendition#getKey()}.
+     */
+    private Task<HashMap<String, Object>> encodeAndUpload(ContentResolver resolver, Uri file,
+                                                          String hash, String owner,
+                                                          ProgressListener progress) {
+        List<Encoded> staged = new ArrayList<>();
+        return Tasks.call(ENCODER, () -> encodeRenditions(resolver, file))
+                .continueWithTask(DIRECT, encoded -> {
+                    if (!encoded.isSuccessful()) {
+                        throw encoded.getException();
+                    }
+                    staged.addAll(encoded.getResult().values());
+                    UploadProgress tracker = new UploadProgress(staged, progress);
+                    List<Task<HashMap<String, Object>>> uploads = new ArrayList<>();
+                    for (int i = 0; i < staged.size(); i++) {
+                        uploads.add(uploadRendition(hash, owner, staged.get(i), tracker.forRendition(i)));
+                    }
+                    return Tasks.whenAllSuccess(uploads);
+                })
+                .continueWith(DIRECT, uploaded -> {
+                    for (Encoded rendition : staged) {
+                        rendition.file.delete();
+                    }
+                    if (!uploaded.isSuccessful()) {
+                        throw uploaded.getException();
+                    }
+                    HashMap<String, Object> renditions = new HashMap<>();
+                    for (Object result : uploaded.getResult()) {
+                        @SuppressWarnings("unchecked")
+                        HashMap<String, Object> rendition = (HashMap<String, Object>) result;
+                        renditions.put((String) rendition.remove("key"), rendition);
+                    }
+                    return renditions;
+                });
+    }
+
+    /**
+     * Reads the download URL of the FULL rendition.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the URL, or {@code null} if the event has no poster
+     */
+    public Task<String> getPosterUrl(String eventId) {
+        return getPosterUrl(eventId, Rendition.FULL);
+    }
+
+    /**
+     * Reads only the download URL of one rendition, never the rest of the reference. Posters
+     * stored before renditions existed fall back to {@code Image/{eventId}/poster}.
+     *
+     * @param eventId the event id
+     * @param rendition the rendition to resolve
+     * @return a task resolving to the URL, or {@code null} if the event has no poster
+     */
+    public Task<String> getPosterUrl(String eventId, Rendition rendition) {
+        return resolve(eventId, rendition).continueWith(DIRECT, task ->
+                task.isSuccessful() && task.getResult() != null ? task.getResult().getUrl() : null);
+    }
+
+    /**
+     * Resolves the URL and content version of one rendition by reading only
+     * {@code Image/{eventId}/renditions/{key}}. Posters stored before renditions existed fall back
+     * to the top-level {@code poster} and {@code md5} leaves.
+     *
+     * @param eventId the event id
+     * @param rendition the rendition to resolve
+     * @return a task resolving to the reference, or {@code null} if the event has no poster
+     */
+    public Task<PosterRef> resolve(String eventId, Rendition rendition) {
+        DatabaseReference entry = imageService.getReference().child(eventId);
+        return entry.child("renditions").child(rendition.getKey()).get()
+                .continueWithTask(DIRECT, task -> {
+                    DataSnapshot snapshot = task.isSuccessful() ? task.getResult() : null;
+                    String url = snapshot == null ? null : snapshot.child("url").getValue(String.class);
+                    if (url != null) {
+                        String md5 = snapshot.child("md5").getValue(String.class);
+                        String hash = snapshot.child("hash").getValue(String.class);
+                        return Tasks.forResult(new PosterRef(eventId, rendition.getKey(), url, md5, hash));
+                    }
+
+                    Task<DataSnapshot> poster = entry.child("poster").get();
+                    Task<DataSnapshot> md5 = entry.child("md5").get();
+                    return Tasks.whenAllComplete(poster, md5).continueWith(DIRECT, legacy -> {
+                        String legacyUrl = poster.isSuccessful() && poster.getResult() != null
+                                ? poster.getResult().getValue(String.class)
+                                : null;
+                        if (legacyUrl == null) {
+                            return null;
+                        }
+                        String version = md5.isSuccessful() && md5.getResult() != null
+                                ? md5.getResult().getValue(String.class)
+                                : null;
+                        return new PosterRef(eventId, "poster", legacyUrl,
+                                version != null ? version : Integer.toHexString(legacyUrl.hashCode()));
+                    });
+                });
+    }
+
+    /**
+     * Reads only the inline {@link #PREVIEW} of an event's poster, so a detail screen can show it
+     * while the full rendition resolves and downloads.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the base64 preview, or {@code null} if there is none
+     */
+    public Task<String> preview(String eventId) {
+        return imageService.getReference().child(eventId)
+                .child("renditions").child(Rendition.THUMB.getKey()).child(PREVIEW).get()
+                .continueWith(DIRECT, task -> task.isSuccessful() && task.getResult() != null
+                        ? task.getResult().getValue(String.class)
+                        : null);
+    }
+
+    /**
+     * Reads one page of poster thumbnails, newest first, from {@link #INDEX_PATH} ordered on
+     * {@link #UPLOADED_AT}. Index rows hold only the thumb reference, so a page costs a single
+     * query and never downloads the other renditions or a legacy inline {@code url} stored on
+     * {@code Image}. Entries without a timestamp (stored before it existed) sort last.
+     *
+     * @param after the previous page, or {@code null} for the newest posters
+     * @param pageSize maximum number of posters in the page
+     * @return a task resolving to the page
+     */
+    public Task<Page> browse(Page after, int pageSize) {
+        Query query = imageService.getReference().getRoot().child(INDEX_PATH).orderByChild(UPLOADED_AT);
+        if (after != null && after.lastEventId != null) {
+            query = after.lastUploadedAt != null
+                    ? query.endBefore(after.lastUploadedAt, after.lastEventId)
+                    : query.endBefore((String) null, after.lastEventId);
+        }
+        return query.limitToLast(pageSize + 1).get().continueWith(DIRECT, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            List<DataSnapshot> entries = new ArrayList<>();
+            for (DataSnapshot entry : task.getResult().getChildren()) {
+                entries.add(entry);
+            }
+            Collections.reverse(entries);
+            boolean hasMore = entries.size() > pageSize;
+            if (hasMore) {
+                entries = entries.subList(0, pageSize);
+            }
+
+            List<PosterRef> refs = new ArrayList<>();
+            for (DataSnapshot entry : entries) {
+                PosterRef ref = indexRefFrom(entry);
+                if (ref != null) refs.add(ref);
+            }
+            DataSnapshot last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+            return new Page(refs,
+                    last == null ? null : last.child(UPLOADED_AT).getValue(Long.class),
+                    last == null ? null : last.getKey(),
+                    hasMore);
+        });
+    }
+
+    /**
+     * Builds a thumbnail reference from an {@code ImageIndex/{eventId}} row.
+     *
+     * @param entry the {@link #INDEX_PATH} snapshot
+     * @return the reference, or {@code null} if the row has no URL
+     */
+    public static PosterRef indexRefFrom(DataSnapshot entry) {
+        String url = entry.child("url").getValue(String.class);
+        if (url == null) {
+            return null;
+        }
+        String md5 = entry.child("md5").getValue(String.class);
+        return new PosterRef(entry.getKey(),
+                entry.child("rendition").getValue(String.class),
+                url,
+                md5 != null ? md5 : Integer.toHexString(url.hashCode()),
+                entry.child("hash").getValue(String.class),
+                entry.child(PREVIEW).getValue(String.class));
+    }
+
+    /**
+     * Builds a reference to one rendition from a whole {@code Image/{eventId}} snapshot, falling
+     * back to the top-level {@code poster} for entries without renditions.
+     *
+     * @param entry the {@code Image/{eventId}} snapshot
+     * @param rendition the rendition to reference
+     * @return the reference, or {@code null} if the entry has no poster URL
+     */
+    public static PosterRef refFrom(DataSnapshot entry, Rendition rendition) {
+        String eventId = entry.getKey();
+        String hash = entry.child("hash").getValue(String.class);
+        DataSnapshot stored = entry.child("renditions").child(rendition.getKey());
+        String url = stored.child("url").getValue(String.class);
+        if (url != null) {
+            return new PosterRef(eventId, rendition.getKey(), url,
+                    stored.child("md5").getValue(String.class), hash,
+                    entry.child("renditions").child(Rendition.THUMB.getKey()).child(PREVIEW)
+                            .getValue(String.class));
+        }
+        String legacyUrl = entry.child("poster").getValue(String.class);
+        if (legacyUrl == null) {
+            return null;
+        }
+        String md5 = entry.child("md5").getValue(String.class);
+        return new PosterRef(eventId, "poster", legacyUrl,
+                md5 != null ? md5 : Integer.toHexString(legacyUrl.hashCode()), hash);
+    }
+
+    /**
+     * Uploads one encoded rendition and resolves to its description (plus its {@code key}).
+     */
+    private Task<HashMap<String, Object>> uploadRendition(String hash, String owner, Encoded encoded,
+                                                          OnProgressListener<UploadTask.TaskSnapshot> progress) {
+        String path = pathFor(owner, encoded.rendition);
+        StorageReference blob = getStorage().getReference().child(path);
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType(CONTENT_TYPE)
+                .build();
+
+        return putResumable(blob, Uri.fromFile(encoded.file), metadata, null, MAX_RESUMES, progress)
+                .continueWithTask(DIRECT, upload -> {
+            if (!upload.isSuccessful()) {
+                throw upload.getException();
+            }
+            StorageMetadata stored = upload.getResult().getMetadata();
+            return blob.getDownloadUrl().continueWith(DIRECT, url -> {
+                if (!url.isSuccessful()) {
+                    throw url.getException();
+                }
+                HashMap<String, Object> rendition = buildRendition(
+                        url.getResult().toString(),
+                        path,
+                        encoded.width,
+                        encoded.height,
+                        encoded.file.length(),
+                        stored == null ? null : stored.getMd5Hash()
+                );
+                rendition.put("hash", hash);
+                rendition.put("key", encoded.rendition.getKey());
+                if (encoded.preview != null) {
+                    rendition.put(PREVIEW, encoded.preview);
+                }
+                return rendition;
+            });
+        });
+    }
+
+    /**
+     * Uploads a file, resuming the same upload session after a failure instead of starting over.
+     */
+    private static Task<UploadTask.TaskSnapshot> putResumable(StorageReference blob, Uri file,
+                                                              StorageMetadata metadata, Uri session,
+                                                              int resumesLeft,
+                                                              OnProgressListener<UploadTask.TaskSnapshot> progress) {
+        UploadTask upload = session == null
+                ? blob.putFile(file, metadata)
+                : blob.putFile(file, metadata, session);
+        upload.addOnProgressListener(progress);
+        return upload.continueWithTask(DIRECT, done -> {
+            if (done.isSuccessful()) {
+                return Tasks.forResult(done.getResult());
+            }
+            Exception error = done.getException() != null
+                    ? done.getException()
+                    : new IOException("Upload cancelled: " + blob.getPath());
+            Uri resume = upload.getSnapshot().getUploadSessionUri();
+            if (done.isCanceled() || resume == null || resumesLeft <= 0) {
+                throw error;
+            }
+            Log.w(TAG, "Resuming upload of " + blob.getPath(), error);
+            return putResumable(blob, file, metadata, resume, resumesLeft - 1, progress);
+        });
+    }
+
+    /**
+     * Decodes the source once at the FULL bound, then derives each smaller rendition from the
+     * previous one and encodes it as WebP into a temporary file. The inline preview is derived
+     * from the smallest rendition last.
+     */
+    private static EnumMap<Rendition, Encoded> encodeRenditions(ContentResolver resolver, Uri file)
+            throws IOException {
+        EnumMap<Rendition, Encoded> encoded = new EnumMap<>(Rendition.class);
+        Rendition[] renditions = Rendition.values();
+        Bitmap current = decodeBounded(resolver, file, Rendition.FULL.getMaxEdge());
+
+        try {
+            for (int i = renditions.length - 1; i >= 0; i--) {
+                Rendition rendition = renditions[i];
+                Bitmap scaled = scaleToFit(current, rendition.getMaxEdge());
+                if (scaled != current) {
+                    current.recycle();
+                    current = scaled;
+                }
+                File staged = File.createTempFile("poster-" + rendition.getKey(), ".webp");
+                encoded.put(rendition, new Encoded(rendition, staged,
+                        current.getWidth(), current.getHeight()));
+                try (OutputStream out = new FileOutputStream(staged)) {
+                    current.compress(webpFormat(), rendition.getQuality(), out);
+                }
+            }
+            encoded.get(renditions[0]).preview = encodePreview(current);
+        } catch (IOException e) {
+            for (Encoded staged : encoded.values()) {
+                staged.file.delete();
+            }
+            throw e;
+        } finally {
+            current.recycle();
+        }
+        return encoded;
+    }
+
+    /**
+     * Decodes an image with subsampling so no more memory than needed for {@code maxEdge}
+     * is allocated, then scales it to fit exactly.
+     */
+    private static Bitmap decodeBounded(ContentResolver resolver, Uri file, int maxEdge) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(file)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Unreadable image: " + file);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(bounds.outWidth, bounds.outHeight, maxEdge);
+        Bitmap decoded;
+        try (InputStream in = resolver.openInputStream(file)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Unreadable image: " + file);
+        }
+        Bitmap scaled = scaleToFit(decoded, maxEdge);
+        if (scaled != decoded) {
+            decoded.recycle();
+        }
+        return scaled;
+    }
+
+    /**
+     * Shrinks a bitmap to {@link #PREVIEW_EDGE} and encodes it as base64 WebP.
+     */
+    private static String encodePreview(Bitmap source) {
+        Bitmap tiny = scaleToFit(source, PREVIEW_EDGE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tiny.compress(webpFormat(), PREVIEW_QUALITY, out);
+        if (tiny != source) {
+            tiny.recycle();
+        }
+        return Base64.encodeToString(out.toByteArray(), Base64.NO_WRAP);
+    }
+
+    private static Bitmap scaleToFit(Bitmap source, int maxEdge) {
+        int[] size = scaledSize(source.getWidth(), source.getHeight(), maxEdge);
+        if (size[0] == source.getWidth() && size[1] == source.getHeight()) {
+            return source;
+        }
+        return Bitmap.createScaledBitmap(source, size[0], size[1], true);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+
+    private FirebaseStorage getStorage() {
+        if (storage == null) {
+            storage = FirebaseStorage.getInstance();
+        }
+        return storage;
+    }
+
+    /**
+     * Location and content version of one stored poster rendition.
+     */
+    public static class PosterRef {
+        private final String eventId;
+        private final String rendition;
+        private final String url;
+        private final String version;
+        private final String hash;
+        private final String preview;
+
+        public PosterRef(String eventId, String rendition, String url, String version) {
+            this(eventId, rendition, url, version, null);
+        }
+
+        public PosterRef(String eventId, String rendition, String url, String version, String hash) {
+            this(eventId, rendition, url, version, hash, null);
+        }
+
+        public PosterRef(String eventId, String rendition, String url, String version, String hash,
+                         String preview) {
+            this.eventId = eventId;
+            this.rendition = rendition;
+            this.url = url;
+            this.version = version;
+            this.hash = hash;
+            this.preview = preview;
+        }
+
+        /** @return the event id. */
+        public String getEventId() { return eventId; }
+
+        /** @return the rendition key, or {@code "poster"} for a legacy single-size poster. */
+        public String getRendition() { return rendition; }
+
+        /** @return the download URL. */
+        public String getUrl() { return url; }
+
+        /** @return the content version (the stored checksum). */
+        public String getVersion() { return version; }
+
+        /** @return the content hash, or {@code null} for posters stored before deduplication. */
+        public String getHash() { return hash; }
+
+        /** @return the inline base64 {@link #PREVIEW}, or {@code null} if none was stored. */
+        public String getPreview() { return preview; }
+
+        /**
+         * @return the {@link PosterCache} key of this rendition and version. Content-addressed
+         * posters are keyed by hash, so events sharing a poster share cache entries.
+         */
+        public String getCacheKey() {
+            return PosterCache.keyFor(hash != null ? hash : eventId, rendition, version);
+        }
+    }
+
+    /** Encoded bytes of one rendition. */
+    private static class Encoded {
+        final Rendition rendition;
+        final File file;
+        final int width;
+        final int height;
+        /** Inline preview; set on the smallest rendition only. */
+        String preview;
+
+        Encoded(Rendition rendition, File file, int width, int height) {
+            this.rendition = rendition;
+            this.file = file;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Sums per-rendition upload progress into one figure for a {@link ProgressListener}.
+     */
+    private static class UploadProgress {
+        private final long[] sent;
+        private final long total;
+        private final ProgressListener listener;
+
+        UploadProgress(List<Encoded> renditions, ProgressListener listener) {
+            this.sent = new long[renditions.size()];
+            long bytes = 0;
+            for (Encoded rendition : renditions) {
+                bytes += rendition.file.length();
+            }
+            this.total = bytes;
+            this.listener = listener;
+        }
+
+        OnProgressListener<UploadTask.TaskSnapshot> forRendition(int index) {
+            return snapshot -> {
+                sent[index] = snapshot.getBytesTransferred();
+                if (listener != null) {
+                    long transferred = 0;
+                    for (long bytes : sent) {
+                        transferred += bytes;
+                    }
+                    listener.onProgress(transferred, total);
+                }
+            };
+        }
+    }
+
+    /**
+     * One page of {@link #browse} results plus the cursor for the next page.
+     */
+    public static class Page {
+        private final List<PosterRef> refs;
+        private final Long lastUploadedAt;
+        private final String lastEventId;
+        private final boolean hasMore;
+        private final HashMap<String, String> eventNames = new HashMap<>();
+
+        public Page(List<PosterRef> refs, Long lastUploadedAt, String lastEventId, boolean hasMore) {
+            this.refs = refs;
+            this.lastUploadedAt = lastUploadedAt;
+            this.lastEventId = lastEventId;
+            this.hasMore = hasMore;
+        }
+
+        /** @return the posters on this page, newest first. */
+        public List<PosterRef> getRefs() { return refs; }
+
+        /** @return whether older posters remain after this page. */
+        public boolean hasMore() { return hasMore; }
+
+        /** @return the name recorded for an event on this page, or {@code null}. */
+        public String getEventName(String eventId) { return eventNames.get(eventId); }
+
+        /** Records the display name of an event on this page. */
+        public void putEventName(String eventId, String name) { eventNames.put(eventId, name); }
+    }
+}
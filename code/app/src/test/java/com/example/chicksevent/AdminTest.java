@@ -25,6 +25,7 @@ import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
 
 import org.junit.After;
 import org.junit.Before;
@@ -50,6 +51,7 @@ import java.util.List;
  * <h2>Behaviours verified</h2>
  * <ul>
  *   <li>{@code deleteEvent} and {@code deleteUserProfile} issue deletes only for non-empty IDs</li>
+ *   <li>{@code deleteEvent} leaves a server-time tombstone for delta-synced catalogs</li>
  *   <li>{@code deleteOrganizerProfile} returns an exception task for empty IDs and completes on success</li>
  *   <li>{@code browseEntrants} builds lightweight {@link User} objects from snapshot keys</li>
  *   <li>{@code browseEvents} returns a list whose size matches snapshot children</li>
@@ -93,6 +95,7 @@ public class AdminTest {
     private DatabaseReference waitingListRoot;
     private DatabaseReference notificationRoot;
     private DatabaseReference imageRoot;
+    private DatabaseReference tombstoneRoot;
 
     private Admin admin;
 
@@ -109,6 +112,7 @@ public class AdminTest {
         waitingListRoot  = mock(DatabaseReference.class); // "WaitingList"
         notificationRoot = mock(DatabaseReference.class); // "Notification"
         imageRoot        = mock(DatabaseReference.class); // "Image"
+        tombstoneRoot    = mock(DatabaseReference.class); // "EventTombstone"
 
         firebaseDbStatic.when(() -> FirebaseDatabase.getInstance(anyString()))
                 .thenReturn(mockDb);
@@ -120,6 +124,7 @@ public class AdminTest {
         when(mockDb.getReference("WaitingList")).thenReturn(waitingListRoot);
         when(mockDb.getReference("Notification")).thenReturn(notificationRoot);
         when(mockDb.getReference("Image")).thenReturn(imageRoot);
+        when(mockDb.getReference("EventTombstone")).thenReturn(tombstoneRoot);
 
         // Safe to construct Admin (its FirebaseService members will bind to the mocked refs)
         admin = new Admin(UID);
@@ -143,9 +148,15 @@ public class AdminTest {
         // return a completed Task from removeValue() so the success-listener chain doesn't NPE
         when(eventIdRef.removeValue()).thenReturn(Tasks.forResult(null));
 
+        DatabaseReference tombstoneRef = mock(DatabaseReference.class);
+        when(tombstoneRoot.child("E123")).thenReturn(tombstoneRef);
+        when(tombstoneRef.setValue(any())).thenReturn(Tasks.forResult(null));
+
         admin.deleteEvent("E123");
 
         verify(eventIdRef, times(1)).removeValue();
+        // Leaves a tombstone so delta-synced catalogs drop the event
+        verify(tombstoneRef, times(1)).setValue(ServerValue.TIMESTAMP);
     }
 
     @Test
@@ -153,6 +164,7 @@ public class AdminTest {
         admin.deleteEvent(null);
         admin.deleteEvent("");
         verify(eventRoot, never()).child(anyString());
+        verify(tombstoneRoot, never()).child(anyString());
     }
 
     // -------------------- US 03.02.01 --------------------
@@ -449,14 +461,10 @@ public class AdminTest {
         when(userChildRef.updateChildren(any(HashMap.class))).thenReturn(Tasks.forResult(null));
         
         // Mock notification service for Notification.createNotification()
-        // Notification uses updateSubCollectionEntry which calls child().child().updateChildren()
-        DatabaseReference userNotifRef = mock(DatabaseReference.class);
-        DatabaseReference eventNotifRef = mock(DatabaseReference.class);
-        DatabaseReference typeNotifRef = mock(DatabaseReference.class);
-        when(notificationRoot.child(userId)).thenReturn(userNotifRef);
-        when(userNotifRef.child("SYSTEM")).thenReturn(eventNotifRef);
-        when(eventNotifRef.child(anyString())).thenReturn(typeNotifRef);
-        when(typeNotifRef.updateChildren(any(HashMap.class))).thenReturn(Tasks.forResult(null));
+        // Notification writes one multi-path update from the database root
+        DatabaseReference databaseRoot = mock(DatabaseReference.class);
+        when(notificationRoot.getRoot()).thenReturn(databaseRoot);
+        when(databaseRoot.updateChildren(any(HashMap.class))).thenReturn(Tasks.forResult(null));
         
         Task<Void> unbanTask = admin.unbanUserFromOrganizer(userId);
         assertNotNull(unbanTask);
@@ -0,0 +1,374 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventCatalog;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.misc.EventStore;
+import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EventCatalog}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>The first follow reads one page and takes its marks from it instead of reading every
+ *       summary; later follows start at the high-water marks</li>
+ *   <li>Listeners hear nothing until the delta has arrived, then each change once</li>
+ *   <li>After the sync, a change is reported with the one row it touched</li>
+ *   <li>Tombstones remove rows and advance their own mark</li>
+ *   <li>Listeners are detached only when the last follower leaves</li>
+ *   <li>Stored rows are published on restore, and following waits for them and their marks</li>
+ *   <li>Changes and marks are written through to the store</li>
+ *   <li>Queries go to the store only while it is fresh and a full pass has been paged</li>
+ *   <li>Lookups that miss read only the unknown summaries</li>
+ * </ul>
+ */
+public class EventCatalogTest {
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private FirebaseService summaryService;
+    private DatabaseReference summaryRoot;
+    private Query byUpdatedAt;
+    private Query byValue;
+    private Query changes;
+    private Query deletions;
+    private EventCatalog catalog;
+    private int notified;
+
+    @Before
+    public void setUp() {
+        // Event's constructor creates FirebaseService instances
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class, RETURNS_DEEP_STUBS);
+        firebaseDbStatic.when(() -> FirebaseDatabase.getInstance(anyString())).thenReturn(mockDb);
+
+        summaryService = mock(FirebaseService.class);
+        FirebaseService tombstoneService = mock(FirebaseService.class);
+        summaryRoot = mock(DatabaseReference.class);
+        DatabaseReference tombstoneRoot = mock(DatabaseReference.class);
+        byUpdatedAt = mock(Query.class);
+        byValue = mock(Query.class);
+        changes = mock(Query.class);
+        deletions = mock(Query.class);
+        when(summaryService.getReference()).thenReturn(summaryRoot);
+        when(tombstoneService.getReference()).thenReturn(tombstoneRoot);
+        when(summaryRoot.orderByChild(Event.UPDATED_AT)).thenReturn(byUpdatedAt);
+        when(tombstoneRoot.orderByValue()).thenReturn(byValue);
+        when(byUpdatedAt.startAt(anyDouble())).thenReturn(changes);
+        when(byValue.startAt(anyDouble())).thenReturn(deletions);
+        // An empty first page unless a test says otherwise
+        firstPage();
+
+        catalog = new EventCatalog(summaryService, tombstoneService);
+        catalog.addListener(() -> notified++);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void refollowReadsOnlyChangesSinceTheMarks() {
+        Listeners first = follow();
+        verify(byUpdatedAt).startAt(0.0);
+        first.changes.onChildAdded(summary("e1", 100L), null);
+        first.changes.onChildAdded(summary("e2", 250L), null);
+        first.deletions.onChildAdded(tombstone("old", 90L), null);
+        first.sync.onDataChange(mock(DataSnapshot.class));
+        catalog.unfollow();
+
+        assertEquals(250L, catalog.getHighWaterMark());
+
+        follow();
+        verify(byUpdatedAt).startAt(250.0);
+        verify(byValue).startAt(90.0);
+        // Known rows stay readable while the delta loads
+        assertEquals(Arrays.asList("e1", "e2"), ids(catalog.events()));
+    }
+
+    @Test
+    public void firstFollowTakesMarksFromFirstPage() {
+        firstPage(summary("e1", 100L), summary("e2", 250L));
+
+        follow();
+
+        verify(summaryService).getPage(null, EventPager.PAGE_SIZE);
+        verify(byUpdatedAt, never()).startAt(0.0);
+        verify(byUpdatedAt).startAt(250.0);
+        verify(byValue).startAt(250.0);
+        assertEquals(Arrays.asList("e1", "e2"), ids(catalog.events()));
+        // Rows read a page at a time are not every event
+        assertFalse(catalog.isComplete());
+    }
+
+    @Test
+    public void pages_fullPassCompletesCatalog() {
+        DataSnapshot first = mock(DataSnapshot.class);
+        when(first.getChildren()).thenReturn(Arrays.asList(summary("e1", 100L), summary("e2", 100L)));
+        DataSnapshot last = mock(DataSnapshot.class);
+        when(last.getChildren()).thenReturn(Arrays.asList(summary("e3", 100L)));
+        when(summaryService.getPage(null, 2)).thenReturn(Tasks.forResult(first));
+        when(summaryService.getPage("e2", 2)).thenReturn(Tasks.forResult(last));
+        EventPager.PageSource pages = catalog.pages();
+
+        pages.load(null, 2);
+        assertFalse(catalog.isComplete());
+        pages.load("e2", 2);
+
+        assertTrue(catalog.isComplete());
+        assertEquals(Arrays.asList("e1", "e2", "e3"), ids(catalog.events()));
+        // Pages are told to their reader, not to listeners
+        assertEquals(0, notified);
+    }
+
+    @Test
+    public void fetch_readsOnlyUnknownSummaries() {
+        firstPage(summary("e1", 100L));
+        follow();
+        DatabaseReference e9 = mock(DatabaseReference.class);
+        when(summaryRoot.child("e9")).thenReturn(e9);
+        when(e9.get()).thenReturn(Tasks.forResult(summary("e9", 50L)));
+
+        assertTrue(catalog.fetch(Arrays.asList("e1", "e9")).isSuccessful());
+
+        assertNotNull(catalog.get("e9"));
+        verify(summaryRoot, never()).child("e1");
+    }
+
+    @Test
+    public void listenersHearChangesOnlyAfterSync() {
+        Listeners l = follow();
+        l.changes.onChildAdded(summary("e1", 100L), null);
+        assertEquals(0, notified);
+        assertFalse(catalog.isSynced());
+
+        l.sync.onDataChange(mock(DataSnapshot.class));
+        assertEquals(1, notified);
+
+        l.changes.onChildChanged(summary("e1", 300L), null);
+        assertEquals(2, notified);
+        assertEquals(300L, catalog.getHighWaterMark());
+    }
+
+    @Test
+    public void changesAfterSyncReportTheirRow() {
+        List<String> reported = new ArrayList<>();
+        catalog.addListener(new EventCatalog.Listener() {
+            @Override
+            public void onCatalogChanged() {
+                reported.add("*");
+            }
+
+            @Override
+            public void onEventChanged(String id, Event event) {
+                reported.add(id + (event == null ? " removed" : ""));
+            }
+        });
+        Listeners l = follow();
+        l.changes.onChildAdded(summary("e1", 100L), null);
+        l.sync.onDataChange(mock(DataSnapshot.class));
+
+        l.changes.onChildChanged(summary("e1", 300L), null);
+        assertSame(catalog.get("e1"), catalog.events().get(0));
+        l.deletions.onChildAdded(tombstone("e1", 400L), null);
+
+        assertEquals(Arrays.asList("*", "e1", "e1 removed"), reported);
+        assertNull(catalog.get("e1"));
+    }
+
+    @Test
+    public void tombstoneRemovesRow() {
+        Listeners l = follow();
+        l.changes.onChildAdded(summary("e1", 100L), null);
+        l.changes.onChildAdded(summary("e2", 100L), null);
+        l.sync.onDataChange(mock(DataSnapshot.class));
+
+        l.deletions.onChildAdded(tombstone("e1", 400L), null);
+
+        assertEquals(Arrays.asList("e2"), ids(catalog.events()));
+        assertEquals(2, notified);
+    }
+
+    @Test
+    public void detachesOnlyWhenLastFollowerLeaves() {
+        Listeners l = follow();
+        catalog.follow();
+        verify(changes, times(1)).addChildEventListener(any(ChildEventListener.class));
+
+        catalog.unfollow();
+        verify(changes, never()).removeEventListener(any(ChildEventListener.class));
+
+        catalog.unfollow();
+        verify(changes).removeEventListener(l.changes);
+        verify(deletions).removeEventListener(l.deletions);
+    }
+
+    @Test
+    public void restore_publishesStoredRowsThenFollowsFromStoredMarks() {
+        EventStore store = mock(EventStore.class);
+        OnCompleteListener<EventStore.Contents> loaded = restore(store);
+
+        catalog.follow();
+        // Following waits for the stored marks
+        verify(changes, never()).addChildEventListener(any(ChildEventListener.class));
+
+        Event stored = mock(Event.class);
+        when(stored.getId()).thenReturn("e1");
+        loaded.onComplete(Tasks.forResult(new EventStore.Contents(
+                Arrays.asList(stored), 500L, 40L, System.currentTimeMillis(), false)));
+
+        assertEquals(Arrays.asList("e1"), ids(catalog.events()));
+        assertEquals(1, notified);
+        assertFalse(catalog.isSynced());
+        verify(byUpdatedAt).startAt(500.0);
+        verify(byValue).startAt(40.0);
+        verify(changes).addChildEventListener(any(ChildEventListener.class));
+    }
+
+    @Test
+    public void changesAndMarksAreWrittenThrough() {
+        EventStore store = mock(EventStore.class);
+        restore(store).onComplete(Tasks.forResult(new EventStore.Contents(new ArrayList<>(), 0, 0, 0, false)));
+        Listeners l = follow();
+
+        l.changes.onChildAdded(summary("e1", 100L), null);
+        l.changes.onChildAdded(summary("e2", 200L), null);
+        l.sync.onDataChange(mock(DataSnapshot.class));
+        l.deletions.onChildAdded(tombstone("e1", 300L), null);
+
+        verify(store).put(any(Event.class), eq(100L));
+        verify(store).put(any(Event.class), eq(200L));
+        verify(store).setMarks(eq(200L), eq(0L), anyLong(), eq(false));
+        verify(store).remove("e1");
+
+        catalog.unfollow();
+        verify(store).setMarks(eq(200L), eq(300L), anyLong(), eq(false));
+    }
+
+    @Test
+    public void isQueryable_onlyWithFreshCompleteStore() {
+        assertFalse(catalog.isQueryable());
+
+        EventStore store = mock(EventStore.class);
+        OnCompleteListener<EventStore.Contents> loaded = restore(store);
+        assertFalse(catalog.isQueryable());
+
+        long stale = System.currentTimeMillis() - EventCatalog.QUERY_MAX_AGE_MS - 1000;
+        loaded.onComplete(Tasks.forResult(new EventStore.Contents(new ArrayList<>(), 1L, 0, stale, true)));
+        assertFalse(catalog.isQueryable());
+
+        Listeners l = follow();
+        assertFalse(catalog.isQueryable());
+        l.sync.onDataChange(mock(DataSnapshot.class));
+        assertTrue(catalog.isQueryable());
+
+        // Still fresh shortly after the last follower leaves
+        catalog.unfollow();
+        assertTrue(catalog.isQueryable());
+    }
+
+    @Test
+    public void isQueryable_notWhileOnlyPagesAreKnown() {
+        EventStore store = mock(EventStore.class);
+        restore(store).onComplete(Tasks.forResult(new EventStore.Contents(
+                new ArrayList<>(), 1L, 0, System.currentTimeMillis(), false)));
+
+        Listeners l = follow();
+        l.sync.onDataChange(mock(DataSnapshot.class));
+
+        assertFalse(catalog.isQueryable());
+    }
+
+    @SuppressWarnings("unchecked")
+    private OnCompleteListener<EventStore.Contents> restore(EventStore store) {
+        Task<EventStore.Contents> load = mock(Task.class);
+        when(store.load()).thenReturn(load);
+        catalog.restore(store);
+        ArgumentCaptor<OnCompleteListener<EventStore.Contents>> listener =
+                ArgumentCaptor.forClass(OnCompleteListener.class);
+        verify(load).addOnCompleteListener(listener.capture());
+        return listener.getValue();
+    }
+
+    /** Makes the first page of {@code EventSummary} hold the given summaries. */
+    private void firstPage(DataSnapshot... summaries) {
+        DataSnapshot page = mock(DataSnapshot.class);
+        when(page.getChildren()).thenReturn(Arrays.asList(summaries));
+        when(summaryService.getPage(null, EventPager.PAGE_SIZE)).thenReturn(Tasks.forResult(page));
+    }
+
+    private Listeners follow() {
+        clearInvocations(changes, deletions);
+        catalog.follow();
+        ArgumentCaptor<ChildEventListener> changeListener = ArgumentCaptor.forClass(ChildEventListener.class);
+        ArgumentCaptor<ChildEventListener> deletionListener = ArgumentCaptor.forClass(ChildEventListener.class);
+        ArgumentCaptor<ValueEventListener> sync = ArgumentCaptor.forClass(ValueEventListener.class);
+        verify(changes).addChildEventListener(changeListener.capture());
+        verify(deletions).addChildEventListener(deletionListener.capture());
+        verify(changes).addListenerForSingleValueEvent(sync.capture());
+        return new Listeners(changeListener.getValue(), deletionListener.getValue(), sync.getValue());
+    }
+
+    static DataSnapshot summary(String id, Long updatedAt) {
+        DataSnapshot snapshot = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        when(snapshot.getKey()).thenReturn(id);
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.child("name").getValue(String.class)).thenReturn("Event " + id);
+        when(snapshot.child("onHold").getValue(Boolean.class)).thenReturn(false);
+        when(snapshot.child(Event.UPDATED_AT).getValue(Long.class)).thenReturn(updatedAt);
+        when(snapshot.hasChild(any())).thenReturn(false);
+        return snapshot;
+    }
+
+    private static DataSnapshot tombstone(String id, long deletedAt) {
+        DataSnapshot snapshot = mock(DataSnapshot.class);
+        when(snapshot.getKey()).thenReturn(id);
+        when(snapshot.getValue(Long.class)).thenReturn(deletedAt);
+        return snapshot;
+    }
+
+    private static List<String> ids(List<Event> events) {
+        List<String> ids = new ArrayList<>();
+        for (Event event : events) {
+            ids.add(event.getId());
+        }
+        return ids;
+    }
+
+    private static class Listeners {
+        final ChildEventListener changes;
+        final ChildEventListener deletions;
+        final ValueEventListener sync;
+
+        Listeners(ChildEventListener changes, ChildEventListener deletions, ValueEventListener sync) {
+            this.changes = changes;
+            this.deletions = deletions;
+            this.sync = sync;
+        }
+    }
+}
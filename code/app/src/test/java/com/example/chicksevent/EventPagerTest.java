@@ -0,0 +1,113 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EventPager}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Each page starts after the last key read, including keys the mapper skips</li>
+ *   <li>A short page ends the list, and later calls read nothing</li>
+ *   <li>Calls made while a page is loading read nothing</li>
+ *   <li>Id-list sources read only the ids of the requested page</li>
+ * </ul>
+ */
+public class EventPagerTest {
+
+    @Test
+    public void next_advancesCursorPastSkippedRows() {
+        List<String> cursors = new ArrayList<>();
+        EventPager pager = new EventPager((afterKey, size) -> {
+            cursors.add(afterKey);
+            return Tasks.forResult(afterKey == null
+                    ? children("a", "b", "c")
+                    : children("d"));
+        }, child -> child.getKey().equals("c") ? null : event(child.getKey()), 3);
+
+        List<Event> first = pager.next().getResult();
+        assertEquals(2, first.size());
+        assertTrue(pager.hasMore());
+
+        List<Event> second = pager.next().getResult();
+        assertEquals("d", second.get(0).getId());
+        assertFalse(pager.hasMore());
+        assertEquals(Arrays.asList(null, "c"), cursors);
+
+        assertTrue(pager.next().getResult().isEmpty());
+        assertEquals(2, cursors.size());
+    }
+
+    @Test
+    public void next_readsNothingWhileLoading() {
+        TaskCompletionSource<List<DataSnapshot>> page = new TaskCompletionSource<>();
+        int[] reads = {0};
+        EventPager pager = new EventPager((afterKey, size) -> {
+            reads[0]++;
+            return page.getTask();
+        }, child -> event(child.getKey()), 2);
+
+        Task<List<Event>> pending = pager.next();
+        assertTrue(pager.isLoading());
+        assertTrue(pager.next().getResult().isEmpty());
+
+        page.setResult(children("a", "b"));
+
+        assertEquals(1, reads[0]);
+        assertEquals(2, pending.getResult().size());
+        assertFalse(pager.isLoading());
+    }
+
+    @Test
+    public void idsOf_readsOnlyThePageAfterTheCursor() {
+        FirebaseService service = mock(FirebaseService.class);
+        DatabaseReference root = mock(DatabaseReference.class);
+        when(service.getReference()).thenReturn(root);
+        for (String id : new String[] {"a", "b", "c", "d"}) {
+            DatabaseReference ref = mock(DatabaseReference.class);
+            when(root.child(id)).thenReturn(ref);
+            when(ref.get()).thenReturn(Tasks.forResult(children(id).get(0)));
+        }
+
+        EventPager.PageSource source = EventPager.idsOf(service, Arrays.asList("a", "b", "c", "d"));
+        List<DataSnapshot> page = source.load("b", 2).getResult();
+
+        assertEquals(2, page.size());
+        assertEquals("c", page.get(0).getKey());
+        assertEquals("d", page.get(1).getKey());
+        verify(root, never()).child("a");
+        verify(root, never()).child("b");
+    }
+
+    private static List<DataSnapshot> children(String... keys) {
+        List<DataSnapshot> children = new ArrayList<>();
+        for (String key : keys) {
+            DataSnapshot child = mock(DataSnapshot.class);
+            when(child.getKey()).thenReturn(key);
+            children.add(child);
+        }
+        return children;
+    }
+
+    private static Event event(String id) {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(id);
+        return event;
+    }
+}
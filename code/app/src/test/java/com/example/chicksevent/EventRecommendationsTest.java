@@ -0,0 +1,101 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventRecommendations;
+import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EventRecommendations}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>A user's recommendations come from one read of their node, best score first</li>
+ *   <li>Malformed scores are skipped</li>
+ *   <li>Resolving keeps recommendation order and drops events that are gone or on hold</li>
+ * </ul>
+ */
+public class EventRecommendationsTest {
+
+    private DatabaseReference root;
+    private EventRecommendations recommendations;
+
+    @Before
+    public void setUp() {
+        FirebaseService recommendationService = mock(FirebaseService.class);
+        root = mock(DatabaseReference.class);
+        when(recommendationService.getReference()).thenReturn(root);
+        recommendations = new EventRecommendations(recommendationService);
+    }
+
+    @Test
+    public void forUser_ranksScoresFromOneRead() {
+        DatabaseReference node = mock(DatabaseReference.class);
+        when(root.child("uid1")).thenReturn(node);
+        DataSnapshot scores = scores("e1", 2L, "e2", 7L, "e3", null, "e4", 2L);
+        when(node.get()).thenReturn(Tasks.forResult(scores));
+
+        List<String> ids = recommendations.forUser("uid1").getResult();
+
+        assertEquals(Arrays.asList("e2", "e1", "e4"), ids);
+        verify(node, times(1)).get();
+    }
+
+    @Test
+    public void forUser_emptyWhenNothingComputed() {
+        DatabaseReference node = mock(DatabaseReference.class);
+        when(root.child("uid1")).thenReturn(node);
+        when(node.get()).thenReturn(Tasks.forResult(scores()));
+
+        assertTrue(recommendations.forUser("uid1").getResult().isEmpty());
+    }
+
+    @Test
+    public void resolve_keepsOrderAndDropsUnlistedEvents() {
+        List<Event> known = Arrays.asList(
+                event("e1", false), event("e2", true), event("e3", false));
+
+        List<Event> resolved = EventRecommendations.resolve(
+                Arrays.asList("e3", "gone", "e2", "e1"), known);
+
+        List<String> ids = new ArrayList<>();
+        for (Event event : resolved) {
+            ids.add(event.getId());
+        }
+        assertEquals(Arrays.asList("e3", "e1"), ids);
+        assertTrue(EventRecommendations.resolve(Collections.emptyList(), known).isEmpty());
+    }
+
+    private static DataSnapshot scores(Object... idsAndScores) {
+        DataSnapshot parent = mock(DataSnapshot.class);
+        List<DataSnapshot> children = new ArrayList<>();
+        for (int i = 0; i < idsAndScores.length; i += 2) {
+            DataSnapshot child = mock(DataSnapshot.class);
+            when(child.getKey()).thenReturn((String) idsAndScores[i]);
+            when(child.getValue(Long.class)).thenReturn((Long) idsAndScores[i + 1]);
+            children.add(child);
+        }
+        when(parent.getChildren()).thenReturn(children);
+        return parent;
+    }
+
+    private static Event event(String id, boolean onHold) {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(id);
+        when(event.isOnHold()).thenReturn(onHold);
+        return event;
+    }
+}
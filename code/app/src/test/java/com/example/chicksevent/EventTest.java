@@ -6,12 +6,14 @@ import static org.mockito.Mockito.*;
 import com.example.chicksevent.misc.Event;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Organizer;
+import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
@@ -33,6 +35,8 @@ import java.util.HashMap;
  *       {@link FirebaseService#addEntry(HashMap, String)} with the expected key</li>
  *   <li>All getters and setters behave consistently and preserve state</li>
  *   <li>Graceful handling of {@code null} and optional fields in event creation</li>
+ *   <li>Start dates are written as an epoch-day {@code startDay} key for range queries</li>
+ *   <li>List rows are built from the {@code EventSummary} projection alone</li>
  * </ul>
  *
  * <h2>Testing Strategy</h2>
@@ -160,6 +164,59 @@ public class EventTest {
         assertEquals("E999", e.getId());
     }
 
+    @Test
+    public void epochDayOf_acceptsBothDateForms() {
+        assertEquals(Long.valueOf(20162), Event.epochDayOf("03-15-2025"));
+        assertEquals(Long.valueOf(20162), Event.epochDayOf("2025-03-15"));
+        assertEquals(Long.valueOf(0), Event.epochDayOf("01-01-1970"));
+        assertNull(Event.epochDayOf("02-30-2025"));
+        assertNull(Event.epochDayOf("soon"));
+        assertNull(Event.epochDayOf(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void createEvent_writesStartDayKey() throws Exception {
+        Event e = new Event("U1", null, "Dated", "Desc", "10:00", "18:00",
+                "03-15-2025", "03-16-2025", "03-01-2025", "03-10-2025",
+                10, null, "fun", false);
+        FirebaseService mockService = mock(FirebaseService.class);
+        when(mockService.getReference()).thenReturn(mockEventRef);
+        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        setPrivate(e, "eventService", mockService);
+
+        e.createEvent();
+
+        ArgumentCaptor<HashMap<String, Object>> written = ArgumentCaptor.forClass(HashMap.class);
+        verify(mockService).addEntry(written.capture(), eq("E123"));
+        assertEquals(20162L, written.getValue().get(Event.START_DAY));
+    }
+
+    @Test
+    public void fromSummary_readsListCardFields() {
+        DataSnapshot summary = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        when(summary.getKey()).thenReturn("E42");
+        when(summary.child("name").getValue(String.class)).thenReturn("Swim Meet");
+        when(summary.child("eventStartTime").getValue(String.class)).thenReturn("09:00");
+        when(summary.child("eventEndTime").getValue(String.class)).thenReturn("11:00");
+        when(summary.child("eventStartDate").getValue(String.class)).thenReturn("03-15-2025");
+        when(summary.child("organizer").getValue(String.class)).thenReturn("U7");
+        when(summary.child("onHold").getValue(Boolean.class)).thenReturn(true);
+        when(summary.hasChild("listPoster")).thenReturn(false);
+
+        Event e = Event.fromSummary(summary);
+
+        assertEquals("E42", e.getId());
+        assertEquals("Swim Meet", e.getName());
+        assertEquals("09:00", e.getEventStartTime());
+        assertEquals("11:00", e.getEventEndTime());
+        assertEquals("03-15-2025", e.getEventStartDate());
+        assertEquals("U7", e.getOrganizer().getOrganizerId());
+        assertTrue(e.isOnHold());
+        assertNull(e.getEventDetails());
+        assertNull(e.getPosterRef());
+    }
+
     // -------------------- helpers --------------------
 
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
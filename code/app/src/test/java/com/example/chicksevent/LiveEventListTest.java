@@ -0,0 +1,207 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventCatalog;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.misc.LiveEventList;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link LiveEventList}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Starting publishes the catalog's known rows at once, then replaces them with the first
+ *       page, and follows the catalog only behind that page</li>
+ *   <li>Each catalog change publishes one update</li>
+ *   <li>A single-event change updates its row without rescanning the catalog, unless it lies
+ *       beyond the pages read</li>
+ *   <li>Events on hold are hidden by default and filters can be replaced</li>
+ *   <li>Only one page of rows is published; scrolling widens it and reads the next page once the
+ *       rows read run out</li>
+ *   <li>Stopping stops following the catalog</li>
+ * </ul>
+ */
+public class LiveEventListTest {
+
+    private EventCatalog catalog;
+    private EventPager.PageSource pages;
+    private LiveEventList list;
+    private final List<List<String>> published = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        catalog = mock(EventCatalog.class);
+        pages = mock(EventPager.PageSource.class);
+        when(catalog.events()).thenReturn(new ArrayList<>());
+        when(catalog.pages()).thenReturn(pages);
+        list = new LiveEventList(catalog, events -> {
+            List<String> ids = new ArrayList<>();
+            for (Event event : events) {
+                ids.add(event.getId());
+            }
+            published.add(ids);
+        });
+    }
+
+    @Test
+    public void start_publishesKnownRowsThenFirstPage() {
+        rows(event("e1", false), event("e2", false));
+        TaskCompletionSource<List<DataSnapshot>> page = new TaskCompletionSource<>();
+        when(pages.load(null, EventPager.PAGE_SIZE)).thenReturn(page.getTask());
+
+        list.start();
+
+        assertEquals(Arrays.asList(Arrays.asList("e1", "e2")), published);
+        verify(catalog, never()).follow();
+
+        page.setResult(Arrays.asList(summary("e2", false), summary("e3", false)));
+
+        assertEquals(Arrays.asList("e2", "e3"), published.get(1));
+        verify(catalog).follow();
+
+        // A second start does nothing
+        list.start();
+        verify(catalog, times(1)).follow();
+    }
+
+    @Test
+    public void start_withEmptyCatalogWaitsForFirstPage() {
+        when(pages.load(null, EventPager.PAGE_SIZE)).thenReturn(new TaskCompletionSource<List<DataSnapshot>>().getTask());
+
+        list.start();
+
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    public void catalogChangesPublish() {
+        EventCatalog.Listener changed = start();
+        rows(event("e1", false), event("e3", true));
+
+        changed.onCatalogChanged();
+
+        assertEquals(Arrays.asList("e1"), published.get(1));   // e3 is on hold
+    }
+
+    @Test
+    public void eventChange_updatesItsRowWithoutRescan() {
+        EventCatalog.Listener changed = start(summary("e1", false), summary("e2", false));
+
+        changed.onEventChanged("e3", event("e3", false));
+        changed.onEventChanged("e1", null);
+        // Neither listed before nor after: nothing to publish
+        changed.onEventChanged("e9", event("e9", true));
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("e1", "e2"),
+                Arrays.asList("e1", "e2", "e3"),
+                Arrays.asList("e2", "e3")), published);
+        verify(catalog, times(1)).events();
+    }
+
+    @Test
+    public void eventChange_beyondPagesReadWaitsForItsPage() {
+        EventCatalog.Listener changed = start(fullPage());
+
+        changed.onEventChanged("e99", event("e99", false));
+        changed.onEventChanged("e05", event("e05", false));
+
+        assertEquals(2, published.size());
+        assertFalse(published.get(1).contains("e99"));
+    }
+
+    @Test
+    public void setFilter_republishesKnownRows() {
+        rows(event("e1", true), event("e2", false));
+        start(summary("e1", true), summary("e2", false));
+
+        list.setFilter(event -> event.getId().equals("e1"));
+
+        assertEquals(Arrays.asList("e2"), published.get(0));
+        assertEquals(Arrays.asList("e1"), published.get(published.size() - 1));
+    }
+
+    @Test
+    public void loadMore_readsNextPageOnceRowsRunOut() {
+        start(fullPage());
+        assertEquals(EventPager.PAGE_SIZE, published.get(0).size());
+        assertTrue(list.hasMore());
+        String last = String.format("e%02d", EventPager.PAGE_SIZE - 1);
+        when(pages.load(last, EventPager.PAGE_SIZE)).thenReturn(Tasks.forResult(Arrays.asList(
+                summary("e90", false), summary("e91", false))));
+
+        list.loadMore();
+
+        assertEquals(2 * EventPager.PAGE_SIZE, list.getLimit());
+        assertEquals(EventPager.PAGE_SIZE + 2, published.get(1).size());
+        assertFalse(list.hasMore());
+
+        // Nothing more to show: no further read or publish
+        list.loadMore();
+        assertEquals(2, published.size());
+        verify(pages, times(2)).load(any(), anyInt());
+    }
+
+    @Test
+    public void stop_unfollowsCatalog() {
+        EventCatalog.Listener changed = start();
+
+        list.stop();
+
+        verify(catalog).removeListener(changed);
+        verify(catalog).unfollow();
+    }
+
+    /** Starts the list with the given first page and returns the listener it registered. */
+    private EventCatalog.Listener start(DataSnapshot... firstPage) {
+        when(pages.load(null, EventPager.PAGE_SIZE)).thenReturn(Tasks.forResult(Arrays.asList(firstPage)));
+        list.start();
+        ArgumentCaptor<EventCatalog.Listener> listener = ArgumentCaptor.forClass(EventCatalog.Listener.class);
+        verify(catalog).addListener(listener.capture());
+        return listener.getValue();
+    }
+
+    private void rows(Event... events) {
+        when(catalog.events()).thenReturn(new ArrayList<>(Arrays.asList(events)));
+    }
+
+    /** A first page holding {@link EventPager#PAGE_SIZE} events, {@code e00} onwards. */
+    private DataSnapshot[] fullPage() {
+        DataSnapshot[] page = new DataSnapshot[EventPager.PAGE_SIZE];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = summary(String.format("e%02d", i), false);
+        }
+        return page;
+    }
+
+    /** A summary the catalog has taken in, as its page sources leave it. */
+    private DataSnapshot summary(String id, boolean onHold) {
+        DataSnapshot summary = mock(DataSnapshot.class);
+        when(summary.getKey()).thenReturn(id);
+        when(summary.exists()).thenReturn(true);
+        Event event = event(id, onHold);
+        when(catalog.get(id)).thenReturn(event);
+        return summary;
+    }
+
+    private static Event event(String id, boolean onHold) {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(id);
+        when(event.isOnHold()).thenReturn(onHold);
+        return event;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+
+import com.example.chicksevent.misc.NameIndex;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link NameIndex}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Queries of three or more characters match anywhere in a name, ignoring case and accents</li>
+ *   <li>Documents sharing every 3-gram of a query but not the query itself do not match</li>
+ *   <li>Shorter queries match the start of a word</li>
+ *   <li>Matches never span two fields of a document</li>
+ *   <li>Removed and replaced documents stop matching their old text</li>
+ *   <li>Suggestions are distinct and list names starting with the query first</li>
+ * </ul>
+ */
+public class NameIndexTest {
+
+    private NameIndex index;
+
+    @Before
+    public void setUp() {
+        index = new NameIndex();
+        index.put("e1", "Summer Music Festival");
+        index.put("e2", "Caf\u00e9 Jazz Night");
+        index.put("e3", "Music Theory 101");
+        index.put("e4", "Swim Lessons");
+    }
+
+    @Test
+    public void search_matchesSubstringsIgnoringCaseAndAccents() {
+        assertEquals(Arrays.asList("e1", "e3"), index.search("MUSIC"));
+        assertEquals(Arrays.asList("e2"), index.search("cafe jazz"));
+        assertEquals(Arrays.asList("e1"), index.search("mer mus"));
+    }
+
+    @Test
+    public void search_checksCandidatesAgainstTheWholeQuery() {
+        index.put("e5", "abcd bcde");
+
+        // Every 3-gram of "abcde" occurs in e5, but the query does not
+        assertTrue(index.search("abcde").isEmpty());
+        assertEquals(Arrays.asList("e5"), index.search("bcde"));
+    }
+
+    @Test
+    public void search_shortQueriesMatchWordPrefixes() {
+        assertEquals(Arrays.asList("e1", "e4"), index.search("s"));
+        assertEquals(Arrays.asList("e3"), index.search("10"));
+        // "us" occurs inside "music" but starts no word
+        assertTrue(index.search("us").isEmpty());
+    }
+
+    @Test
+    public void search_doesNotSpanFields() {
+        NameIndex entrants = new NameIndex();
+        entrants.put("a1b2", "Ada Lovelace", "a1b2");
+
+        assertEquals(Arrays.asList("a1b2"), entrants.search("love"));
+        assertEquals(Arrays.asList("a1b2"), entrants.search("a1b2"));
+        assertTrue(entrants.search("lace a1").isEmpty());
+    }
+
+    @Test
+    public void removeAndReplace_dropOldText() {
+        index.remove("e3");
+        index.put("e1", "Winter Market");
+
+        assertTrue(index.search("music").isEmpty());
+        assertEquals(Arrays.asList("e1"), index.search("market"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void search_respectsLimitAndBlankQueries() {
+        assertEquals(Arrays.asList("e1"), index.search("music", 1));
+        assertTrue(index.search("  ").isEmpty());
+        assertTrue(index.search(null).isEmpty());
+    }
+
+    @Test
+    public void suggest_putsLeadingMatchesFirstWithoutDuplicates() {
+        index.put("e6", "Music Theory 101");
+
+        List<String> suggestions = index.suggest("music", 5);
+
+        assertEquals(Arrays.asList("Music Theory 101", "Summer Music Festival"), suggestions);
+        assertEquals(1, index.suggest("music", 1).size());
+    }
+
+    @Test
+    public void search_scalesToManyDocuments() {
+        NameIndex large = new NameIndex();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            String id = String.format("e%06d", i);
+            large.put(id, "Event number " + i);
+            if (String.valueOf(i).contains("4242")) {
+                expected.add(id);
+            }
+        }
+
+        assertEquals(expected, large.search("4242"));
+    }
+}
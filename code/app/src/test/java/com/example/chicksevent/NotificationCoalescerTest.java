@@ -0,0 +1,74 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.enums.NotificationType;
+import com.example.chicksevent.misc.Notification;
+import com.example.chicksevent.misc.NotificationCoalescer;
+import com.google.android.gms.tasks.Tasks;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for {@link NotificationCoalescer#send(java.util.List)}.
+ *
+ * <p>
+ * Repeats across broadcasts are coalesced by a Cloud Function on server time, so the client
+ * side only has to drop duplicates within one broadcast and write everything else at once.
+ * Notifications are mocked, so no Firebase mocking is needed.
+ * </p>
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Each distinct notification is written once, with no read of the stored record</li>
+ *   <li>The same message to the same recipient twice in one broadcast is written once</li>
+ *   <li>A different message, type or recipient is not a duplicate</li>
+ * </ul>
+ */
+public class NotificationCoalescerTest {
+
+    private final NotificationCoalescer coalescer = new NotificationCoalescer();
+
+    @Test
+    public void send_writesEachDistinctNotificationOnce() {
+        Notification first = notification("u1", NotificationType.INVITED, "h1");
+        Notification repeat = notification("u1", NotificationType.INVITED, "h1");
+        Notification otherUser = notification("u2", NotificationType.INVITED, "h1");
+
+        NotificationCoalescer.BroadcastReport report =
+                coalescer.send(Arrays.asList(first, repeat, otherUser)).getResult();
+
+        verify(first).createNotification();
+        verify(repeat, never()).createNotification();
+        verify(otherUser).createNotification();
+        assertEquals(3, report.getRequested());
+        assertEquals(2, report.getWritten());
+        assertEquals(1, report.getSuppressed());
+    }
+
+    @Test
+    public void send_keepsDifferentMessagesAndTypes() {
+        Notification first = notification("u1", NotificationType.INVITED, "h1");
+        Notification newMessage = notification("u1", NotificationType.INVITED, "h2");
+        Notification newType = notification("u1", NotificationType.WAITING, "h1");
+
+        NotificationCoalescer.BroadcastReport report =
+                coalescer.send(Arrays.asList(first, newMessage, newType)).getResult();
+
+        assertEquals(3, report.getWritten());
+        assertEquals(0.0, report.getWriteSavings(), 0.0);
+    }
+
+    private static Notification notification(String userId, NotificationType type, String hash) {
+        Notification notification = mock(Notification.class);
+        when(notification.getUserId()).thenReturn(userId);
+        when(notification.getEventId()).thenReturn("e1");
+        when(notification.getNotificationType()).thenReturn(type);
+        when(notification.getContentHash()).thenReturn(hash);
+        when(notification.createNotification()).thenReturn(Tasks.forResult(null));
+        return notification;
+    }
+}
@@ -4,9 +4,9 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 import com.example.chicksevent.enums.NotificationType;
+import com.example.chicksevent.misc.EventMetadataCache;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Notification;
-import com.google.android.gms.tasks.Continuation;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
@@ -19,10 +19,7 @@ import org.junit.Test;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 
 /**
  * Unit tests for {@link Notification}.
@@ -37,16 +34,22 @@ import java.util.List;
  * <h2>Key Behaviours Verified</h2>
  * <ul>
  *   <li>{@code createNotification()} correctly writes to the expected Firebase path and payload</li>
+ *   <li>{@code createNotification()} writes the record, the {@code NotificationTime} and
+ *       {@code NotificationExpiry} indexes and the {@code EventNotified} entry in one root
+ *       update, leaving the unread counter to the server</li>
+ *   <li>Notices about deleted events can skip the {@code EventNotified} reverse index</li>
+ *   <li>{@code delete()} removes the record and its index entries in one root update</li>
  *   <li>Constructor getters return consistent values for all fields</li>
- *   <li>{@code getEventName()} properly resolves the event name when found in mock snapshots</li>
+ *   <li>{@code getEventName()} resolves the name from one {@code EventSummary/{id}} read via {@link EventMetadataCache}</li>
  *   <li>Graceful handling of missing or unmatched event IDs (returns "NO NAME")</li>
+ *   <li>Repeated lookups of the same event are served from the cache without another read</li>
  * </ul>
  *
  * <h2>Testing Approach</h2>
  * <ul>
  *   <li>Mocks {@link FirebaseDatabase#getInstance(String)} to prevent real Firebase initialization</li>
  *   <li>Injects {@link FirebaseService} mocks using reflection to isolate test scope</li>
- *   <li>Replaces {@link Task#continueWith(Continuation)} with synchronous lambda evaluation</li>
+ *   <li>Returns already-completed tasks from summary reads so the cache resolves synchronously</li>
  * </ul>
  *
  * <p>
@@ -71,6 +74,9 @@ public class NotificationTest {
     private DatabaseReference mockNotifRef;
     private DatabaseReference mockEventRef;
 
+    // Database root, target of the multi-path writes
+    private DatabaseReference mockRootRef;
+
     // Under test
     private Notification notification;
 
@@ -86,6 +92,7 @@ public class NotificationTest {
 
         mockNotifRef = mock(DatabaseReference.class);
         mockEventRef = mock(DatabaseReference.class);
+        mockRootRef = mock(DatabaseReference.class);
 
         firebaseDbStatic.when(() -> FirebaseDatabase.getInstance(anyString()))
                 .thenReturn(mockDb);
@@ -101,10 +108,12 @@ public class NotificationTest {
         mockEventSvc = mock(FirebaseService.class);
 
         when(mockNotifSvc.getReference()).thenReturn(mockNotifRef);
+        when(mockNotifRef.getRoot()).thenReturn(mockRootRef);
+        when(mockRootRef.updateChildren(any())).thenReturn(Tasks.forResult(null));
         when(mockEventSvc.getReference()).thenReturn(mockEventRef);
 
         setPrivate(notification, "notificationService", mockNotifSvc);
-        setPrivate(notification, "eventService",        mockEventSvc);
+        setPrivate(notification, "eventCache",          new EventMetadataCache(mockEventSvc));
     }
 
     @After
@@ -116,20 +125,50 @@ public class NotificationTest {
 
     @Test
     public void createNotification_writesMessageUnderCorrectPath() {
-        doNothing().when(mockNotifSvc).updateSubCollectionEntry(
-                anyString(), anyString(), anyString(), any(HashMap.class));
+        HashMap<String, Object> sent = captureRootUpdate(notification::createNotification);
 
-        notification.createNotification();
+        String record = "Notification/" + UID + "/" + EID + "/" + NotificationType.INVITED;
+        assertEquals(MSG, sent.get(record + "/message"));
+        assertEquals(notification.getContentHash(), sent.get(record + "/contentHash"));
+        // Only the coalesceNotification function counts merged sends
+        assertFalse(sent.containsKey(record + "/count"));
+    }
 
-        // Explicitly typed captor to match method signature
-        org.mockito.ArgumentCaptor<HashMap<String, Object>> cap =
-                org.mockito.ArgumentCaptor.forClass((Class) (Class<?>) HashMap.class);
+    @Test
+    public void createNotification_writesRecordAndIndexesInOneUpdate() {
+        HashMap<String, Object> sent = captureRootUpdate(notification::createNotification);
+
+        assertTrue(sent.containsKey("NotificationTime/" + UID + "/" + EID + "|" + NotificationType.INVITED));
+        assertTrue(sent.containsKey("NotificationExpiry/" + UID + "|" + EID + "|" + NotificationType.INVITED));
+        // Counted server-side on create only, not on every rewrite
+        assertFalse(sent.containsKey("NotificationUnread/" + UID));
+        assertEquals(Boolean.TRUE, sent.get("EventNotified/" + EID + "/" + UID + "/" + NotificationType.INVITED));
+        verify(mockRootRef, times(1)).updateChildren(any());
+        verify(mockNotifSvc, never()).updateSubCollectionEntry(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    public void createNotification_skipsReverseIndexWhenNotIndexedByEvent() {
+        notification.setIndexedByEvent(false);
 
-        verify(mockNotifSvc, times(1)).updateSubCollectionEntry(
-                eq(UID), eq(EID), eq(NotificationType.INVITED.toString()), cap.capture());
+        HashMap<String, Object> sent = captureRootUpdate(notification::createNotification);
 
-        HashMap<String, Object> sent = cap.getValue();
-        assertEquals(MSG, sent.get("message"));
+        assertFalse(sent.containsKey("EventNotified/" + EID + "/" + UID + "/" + NotificationType.INVITED));
+        assertTrue(sent.containsKey("NotificationExpiry/" + UID + "|" + EID + "|" + NotificationType.INVITED));
+    }
+
+    @Test
+    public void delete_removesRecordAndIndexEntries() {
+        HashMap<String, Object> sent = captureRootUpdate(notification::delete);
+
+        String record = "Notification/" + UID + "/" + EID + "/" + NotificationType.INVITED;
+        String time = "NotificationTime/" + UID + "/" + EID + "|" + NotificationType.INVITED;
+        String expiry = "NotificationExpiry/" + UID + "|" + EID + "|" + NotificationType.INVITED;
+        assertEquals(3, sent.size());
+        assertTrue(sent.containsKey(record) && sent.containsKey(time) && sent.containsKey(expiry));
+        assertNull(sent.get(record));
+        assertNull(sent.get(time));
+        assertNull(sent.get(expiry));
     }
 
     // -------------------- getters (sync) --------------------
@@ -146,63 +185,50 @@ public class NotificationTest {
 
     @Test
     public void getEventName_returnsNameWhenPresent() {
-        // Build a fake /Event snapshot with a child matching EID that has {"name":"Party"}
-        DataSnapshot root  = mock(DataSnapshot.class);
-        DataSnapshot child = mock(DataSnapshot.class);
-
-        when(child.getKey()).thenReturn(EID);
-        HashMap<String, String> value = new HashMap<>();
-        value.put("name", "Party");
-        when(child.getValue()).thenReturn(value);
-        when(root.getChildren()).thenAnswer(i -> iterable(child));
-
-        // Return a mocked Task<DataSnapshot> so we can short-circuit continueWith(...)
-        @SuppressWarnings("unchecked")
-        Task<DataSnapshot> mockGetTask = mock(Task.class);
-        when(mockEventRef.get()).thenReturn(mockGetTask);
-
-        // When Notification calls mockGetTask.continueWith(...),
-        // run the continuation immediately with a completed Task(root),
-        // and return a completed Task<String> with the continuation's result.
-        when(mockGetTask.continueWith(any())).thenAnswer(inv -> {
-            @SuppressWarnings("unchecked")
-            Continuation<DataSnapshot, String> cont = (Continuation<DataSnapshot, String>) inv.getArgument(0);
-            String out = cont.then(Tasks.forResult(root));
-            return Tasks.forResult(out);
-        });
+        DatabaseReference summaryRef = stubSummary(EID, "Party");
 
         Task<String> t = notification.getEventName();
         assertTrue(t.isComplete());
         assertEquals("Party", t.getResult());
+
+        // One read of the event's summary node, never per-field reads or the whole root
+        verify(summaryRef, times(1)).get();
+        verify(summaryRef, never()).child(anyString());
+        verify(mockEventRef, never()).get();
     }
 
     @Test
     public void getEventName_returnsNoNameWhenMissing() {
-        DataSnapshot root  = mock(DataSnapshot.class);
-        DataSnapshot child = mock(DataSnapshot.class);
-
-        when(child.getKey()).thenReturn("some-other-id");
-        when(child.getValue()).thenReturn(new HashMap<String, String>());
-        when(root.getChildren()).thenAnswer(i -> iterable(child));
-
-        @SuppressWarnings("unchecked")
-        Task<DataSnapshot> mockGetTask = mock(Task.class);
-        when(mockEventRef.get()).thenReturn(mockGetTask);
-
-        when(mockGetTask.continueWith(any())).thenAnswer(inv -> {
-            @SuppressWarnings("unchecked")
-            Continuation<DataSnapshot, String> cont = (Continuation<DataSnapshot, String>) inv.getArgument(0);
-            String out = cont.then(Tasks.forResult(root));
-            return Tasks.forResult(out);
-        });
+        stubSummary(EID, null);
 
         Task<String> t = notification.getEventName();
         assertTrue(t.isComplete());
         assertEquals("NO NAME", t.getResult());
     }
 
+    @Test
+    public void getEventName_secondLookupServedFromCache() {
+        DatabaseReference summaryRef = stubSummary(EID, "Party");
+
+        notification.getEventName();
+        Notification sameEvent = new Notification("u-2", EID, NotificationType.WAITING, MSG);
+        setPrivate(sameEvent, "eventCache", getPrivate(notification, "eventCache"));
+
+        Task<String> t = sameEvent.getEventName();
+        assertEquals("Party", t.getResult());
+        verify(summaryRef, times(1)).get();
+    }
+
     // -------------------- helpers --------------------
 
+    private HashMap<String, Object> captureRootUpdate(Runnable action) {
+        action.run();
+        org.mockito.ArgumentCaptor<HashMap<String, Object>> cap =
+                org.mockito.ArgumentCaptor.forClass((Class) (Class<?>) HashMap.class);
+        verify(mockRootRef).updateChildren(cap.capture());
+        return cap.getValue();
+    }
+
     private static void setPrivate(Object target, String fieldName, Object value) {
         try {
             Field f = target.getClass().getDeclaredField(fieldName);
@@ -213,13 +239,33 @@ public class NotificationTest {
         }
     }
 
-    /** Iterable wrapper so Mockito can iterate root.getChildren(). */
-    private static Iterable<DataSnapshot> iterable(DataSnapshot... snaps) {
-        List<DataSnapshot> list = Arrays.asList(snaps);
-        return new Iterable<DataSnapshot>() {
-            @Override public Iterator<DataSnapshot> iterator() {
-                return list.iterator();
-            }
-        };
+    private static Object getPrivate(Object target, String fieldName) {
+        try {
+            Field f = target.getClass().getDeclaredField(fieldName);
+            f.setAccessible(true);
+            return f.get(target);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Stubs the {@code EventSummary/{eventId}} read with a completed task. The summary's
+     * {@code name} holds the given value; all other fields are empty.
+     *
+     * @return the mocked summary reference, for verifying read counts
+     */
+    private DatabaseReference stubSummary(String eventId, String name) {
+        DatabaseReference summaryRef = mock(DatabaseReference.class);
+        DataSnapshot summary = mock(DataSnapshot.class);
+        DataSnapshot empty = mock(DataSnapshot.class);
+        DataSnapshot nameSnap = mock(DataSnapshot.class);
+        when(nameSnap.getValue()).thenReturn(name);
+        when(summary.child(anyString())).thenReturn(empty);
+        when(summary.child("name")).thenReturn(nameSnap);
+
+        when(mockEventRef.child(eventId)).thenReturn(summaryRef);
+        when(summaryRef.get()).thenReturn(Tasks.forResult(summary));
+        return summaryRef;
     }
 }
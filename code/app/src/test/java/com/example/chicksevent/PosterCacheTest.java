@@ -0,0 +1,92 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+
+import com.example.chicksevent.util.PosterCache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+/**
+ * Unit tests for the disk tier and keying of {@link PosterCache}.
+ *
+ * <p>
+ * The memory tier is a framework {@link android.util.LruCache}, which is stubbed in local JVM
+ * tests, so these tests exercise only the file-backed LRU and the key scheme.
+ * </p>
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Keys combine event id, rendition and content version</li>
+ *   <li>File names are filesystem-safe and keep the event id as a prefix</li>
+ *   <li>Stored bytes round-trip, and a different version is a miss</li>
+ *   <li>The least recently used files are evicted once the byte budget is exceeded</li>
+ *   <li>A new cache instance picks up files written by an earlier one</li>
+ * </ul>
+ */
+public class PosterCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private PosterCache cache;
+
+    @Before
+    public void setUp() {
+        dir = new File(folder.getRoot(), "posters");
+        cache = new PosterCache(dir, 1024, 10);
+    }
+
+    @Test
+    public void keyFor_includesRenditionAndVersion() {
+        assertEquals("e-1/card@abc==", PosterCache.keyFor("e-1", "card", "abc=="));
+        assertNotEquals(PosterCache.keyFor("e-1", "card", "v1"), PosterCache.keyFor("e-1", "card", "v2"));
+    }
+
+    @Test
+    public void fileNameFor_isSafeAndPrefixedByEvent() {
+        String name = PosterCache.fileNameFor(PosterCache.keyFor("e-1", "card", "a/b+c=="));
+        assertTrue(name.startsWith("e-1."));
+        assertFalse(name.contains("/"));
+        assertTrue(name.matches("[A-Za-z0-9._@-]+"));
+    }
+
+    @Test
+    public void bytes_roundTripPerVersion() {
+        String v1 = PosterCache.keyFor("e-1", "card", "v1");
+        cache.putBytes(v1, new byte[] {1, 2, 3});
+
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.getBytes(v1));
+        assertNull(cache.getBytes(PosterCache.keyFor("e-1", "card", "v2")));
+    }
+
+    @Test
+    public void bytes_evictLeastRecentlyUsed() {
+        String a = PosterCache.keyFor("a", "card", "1");
+        String b = PosterCache.keyFor("b", "card", "1");
+        String c = PosterCache.keyFor("c", "card", "1");
+        cache.putBytes(a, new byte[4]);
+        cache.putBytes(b, new byte[4]);
+        cache.getBytes(a);                 // a is now more recent than b
+        cache.putBytes(c, new byte[4]);    // 12 bytes > 10: evict b
+
+        assertNotNull(cache.getBytes(a));
+        assertNull(cache.getBytes(b));
+        assertNotNull(cache.getBytes(c));
+        assertFalse(new File(dir, PosterCache.fileNameFor(b)).exists());
+    }
+
+    @Test
+    public void bytes_surviveReopeningTheCache() {
+        String key = PosterCache.keyFor("e-1", "thumb", "v1");
+        cache.putBytes(key, new byte[] {9});
+
+        PosterCache reopened = new PosterCache(dir, 1024, 10);
+        assertArrayEquals(new byte[] {9}, reopened.getBytes(key));
+    }
+}
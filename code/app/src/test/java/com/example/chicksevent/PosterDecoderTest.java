@@ -0,0 +1,46 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.chicksevent.util.PosterDecoder;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PosterDecoder#calculateInSampleSize(int, int, int, int)}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Images already at or below the target size are decoded at full resolution</li>
+ *   <li>The sample size is the largest power of two that keeps both edges at or above target</li>
+ *   <li>An unknown target height constrains by width only</li>
+ * </ul>
+ */
+public class PosterDecoderTest {
+
+    @Test
+    public void smallSource_isNotSubsampled() {
+        assertEquals(1, PosterDecoder.calculateInSampleSize(800, 600, 1080, 454));
+        assertEquals(1, PosterDecoder.calculateInSampleSize(1080, 454, 1080, 454));
+    }
+
+    @Test
+    public void largeSource_usesLargestPowerOfTwoAboveTarget() {
+        // 4000x3000 into a 1080x454 header: /2 = 2000x1500 fits, /4 = 1000 is too narrow
+        assertEquals(2, PosterDecoder.calculateInSampleSize(4000, 3000, 1080, 454));
+        // 8000x6000 into a 960x400 view: /8 = 1000x750 still covers it
+        assertEquals(8, PosterDecoder.calculateInSampleSize(8000, 6000, 960, 400));
+    }
+
+    @Test
+    public void heightConstraint_limitsSampling() {
+        // Wide panorama: width alone would allow /16 but height only allows /2
+        assertEquals(2, PosterDecoder.calculateInSampleSize(8000, 1000, 500, 400));
+    }
+
+    @Test
+    public void unknownHeight_constrainsByWidthOnly() {
+        assertEquals(16, PosterDecoder.calculateInSampleSize(8000, 1000, 500, 0));
+        assertEquals(1, PosterDecoder.calculateInSampleSize(8000, 1000, 0, 0));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.util.PosterDecoder;
+import com.example.chicksevent.util.PosterPrefetcher;
+import com.example.chicksevent.util.PosterStore;
+import com.example.chicksevent.util.PosterStore.PosterRef;
+import com.example.chicksevent.util.PosterStore.Rendition;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for {@link PosterPrefetcher}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Only the {@link PosterPrefetcher#LOOKAHEAD} rows after the visible range are warmed</li>
+ *   <li>Warm-ups for rows that leave the window are cancelled; rows still in it are kept</li>
+ *   <li>Nothing is warmed before the target size is known</li>
+ *   <li>References are resolved once per event and shared with row binding</li>
+ *   <li>Rows that already carry a reference are warmed without resolving it</li>
+ * </ul>
+ */
+public class PosterPrefetcherTest {
+
+    private static final int ROWS = 40;
+
+    private PosterStore store;
+    private PosterDecoder decoder;
+    private PosterPrefetcher prefetcher;
+    private final HashMap<String, Future<?>> futures = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        store = mock(PosterStore.class);
+        decoder = mock(PosterDecoder.class);
+        when(store.resolve(anyString(), eq(Rendition.CARD))).thenAnswer(inv -> {
+            String id = inv.getArgument(0);
+            return Tasks.forResult(new PosterRef(id, "card", "https://x/" + id, "v"));
+        });
+        when(decoder.prefetch(any(PosterRef.class), anyInt(), anyInt())).thenAnswer(inv -> {
+            PosterRef ref = inv.getArgument(0);
+            Future<?> future = mock(Future.class);
+            futures.put(ref.getEventId(), future);
+            return future;
+        });
+
+        prefetcher = new PosterPrefetcher(store, decoder, Rendition.CARD, new PosterPrefetcher.EventIds() {
+            @Override
+            public int count() {
+                return ROWS;
+            }
+
+            @Override
+            public String idAt(int position) {
+                return "e" + position;
+            }
+
+            @Override
+            public PosterRef refAt(int position) {
+                return position == 8 ? new PosterRef("e8", "card", "https://x/e8?listed", "v") : null;
+            }
+        });
+        prefetcher.setTargetSize(1080, 400);
+    }
+
+    @Test
+    public void warmsOnlyLookaheadRows() {
+        prefetcher.onVisibleRange(0, 4);
+
+        assertEquals(new HashSet<>(Arrays.asList("e4", "e5", "e6", "e7", "e8", "e9")), futures.keySet());
+        verify(decoder, times(PosterPrefetcher.LOOKAHEAD)).prefetch(any(), eq(1080), eq(400));
+        for (int i = 0; i < 4; i++) {
+            verify(store, never()).resolve("e" + i, Rendition.CARD);
+        }
+        verify(store).resolve("e4", Rendition.CARD);
+        verify(store).resolve("e9", Rendition.CARD);
+        verify(store, never()).resolve("e10", Rendition.CARD);
+    }
+
+    @Test
+    public void cancelsRowsLeavingWindowAndKeepsOverlap() {
+        prefetcher.onVisibleRange(0, 4);   // window e4..e9
+        prefetcher.onVisibleRange(3, 4);   // window e7..e12
+
+        for (String id : new String[] {"e4", "e5", "e6"}) {
+            verify(futures.get(id)).cancel(true);
+        }
+        for (String id : new String[] {"e7", "e8", "e9"}) {
+            verify(futures.get(id), never()).cancel(anyBoolean());
+        }
+        // e7..e9 were not warmed twice; e10..e12 are new
+        verify(decoder, times(PosterPrefetcher.LOOKAHEAD + 3)).prefetch(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void waitsForTargetSize() {
+        prefetcher.setTargetSize(0, 0);
+
+        prefetcher.onVisibleRange(0, 4);
+
+        verify(decoder, never()).prefetch(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void resolveIsSharedWithBinding() {
+        prefetcher.onVisibleRange(0, 4);
+
+        Task<PosterRef> bound = prefetcher.resolve("e5");
+
+        assertSame(bound, prefetcher.resolve("e5"));
+        verify(store, times(1)).resolve("e5", Rendition.CARD);
+    }
+
+    @Test
+    public void knownRefSkipsResolve() {
+        prefetcher.onVisibleRange(0, 4);
+
+        verify(store, never()).resolve("e8", Rendition.CARD);
+        verify(decoder).prefetch(argThat(ref -> ref.getUrl().endsWith("?listed")), eq(1080), eq(400));
+    }
+
+    @Test
+    public void cancelAll_cancelsPendingWarmups() {
+        prefetcher.onVisibleRange(10, 4);
+
+        prefetcher.cancelAll();
+
+        for (Future<?> future : futures.values()) {
+            verify(future).cancel(true);
+        }
+    }
+}
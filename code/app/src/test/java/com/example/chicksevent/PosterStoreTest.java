@@ -0,0 +1,386 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.util.PosterStore;
+import com.example.chicksevent.util.PosterStore.PosterRef;
+import com.example.chicksevent.util.PosterStore.Rendition;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.storage.FirebaseStorage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Unit tests for {@link PosterStore}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Renditions are addressed at {@code posters/{hash}/{rendition}.webp}, where the hash is
+ *   the SHA-256 of the source image</li>
+ *   <li>A claim writes the blob reference to {@code Poster/{hash}} and the hashed reference to
+ *   {@code Image/{eventId}}, leaving reference counts to the server and clearing any
+ *   collection mark</li>
+ *   <li>The smallest rendition covering a view is chosen, with FULL as the ceiling</li>
+ *   <li>Subsampling and scaling keep the long edge within the rendition bound</li>
+ *   <li>The reference object carries URL, path, checksum, size, type and renditions, and clears
+ *   the legacy inline {@code url}</li>
+ *   <li>{@code resolve()} reads only the requested rendition, never the whole entry, and falls
+ *   back to {@code poster}/{@code md5} for entries without renditions</li>
+ *   <li>A claim with a card rendition also embeds it, with the thumb's inline preview, in
+ *   {@code Event/{eventId}/listPoster}; events without one fall back to {@code resolve()}</li>
+ *   <li>{@code preview()} reads only the inline preview leaf</li>
+ *   <li>{@code browse()} pages the slim {@code ImageIndex} by upload time, newest first, never
+ *   touching {@code Image}; detects further pages with one extra row, and continues before the
+ *   last row's cursor</li>
+ *   <li>Resolved references carry a content version, which is part of their cache key, and
+ *   content-addressed posters share cache keys across events</li>
+ * </ul>
+ */
+public class PosterStoreTest {
+
+    private static final String EID = "e-1";
+    private static final String URL = "https://example.com/posters/e-1.jpg";
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private DatabaseReference imageRoot;
+    private PosterStore store;
+
+    @Before
+    public void setUp() {
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        imageRoot = mock(DatabaseReference.class);
+
+        firebaseDbStatic.when(() -> FirebaseDatabase.getInstance(anyString())).thenReturn(mockDb);
+        when(mockDb.getReference("Image")).thenReturn(imageRoot);
+
+        store = new PosterStore(new FirebaseService("Image"), mock(FirebaseStorage.class));
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void pathFor_groupsRenditionsByOwner() {
+        assertEquals("posters/ab12/thumb.webp", PosterStore.pathFor("ab12", Rendition.THUMB));
+        assertEquals("posters/e-1/full.webp", PosterStore.pathFor(EID, Rendition.FULL));
+    }
+
+    @Test
+    public void contentHash_isHexSha256OfSource() throws IOException {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                PosterStore.contentHash(new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII))));
+        assertEquals(
+                PosterStore.contentHash(new ByteArrayInputStream(new byte[] {1, 2, 3})),
+                PosterStore.contentHash(new ByteArrayInputStream(new byte[] {1, 2, 3})));
+    }
+
+    @Test
+    public void buildClaim_writesBlobAndHashedImageReference() {
+        HashMap<String, Object> renditions = new HashMap<>();
+        HashMap<String, Object> ref = PosterStore.buildReference(
+                URL, "posters/ab12/full.webp", "md5==", 1234L, PosterStore.CONTENT_TYPE, renditions);
+
+        HashMap<String, Object> update = PosterStore.buildClaim(EID, "ab12", ref);
+
+        assertEquals(URL, update.get("Poster/ab12/poster"));
+        assertSame(renditions, update.get("Poster/ab12/renditions"));
+        assertFalse("null legacy fields stay off the blob", update.containsKey("Poster/ab12/url"));
+        assertFalse("counts are server-maintained", update.containsKey("Poster/ab12/refCount"));
+        assertFalse(update.containsKey("Poster/ab12/events"));
+        // A fresh upload revives a blob the collector had marked
+        assertTrue(update.containsKey("Poster/ab12/" + PosterStore.DELETING));
+        assertNull(update.get("Poster/ab12/" + PosterStore.DELETING));
+
+        @SuppressWarnings("unchecked")
+        HashMap<String, Object> image = (HashMap<String, Object>) update.get("Image/e-1");
+        assertEquals("ab12", image.get("hash"));
+        assertEquals(ServerValue.TIMESTAMP, image.get(PosterStore.UPLOADED_AT));
+        assertEquals(URL, image.get("poster"));
+        assertTrue(image.containsKey("url"));
+        assertNull(image.get("url"));
+    }
+
+    @Test
+    public void buildClaim_embedsCardRenditionInEvent() {
+        HashMap<String, Object> card = new HashMap<>();
+        card.put("url", URL + "?card");
+        card.put("md5", "cardmd5==");
+        HashMap<String, Object> thumb = new HashMap<>();
+        thumb.put(PosterStore.PREVIEW, "UklGRg==");
+        HashMap<String, Object> renditions = new HashMap<>();
+        renditions.put(Rendition.CARD.getKey(), card);
+        renditions.put(Rendition.THUMB.getKey(), thumb);
+        HashMap<String, Object> ref = PosterStore.buildReference(
+                URL, "posters/ab12/full.webp", "md5==", 1234L, PosterStore.CONTENT_TYPE, renditions);
+
+        HashMap<String, Object> update = PosterStore.buildClaim(EID, "ab12", ref);
+
+        @SuppressWarnings("unchecked")
+        HashMap<String, Object> listPoster = (HashMap<String, Object>) update.get("Event/e-1/listPoster");
+        assertEquals(URL + "?card", listPoster.get("url"));
+        assertEquals("card", listPoster.get("rendition"));
+        assertEquals("cardmd5==", listPoster.get("version"));
+        assertEquals("ab12", listPoster.get("hash"));
+        assertEquals("UklGRg==", listPoster.get(PosterStore.PREVIEW));
+    }
+
+    @Test
+    public void buildClaim_withoutCardLeavesEventAlone() {
+        HashMap<String, Object> ref = PosterStore.buildReference(
+                URL, "posters/ab12/full.webp", "md5==", 1234L, PosterStore.CONTENT_TYPE, new HashMap<>());
+
+        assertFalse(PosterStore.buildClaim(EID, "ab12", ref).containsKey("Event/e-1/listPoster"));
+    }
+
+    @Test
+    public void listRefFrom_readsEmbeddedReference() {
+        DataSnapshot event = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        when(event.getKey()).thenReturn(EID);
+        when(event.hasChild(PosterStore.LIST_POSTER)).thenReturn(true);
+        DataSnapshot listPoster = event.child(PosterStore.LIST_POSTER);
+        when(listPoster.child("url").getValue(String.class)).thenReturn(URL);
+        when(listPoster.child("rendition").getValue(String.class)).thenReturn("card");
+        when(listPoster.child("version").getValue(String.class)).thenReturn("cardmd5==");
+        when(listPoster.child("hash").getValue(String.class)).thenReturn("ab12");
+        when(listPoster.child(PosterStore.PREVIEW).getValue(String.class)).thenReturn("UklGRg==");
+
+        PosterRef ref = PosterStore.listRefFrom(event);
+
+        assertEquals(EID, ref.getEventId());
+        assertEquals(URL, ref.getUrl());
+        assertEquals("cardmd5==", ref.getVersion());
+        assertEquals("ab12", ref.getHash());
+        assertEquals("UklGRg==", ref.getPreview());
+    }
+
+    @Test
+    public void listRefFrom_nullWithoutEmbeddedReference() {
+        DataSnapshot event = mock(DataSnapshot.class);
+        when(event.hasChild(PosterStore.LIST_POSTER)).thenReturn(false);
+
+        assertNull(PosterStore.listRefFrom(event));
+    }
+
+    @Test
+    public void fitting_picksSmallestCoveringRendition() {
+        assertEquals(Rendition.THUMB, Rendition.fitting(200));
+        assertEquals(Rendition.THUMB, Rendition.fitting(Rendition.THUMB.getMaxEdge()));
+        assertEquals(Rendition.CARD, Rendition.fitting(Rendition.THUMB.getMaxEdge() + 1));
+        assertEquals(Rendition.FULL, Rendition.fitting(1600));
+        assertEquals(Rendition.FULL, Rendition.fitting(10_000));
+    }
+
+    @Test
+    public void sampleSizeFor_neverUndershootsTarget() {
+        assertEquals(1, PosterStore.sampleSizeFor(800, 600, 1080));
+        assertEquals(2, PosterStore.sampleSizeFor(4000, 3000, 1080));
+        assertEquals(4, PosterStore.sampleSizeFor(3000, 4500, 1080));
+        assertTrue(4500 / PosterStore.sampleSizeFor(3000, 4500, 1080) >= 1080);
+    }
+
+    @Test
+    public void scaledSize_boundsLongEdgeAndKeepsAspect() {
+        assertArrayEquals(new int[] {1080, 810}, PosterStore.scaledSize(4000, 3000, 1080));
+        assertArrayEquals(new int[] {213, 320}, PosterStore.scaledSize(1000, 1500, 320));
+        assertArrayEquals(new int[] {300, 200}, PosterStore.scaledSize(300, 200, 320));
+    }
+
+    @Test
+    public void buildReference_holdsMetadataAndClearsInlineData() {
+        HashMap<String, Object> renditions = new HashMap<>();
+        renditions.put("thumb", PosterStore.buildRendition(URL, "posters/e-1/thumb.webp", 320, 240, 9000L, "t=="));
+        HashMap<String, Object> ref = PosterStore.buildReference(
+                URL, "posters/e-1/full.webp", "md5==", 1234L, PosterStore.CONTENT_TYPE, renditions);
+
+        assertEquals(URL, ref.get("poster"));
+        assertEquals("posters/e-1/full.webp", ref.get("path"));
+        assertEquals("md5==", ref.get("md5"));
+        assertEquals(1234L, ref.get("size"));
+        assertEquals("image/webp", ref.get("contentType"));
+        assertSame(renditions, ref.get("renditions"));
+        assertTrue("legacy url must be removed", ref.containsKey("url"));
+        assertNull(ref.get("url"));
+    }
+
+    @Test
+    public void resolve_readsOnlyRequestedRendition() {
+        DatabaseReference eventRef = mock(DatabaseReference.class);
+        when(imageRoot.child(EID)).thenReturn(eventRef);
+        stubRendition(eventRef, "thumb", URL, "v1==");
+
+        Task<PosterRef> task = store.resolve(EID, Rendition.THUMB);
+
+        assertTrue(task.isSuccessful());
+        PosterRef ref = task.getResult();
+        assertEquals(URL, ref.getUrl());
+        assertEquals("v1==", ref.getVersion());
+        assertEquals("e-1/thumb@v1==", ref.getCacheKey());
+        assertEquals(URL, store.getPosterUrl(EID, Rendition.THUMB).getResult());
+        verify(eventRef, never()).get();
+        verify(eventRef, never()).child("poster");
+    }
+
+    @Test
+    public void preview_readsOnlyThumbPreviewLeaf() {
+        DatabaseReference eventRef = mock(DatabaseReference.class, RETURNS_DEEP_STUBS);
+        when(imageRoot.child(EID)).thenReturn(eventRef);
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getValue(String.class)).thenReturn("UklGRg==");
+        when(eventRef.child("renditions").child("thumb").child(PosterStore.PREVIEW).get())
+                .thenReturn(Tasks.forResult(snap));
+
+        assertEquals("UklGRg==", store.preview(EID).getResult());
+        verify(eventRef, never()).get();
+    }
+
+    @Test
+    public void resolve_sharesCacheKeyAcrossEventsForSameContent() {
+        DatabaseReference first = mock(DatabaseReference.class);
+        DatabaseReference second = mock(DatabaseReference.class);
+        when(imageRoot.child("e-1")).thenReturn(first);
+        when(imageRoot.child("e-2")).thenReturn(second);
+        stubRendition(first, "card", URL, "v1==", "ab12");
+        stubRendition(second, "card", URL, "v1==", "ab12");
+
+        PosterRef a = store.resolve("e-1", Rendition.CARD).getResult();
+        PosterRef b = store.resolve("e-2", Rendition.CARD).getResult();
+
+        assertEquals("ab12", a.getHash());
+        assertEquals("ab12/card@v1==", a.getCacheKey());
+        assertEquals(a.getCacheKey(), b.getCacheKey());
+        assertEquals("e-2", b.getEventId());
+    }
+
+    @Test
+    public void resolve_fallsBackToPosterForLegacyEntries() {
+        DatabaseReference eventRef = mock(DatabaseReference.class);
+        when(imageRoot.child(EID)).thenReturn(eventRef);
+        stubRendition(eventRef, "card", null, null);
+        stubLeaf(eventRef, "poster", URL);
+        stubLeaf(eventRef, "md5", "legacy==");
+
+        Task<PosterRef> task = store.resolve(EID, Rendition.CARD);
+
+        assertTrue(task.isSuccessful());
+        assertEquals(URL, task.getResult().getUrl());
+        assertEquals("legacy==", task.getResult().getVersion());
+        assertEquals("e-1/poster@legacy==", task.getResult().getCacheKey());
+    }
+
+    @Test
+    public void resolve_returnsNullWithoutPoster() {
+        DatabaseReference eventRef = mock(DatabaseReference.class);
+        when(imageRoot.child(EID)).thenReturn(eventRef);
+        stubRendition(eventRef, "card", null, null);
+        stubLeaf(eventRef, "poster", null);
+        stubLeaf(eventRef, "md5", null);
+
+        Task<PosterRef> task = store.resolve(EID, Rendition.CARD);
+
+        assertTrue(task.isSuccessful());
+        assertNull(task.getResult());
+    }
+
+    @Test
+    public void browse_returnsNewestFirstAndDetectsMore() {
+        DatabaseReference root = mock(DatabaseReference.class);
+        DatabaseReference indexRoot = mock(DatabaseReference.class);
+        when(imageRoot.getRoot()).thenReturn(root);
+        when(root.child(PosterStore.INDEX_PATH)).thenReturn(indexRoot);
+        Query ordered = mock(Query.class);
+        Query limited = mock(Query.class);
+        when(indexRoot.orderByChild(PosterStore.UPLOADED_AT)).thenReturn(ordered);
+        when(ordered.limitToLast(3)).thenReturn(limited);
+        DataSnapshot result = mock(DataSnapshot.class);
+        // Ascending by upload time, as the query returns them
+        when(result.getChildren()).thenReturn(Arrays.asList(
+                entry("e-old", 100L), entry("e-mid", 200L), entry("e-new", 300L)));
+        when(limited.get()).thenReturn(Tasks.forResult(result));
+
+        PosterStore.Page page = store.browse(null, 2).getResult();
+
+        assertTrue(page.hasMore());
+        assertEquals(2, page.getRefs().size());
+        verify(imageRoot, never()).orderByChild(anyString());
+        assertEquals("e-new", page.getRefs().get(0).getEventId());
+        assertEquals("e-mid", page.getRefs().get(1).getEventId());
+        assertEquals("thumb", page.getRefs().get(0).getRendition());
+        assertEquals(URL + "?e-new", page.getRefs().get(0).getUrl());
+
+        Query older = mock(Query.class);
+        Query olderLimited = mock(Query.class);
+        when(ordered.endBefore(200.0, "e-mid")).thenReturn(older);
+        when(older.limitToLast(3)).thenReturn(olderLimited);
+        DataSnapshot rest = mock(DataSnapshot.class);
+        when(rest.getChildren()).thenReturn(Arrays.asList(entry("e-old", 100L)));
+        when(olderLimited.get()).thenReturn(Tasks.forResult(rest));
+
+        PosterStore.Page next = store.browse(page, 2).getResult();
+
+        assertFalse(next.hasMore());
+        assertEquals(1, next.getRefs().size());
+        assertEquals("e-old", next.getRefs().get(0).getEventId());
+    }
+
+    /** An {@code ImageIndex/{id}} row for a thumb rendition with an upload time. */
+    private static DataSnapshot entry(String eventId, long uploadedAt) {
+        DataSnapshot entry = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        when(entry.getKey()).thenReturn(eventId);
+        when(entry.child(PosterStore.UPLOADED_AT).getValue(Long.class)).thenReturn(uploadedAt);
+        when(entry.child("rendition").getValue(String.class)).thenReturn("thumb");
+        when(entry.child("url").getValue(String.class)).thenReturn(URL + "?" + eventId);
+        when(entry.child("md5").getValue(String.class)).thenReturn("m" + eventId);
+        return entry;
+    }
+
+    private static void stubRendition(DatabaseReference eventRef, String key, String url, String md5) {
+        stubRendition(eventRef, key, url, md5, null);
+    }
+
+    private static void stubRendition(DatabaseReference eventRef, String key, String url, String md5,
+                                      String hash) {
+        DatabaseReference renditionsRef = mock(DatabaseReference.class);
+        DatabaseReference renditionRef = mock(DatabaseReference.class);
+        DataSnapshot snap = mock(DataSnapshot.class);
+        DataSnapshot urlSnap = mock(DataSnapshot.class);
+        DataSnapshot md5Snap = mock(DataSnapshot.class);
+        DataSnapshot hashSnap = mock(DataSnapshot.class);
+        when(eventRef.child("renditions")).thenReturn(renditionsRef);
+        when(renditionsRef.child(key)).thenReturn(renditionRef);
+        when(renditionRef.get()).thenReturn(Tasks.forResult(snap));
+        when(snap.child("url")).thenReturn(urlSnap);
+        when(snap.child("md5")).thenReturn(md5Snap);
+        when(urlSnap.getValue(String.class)).thenReturn(url);
+        when(md5Snap.getValue(String.class)).thenReturn(md5);
+        when(snap.child("hash")).thenReturn(hashSnap);
+        when(hashSnap.getValue(String.class)).thenReturn(hash);
+    }
+
+    private static void stubLeaf(DatabaseReference eventRef, String child, String value) {
+        DatabaseReference leafRef = mock(DatabaseReference.class);
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(eventRef.child(child)).thenReturn(leafRef);
+        when(leafRef.get()).thenReturn(Tasks.forResult(snap));
+        when(snap.getValue(String.class)).thenReturn(value);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.TagFacets;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link TagFacets}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Weeks start on the Sunday on or before a day</li>
+ *   <li>Tag totals come from one read of the counter root</li>
+ *   <li>Window counts are one key-range read from the first day's week, summed per tag</li>
+ *   <li>Top tags are ordered by count, skipping zero counters</li>
+ * </ul>
+ */
+public class TagFacetsTest {
+
+    private DatabaseReference totalRoot;
+    private DatabaseReference weekRoot;
+    private TagFacets facets;
+
+    @Before
+    public void setUp() {
+        FirebaseService totalService = mock(FirebaseService.class);
+        FirebaseService weekService = mock(FirebaseService.class);
+        totalRoot = mock(DatabaseReference.class);
+        weekRoot = mock(DatabaseReference.class);
+        when(totalService.getReference()).thenReturn(totalRoot);
+        when(weekService.getReference()).thenReturn(weekRoot);
+        facets = new TagFacets(totalService, weekService);
+    }
+
+    @Test
+    public void weekOf_returnsPrecedingSunday() {
+        long sunday = LocalDate.of(2026, 10, 18).toEpochDay();
+
+        assertEquals(sunday, TagFacets.weekOf(sunday));
+        assertEquals(sunday, TagFacets.weekOf(sunday + 6));
+        assertEquals(sunday + 7, TagFacets.weekOf(sunday + 7));
+        assertEquals(-4, TagFacets.weekOf(0));   // 1970-01-01 was a Thursday
+    }
+
+    @Test
+    public void counts_readsTotalsOnce() {
+        DataSnapshot totals = counters("music", 12L, "art", 3L);
+        when(totalRoot.get()).thenReturn(Tasks.forResult(totals));
+
+        Map<String, Long> counts = facets.counts().getResult();
+
+        assertEquals(Long.valueOf(12), counts.get("music"));
+        assertEquals(Long.valueOf(3), counts.get("art"));
+        verify(totalRoot, times(1)).get();
+    }
+
+    @Test
+    public void countsBetween_sumsWeeksInOneRangeRead() {
+        long monday = LocalDate.of(2026, 10, 19).toEpochDay();
+        long sunday = monday - 1;
+        Query byKey = mock(Query.class);
+        Query from = mock(Query.class);
+        Query range = mock(Query.class);
+        when(weekRoot.orderByKey()).thenReturn(byKey);
+        when(byKey.startAt(String.valueOf(sunday))).thenReturn(from);
+        when(from.endAt(String.valueOf(monday + 13))).thenReturn(range);
+
+        DataSnapshot weeks = mock(DataSnapshot.class);
+        DataSnapshot first = counters("music", 2L, "art", 1L);
+        DataSnapshot second = counters("music", 5L);
+        when(weeks.getChildren()).thenReturn(Arrays.asList(first, second));
+        when(range.get()).thenReturn(Tasks.forResult(weeks));
+
+        Map<String, Long> counts = facets.countsBetween(monday, monday + 13).getResult();
+
+        assertEquals(Long.valueOf(7), counts.get("music"));
+        assertEquals(Long.valueOf(1), counts.get("art"));
+    }
+
+    @Test
+    public void top_ordersByCountAndSkipsZeros() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("art", 3L);
+        counts.put("music", 12L);
+        counts.put("film", 3L);
+        counts.put("chess", 0L);
+
+        assertEquals(Arrays.asList("music", "art", "film"), TagFacets.top(counts, 5));
+        assertEquals(Arrays.asList("music"), TagFacets.top(counts, 1));
+    }
+
+    private static DataSnapshot counters(Object... tagsAndCounts) {
+        DataSnapshot parent = mock(DataSnapshot.class);
+        List<DataSnapshot> children = new ArrayList<>();
+        for (int i = 0; i < tagsAndCounts.length; i += 2) {
+            DataSnapshot child = mock(DataSnapshot.class);
+            when(child.getKey()).thenReturn((String) tagsAndCounts[i]);
+            when(child.getValue(Long.class)).thenReturn((Long) tagsAndCounts[i + 1]);
+            children.add(child);
+        }
+        when(parent.getChildren()).thenReturn(children);
+        return parent;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.TagIndex;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link TagIndex}.
+ *
+ * <h2>Key Behaviours Verified</h2>
+ * <ul>
+ *   <li>Tag strings normalize to lower-case, de-duplicated, sorted keys that Firebase accepts</li>
+ *   <li>Sorted-merge union and intersection keep order and drop duplicates, including empty
+ *   inputs</li>
+ *   <li>A search reads one posting list per distinct tag and unions them</li>
+ * </ul>
+ */
+public class TagIndexTest {
+
+    private DatabaseReference indexRoot;
+    private TagIndex index;
+
+    @Before
+    public void setUp() {
+        FirebaseService service = mock(FirebaseService.class);
+        indexRoot = mock(DatabaseReference.class);
+        when(service.getReference()).thenReturn(indexRoot);
+        index = new TagIndex(service);
+    }
+
+    @Test
+    public void normalize_lowercasesSplitsAndSorts() {
+        assertEquals(Arrays.asList("music", "outdoor", "rock"),
+                TagIndex.normalize("Rock, outdoor  MUSIC,rock"));
+        assertEquals(Collections.singletonList("c"), TagIndex.normalize("c#"));
+        assertTrue(TagIndex.normalize(null).isEmpty());
+        assertTrue(TagIndex.normalize(" , ").isEmpty());
+    }
+
+    @Test
+    public void union_mergesSortedListsWithoutDuplicates() {
+        List<String> merged = TagIndex.union(Arrays.asList(
+                Arrays.asList("a", "c", "e"),
+                Arrays.asList("b", "c", "f"),
+                new ArrayList<>(),
+                Arrays.asList("a", "z")));
+
+        assertEquals(Arrays.asList("a", "b", "c", "e", "f", "z"), merged);
+        assertTrue(TagIndex.union(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void intersect_keepsCommonIdsInOrder() {
+        assertEquals(Arrays.asList("b", "d"),
+                TagIndex.intersect(Arrays.asList("a", "b", "d", "f"), Arrays.asList("b", "c", "d")));
+        assertTrue(TagIndex.intersect(Arrays.asList("a"), new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void eventsWithAny_readsEachTagOnceAndUnions() {
+        stubPostings("music", "e3", "e1");
+        stubPostings("art", "e2", "e3");
+
+        List<String> ids = index.eventsWithAny(Arrays.asList("Music", "art", "music")).getResult();
+
+        assertEquals(Arrays.asList("e1", "e2", "e3"), ids);
+        verify(indexRoot, times(1)).child("music");
+        verify(indexRoot, times(1)).child("art");
+    }
+
+    private void stubPostings(String tag, String... eventIds) {
+        DatabaseReference tagRef = mock(DatabaseReference.class);
+        DataSnapshot snapshot = mock(DataSnapshot.class);
+        List<DataSnapshot> children = new ArrayList<>();
+        for (String eventId : eventIds) {
+            DataSnapshot child = mock(DataSnapshot.class);
+            when(child.getKey()).thenReturn(eventId);
+            children.add(child);
+        }
+        when(indexRoot.child(tag)).thenReturn(tagRef);
+        when(tagRef.get()).thenReturn(Tasks.forResult(snapshot));
+        when(snapshot.getChildren()).thenReturn(children);
+    }
+}
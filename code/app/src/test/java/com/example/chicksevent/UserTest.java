@@ -3,7 +3,10 @@ package com.example.chicksevent;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventCatalog;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.TagIndex;
 import com.example.chicksevent.misc.User;
 import com.google.android.gms.tasks.Continuation;
 import com.google.android.gms.tasks.Task;
@@ -11,6 +14,8 @@ import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
 
 import org.junit.After;
 import org.junit.Before;
@@ -19,6 +24,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 
 /**
@@ -37,6 +46,10 @@ import java.util.HashMap;
  *   <li>Static mocking of {@link FirebaseDatabase#getInstance(String)} to prevent real initialization</li>
  *   <li>Reflection-based injection of {@link FirebaseService} mocks</li>
  *   <li>Verification of expected write payloads for {@code updateProfile()} and {@code createMockUser()}</li>
+ *   <li>Resetting the {@code NotificationUnread} badge counter and stamping when the inbox was
+ *       seen</li>
+ *   <li>Tag filtering through the inverted index, and availability as a {@code startDay} range
+ *   query, without reading the {@code Event} root</li>
  * </ul>
  *
  * <p>
@@ -68,6 +81,8 @@ public class UserTest {
     private FirebaseService mockEventSvc;
     private FirebaseService mockNotifSvc;
     private FirebaseService mockAdminSvc;
+    private FirebaseService mockUnreadSvc;
+    private FirebaseService mockSummarySvc;
 
     @Before
     public void setUp() throws Exception {
@@ -96,11 +111,15 @@ public class UserTest {
         mockEventSvc = mock(FirebaseService.class);
         mockNotifSvc = mock(FirebaseService.class);
         mockAdminSvc = mock(FirebaseService.class);
+        mockUnreadSvc = mock(FirebaseService.class);
+        mockSummarySvc = mock(FirebaseService.class);
 
         setPrivate(user, "userService",         mockUserSvc);
         setPrivate(user, "eventService",        mockEventSvc);
         setPrivate(user, "notificationService", mockNotifSvc);
         setPrivate(user, "adminService",        mockAdminSvc);
+        setPrivate(user, "unreadService",       mockUnreadSvc);
+        setPrivate(user, "summaryService",      mockSummarySvc);
     }
 
     @After
@@ -284,6 +303,122 @@ public class UserTest {
         assertFalse((Boolean) field.get(user));
     }
 
+    @Test
+    public void clearUnreadCount_resetsCounterToZero() {
+        DatabaseReference unreadRef = mock(DatabaseReference.class);
+        DatabaseReference rootRef = mock(DatabaseReference.class);
+        when(mockUnreadSvc.getReference()).thenReturn(unreadRef);
+        when(unreadRef.getRoot()).thenReturn(rootRef);
+
+        user.clearUnreadCount();
+
+        ArgumentCaptor<HashMap<String, Object>> cap =
+                ArgumentCaptor.forClass((Class) HashMap.class);
+        verify(rootRef, times(1)).updateChildren(cap.capture());
+        assertEquals(0, cap.getValue().get("NotificationUnread/" + UID));
+        // Unseen deletes are told apart from seen ones by this server time
+        assertEquals(ServerValue.TIMESTAMP, cap.getValue().get("NotificationSeen/" + UID));
+    }
+
+    @Test
+    public void filterEvents_unionsTagPostingsWithNameMatches() throws Exception {
+        TagIndex mockIndex = mock(TagIndex.class);
+        when(mockIndex.eventsWithAny(any())).thenReturn(Tasks.forResult(Arrays.asList("e1", "e3")));
+        setPrivate(user, "tagIndex", mockIndex);
+
+        DatabaseReference eventRoot = mock(DatabaseReference.class);
+        Query byName = mock(Query.class);
+        Query named = mock(Query.class);
+        DataSnapshot result = mock(DataSnapshot.class);
+        DataSnapshot match = mock(DataSnapshot.class);
+        when(mockEventSvc.getReference()).thenReturn(eventRoot);
+        when(eventRoot.orderByChild("name")).thenReturn(byName);
+        when(byName.equalTo(anyString())).thenReturn(named);
+        when(named.get()).thenReturn(Tasks.forResult(result));
+        when(match.getKey()).thenReturn("e2");
+        when(result.getChildren()).thenReturn(Collections.singletonList(match));
+
+        ArrayList<String> ids = user.filterEvents(new ArrayList<>(Arrays.asList("music")), "Anytime").getResult();
+
+        assertEquals(Arrays.asList("e1", "e2", "e3"), ids);
+        verify(eventRoot, never()).get();
+    }
+
+    @Test
+    public void filterEvents_intersectsTagsWithStartDayRange() throws Exception {
+        TagIndex mockIndex = mock(TagIndex.class);
+        when(mockIndex.eventsWithAny(any())).thenReturn(Tasks.forResult(Arrays.asList("e1", "e2", "e3")));
+        setPrivate(user, "tagIndex", mockIndex);
+
+        DatabaseReference eventRoot = mock(DatabaseReference.class, RETURNS_DEEP_STUBS);
+        when(mockEventSvc.getReference()).thenReturn(eventRoot);
+        DataSnapshot noNames = mock(DataSnapshot.class);
+        when(eventRoot.orderByChild("name").equalTo(anyString()).get()).thenReturn(Tasks.forResult(noNames));
+
+        DatabaseReference summaryRoot = mock(DatabaseReference.class, RETURNS_DEEP_STUBS);
+        when(mockSummarySvc.getReference()).thenReturn(summaryRoot);
+        ArrayList<LocalDate> window = user.getFilterDate("Next Month");
+        long first = window.get(0).toEpochDay();
+        long last = window.get(1).toEpochDay();
+        DataSnapshot inRange = mock(DataSnapshot.class);
+        DataSnapshot e2 = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        DataSnapshot e3 = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        DataSnapshot e4 = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        when(e2.getKey()).thenReturn("e2");
+        when(e3.getKey()).thenReturn("e3");
+        when(e4.getKey()).thenReturn("e4");
+        // e3 ends after the window, so it is dropped despite starting inside it
+        when(e3.child("eventEndDate").getValue(String.class)).thenReturn("12-31-2999");
+        when(inRange.getChildren()).thenReturn(Arrays.asList(e4, e3, e2));
+        when(summaryRoot.orderByChild(Event.START_DAY).startAt((double) first).endAt((double) last).get())
+                .thenReturn(Tasks.forResult(inRange));
+        // e1 has no start date, so the window does not exclude it; e5 has an unreadable one
+        DataSnapshot undated = mock(DataSnapshot.class);
+        DataSnapshot e1 = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        DataSnapshot e5 = mock(DataSnapshot.class, RETURNS_DEEP_STUBS);
+        when(e1.getKey()).thenReturn("e1");
+        when(e5.getKey()).thenReturn("e5");
+        when(e5.child("eventStartDate").exists()).thenReturn(true);
+        when(undated.getChildren()).thenReturn(Arrays.asList(e1, e5));
+        when(summaryRoot.orderByChild(Event.START_DAY).equalTo((String) null).get())
+                .thenReturn(Tasks.forResult(undated));
+
+        ArrayList<String> ids = user.filterEvents(new ArrayList<>(Arrays.asList("music")), "Next Month").getResult();
+
+        assertEquals(Arrays.asList("e1", "e2"), ids);
+        verify(eventRoot, never()).get();
+        verify(eventRoot, never()).orderByChild(Event.START_DAY);
+    }
+
+    @Test
+    public void filterEvents_withoutFiltersReadsNothing() {
+        Task<ArrayList<String>> task = user.filterEvents(new ArrayList<>(), "Anytime");
+
+        assertTrue(task.isSuccessful());
+        // Callers page EventSummary instead of receiving every id
+        assertNull(task.getResult());
+        verifyNoInteractions(mockEventSvc, mockSummarySvc);
+    }
+
+    @Test
+    public void filterEvents_usesLocalIndexesWhileCatalogIsFresh() throws Exception {
+        EventCatalog catalog = mock(EventCatalog.class);
+        when(catalog.isQueryable()).thenReturn(true);
+        ArrayList<LocalDate> window = user.getFilterDate("Next Month");
+        long first = window.get(0).toEpochDay();
+        long last = window.get(1).toEpochDay();
+        when(catalog.query(Arrays.asList("music"), first, last))
+                .thenReturn(Tasks.forResult(Arrays.asList("e1", "e2")));
+        setPrivate(user, "catalog", catalog);
+        TagIndex mockIndex = mock(TagIndex.class);
+        setPrivate(user, "tagIndex", mockIndex);
+
+        ArrayList<String> ids = user.filterEvents(new ArrayList<>(Arrays.asList("music")), "Next Month").getResult();
+
+        assertEquals(Arrays.asList("e1", "e2"), ids);
+        verifyNoInteractions(mockIndex, mockEventSvc);
+    }
+
     // -------------------- helpers --------------------
 
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
@@ -1,9 +1,33 @@
 const functions = require("firebase-functions");
+const {onSchedule} = require("firebase-functions/v2/scheduler");
+const {onValueWritten} = require("firebase-functions/v2/database");
+const {onCall, HttpsError} = require("firebase-functions/v2/https");
 const admin = require("firebase-admin");
+const {getDownloadURL} = require("firebase-admin/storage");
+const crypto = require("crypto");
 const {Parser} = require("json2csv");
+const zlib = require("zlib");
 
 admin.initializeApp();
 
+/**
+ * Guards the maintenance functions that rewrite or delete data. Callable
+ * functions verify the caller's Firebase ID token before running; this
+ * additionally requires the `admin` custom claim, so only operators signed
+ * in with an admin account can trigger a migration, backfill or rebuild.
+ *
+ * @param {object} request The callable request.
+ * @throws {HttpsError} If the caller is signed out or not an admin.
+ */
+function requireAdmin(request) {
+  if (!request.auth) {
+    throw new HttpsError("unauthenticated", "Sign in to run this job.");
+  }
+  if (request.auth.token.admin !== true) {
+    throw new HttpsError("permission-denied", "Requires the admin claim.");
+  }
+}
+
 /**
  * HTTP-triggered function to export the ACCEPTED entrants list for an event.
  *
@@ -86,3 +110,1016 @@ exports.exportFinalEntrants = functions.https.onRequest(async (request,
     response.status(500).send("Internal Server Error: Could not make CSV.");
   }
 });
+
+/**
+ * Notification retention policy enforced by {@link compactNotifications}.
+ *
+ * A notification expires when it is older than `maxAgeMs`, or when it falls
+ * outside the newest `maxPerUser` notifications of its recipient.
+ */
+const RETENTION = {
+  maxAgeMs: 90 * 24 * 60 * 60 * 1000,
+  maxPerUser: 100,
+  entriesPerBatch: 500,
+  maxBatchesPerRun: 25,
+};
+
+/**
+ * Splits a `/NotificationExpiry` key into its parts. Keys are
+ * `{uid}|{eventId}|{type}`; uids and types never contain `|`.
+ *
+ * @param {string} key The expiry index key.
+ * @return {{uid: string, eventId: string, type: string}} The parts.
+ */
+function parseExpiryKey(key) {
+  const first = key.indexOf("|");
+  const last = key.lastIndexOf("|");
+  return {
+    uid: key.substring(0, first),
+    eventId: key.substring(first + 1, last),
+    type: key.substring(last + 1),
+  };
+}
+
+/**
+ * Enforces the per-user cap as notifications arrive. When a new entry is
+ * added to `/NotificationTime/{uid}`, the entries beyond the newest
+ * `maxPerUser` have their `/NotificationExpiry` value set to 0, which sorts
+ * them ahead of every real timestamp so the next compaction run archives
+ * them first. The user's index holds little more than `maxPerUser` entries,
+ * so this reads a bounded node.
+ */
+exports.capNotifications = onValueWritten("/NotificationTime/{uid}/{key}",
+    async (event) => {
+      if (event.data.before.exists() || !event.data.after.exists()) return;
+      const uid = event.params.uid;
+      const index = (await admin.database().ref(`/NotificationTime/${uid}`)
+          .once("value")).val() || {};
+      const keys = Object.keys(index);
+      if (keys.length <= RETENTION.maxPerUser) return;
+
+      keys.sort((a, b) => (Number(index[b]) || 0) - (Number(index[a]) || 0));
+      const update = {};
+      for (const key of keys.slice(RETENTION.maxPerUser)) {
+        update[`NotificationExpiry/${uid}|${key}`] = 0;
+      }
+      await admin.database().ref().update(update);
+    });
+
+/**
+ * Keeps `/NotificationUnread/{uid}` in step with the records it counts. A
+ * record that is created adds one; rewrites of an existing record (resends
+ * and coalesced merges) leave the count alone. Deleting a record the user
+ * has not seen, one sent after `/NotificationSeen/{uid}` (stamped when the
+ * inbox is viewed), takes one off, never going below zero. This covers
+ * deletes from the app as well as the cap and compaction paths.
+ */
+exports.countUnreadNotifications = onValueWritten(
+    "/Notification/{uid}/{eventId}/{type}", async (event) => {
+      const {before, after} = event.data;
+      const uid = event.params.uid;
+      const counter = admin.database().ref(`/NotificationUnread/${uid}`);
+      if (!before.exists() && after.exists()) {
+        await counter.set(admin.database.ServerValue.increment(1));
+        return;
+      }
+      if (!before.exists() || after.exists()) return;
+
+      const seen = (await admin.database().ref(`/NotificationSeen/${uid}`)
+          .once("value")).val();
+      if (Number(before.child("sentAt").val()) <= (Number(seen) || 0)) return;
+      await counter.transaction((count) =>
+        Math.max((Number(count) || 0) - 1, 0));
+    });
+
+/** Window within which repeat sends to one key are coalesced (10 minutes). */
+const COALESCE_WINDOW_MS = 10 * 60 * 1000;
+
+/**
+ * Coalesces a notification record rewritten within `COALESCE_WINDOW_MS` of
+ * its previous send (see `NotificationCoalescer`). Both send times are
+ * server timestamps, so client clocks cannot move the window. The same
+ * message again keeps the earlier `sentAt`, so repeats do not extend the
+ * window; a different message counts one more coalesced send. After the
+ * window, the record starts over with no `count` (a single send).
+ */
+exports.coalesceNotification = onValueWritten(
+    "/Notification/{uid}/{eventId}/{type}", async (event) => {
+      const before = event.data.before.val();
+      const after = event.data.after.val();
+      if (!before || !after) return;
+      const previous = Number(before.sentAt) || 0;
+      const sentAt = Number(after.sentAt) || 0;
+      // Only a new send moves sentAt forward; this function's writes do not.
+      if (sentAt <= previous) return;
+
+      const update = {};
+      if (sentAt - previous < COALESCE_WINDOW_MS) {
+        if (after.contentHash === before.contentHash) {
+          update.sentAt = previous;
+        } else {
+          update.count = (Number(before.count) || 1) + 1;
+        }
+      } else if (after.count != null) {
+        update.count = null;
+      }
+      if (Object.keys(update).length === 0) return;
+      await event.data.after.ref.update(update);
+    });
+
+/**
+ * Scheduled job that enforces notification retention.
+ *
+ * Queries `/NotificationExpiry` (`{uid}|{eventId}|{type}: sentAt`) by value
+ * up to the age cutoff, `entriesPerBatch` entries at a time, so each run
+ * reads only notifications that have expired or were capped by
+ * {@link capNotifications}; entries are removed as they are archived, so no
+ * cursor is needed. Requires `".indexOn": ".value"` on `/NotificationExpiry`.
+ * Expired records are appended to a gzipped NDJSON archive in Storage
+ * (`notification-archive/{date}/{runId}-{batch}.ndjson.gz`) and only then
+ * removed, together with their `NotificationTime`, `NotificationExpiry` and
+ * `EventNotified` index entries, in one multi-path update per batch.
+ */
+exports.compactNotifications = onSchedule("every 24 hours", async () => {
+  const db = admin.database();
+  const now = Date.now();
+  const cutoff = now - RETENTION.maxAgeMs;
+  const runId = new Date(now).toISOString().replace(/[:.]/g, "-");
+  let archived = 0;
+
+  for (let batch = 0; batch < RETENTION.maxBatchesPerRun; batch++) {
+    const page = await db.ref("/NotificationExpiry").orderByValue()
+        .endAt(cutoff).limitToFirst(RETENTION.entriesPerBatch)
+        .once("value");
+    if (!page.exists()) break;
+
+    const lines = [];
+    const updates = {};
+    const reads = [];
+    page.forEach((entry) => {
+      const {uid, eventId, type} = parseExpiryKey(entry.key);
+      const sentAt = Number(entry.val()) || 0;
+      const path = `Notification/${uid}/${eventId}/${type}`;
+      reads.push(db.ref(path).once("value").then((snap) => {
+        const record = snap.val();
+        // Resent after the page was read: its index entry is fresh again.
+        if (sentAt > 0 && record && Number(record.sentAt) > cutoff) return;
+        if (record) {
+          lines.push(JSON.stringify({uid, eventId, type, sentAt, record}));
+          updates[path] = null;
+        }
+        updates[`NotificationTime/${uid}/${eventId}|${type}`] = null;
+        updates[`NotificationExpiry/${entry.key}`] = null;
+        updates[`EventNotified/${eventId}/${uid}/${type}`] = null;
+      }));
+    });
+    await Promise.all(reads);
+
+    if (lines.length > 0) {
+      const file = admin.storage().bucket()
+          .file(`notification-archive/${runId.substring(0, 10)}/` +
+            `${runId}-${batch}.ndjson.gz`);
+      await file.save(zlib.gzipSync(lines.join("\n")), {
+        contentType: "application/x-ndjson",
+        metadata: {contentEncoding: "gzip"},
+      });
+      archived += lines.length;
+    }
+    if (Object.keys(updates).length === 0) break;
+    await db.ref().update(updates);
+    if (page.numChildren() < RETENTION.entriesPerBatch) break;
+  }
+
+  functions.logger.info(`Notification compaction archived ${archived} ` +
+    "record(s)");
+});
+
+/**
+ * Admin-only callable batch backfill of `/NotificationExpiry` from the
+ * per-user `/NotificationTime` indexes written before it existed, marking
+ * entries beyond each user's newest `maxPerUser` with 0 like
+ * {@link capNotifications}. Scans users in key order, `batch` per call,
+ * starting after `cursor`; call again with the returned `nextCursor` until
+ * it is `null`. Re-running is harmless.
+ *
+ * @param {object} request Callable request; `data` accepts optional
+ *   `cursor` and `batch`.
+ * @return {Promise<object>} Report of the batch.
+ */
+exports.backfillNotificationExpiry = onCall(async (request) => {
+  requireAdmin(request);
+  const {cursor, batch: requested} = request.data || {};
+  try {
+    const batch = Math.min(Number(requested) || 200, 500);
+    let query = admin.database().ref("/NotificationTime").orderByKey();
+    if (cursor) query = query.startAfter(cursor);
+    const page = await query.limitToFirst(batch).once("value");
+
+    const update = {};
+    const report = {users: 0, entries: 0, nextCursor: null};
+    page.forEach((userSnap) => {
+      report.users++;
+      report.nextCursor = userSnap.key;
+      const index = userSnap.val() || {};
+      const keys = Object.keys(index).sort((a, b) =>
+        (Number(index[b]) || 0) - (Number(index[a]) || 0));
+      keys.forEach((key, i) => {
+        report.entries++;
+        update[`NotificationExpiry/${userSnap.key}|${key}`] =
+          i < RETENTION.maxPerUser ? Number(index[key]) || 0 : 0;
+      });
+    });
+    if (Object.keys(update).length > 0) {
+      await admin.database().ref().update(update);
+    }
+
+    if (report.users < batch) report.nextCursor = null;
+    return report;
+  } catch (error) {
+    functions.logger.error("Notification expiry backfill failed:", error);
+    throw new HttpsError("internal", "Backfill failed.");
+  }
+});
+
+/** Storage folder for event posters (see `PosterStore.POSTERS_PATH`). */
+const POSTERS_PATH = "posters";
+
+/** Content-addressed poster blobs (see `PosterStore.BLOBS_PATH`). */
+const POSTER_BLOBS = "Poster";
+
+/** Default number of `/Image` entries processed per migration call. */
+const POSTER_MIGRATION_BATCH = 50;
+
+/**
+ * Decodes a legacy inline poster, tolerating an optional data-URI prefix and
+ * the line breaks Android's `Base64.DEFAULT` inserts.
+ *
+ * @param {string} inline The base64 string stored under `Image/{id}/url`.
+ * @return {Buffer} The decoded JPEG bytes.
+ */
+function decodeInlinePoster(inline) {
+  const comma = inline.startsWith("data:") ? inline.indexOf(",") : -1;
+  return Buffer.from(inline.substring(comma + 1).replace(/\s/g, ""),
+      "base64");
+}
+
+/**
+ * Moves one legacy inline poster into Storage.
+ *
+ * The decoded bytes are uploaded to `posters/{eventId}.jpg`, and the MD5 that
+ * Storage reports is compared with a locally computed one. Only when they
+ * match is `Image/{eventId}` rewritten as a reference object with the inline
+ * `url` removed. The pre-migration duplicate at `{eventId}.jpg` is deleted.
+ *
+ * @param {string} eventId The `/Image` key.
+ * @param {string} inline The base64 poster data.
+ * @return {Promise<boolean>} Whether the entry was migrated.
+ */
+async function migrateInlinePoster(eventId, inline) {
+  const bytes = decodeInlinePoster(inline);
+  if (bytes.length === 0) return false;
+
+  const md5 = crypto.createHash("md5").update(bytes).digest("base64");
+  const path = `${POSTERS_PATH}/${eventId}.jpg`;
+  const bucket = admin.storage().bucket();
+  const file = bucket.file(path);
+  await file.save(bytes, {contentType: "image/jpeg", resumable: false});
+
+  const [metadata] = await file.getMetadata();
+  if (metadata.md5Hash !== md5) {
+    functions.logger.error(`Checksum mismatch for poster ${eventId}; ` +
+      `keeping inline data.`);
+    await file.delete({ignoreNotFound: true});
+    return false;
+  }
+
+  await admin.database().ref(`/Image/${eventId}`).update({
+    poster: await getDownloadURL(file),
+    path,
+    md5,
+    size: bytes.length,
+    contentType: "image/jpeg",
+    uploadedAt: admin.database.ServerValue.TIMESTAMP,
+    url: null,
+  });
+  await bucket.file(`${eventId}.jpg`).delete({ignoreNotFound: true});
+  return true;
+}
+
+/**
+ * Admin-only callable batch migration from inline base64 posters to Storage.
+ *
+ * Scans `/Image` in key order, `batch` entries per call (default
+ * {@link POSTER_MIGRATION_BATCH}), starting after `cursor`. Entries that
+ * still hold an inline `url` are converted by {@link migrateInlinePoster};
+ * entries that fail verification keep their inline data and are reported.
+ * Call again with the returned `nextCursor` until it is `null`.
+ *
+ * @param {object} request Callable request; `data` accepts optional
+ *   `cursor` and `batch`.
+ * @return {Promise<object>} Report of the batch.
+ */
+exports.migrateInlinePosters = onCall(async (request) => {
+  requireAdmin(request);
+  const {cursor, batch: requested} = request.data || {};
+  try {
+    const batch = Math.min(Number(requested) || POSTER_MIGRATION_BATCH, 500);
+    let query = admin.database().ref("/Image").orderByKey();
+    if (cursor) query = query.startAfter(cursor);
+    const page = await query.limitToFirst(batch).once("value");
+
+    const report = {scanned: 0, migrated: 0, skipped: 0, failed: [],
+      nextCursor: null};
+    const pending = [];
+    page.forEach((entry) => {
+      report.scanned++;
+      report.nextCursor = entry.key;
+      const inline = entry.child("url").val();
+      if (typeof inline !== "string" || inline.length === 0) {
+        report.skipped++;
+        return;
+      }
+      pending.push(migrateInlinePoster(entry.key, inline)
+          .catch((error) => {
+            functions.logger.error(`Poster ${entry.key} failed:`, error);
+            return false;
+          })
+          .then((ok) => {
+            if (ok) report.migrated++;
+            else report.failed.push(entry.key);
+          }));
+    });
+    await Promise.all(pending);
+
+    if (report.scanned < batch) report.nextCursor = null;
+    functions.logger.info(`Poster migration: ${JSON.stringify(report)}`);
+    return report;
+  } catch (error) {
+    functions.logger.error("Poster migration failed:", error);
+    throw new HttpsError("internal", "Migration failed.");
+  }
+});
+
+/**
+ * Deletes the Storage objects a poster reference points at: every rendition
+ * plus the top-level `path`.
+ *
+ * @param {object} ref An `/Image` or `/Poster` reference.
+ * @param {string} fallbackPath Object to delete when `ref` has no `path`.
+ * @return {Promise<void>} Resolves once every object is gone.
+ */
+async function deletePosterObjects(ref, fallbackPath) {
+  const paths = new Set(Object.values(ref.renditions || {})
+      .map((rendition) => rendition.path)
+      .filter(Boolean));
+  paths.add(ref.path || fallbackPath);
+  const bucket = admin.storage().bucket();
+  await Promise.all([...paths].map((path) =>
+    bucket.file(path).delete({ignoreNotFound: true})));
+}
+
+/**
+ * Adds or releases one event's claim on a content-addressed poster.
+ * `refCount` is kept equal to the size of `events`. When the last claim is
+ * released the blob is collected in three steps: the node is marked
+ * `deleting` in the same transaction, its Storage objects are deleted, and
+ * the node is removed unless an upload revived it meanwhile. The app claims
+ * a blob for reuse in its own transaction on `/Poster/{hash}` and never
+ * reuses one marked `deleting`; a fresh upload for such a hash goes to a
+ * new Storage folder and clears the mark. So no claim can land on objects
+ * that are about to be deleted.
+ *
+ * @param {string} hash Content hash of the poster.
+ * @param {string} eventId The referencing event.
+ * @param {boolean} claim True to add the reference, false to release it.
+ * @return {Promise<void>} Resolves once the claim is recorded.
+ */
+async function updatePosterClaim(hash, eventId, claim) {
+  const ref = admin.database().ref(`${POSTER_BLOBS}/${hash}`);
+  let orphan = null;
+  const result = await ref.transaction((blob) => {
+    orphan = null;
+    // A null first guess is retried with the server value.
+    if (blob === null) return null;
+    const events = blob.events || {};
+    if (claim) events[eventId] = true;
+    else delete events[eventId];
+    blob.events = events;
+    blob.refCount = Object.keys(events).length;
+    if (blob.refCount === 0 && !blob.deleting) {
+      blob.deleting = true;
+      orphan = {...blob};
+    }
+    return blob;
+  });
+  if (!result.committed || !orphan) return;
+
+  await deletePosterObjects(orphan, `${POSTERS_PATH}/${hash}`);
+  const removed = await ref.transaction((blob) => {
+    if (blob === null) return null;
+    // Revived by a fresh upload: its objects live under another folder.
+    if (!blob.deleting || blob.refCount > 0) return;
+    return null;
+  });
+  if (removed.committed) {
+    functions.logger.info(`Deleted unreferenced poster ${hash}`);
+  }
+}
+
+/**
+ * Builds the slim `/ImageIndex/{eventId}` row the moderation grid pages
+ * over: the thumb rendition's reference, or the top-level `poster` for
+ * entries stored before renditions. Entries that still hold only an inline
+ * `url` get no row until they are migrated.
+ *
+ * @param {object|null} image The `/Image/{eventId}` value.
+ * @return {object|null} The index row, or null for none.
+ */
+function posterIndexOf(image) {
+  if (!image) return null;
+  const thumb = (image.renditions || {}).thumb;
+  const url = thumb ? thumb.url : image.poster;
+  if (!url) return null;
+  return {
+    hash: image.hash || null,
+    uploadedAt: image.uploadedAt || null,
+    rendition: thumb ? "thumb" : "poster",
+    url,
+    md5: (thumb ? thumb.md5 : image.md5) || null,
+    preview: (thumb && thumb.preview) || null,
+  };
+}
+
+/**
+ * Keeps `/Poster/{hash}` reference counts in step with `/Image/{eventId}`.
+ * Pointing an event at a new hash claims it and releases the old one, so a
+ * blob shared by a series of events is deleted only with its last
+ * reference. Posters stored before deduplication have no `hash`; their
+ * per-event objects are deleted as soon as they are replaced or removed.
+ * Removing a poster also clears the `listPoster` copy on its event. Every
+ * write refreshes the entry's `/ImageIndex` row.
+ */
+exports.trackPosterReferences = onValueWritten("/Image/{eventId}",
+    async (event) => {
+      const eventId = event.params.eventId;
+      const before = event.data.before.val();
+      const after = event.data.after.val();
+      const beforeHash = (before && before.hash) || null;
+      const afterHash = (after && after.hash) || null;
+      await admin.database().ref(`/ImageIndex/${eventId}`)
+          .set(posterIndexOf(after));
+      if (before && !after) {
+        await admin.database().ref(`/Event/${eventId}/listPoster`).remove();
+      }
+      if (beforeHash === afterHash) {
+        if (before && !after && !beforeHash) {
+          await deletePosterObjects(before, `${POSTERS_PATH}/${eventId}.jpg`);
+        }
+        return;
+      }
+
+      if (afterHash) await updatePosterClaim(afterHash, eventId, true);
+      if (beforeHash) {
+        await updatePosterClaim(beforeHash, eventId, false);
+      } else if (before) {
+        await deletePosterObjects(before, `${POSTERS_PATH}/${eventId}.jpg`);
+      }
+    });
+
+/**
+ * Admin-only callable batch backfill of `/ImageIndex` for posters stored
+ * before the index existed. Scans `/Image` in key order, `batch` entries per
+ * call, starting after `cursor`; call again with the returned `nextCursor`
+ * until it is `null`. Re-running is harmless.
+ *
+ * @param {object} request Callable request; `data` accepts optional
+ *   `cursor` and `batch`.
+ * @return {Promise<object>} Report of the batch.
+ */
+exports.backfillImageIndex = onCall(async (request) => {
+  requireAdmin(request);
+  const {cursor, batch: requested} = request.data || {};
+  try {
+    const batch = Math.min(Number(requested) || POSTER_MIGRATION_BATCH, 500);
+    let query = admin.database().ref("/Image").orderByKey();
+    if (cursor) query = query.startAfter(cursor);
+    const page = await query.limitToFirst(batch).once("value");
+
+    const update = {};
+    const report = {scanned: 0, indexed: 0, nextCursor: null};
+    page.forEach((entry) => {
+      report.scanned++;
+      report.nextCursor = entry.key;
+      const row = posterIndexOf(entry.val());
+      if (row) report.indexed++;
+      update[`ImageIndex/${entry.key}`] = row;
+    });
+    if (Object.keys(update).length > 0) {
+      await admin.database().ref().update(update);
+    }
+
+    if (report.scanned < batch) report.nextCursor = null;
+    return report;
+  } catch (error) {
+    functions.logger.error("Image index backfill failed:", error);
+    throw new HttpsError("internal", "Backfill failed.");
+  }
+});
+
+/**
+ * Splits an event's `tag` string into the keys of `/TagIndex`. Mirrors
+ * `TagIndex.normalize` in the app: lower-cased, split on commas and
+ * whitespace, stripped of characters Firebase keys cannot hold.
+ *
+ * @param {string|null} tags The event's tag string.
+ * @return {Set<string>} The normalized tags.
+ */
+function normalizeTags(tags) {
+  const normalized = new Set();
+  if (typeof tags !== "string") return normalized;
+  for (const token of tags.toLowerCase().split(/[\s,]+/)) {
+    const key = token.replace(/[.#$[\]/]/g, "");
+    if (key) normalized.add(key);
+  }
+  return normalized;
+}
+
+/**
+ * Keeps the inverted index `/TagIndex/{tag}/{eventId}` in step with each
+ * event's `tag` field. Creating, editing and deleting an event all write
+ * this path, so only the tags that changed are added or removed, in one
+ * multi-path update.
+ */
+exports.indexEventTags = onValueWritten("/Event/{eventId}/tag",
+    async (event) => {
+      const eventId = event.params.eventId;
+      const before = normalizeTags(event.data.before.val());
+      const after = normalizeTags(event.data.after.val());
+      const update = {};
+      for (const tag of before) {
+        if (!after.has(tag)) update[`${tag}/${eventId}`] = null;
+      }
+      for (const tag of after) {
+        if (!before.has(tag)) update[`${tag}/${eventId}`] = true;
+      }
+      if (Object.keys(update).length === 0) return;
+      await admin.database().ref("/TagIndex").update(update);
+    });
+
+/** Event fields copied to `/EventSummary/{eventId}` for list screens. */
+const SUMMARY_FIELDS = ["id", "name", "eventStartTime", "eventEndTime",
+  "eventStartDate", "eventEndDate", "tag", "organizer", "onHold", "startDay",
+  "listPoster"];
+
+/**
+ * Projects an event onto the list-card fields read by list screens; see
+ * `Event.fromSummary` in the app.
+ *
+ * @param {object|null} event The `/Event/{eventId}` value.
+ * @return {object|null} The summary, or null if the event is gone.
+ */
+function summaryOf(event) {
+  if (!event) return null;
+  const summary = {};
+  for (const field of SUMMARY_FIELDS) {
+    if (event[field] !== undefined) summary[field] = event[field];
+  }
+  return summary;
+}
+
+/**
+ * Returns the name searched for an event, or null if the event is gone,
+ * unnamed or on hold; see `EventNameIndex` in the app.
+ *
+ * @param {object|null} event The `/Event/{eventId}` value.
+ * @return {string|null} The value for `/EventName/{eventId}`.
+ */
+function searchNameOf(event) {
+  if (!event || event.onHold === true) return null;
+  return typeof event.name === "string" ? event.name : null;
+}
+
+/**
+ * Returns the Sunday starting the week of an epoch day, as an epoch day.
+ * Mirrors `TagFacets.weekOf` in the app; weeks start on Sunday like the
+ * app's availability filters.
+ *
+ * @param {number} day Days since 1970-01-01, a Thursday.
+ * @return {number} The epoch day of that week's Sunday.
+ */
+function weekOf(day) {
+  return day - (((day + 4) % 7) + 7) % 7;
+}
+
+/**
+ * Lists the facet counters an event adds one to: `TagFacet/{tag}` for each
+ * of its tags, and `TagFacetWeek/{week}/{tag}` when it has a start day.
+ * Events that are gone or on hold count nowhere, as search hides them.
+ *
+ * @param {object|null} summary The event's `/EventSummary` value.
+ * @return {string[]} Counter paths relative to the database root.
+ */
+function facetPathsOf(summary) {
+  if (!summary || summary.onHold === true) return [];
+  const paths = [];
+  const week = typeof summary.startDay === "number" ?
+    weekOf(summary.startDay) : null;
+  for (const tag of normalizeTags(summary.tag)) {
+    paths.push(`TagFacet/${tag}`);
+    if (week !== null) paths.push(`TagFacetWeek/${week}/${tag}`);
+  }
+  return paths;
+}
+
+/**
+ * Keeps `/EventSummary/{eventId}` equal to the projection of its event, and
+ * `/EventName/{eventId}` equal to its searchable name. Each summary is
+ * stamped with a server-time `updatedAt`, which app catalogs delta-sync on
+ * (see `EventCatalog`). Also moves the event between the tag facet counters
+ * whose inputs changed, with server-side increments, so create, edit and
+ * delete each cost one small update. Writes that touch no summary field
+ * (e.g. `eventDetails` alone) are skipped; deleting the event deletes both
+ * projections and removes it from every `/Recommendation/{uid}`.
+ */
+exports.projectEventSummary = onValueWritten("/Event/{eventId}",
+    async (event) => {
+      const before = summaryOf(event.data.before.val());
+      const after = summaryOf(event.data.after.val());
+      if (JSON.stringify(before) === JSON.stringify(after)) return;
+      const eventId = event.params.eventId;
+      const update = {
+        [`EventSummary/${eventId}`]: after && {...after,
+          updatedAt: admin.database.ServerValue.TIMESTAMP},
+        [`EventName/${eventId}`]: searchNameOf(after),
+      };
+      if (before && !after) {
+        for (const uid of await recommendedTo(before.tag)) {
+          update[`Recommendation/${uid}/${eventId}`] = null;
+        }
+      }
+      const deltas = new Map();
+      for (const path of facetPathsOf(before)) {
+        deltas.set(path, (deltas.get(path) || 0) - 1);
+      }
+      for (const path of facetPathsOf(after)) {
+        deltas.set(path, (deltas.get(path) || 0) + 1);
+      }
+      for (const [path, delta] of deltas) {
+        if (delta !== 0) {
+          update[path] = admin.database.ServerValue.increment(delta);
+        }
+      }
+      await admin.database().ref().update(update);
+    });
+
+/**
+ * Finds the users an event can be recommended to. `recommendFor` and
+ * `recommendNewEventTags` only offer an event to users with a positive
+ * affinity for one of its tags, so its fans under `/TagFans` cover every
+ * `/Recommendation` that may list it.
+ *
+ * @param {string|null} tags The event's tag string.
+ * @return {Promise<Set<string>>} The user ids.
+ */
+async function recommendedTo(tags) {
+  const fans = await Promise.all([...normalizeTags(tags)].map((tag) =>
+    admin.database().ref(`/TagFans/${tag}`).orderByValue().startAt(1)
+        .once("value")));
+  const uids = new Set();
+  for (const tagFans of fans) {
+    tagFans.forEach((fan) => {
+      uids.add(fan.key);
+    });
+  }
+  return uids;
+}
+
+/** How long deletion tombstones are kept; see `EventCatalog` in the app. */
+const TOMBSTONE_RETENTION_MS = 30 * 24 * 60 * 60 * 1000;
+
+/**
+ * Scheduled job that prunes `/EventTombstone` entries older than
+ * `TOMBSTONE_RETENTION_MS`. Catalogs last synced before the cutoff drop their
+ * rows and start over, so they never depend on a pruned tombstone.
+ */
+exports.pruneEventTombstones = onSchedule("every 24 hours", async () => {
+  const cutoff = Date.now() - TOMBSTONE_RETENTION_MS;
+  const expired = await admin.database().ref("/EventTombstone")
+      .orderByValue().endAt(cutoff).once("value");
+  const update = {};
+  expired.forEach((entry) => {
+    update[entry.key] = null;
+  });
+  if (Object.keys(update).length > 0) {
+    await admin.database().ref("/EventTombstone").update(update);
+  }
+  functions.logger.info(`Pruned ${expired.numChildren()} event tombstone(s)`);
+});
+
+/**
+ * Admin-only callable rebuild of `/TagFacet` and `/TagFacetWeek` from
+ * `/EventSummary`. Seeds the counters for events written before they
+ * existed, and repairs drift from retried triggers. Reads every summary
+ * once, so run it rarely.
+ *
+ * @param {object} request Callable request; `data` is unused.
+ * @return {Promise<object>} Report of the rebuild.
+ */
+exports.recountTagFacets = onCall(async (request) => {
+  requireAdmin(request);
+  try {
+    const summaries = await admin.database().ref("/EventSummary")
+        .once("value");
+    const counts = {TagFacet: {}, TagFacetWeek: {}};
+    let events = 0;
+    summaries.forEach((entry) => {
+      events++;
+      for (const path of facetPathsOf(entry.val())) {
+        const [root, ...keys] = path.split("/");
+        let node = counts[root];
+        for (const key of keys.slice(0, -1)) node = node[key] = node[key] || {};
+        const tag = keys[keys.length - 1];
+        node[tag] = (node[tag] || 0) + 1;
+      }
+    });
+    await admin.database().ref().update(counts);
+    return {events, tags: Object.keys(counts.TagFacet).length};
+  } catch (error) {
+    functions.logger.error("Tag facet recount failed:", error);
+    throw new HttpsError("internal", "Recount failed.");
+  }
+});
+
+/**
+ * Converts an event date to the `startDay` key used by availability
+ * filters: days since 1970-01-01 UTC. Mirrors `Event.epochDayOf` in the
+ * app, accepting `MM-dd-yyyy` and `yyyy-MM-dd`.
+ *
+ * @param {string|null} date The event date.
+ * @return {number|null} The epoch day, or null if missing or malformed.
+ */
+function epochDayOf(date) {
+  if (typeof date !== "string") return null;
+  const parts = date.trim().split("-").map(Number);
+  if (parts.length !== 3 || parts.some(Number.isNaN)) return null;
+  const [year, month, day] = date.trim().indexOf("-") === 4 ?
+    parts : [parts[2], parts[0], parts[1]];
+  const time = Date.UTC(year, month - 1, day);
+  const check = new Date(time);
+  if (check.getUTCMonth() !== month - 1 || check.getUTCDate() !== day) {
+    return null;
+  }
+  return Math.floor(time / 86400000);
+}
+
+/**
+ * Admin-only callable batch backfill of the event indexes for events
+ * written before they existed: `/TagIndex` postings, each event's
+ * `startDay`, its `/EventSummary` and its `/EventName`.
+ * Scans `/Event` in key order, `batch` entries per call, starting after
+ * `cursor`; call again with the returned `nextCursor` until it is `null`.
+ * Re-running is harmless.
+ *
+ * @param {object} request Callable request; `data` accepts optional
+ *   `cursor` and `batch`.
+ * @return {Promise<object>} Report of the batch.
+ */
+exports.backfillEventIndexes = onCall(async (request) => {
+  requireAdmin(request);
+  const {cursor, batch: requested} = request.data || {};
+  try {
+    const batch = Math.min(Number(requested) || 200, 500);
+    let query = admin.database().ref("/Event").orderByKey();
+    if (cursor) query = query.startAfter(cursor);
+    const page = await query.limitToFirst(batch).once("value");
+
+    const update = {};
+    const report = {scanned: 0, nextCursor: null};
+    page.forEach((entry) => {
+      report.scanned++;
+      report.nextCursor = entry.key;
+      for (const tag of normalizeTags(entry.child("tag").val())) {
+        update[`TagIndex/${tag}/${entry.key}`] = true;
+      }
+      const value = entry.val();
+      const startDay = epochDayOf(value.eventStartDate);
+      if (startDay !== null) {
+        update[`Event/${entry.key}/startDay`] = startDay;
+        value.startDay = startDay;
+      }
+      update[`EventSummary/${entry.key}`] = {...summaryOf(value),
+        updatedAt: admin.database.ServerValue.TIMESTAMP};
+      update[`EventName/${entry.key}`] = searchNameOf(value);
+    });
+    if (Object.keys(update).length > 0) {
+      await admin.database().ref().update(update);
+    }
+
+    if (report.scanned < batch) report.nextCursor = null;
+    return report;
+  } catch (error) {
+    functions.logger.error("Event index backfill failed:", error);
+    throw new HttpsError("internal", "Backfill failed.");
+  }
+});
+
+/**
+ * How much one waiting-list bucket says about an entrant's taste, by
+ * `EntrantStatus`. Buckets the entrant left on their own count for nothing.
+ */
+const PARTICIPATION_WEIGHTS = {
+  WAITING: 1, UNINVITED: 1, INVITED: 2, ACCEPTED: 3, CONFIRMED: 3,
+  DECLINED: 0, CANCELLED: 0,
+};
+
+/** Number of events kept in each `/Recommendation/{uid}`. */
+const RECOMMENDATION_COUNT = 10;
+
+/** Strongest tags of a user whose events are considered as candidates. */
+const AFFINITY_TAGS = 5;
+
+/** Users reached per tag when a new event is offered to its fans. */
+const TAG_FAN_LIMIT = 500;
+
+/**
+ * Keeps the `count` highest-scoring events, ties in id order.
+ *
+ * @param {Map<string, number>} scores Scores keyed by event id.
+ * @param {number} count How many to keep.
+ * @return {object} The kept scores keyed by event id.
+ */
+function topScores(scores, count) {
+  const top = {};
+  [...scores]
+      .filter(([, score]) => score > 0)
+      .sort((a, b) => b[1] - a[1] || (a[0] < b[0] ? -1 : 1))
+      .slice(0, count)
+      .forEach(([eventId, score]) => {
+        top[eventId] = score;
+      });
+  return top;
+}
+
+/**
+ * Recomputes `/Recommendation/{uid}` from the user's tag affinities: each
+ * event carrying one of their strongest tags scores the sum of the
+ * affinities of those tags, and events they already take part in are
+ * skipped. Reads the affinity vector, the participation index and one
+ * `/TagIndex` posting list per strong tag.
+ *
+ * @param {string} uid The user id.
+ * @return {Promise<void>} Resolves once the recommendations are written.
+ */
+async function recommendFor(uid) {
+  const db = admin.database();
+  const [affinity, joined] = await Promise.all([
+    db.ref(`/TagAffinity/${uid}`).once("value"),
+    db.ref(`/Participation/${uid}`).once("value"),
+  ]);
+  const strongest = Object.entries(affinity.val() || {})
+      .filter(([, weight]) => weight > 0)
+      .sort((a, b) => b[1] - a[1])
+      .slice(0, AFFINITY_TAGS);
+  const postings = await Promise.all(strongest.map(([tag]) =>
+    db.ref(`/TagIndex/${tag}`).once("value")));
+  const scores = new Map();
+  postings.forEach((posting, i) => {
+    const weight = strongest[i][1];
+    posting.forEach((entry) => {
+      if (joined.hasChild(entry.key)) return;
+      scores.set(entry.key, (scores.get(entry.key) || 0) + weight);
+    });
+  });
+  await db.ref(`/Recommendation/${uid}`)
+      .set(topScores(scores, RECOMMENDATION_COUNT));
+}
+
+/**
+ * Folds each waiting-list join, leave and status move into the joining
+ * user's tag-affinity vector and recomputes their recommendations.
+ *
+ * Maintains the participation index `/Participation/{uid}/{eventId}/{status}`
+ * and, with server-side increments of the bucket's weight on each of the
+ * event's tags, `/TagAffinity/{uid}/{tag}` and its transpose
+ * `/TagFans/{tag}/{uid}` (indexed on value). Writes to a bucket entry that
+ * neither add nor remove it (e.g. a location update) are skipped.
+ */
+exports.recommendFromParticipation = onValueWritten(
+    "/WaitingList/{eventId}/{status}/{uid}", async (event) => {
+      const {eventId, status, uid} = event.params;
+      const joined = event.data.after.exists();
+      if (event.data.before.exists() === joined) return;
+      const db = admin.database();
+      const update = {
+        [`Participation/${uid}/${eventId}/${status}`]: joined || null,
+      };
+      const weight = PARTICIPATION_WEIGHTS[status] || 0;
+      if (weight !== 0) {
+        const tags = normalizeTags(
+            (await db.ref(`/Event/${eventId}/tag`).once("value")).val());
+        const delta = admin.database.ServerValue
+            .increment(joined ? weight : -weight);
+        for (const tag of tags) {
+          update[`TagAffinity/${uid}/${tag}`] = delta;
+          update[`TagFans/${tag}/${uid}`] = delta;
+        }
+      }
+      await db.ref().update(update);
+      await recommendFor(uid);
+    });
+
+/**
+ * Offers an event to the users with the strongest affinity for its tags
+ * when tags are added to it, including when it is created. The event
+ * scores the sum of each fan's affinities for its tags and replaces the
+ * weakest of their recommendations if it scores higher; a transaction per
+ * fan keeps concurrent recomputes intact. Fans already taking part in an
+ * edited event are skipped.
+ */
+exports.recommendNewEventTags = onValueWritten("/Event/{eventId}/tag",
+    async (event) => {
+      const eventId = event.params.eventId;
+      const before = normalizeTags(event.data.before.val());
+      const after = normalizeTags(event.data.after.val());
+      if (![...after].some((tag) => !before.has(tag))) return;
+      const db = admin.database();
+      const fans = await Promise.all([...after].map((tag) =>
+        db.ref(`/TagFans/${tag}`).orderByValue().startAt(1)
+            .limitToLast(TAG_FAN_LIMIT).once("value")));
+      const scores = new Map();
+      for (const tagFans of fans) {
+        tagFans.forEach((fan) => {
+          scores.set(fan.key, (scores.get(fan.key) || 0) + fan.val());
+        });
+      }
+      const created = !event.data.before.exists();
+      await Promise.all([...scores].map(async ([uid, score]) => {
+        if (!created) {
+          const joined = await db.ref(`/Participation/${uid}/${eventId}`)
+              .once("value");
+          if (joined.exists()) return;
+        }
+        await db.ref(`/Recommendation/${uid}`).transaction((current) => {
+          const kept = new Map(Object.entries(current || {}));
+          kept.set(eventId, score);
+          return topScores(kept, RECOMMENDATION_COUNT);
+        });
+      }));
+    });
+
+/**
+ * Admin-only callable rebuild of `/Participation`, `/TagAffinity`,
+ * `/TagFans` and every `/Recommendation` from `/WaitingList` and the
+ * events' tags. Seeds the vectors for participation recorded before they
+ * existed and repairs drift from retried triggers. Reads both roots whole
+ * and recomputes each user in turn, so run it rarely.
+ *
+ * @param {object} request Callable request; `data` is unused.
+ * @return {Promise<object>} Report of the rebuild.
+ */
+exports.rebuildRecommendations = onCall(async (request) => {
+  requireAdmin(request);
+  try {
+    const db = admin.database();
+    const [waitingLists, tagIndex] = await Promise.all([
+      db.ref("/WaitingList").once("value"),
+      db.ref("/TagIndex").once("value"),
+    ]);
+    const tagsOf = new Map();
+    tagIndex.forEach((posting) => {
+      posting.forEach((entry) => {
+        if (!tagsOf.has(entry.key)) tagsOf.set(entry.key, []);
+        tagsOf.get(entry.key).push(posting.key);
+      });
+    });
+    const roots = {Participation: {}, TagAffinity: {}, TagFans: {}};
+    waitingLists.forEach((list) => {
+      list.forEach((bucket) => {
+        const weight = PARTICIPATION_WEIGHTS[bucket.key] || 0;
+        bucket.forEach((entrant) => {
+          const uid = entrant.key;
+          const joined = roots.Participation[uid] =
+            roots.Participation[uid] || {};
+          joined[list.key] = {...joined[list.key], [bucket.key]: true};
+          if (weight === 0) return;
+          const affinity = roots.TagAffinity[uid] =
+            roots.TagAffinity[uid] || {};
+          for (const tag of tagsOf.get(list.key) || []) {
+            affinity[tag] = (affinity[tag] || 0) + weight;
+            roots.TagFans[tag] = roots.TagFans[tag] || {};
+            roots.TagFans[tag][uid] = affinity[tag];
+          }
+        });
+      });
+    });
+    await db.ref().update(roots);
+    const users = Object.keys(roots.Participation);
+    for (const uid of users) {
+      await recommendFor(uid);
+    }
+    return {users: users.length};
+  } catch (error) {
+    functions.logger.error("Recommendation rebuild failed:", error);
+    throw new HttpsError("internal", "Rebuild failed.");
+  }
+});